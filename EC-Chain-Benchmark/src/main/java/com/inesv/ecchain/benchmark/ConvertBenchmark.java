@@ -0,0 +1,63 @@
+package com.inesv.ecchain.benchmark;
+
+import com.inesv.ecchain.common.util.Convert;
+import com.inesv.ecchain.common.util.PropertiesUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConvertBenchmark {
+
+    private byte[] bytes;
+    private String hex;
+    private long accountId;
+    private String rsAccount;
+
+    @Setup
+    public void setup() {
+        PropertiesUtil.getProperties();
+        Random random = new Random(0);
+        bytes = new byte[64];
+        random.nextBytes(bytes);
+        hex = Convert.toHexString(bytes);
+        accountId = random.nextLong();
+        rsAccount = Convert.rsAccount(accountId);
+    }
+
+    @Benchmark
+    public String toHexString() {
+        return Convert.toHexString(bytes);
+    }
+
+    @Benchmark
+    public byte[] parseHexString() {
+        return Convert.parseHexString(hex);
+    }
+
+    @Benchmark
+    public String rsEncode() {
+        return Convert.rsAccount(accountId);
+    }
+
+    @Benchmark
+    public long rsDecode() {
+        return Convert.parseAccountId(rsAccount);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.inesv.ecchain.benchmark;
+
+import com.inesv.ecchain.common.crypto.Crypto;
+import com.inesv.ecchain.common.util.PropertiesUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CryptoBenchmark {
+
+    private static final String SECRET_PHRASE = "benchmark secret phrase";
+
+    private byte[] message;
+    private byte[] publicKey;
+    private byte[] signature;
+    private byte[] keySeed;
+
+    @Setup
+    public void setup() {
+        PropertiesUtil.getProperties();
+        message = new byte[256];
+        new Random(0).nextBytes(message);
+        publicKey = Crypto.getPublicKey(SECRET_PHRASE);
+        signature = Crypto.ecSign(message, SECRET_PHRASE);
+        keySeed = Crypto.getEcKeySeed(SECRET_PHRASE);
+    }
+
+    @Benchmark
+    public byte[] sign() {
+        return Crypto.ecSign(message, SECRET_PHRASE);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return Crypto.ecVerify(signature, message, publicKey, true);
+    }
+
+    /**
+     * Curve25519 key generation from a key seed
+     */
+    @Benchmark
+    public byte[] keygen() {
+        return Crypto.getPublicKey(keySeed);
+    }
+
+}
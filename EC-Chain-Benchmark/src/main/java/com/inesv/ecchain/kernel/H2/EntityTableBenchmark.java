@@ -0,0 +1,134 @@
+package com.inesv.ecchain.kernel.H2;
+
+import com.inesv.ecchain.common.util.PropertiesUtil;
+import com.inesv.ecchain.kernel.core.H2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Versioned entity table reads and writes against an in-memory H2 database that only
+ * contains the benchmark table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EntityTableBenchmark {
+
+    private static final int ENTITIES = 10000;
+
+    private TransactionalH2 h2;
+    private H2KeyLongKeyFactory<Entity> keyFactory;
+    private VersionedEntityH2Table<Entity> table;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        PropertiesUtil.getProperties().setProperty("ec.dbUrl", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MVCC=TRUE");
+        h2 = H2.H2;
+        h2.init(new H2Version() {
+            @Override
+            protected void update(int nextUpdate) {
+                switch (nextUpdate) {
+                    case 1:
+                        apply("CREATE TABLE IF NOT EXISTS benchmark_entity (db_id IDENTITY, id BIGINT NOT NULL, "
+                                + "value BIGINT NOT NULL, height INT NOT NULL, latest BOOLEAN NOT NULL DEFAULT TRUE)");
+                    case 2:
+                        apply("CREATE UNIQUE INDEX IF NOT EXISTS benchmark_entity_id_height_idx ON benchmark_entity (id, height DESC)");
+                    case 3:
+                        return;
+                    default:
+                        throw new RuntimeException("Benchmark database inconsistent with code");
+                }
+            }
+        });
+        keyFactory = new H2KeyLongKeyFactory<Entity>("id") {
+            @Override
+            public H2Key newKey(Entity entity) {
+                return entity.h2Key;
+            }
+        };
+        table = new VersionedEntityH2Table<Entity>("benchmark_entity", keyFactory) {
+            @Override
+            protected Entity load(Connection con, ResultSet rs, H2Key h2Key) throws SQLException {
+                return new Entity(h2Key, rs.getLong("id"), rs.getLong("value"));
+            }
+
+            @Override
+            protected void save(Connection con, Entity entity) throws SQLException {
+                try (PreparedStatement pstmt = con.prepareStatement("MERGE INTO benchmark_entity (id, value, height, latest) "
+                        + "KEY (id, height) VALUES (?, ?, ?, TRUE)")) {
+                    pstmt.setLong(1, entity.id);
+                    pstmt.setLong(2, entity.value);
+                    pstmt.setInt(3, 0);
+                    pstmt.executeUpdate();
+                }
+            }
+        };
+        h2.beginTransaction();
+        try {
+            for (long id = 0; id < ENTITIES; id++) {
+                table.insert(new Entity(keyFactory.newKey(id), id, id));
+            }
+            h2.commitTransaction();
+        } finally {
+            h2.endTransaction();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        h2.shutdown();
+    }
+
+    @Benchmark
+    public Entity get() {
+        return table.get(keyFactory.newKey(ThreadLocalRandom.current().nextInt(ENTITIES)));
+    }
+
+    @Benchmark
+    public Entity insert() {
+        long id = ThreadLocalRandom.current().nextInt(ENTITIES);
+        h2.beginTransaction();
+        try {
+            Entity entity = new Entity(keyFactory.newKey(id), id, ThreadLocalRandom.current().nextLong());
+            table.insert(entity);
+            h2.commitTransaction();
+            return entity;
+        } finally {
+            h2.endTransaction();
+        }
+    }
+
+    public static final class Entity {
+
+        private final H2Key h2Key;
+        private final long id;
+        private final long value;
+
+        private Entity(H2Key h2Key, long id, long value) {
+            this.h2Key = h2Key;
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+}
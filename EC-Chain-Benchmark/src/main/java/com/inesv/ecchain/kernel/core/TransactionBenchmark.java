@@ -0,0 +1,87 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.common.core.EcNotValidExceptionEc;
+import com.inesv.ecchain.common.crypto.Crypto;
+import com.inesv.ecchain.common.util.PropertiesUtil;
+import org.json.simple.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction and block serialization. Lives in the core package because blocks and the
+ * uncached transaction serialization are not public.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransactionBenchmark {
+
+    private static final String SECRET_PHRASE = "benchmark secret phrase";
+    private static final int BLOCK_TRANSACTIONS = 100;
+
+    private byte[] transactionBytes;
+    private JSONObject transactionJSON;
+    private TransactionImpl.BuilderImpl transactionBuilder;
+    private EcBlockImpl block;
+
+    @Setup
+    public void setup() throws EcNotValidExceptionEc {
+        PropertiesUtil.getProperties();
+        byte[] publicKey = Crypto.getPublicKey(SECRET_PHRASE);
+        List<TransactionImpl> transactions = new ArrayList<>(BLOCK_TRANSACTIONS);
+        for (int i = 0; i < BLOCK_TRANSACTIONS; i++) {
+            transactions.add(new TransactionImpl.BuilderImpl((byte) 1, publicKey, 100000000L + i, 100000000L, (short) 1440,
+                    Mortgaged.ORDINARY_PAYMENT)
+                    .timestamp(1000 + i)
+                    .recipientId(Long.MAX_VALUE - i)
+                    .ecBlockHeight(0)
+                    .ecBlockId(0)
+                    .build(SECRET_PHRASE));
+        }
+        TransactionImpl transaction = transactions.get(0);
+        transactionBytes = transaction.getBytes();
+        transactionJSON = transaction.getJSONObject();
+        transactionBuilder = TransactionImpl.newTransactionBuilder(transactionBytes);
+        block = new EcBlockImpl(3, 2000, 0, 0, 0, 0, new byte[32], publicKey, new byte[32], new byte[32],
+                transactions, SECRET_PHRASE);
+    }
+
+    @Benchmark
+    public TransactionImpl parseBytes() throws EcNotValidExceptionEc {
+        return TransactionImpl.newTransactionBuilder(transactionBytes).build();
+    }
+
+    @Benchmark
+    public TransactionImpl parseJSON() throws EcNotValidExceptionEc {
+        return TransactionImpl.newTransactionBuilder(transactionJSON).build();
+    }
+
+    /**
+     * Transactions cache their bytes, so a new instance is built from the parsed fields each time
+     */
+    @Benchmark
+    public byte[] transactionBytes() throws EcNotValidExceptionEc {
+        return transactionBuilder.build().bytes();
+    }
+
+    @Benchmark
+    public JSONObject blockJSON() {
+        return block.getJSONObject();
+    }
+
+}
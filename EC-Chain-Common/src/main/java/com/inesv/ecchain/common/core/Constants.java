@@ -7,6 +7,7 @@ import java.math.BigInteger;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Calendar;
+import java.util.List;
 import java.util.TimeZone;
 
 public final class Constants {
@@ -20,8 +21,15 @@ public final class Constants {
     public static final boolean USE_PROXY = System.getProperty("socksProxyHost") != null || System.getProperty("http.proxyHost") != null;
     public static final boolean HIDE_ERROR_DETAILS = PropertiesUtil.getKeyForBoolean("ec.hideErrorDetails");
     public static final boolean ENABLE_TRANSACTION_REBROADCASTING = PropertiesUtil.getKeyForBoolean("ec.enableTransactionRebroadcasting");
+    public static final boolean UNCONFIRMED_TRANSACTION_JOURNAL = PropertiesUtil.getKeyForBoolean("ec.unconfirmedTransactionJournal");
     public static final boolean TEST_UNCONFIRMED_TRANSACTIONS = PropertiesUtil.getKeyForBoolean("ec.TEST_UNCONFIRMED_TRANSACTIONS");
     public static final int MAX_ROLLBACK = Math.max(PropertiesUtil.getKeyForInt("ec.maxRollback", 0), 720);
+    public static final int SCAN_COMMIT_INTERVAL = Math.min(Math.max(PropertiesUtil.getKeyForInt("ec.scanCommitInterval", 0), 1), MAX_ROLLBACK / 2);
+    public static final int TRIM_SLICE_BLOCKS = Math.max(PropertiesUtil.getKeyForInt("ec.trimSliceBlocks", 100), 1);
+    public static final List<String> ENTITY_CACHE_TABLES = PropertiesUtil.getStringListProperty("ec.entityCacheTables");
+    public static final int ENTITY_CACHE_SIZE = PropertiesUtil.getKeyForInt("ec.entityCacheSize", 10000);
+    public static final int LUCENE_COMMIT_INTERVAL = Math.max(PropertiesUtil.getKeyForInt("ec.luceneCommitInterval", 60), 1);
+    public static final int DOWNLOAD_QUEUE_SIZE = Math.max(PropertiesUtil.getKeyForInt("ec.downloadQueueSize", 180), 36);
     public static final int FORGING_DELAY = PropertiesUtil.getKeyForInt("ec.forgingDelay", 0);
     public static final int FORGING_SPEEDUP = PropertiesUtil.getKeyForInt("ec.forgingSpeedup", 0);
     public static final boolean INCLUDE_EXPIRED_PRUNABLE = PropertiesUtil.getKeyForBoolean("ec.includeExpiredPrunable");
@@ -210,6 +218,7 @@ public final class Constants {
     public static final long TX_THRESHOLD = TEMP != 0 ? TEMP : 5000;
     public static final long STMT_THRESHOLD = TEMP != 0 ? TEMP : 1000;
     public static final int PEER_WEB_SOCKET_FLAG_COMPRESSED = 1;
+    public static final int PEER_WEB_SOCKET_FLAG_BINARY = 2;
     public static final int PEER_WEB_SOCKET_VERSION = 1;
     public static final boolean ENFORCE_POST = PropertiesUtil.getKeyForBoolean("ec.uiServerEnforcePOST");
     public static final int BLACKLISTING_PERIOD = PropertiesUtil.getKeyForInt("ec.apiProxyBlacklistingPeriod", 0) / 1000;
@@ -218,6 +227,14 @@ public final class Constants {
     public static final boolean API_SERVLET_ENFORCE_POST = PropertiesUtil.getKeyForBoolean("ec.apiServerEnforcePOST");
     public static final int MAX_EVENT_USERS = PropertiesUtil.getKeyForInt("ec.apiMaxEventUsers", 0);
     public static final int EVENT_TIMEOUT = Math.max(PropertiesUtil.getKeyForInt("ec.apiEventTimeout", 0), 15);
+    public static final int MAX_EVENT_SOCKETS = PropertiesUtil.getKeyForInt("ec.apiMaxEventSockets", 0);
+    public static final int EVENT_SOCKET_BUFFER_SIZE = Math.max(PropertiesUtil.getKeyForInt("ec.apiEventSocketBufferSize", 0), 1);
+    public static final String SNAPSHOT_DIR = PropertiesUtil.getKeyForString("ec.snapshotDir", "./ec_db/snapshots");
+    public static final String BOOTSTRAP_SNAPSHOT = PropertiesUtil.getKeyForString("ec.bootstrapSnapshot", null);
+    public static final String BOOTSTRAP_STATE_HASH = PropertiesUtil.getKeyForString("ec.bootstrapStateHash", null);
+    public static final boolean BOOTSTRAP_ALLOW_UNVERIFIED = PropertiesUtil.getKeyForBoolean("ec.bootstrapAllowUnverified");
+    public static final String BLOB_STORE_DIR = PropertiesUtil.getKeyForString("ec.blobStoreDir", "./ec_db/blobs");
+    public static final int BLOB_STORE_MIN_SIZE = PropertiesUtil.getKeyForInt("ec.blobStoreMinSize", 4096);
     public static final Path PLUGINS_HOME = Paths.get("./html/www/plugins");
 
     static {
@@ -18,10 +18,13 @@ import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.jcajce.provider.digest.Keccak;
 import org.bouncycastle.jcajce.provider.digest.RIPEMD160;
 
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.RecursiveAction;
 
 public final class Crypto {
 
@@ -41,6 +44,10 @@ public final class Crypto {
         }
     };
 
+    private static final ThreadLocal<VerifyBuffers> VERIFY_BUFFERS = ThreadLocal.withInitial(VerifyBuffers::new);
+
+    private static final int VERIFY_BATCH_THRESHOLD = 8;
+
     public static SecureRandom getEcSecureRandom() {
         return SECURE_RANDOM.get();
     }
@@ -140,25 +147,51 @@ public final class Crypto {
                 return false;
             }
 
-            byte[] Y = new byte[32];
-            byte[] v = new byte[32];
-            System.arraycopy(signature, 0, v, 0, 32);
-            byte[] h = new byte[32];
-            System.arraycopy(signature, 32, h, 0, 32);
-            Curve25519.ecverify(Y, v, h, publicKey);
-
-            MessageDigest digest = Crypto.sha256();
-            byte[] m = digest.digest(message);
-            digest.update(m);
-            byte[] h2 = digest.digest(Y);
-
-            return Arrays.equals(h, h2);
-        } catch (RuntimeException e) {
+            VerifyBuffers buffers = VERIFY_BUFFERS.get();
+            System.arraycopy(signature, 0, buffers.v, 0, 32);
+            System.arraycopy(signature, 32, buffers.h, 0, 32);
+            Curve25519.ecverify(buffers.Y, buffers.v, buffers.h, publicKey);
+
+            MessageDigest digest = buffers.digest;
+            digest.reset();
+            digest.update(message);
+            digest.digest(buffers.m, 0, 32);
+            digest.update(buffers.m);
+            digest.update(buffers.Y);
+            digest.digest(buffers.h2, 0, 32);
+
+            return Arrays.equals(buffers.h, buffers.h2);
+        } catch (RuntimeException | DigestException e) {
             LoggerUtil.logError("Error verifying signature", e);
             return false;
         }
     }
 
+    /**
+     * Verify a batch of signatures, splitting the work among the threads of the fork-join pool
+     * the caller runs in, or of the common pool.
+     *
+     * @param   signatures          Signatures
+     * @param   messages            Signed messages
+     * @param   publicKeys          Signer public keys
+     * @param   enforceCanonical    TRUE to reject non-canonical signatures and public keys
+     * @return                      Set of the indexes of the valid signatures
+     */
+    public static BitSet verifyBatch(byte[][] signatures, byte[][] messages, byte[][] publicKeys, boolean enforceCanonical) {
+        if (signatures.length != messages.length || signatures.length != publicKeys.length) {
+            throw new IllegalArgumentException("Signature, message and public key counts do not match");
+        }
+        boolean[] valid = new boolean[signatures.length];
+        new VerifyBatchTask(signatures, messages, publicKeys, enforceCanonical, valid, 0, valid.length).invoke();
+        BitSet result = new BitSet(valid.length);
+        for (int i = 0; i < valid.length; i++) {
+            if (valid[i]) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
     public static byte[] getSharedKey(byte[] myPrivateKey, byte[] theirPublicKey) {
         return sha256().digest(getSharedSecret(myPrivateKey, theirPublicKey));
     }
@@ -287,4 +320,49 @@ public final class Crypto {
         return Curve25519.isCanonicalPublicKey(publicKey);
     }
 
+    private static final class VerifyBuffers {
+
+        private final byte[] Y = new byte[32];
+        private final byte[] v = new byte[32];
+        private final byte[] h = new byte[32];
+        private final byte[] m = new byte[32];
+        private final byte[] h2 = new byte[32];
+        private final MessageDigest digest = sha256();
+    }
+
+    private static final class VerifyBatchTask extends RecursiveAction {
+
+        private final byte[][] signatures;
+        private final byte[][] messages;
+        private final byte[][] publicKeys;
+        private final boolean enforceCanonical;
+        private final boolean[] valid;
+        private final int from;
+        private final int to;
+
+        private VerifyBatchTask(byte[][] signatures, byte[][] messages, byte[][] publicKeys, boolean enforceCanonical,
+                                boolean[] valid, int from, int to) {
+            this.signatures = signatures;
+            this.messages = messages;
+            this.publicKeys = publicKeys;
+            this.enforceCanonical = enforceCanonical;
+            this.valid = valid;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= VERIFY_BATCH_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    valid[i] = signatures[i] != null && publicKeys[i] != null && ecVerify(signatures[i], messages[i], publicKeys[i], enforceCanonical);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new VerifyBatchTask(signatures, messages, publicKeys, enforceCanonical, valid, from, middle),
+                    new VerifyBatchTask(signatures, messages, publicKeys, enforceCanonical, valid, middle, to));
+        }
+    }
+
 }
@@ -0,0 +1,73 @@
+package com.inesv.ecchain.common.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with logarithmic buckets, one per power of two nanoseconds from about 1 microsecond
+ * to about 68 seconds. Recording a value is lock-free and does not allocate, so it can be done on every
+ * request. The bucket bounds never change, which keeps the exported series stable between scrapes.
+ */
+public final class LatencyHistogram {
+
+    static final int MIN_EXPONENT = 10;
+
+    static final int MAX_EXPONENT = 36;
+
+    private final LongAdder[] buckets = new LongAdder[MAX_EXPONENT - MIN_EXPONENT + 2];
+
+    private final LongAdder sum = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a duration
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int exponent = nanos <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(nanos - 1);
+        int index = Math.min(Math.max(exponent - MIN_EXPONENT, 0), buckets.length - 1);
+        buckets[index].increment();
+        sum.add(nanos);
+    }
+
+    /**
+     * Record the time elapsed since the start time
+     *
+     * @param startNanos Start time returned by System.nanoTime()
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Return the cumulative count of each bucket, the last one counting all the values
+     */
+    long[] getCumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            count += buckets[i].sum();
+            counts[i] = count;
+        }
+        return counts;
+    }
+
+    /**
+     * Return the upper bound of a bucket in seconds
+     */
+    static double getUpperBound(int index) {
+        return (double) (1L << (MIN_EXPONENT + index)) / 1_000_000_000d;
+    }
+
+    long getSum() {
+        return sum.sum();
+    }
+}
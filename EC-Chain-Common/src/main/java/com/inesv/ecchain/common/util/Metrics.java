@@ -0,0 +1,160 @@
+package com.inesv.ecchain.common.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the node metrics, written in the Prometheus text exposition format.
+ * <p>
+ * A metric family is registered once with the names of its labels, and a child is created for each
+ * combination of label values. Callers on hot paths should keep the child instead of looking it up again.
+ */
+public final class Metrics {
+
+    private static final ConcurrentMap<String, Family<?>> families = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    public static Family<LatencyHistogram> histogram(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "histogram", labelNames, labelValues -> new LatencyHistogram()));
+    }
+
+    public static Family<LongAdder> counter(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "counter", labelNames, labelValues -> new LongAdder()));
+    }
+
+    public static void gauge(String name, String help, LongSupplier value) {
+        register(new Family<LongSupplier>(name, help, "gauge", new String[0], labelValues -> value)).labels();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Family<T> register(Family<T> family) {
+        Family<?> previous = families.putIfAbsent(family.name, family);
+        if (previous == null) {
+            return family;
+        }
+        if (!previous.type.equals(family.type) || !Arrays.equals(previous.labelNames, family.labelNames)) {
+            throw new IllegalArgumentException("Metric " + family.name + " is already registered with another type or labels");
+        }
+        return (Family<T>) previous;
+    }
+
+    /**
+     * Write all metrics
+     *
+     * @param out Writer
+     * @throws IOException I/O error
+     */
+    public static void write(Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(8192);
+        for (Family<?> family : families.values()) {
+            family.write(sb);
+            if (sb.length() >= 8192) {
+                out.write(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        out.write(sb.toString());
+    }
+
+    public static final class Family<T> {
+
+        private final String name;
+        private final String help;
+        private final String type;
+        private final String[] labelNames;
+        private final Function<List<String>, T> factory;
+        private final ConcurrentMap<List<String>, T> children = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type, String[] labelNames, Function<List<String>, T> factory) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = labelNames;
+            this.factory = factory;
+        }
+
+        public T labels(String... labelValues) {
+            if (labelValues.length != labelNames.length) {
+                throw new IllegalArgumentException("Metric " + name + " requires " + labelNames.length + " labels");
+            }
+            return children.computeIfAbsent(Collections.unmodifiableList(Arrays.asList(labelValues)), factory);
+        }
+
+        private void write(StringBuilder sb) {
+            if (children.isEmpty()) {
+                return;
+            }
+            sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            List<Map.Entry<List<String>, T>> entries = new ArrayList<>(children.entrySet());
+            entries.sort((e1, e2) -> String.join("\u0000", e1.getKey()).compareTo(String.join("\u0000", e2.getKey())));
+            for (Map.Entry<List<String>, T> entry : entries) {
+                List<String> labelValues = entry.getKey();
+                T child = entry.getValue();
+                if (child instanceof LatencyHistogram) {
+                    LatencyHistogram histogram = (LatencyHistogram) child;
+                    long[] counts = histogram.getCumulativeCounts();
+                    for (int i = 0; i < counts.length; i++) {
+                        String bound = i < counts.length - 1 ? Double.toString(LatencyHistogram.getUpperBound(i)) : "+Inf";
+                        appendSample(sb, name + "_bucket", labelValues, bound, counts[i]);
+                    }
+                    appendSample(sb, name + "_sum", labelValues, null, histogram.getSum() / 1_000_000_000d);
+                    appendSample(sb, name + "_count", labelValues, null, counts[counts.length - 1]);
+                } else if (child instanceof LongAdder) {
+                    appendSample(sb, name, labelValues, null, ((LongAdder) child).sum());
+                } else {
+                    appendSample(sb, name, labelValues, null, ((LongSupplier) child).getAsLong());
+                }
+            }
+        }
+
+        private void appendSample(StringBuilder sb, String sampleName, List<String> labelValues, String bound, Object value) {
+            sb.append(sampleName);
+            if (labelNames.length > 0 || bound != null) {
+                sb.append('{');
+                for (int i = 0; i < labelNames.length; i++) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(labelNames[i]).append("=\"");
+                    appendEscaped(sb, labelValues.get(i));
+                    sb.append('"');
+                }
+                if (bound != null) {
+                    if (labelNames.length > 0) {
+                        sb.append(',');
+                    }
+                    sb.append("le=\"").append(bound).append('"');
+                }
+                sb.append('}');
+            }
+            sb.append(' ').append(value).append('\n');
+        }
+
+        private static void appendEscaped(StringBuilder sb, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\\' || c == '"') {
+                    sb.append('\\').append(c);
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+    }
+}
@@ -8,6 +8,12 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class ReadWriteManager {
 
+    private static final Metrics.Family<LatencyHistogram> LOCK_WAIT = Metrics.histogram("ec_lock_wait_seconds",
+            "Time spent waiting to obtain a lock", "lock", "mode");
+
+    private static final Metrics.Family<LatencyHistogram> LOCK_HOLD = Metrics.histogram("ec_lock_hold_seconds",
+            "Time a lock was held, counted from its first to its last nested acquisition", "lock", "mode");
+
 
     private final ReentrantReadWriteLock shared_Lock = new ReentrantReadWriteLock();
 
@@ -27,6 +33,31 @@ public class ReadWriteManager {
     private final WriteLock write_Lock = new WriteLock();
 
 
+    private final LockMetrics read_Metrics;
+
+
+    private final LockMetrics update_Metrics;
+
+
+    private final LockMetrics write_Metrics;
+
+
+    public ReadWriteManager() {
+        read_Metrics = update_Metrics = write_Metrics = null;
+    }
+
+    /**
+     * Create a lock manager recording the wait and hold times of its locks
+     *
+     * @param name              Lock name used in the metrics
+     */
+    public ReadWriteManager(String name) {
+        read_Metrics = new LockMetrics(name, "read");
+        update_Metrics = new LockMetrics(name, "update");
+        write_Metrics = new LockMetrics(name, "write");
+    }
+
+
     public Lock readLock() {
         return read_Lock;
     }
@@ -70,8 +101,13 @@ public class ReadWriteManager {
          */
         @Override
         public void lock() {
+            LockCount counts = lock_Count.get();
+            long start = read_Metrics != null ? System.nanoTime() : 0;
             shared_Lock.readLock().lock();
-            lock_Count.get().readCount++;
+            if (read_Metrics != null && counts.readCount == 0) {
+                counts.readStart = read_Metrics.acquired(start);
+            }
+            counts.readCount++;
         }
 
         /**
@@ -79,8 +115,11 @@ public class ReadWriteManager {
          */
         @Override
         public void unlock() {
+            LockCount counts = lock_Count.get();
             shared_Lock.readLock().unlock();
-            lock_Count.get().readCount--;
+            if (--counts.readCount == 0 && read_Metrics != null) {
+                read_Metrics.released(counts.readStart);
+            }
         }
 
         /**
@@ -111,7 +150,11 @@ public class ReadWriteManager {
             if (counts.writeCount != 0) {
                 throw new IllegalStateException("Update lock cannot be obtained while holding the write lock");
             }
+            long start = update_Metrics != null ? System.nanoTime() : 0;
             mutex_Lock.lock();
+            if (update_Metrics != null && counts.updateCount == 0) {
+                counts.updateStart = update_Metrics.acquired(start);
+            }
             counts.updateCount++;
         }
 
@@ -120,8 +163,11 @@ public class ReadWriteManager {
          */
         @Override
         public void unlock() {
+            LockCount counts = lock_Count.get();
             mutex_Lock.unlock();
-            lock_Count.get().updateCount--;
+            if (--counts.updateCount == 0 && update_Metrics != null) {
+                update_Metrics.released(counts.updateStart);
+            }
         }
 
         /**
@@ -150,11 +196,15 @@ public class ReadWriteManager {
                 throw new IllegalStateException("Write lock cannot be obtained while holding the read lock");
             }
             boolean lockObtained = false;
+            long start = write_Metrics != null ? System.nanoTime() : 0;
             try {
                 mutex_Lock.lock();
                 counts.updateCount++;
                 lockObtained = true;
                 shared_Lock.writeLock().lock();
+                if (write_Metrics != null && counts.writeCount == 0) {
+                    counts.writeStart = write_Metrics.acquired(start);
+                }
                 counts.writeCount++;
             } catch (Exception exc) {
                 if (lockObtained) {
@@ -172,7 +222,9 @@ public class ReadWriteManager {
         public void unlock() {
             LockCount counts = lock_Count.get();
             shared_Lock.writeLock().unlock();
-            counts.writeCount--;
+            if (--counts.writeCount == 0 && write_Metrics != null) {
+                write_Metrics.released(counts.writeStart);
+            }
             mutex_Lock.unlock();
             counts.updateCount--;
         }
@@ -199,5 +251,50 @@ public class ReadWriteManager {
 
         /** Write lock count */
         private int writeCount;
+
+        /** Time the read lock was obtained */
+        private long readStart;
+
+        /** Time the update lock was obtained */
+        private long updateStart;
+
+        /** Time the write lock was obtained */
+        private long writeStart;
+    }
+
+
+    private static class LockMetrics {
+
+        /** Wait time histogram */
+        private final LatencyHistogram waitTime;
+
+        /** Hold time histogram */
+        private final LatencyHistogram holdTime;
+
+        private LockMetrics(String name, String mode) {
+            waitTime = LOCK_WAIT.labels(name, mode);
+            holdTime = LOCK_HOLD.labels(name, mode);
+        }
+
+        /**
+         * Record the wait time of a lock
+         *
+         * @param   start           Time the lock was requested
+         * @return                  Time the lock was obtained
+         */
+        private long acquired(long start) {
+            long now = System.nanoTime();
+            waitTime.record(now - start);
+            return now;
+        }
+
+        /**
+         * Record the hold time of a lock
+         *
+         * @param   start           Time the lock was obtained
+         */
+        private void released(long start) {
+            holdTime.recordSince(start);
+        }
     }
 }
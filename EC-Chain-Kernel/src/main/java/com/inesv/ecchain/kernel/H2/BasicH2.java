@@ -1,9 +1,10 @@
 package com.inesv.ecchain.kernel.H2;
 
 
+import com.inesv.ecchain.common.util.LatencyHistogram;
 import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.common.util.Metrics;
 import com.inesv.ecchain.kernel.deploy.RuntimeEnvironment;
-import org.h2.jdbcx.JdbcConnectionPool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -13,6 +14,8 @@ import java.sql.Statement;
 
 @Component
 public class BasicH2 {
+    private static final LatencyHistogram CONNECTION_WAIT = Metrics.histogram("ec_db_connection_wait_seconds",
+            "Time spent waiting for a pooled database connection").labels();
     @Autowired
     private static RuntimeEnvironment runtimeEnvironment;
     private String h2Url;
@@ -20,9 +23,10 @@ public class BasicH2 {
     private String h2Password;
     private int maxConnections;
     private int loginTimeout;
+    private int statementCacheSize;
     private int defaultLockTimeout;
     private int maxMemoryRows;
-    private JdbcConnectionPool cp;
+    private H2ConnectionPool cp;
     private volatile int maxActiveConnections;
     private volatile boolean initialized = false;
 
@@ -51,6 +55,7 @@ public class BasicH2 {
         this.h2Password = h2Properties.dbPassword;
         this.maxConnections = h2Properties.maxConnections;
         this.loginTimeout = h2Properties.loginTimeout;
+        this.statementCacheSize = h2Properties.statementCacheSize;
         this.defaultLockTimeout = h2Properties.defaultLockTimeout;
         this.maxMemoryRows = h2Properties.maxMemoryRows;
     }
@@ -59,9 +64,9 @@ public class BasicH2 {
     public void init(H2Version h2Version) {
         LoggerUtil.logDebug("Database jdbc url set to " + h2Url + " username " + h2Username);
         FullTextTrigger.setActive(true);
-        cp = JdbcConnectionPool.create(h2Url, h2Username, h2Password);
-        cp.setMaxConnections(maxConnections);
-        cp.setLoginTimeout(loginTimeout);
+        cp = new H2ConnectionPool(h2Url, h2Username, h2Password, maxConnections, loginTimeout, statementCacheSize);
+        Metrics.gauge("ec_db_active_connections", "Database connections currently in use", cp::getActiveConnections);
+        Metrics.gauge("ec_db_idle_connections", "Database connections kept open in the pool", cp::getIdleConnections);
         try (Connection con = cp.getConnection();
              Statement stmt = con.createStatement()) {
             stmt.executeUpdate("SET DEFAULT_LOCK_TIMEOUT " + defaultLockTimeout);
@@ -82,6 +87,7 @@ public class BasicH2 {
             Connection con = cp.getConnection();
             Statement stmt = con.createStatement();
             stmt.execute("SHUTDOWN COMPACT");
+            cp.dispose();
             LoggerUtil.logInfo("Database shutdown completed");
         } catch (SQLException e) {
             LoggerUtil.logError(e.toString(), e);
@@ -104,7 +110,9 @@ public class BasicH2 {
     }
 
     protected Connection getPooledConnection() throws SQLException {
+        long start = System.nanoTime();
         Connection con = cp.getConnection();
+        CONNECTION_WAIT.recordSince(start);
         int activeConnections = cp.getActiveConnections();
         if (activeConnections > maxActiveConnections) {
             maxActiveConnections = activeConnections;
@@ -128,6 +136,7 @@ public class BasicH2 {
         private String dbPassword;
         private int maxConnections;
         private int loginTimeout;
+        private int statementCacheSize;
         private int defaultLockTimeout;
         private int maxMemoryRows;
 
@@ -176,6 +185,11 @@ public class BasicH2 {
             return this;
         }
 
+        public h2Properties statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
         public h2Properties defaultLockTimeout(int defaultLockTimeout) {
             this.defaultLockTimeout = defaultLockTimeout;
             return this;
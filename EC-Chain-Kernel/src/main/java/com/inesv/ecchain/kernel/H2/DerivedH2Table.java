@@ -14,6 +14,19 @@ public abstract class DerivedH2Table {
     protected static final TransactionalH2 h2 = H2.H2;
 
     protected final String table;
+    private volatile int trimStartHeight;
+    private final TransactionCallback trimStartCallback = new TransactionCallback() {
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void rollback() {
+            // the work done for the whole table was rolled back too, so it runs again on the next call
+            trimStartHeight = 0;
+        }
+    };
 
     protected DerivedH2Table(String table) {
         this.table = table;
@@ -49,6 +62,27 @@ public abstract class DerivedH2Table {
         //nothing to trim
     }
 
+    public boolean isTrimPending() {
+        return false;
+    }
+
+    /**
+     * Check whether this is the first call of {@link #trim(int)} at this height. Trimming a versioned table takes one
+     * call per slice, and the work done at once for the whole table only needs to run on the first of them. The
+     * height is forgotten again if the transaction of that first call is rolled back.
+     *
+     * @param height Trim height
+     * @return true if the table has not been trimmed at this height yet
+     */
+    protected final boolean isNewTrimHeight(int height) {
+        if (height == trimStartHeight) {
+            return false;
+        }
+        trimStartHeight = height;
+        h2.registerCallback(trimStartCallback);
+        return true;
+    }
+
     public void establishSearchIndex(Connection con) throws SQLException {
         //implemented in EntityH2Table only
     }
@@ -57,6 +91,32 @@ public abstract class DerivedH2Table {
         return false;
     }
 
+    public boolean isInSnapshot() {
+        return true;
+    }
+
+    /**
+     * Check whether the snapshot state hash covers this table, which requires its rows to be the same on all the
+     * nodes at the same height
+     *
+     * @return TRUE if the table is hashed
+     */
+    public boolean isInStateHash() {
+        return isInSnapshot() && !isLasting();
+    }
+
+    /**
+     * Get the height above which the rows of this table are covered by the snapshot state hash. A table which trims
+     * rows without a later version replacing them must override this, as the nodes at the same height keep different
+     * old rows depending on how far they trimmed it. The latest rows of a versioned table are always hashed.
+     *
+     * @param height Snapshot height
+     * @return Height of the last row not hashed
+     */
+    public int getMinStateHashHeight(int height) {
+        return Integer.MIN_VALUE;
+    }
+
     @Override
     public final String toString() {
         return table;
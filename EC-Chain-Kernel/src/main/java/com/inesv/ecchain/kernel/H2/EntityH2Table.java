@@ -17,6 +17,7 @@ public abstract class EntityH2Table<T> extends DerivedH2Table {
     private final boolean ecmultiversion;
     private final String defaultSort;
     private final String fullTextSearchColumns;
+    private final H2EntityCache<T> sharedCache;
 
     protected EntityH2Table(String table, H2KeyFactory<T> dbKeyFactory) {
         this(table, dbKeyFactory, false, null);
@@ -32,6 +33,7 @@ public abstract class EntityH2Table<T> extends DerivedH2Table {
         this.ecmultiversion = ecmultiversion;
         this.defaultSort = " ORDER BY " + (ecmultiversion ? dbKeyFactory.getPKColumns() : " height DESC, db_id DESC ");
         this.fullTextSearchColumns = fullTextSearchColumns;
+        this.sharedCache = Constants.ENTITY_CACHE_TABLES.contains(table) ? new H2EntityCache<>(Constants.ENTITY_CACHE_SIZE) : null;
     }
 
     protected abstract T load(Connection con, ResultSet rs, H2Key h2Key) throws SQLException;
@@ -44,6 +46,23 @@ public abstract class EntityH2Table<T> extends DerivedH2Table {
 
     protected void clearCache() {
         h2.clearCache(table);
+        if (sharedCache != null) {
+            sharedCache.clear();
+        }
+    }
+
+    final void invalidateCache(H2Key h2Key) {
+        if (sharedCache != null) {
+            sharedCache.invalidate(h2Key);
+            h2.registerCallback(sharedCache);
+        }
+    }
+
+    final void invalidateCache(int height) {
+        if (sharedCache != null) {
+            sharedCache.rollback(height);
+            h2.registerCallback(sharedCache);
+        }
     }
 
     public void checkAvailable(int height) {
@@ -85,6 +104,12 @@ public abstract class EntityH2Table<T> extends DerivedH2Table {
             if (t != null) {
                 return t;
             }
+        } else if (cache && sharedCache != null) {
+            T t = sharedCache.get(h2Key);
+            if (t != null) {
+                return t;
+            }
+            return getShared(h2Key);
         }
         try (Connection con = h2.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT * FROM " + table + dbKeyFactory.getPKClause()
@@ -96,6 +121,29 @@ public abstract class EntityH2Table<T> extends DerivedH2Table {
         }
     }
 
+    private T getShared(H2Key h2Key) {
+        long generation = sharedCache.getGeneration();
+        try (Connection con = h2.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM " + table + dbKeyFactory.getPKClause()
+                     + (ecmultiversion ? " AND latest = TRUE LIMIT 1" : ""))) {
+            h2Key.setH2KeyPK(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                T t = load(con, rs, h2Key);
+                int height = rs.getInt("height");
+                if (rs.next()) {
+                    throw new RuntimeException("Multiple records found");
+                }
+                sharedCache.put(h2Key, t, height, generation);
+                return t;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
     public final T get(H2Key h2Key, int height) {
         if (height < 0 || doesNotExceed(height)) {
             return get(h2Key);
@@ -413,6 +461,7 @@ public abstract class EntityH2Table<T> extends DerivedH2Table {
             throw new IllegalStateException("Different instance found in Db cache, perhaps trying to save an object "
                     + "that was read outside the current transaction");
         }
+        invalidateCache(h2Key);
         try (Connection con = h2.getConnection()) {
             if (ecmultiversion) {
                 try (PreparedStatement pstmt = con.prepareStatement("UPDATE " + table
@@ -434,6 +483,7 @@ public abstract class EntityH2Table<T> extends DerivedH2Table {
         } else {
             super.rollback(height);
         }
+        invalidateCache(height);
     }
 
     @Override
@@ -445,6 +495,22 @@ public abstract class EntityH2Table<T> extends DerivedH2Table {
         }
     }
 
+    @Override
+    public boolean isTrimPending() {
+        return ecmultiversion && VersionedEntityH2Table.isTrimPending(table);
+    }
+
+    @Override
+    public void truncate() {
+        super.truncate();
+        if (ecmultiversion) {
+            VersionedEntityH2Table.truncate(h2, table);
+        }
+        if (sharedCache != null) {
+            sharedCache.clear();
+        }
+    }
+
     @Override
     public final void establishSearchIndex(Connection con) throws SQLException {
         if (fullTextSearchColumns != null) {
@@ -1,13 +1,13 @@
 package com.inesv.ecchain.kernel.H2;
 
 
+import com.inesv.ecchain.common.core.Constants;
 import com.inesv.ecchain.common.util.LoggerUtil;
 import com.inesv.ecchain.common.util.ReadWriteManager;
 import com.inesv.ecchain.kernel.core.H2;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.*;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
@@ -16,6 +16,7 @@ import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
@@ -29,14 +30,29 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
+/**
+ * Maintains the Lucene index used by the full text searches. Index updates are made visible to searches by
+ * refreshing a near-real-time searcher every second, while durable commits only happen every
+ * ec.luceneCommitInterval seconds or after MAX_UNCOMMITTED_UPDATES updates. The last commit made on shutdown
+ * is marked clean, and an index opened without that mark is rebuilt from the database tables.
+ */
 public class FullTextTrigger implements Trigger, TransactionCallback {
 
+    private static final int MAX_UNCOMMITTED_UPDATES = 10000;
+
+    private static final String CLEAN_SHUTDOWN = "cleanShutdown";
 
     private static final ConcurrentHashMap<String, FullTextTrigger> STRING_FULL_TEXT_TRIGGER_CONCURRENT_HASH_MAP = new ConcurrentHashMap<>();
 
@@ -52,12 +68,20 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
   
     private static Directory directory;
 
-    private static DirectoryReader indexReader;
-
-    private static IndexSearcher indexSearcher;
+    private static SearcherManager searcherManager;
 
     private static IndexWriter indexWriter;
 
+    private static ScheduledExecutorService indexService;
+
+    private static volatile boolean indexRecoveryRequired;
+
+    private static final Set<String> recoveredTables = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicInteger uncommittedUpdates = new AtomicInteger();
+
+    private static volatile long lastCommitTime;
+
     private final List<String> columnNames = new ArrayList<>();
 
     private final List<String> columnTypes = new ArrayList<>();
@@ -290,7 +314,9 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
         // The _MODIFIED field contains the row modification time (YYYYMMDDhhmmss) in GMT
         //
         READ_WRITE_MANAGER.readLock().lock();
+        IndexSearcher indexSearcher = null;
         try {
+            indexSearcher = searcherManager.acquire();
             QueryParser parser = new QueryParser("_DATA", STANDARD_ANALYZER);
             parser.setDateResolution("_MODIFIED", DateTools.Resolution.SECOND);
             parser.setDefaultOperator(QueryParser.Operator.AND);
@@ -316,26 +342,59 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
             LoggerUtil.logError("Unable to search Lucene index", exc);
             throw new SQLException("Unable to search Lucene index", exc);
         } finally {
+            try {
+                if (indexSearcher != null) {
+                    searcherManager.release(indexSearcher);
+                }
+            } catch (IOException exc) {
+                LoggerUtil.logError("Unable to release Lucene index searcher", exc);
+            }
             READ_WRITE_MANAGER.readLock().unlock();
         }
         return result;
     }
     
     private static void commitIndex() throws SQLException {
-        READ_WRITE_MANAGER.writeLock().lock();
+        READ_WRITE_MANAGER.readLock().lock();
         try {
-            indexWriter.commit();
-            DirectoryReader newReader = DirectoryReader.openIfChanged(indexReader);
-            if (newReader != null) {
-                indexReader.close();
-                indexReader = newReader;
-                indexSearcher = new IndexSearcher(indexReader);
-            }
+            commitIndex(false);
+            searcherManager.maybeRefreshBlocking();
         } catch (IOException exc) {
             LoggerUtil.logError("Unable to commit Lucene index updates", exc);
             throw new SQLException("Unable to commit Lucene index updates", exc);
         } finally {
-            READ_WRITE_MANAGER.writeLock().unlock();
+            READ_WRITE_MANAGER.readLock().unlock();
+        }
+    }
+
+    private static void commitIndex(boolean cleanShutdown) throws IOException {
+        int updates = uncommittedUpdates.getAndSet(0);
+        indexWriter.setCommitData(Collections.singletonMap(CLEAN_SHUTDOWN, String.valueOf(cleanShutdown)));
+        try {
+            indexWriter.commit();
+        } catch (IOException exc) {
+            uncommittedUpdates.addAndGet(updates);
+            throw exc;
+        }
+        lastCommitTime = System.currentTimeMillis();
+    }
+
+    private static void refreshIndex() {
+        READ_WRITE_MANAGER.readLock().lock();
+        try {
+            if (indexWriter == null) {
+                return;
+            }
+            searcherManager.maybeRefresh();
+            int updates = uncommittedUpdates.get();
+            if (updates >= MAX_UNCOMMITTED_UPDATES || (updates > 0
+                    && System.currentTimeMillis() - lastCommitTime >= TimeUnit.SECONDS.toMillis(Constants.LUCENE_COMMIT_INTERVAL))) {
+                commitIndex(false);
+            }
+        } catch (IOException | RuntimeException exc) {
+            LoggerUtil.logError("Unable to refresh the Lucene index", exc);
+        } finally {
+            READ_WRITE_MANAGER.readLock().unlock();
         }
     }
     
@@ -383,12 +442,21 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
                         IndexWriterConfig config = new IndexWriterConfig(STANDARD_ANALYZER);
                         config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
                         indexWriter = new IndexWriter(directory, config);
+                        if (!Boolean.parseBoolean(indexWriter.getCommitData().get(CLEAN_SHUTDOWN))) {
+                            LoggerUtil.logInfo("Lucene search index was not closed cleanly, indexed tables will be indexed again");
+                            indexRecoveryRequired = true;
+                        }
                         Document document = new Document();
                         document.add(new StringField("_QUERY", "_CONTROL_DOCUMENT_", Field.Store.YES));
                         indexWriter.updateDocument(new Term("_QUERY", "_CONTROL_DOCUMENT_"), document);
-                        indexWriter.commit();
-                        indexReader = DirectoryReader.open(directory);
-                        indexSearcher = new IndexSearcher(indexReader);
+                        commitIndex(false);
+                        searcherManager = new SearcherManager(indexWriter, true, null);
+                        indexService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                            Thread thread = new Thread(runnable, "LuceneIndexRefresh");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                        indexService.scheduleWithFixedDelay(FullTextTrigger::refreshIndex, 1, 1, TimeUnit.SECONDS);
                     }
                 } finally {
                     READ_WRITE_MANAGER.writeLock().unlock();
@@ -407,14 +475,16 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
     private static void removeIndexAccess() {
         READ_WRITE_MANAGER.writeLock().lock();
         try {
-            if (indexSearcher != null) {
-                indexSearcher = null;
+            if (indexService != null) {
+                indexService.shutdownNow();
+                indexService = null;
             }
-            if (indexReader != null) {
-                indexReader.close();
-                indexReader = null;
+            if (searcherManager != null) {
+                searcherManager.close();
+                searcherManager = null;
             }
             if (indexWriter != null) {
+                commitIndex(true);
                 indexWriter.close();
                 indexWriter = null;
             }
@@ -501,6 +571,21 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
         commitIndex();
     }
 
+    private void recoverTable(Connection conn) throws SQLException {
+        READ_WRITE_MANAGER.readLock().lock();
+        try {
+            QueryParser parser = new QueryParser("_TABLE", STANDARD_ANALYZER);
+            indexWriter.deleteDocuments(parser.parse(tableName));
+        } catch (ParseException | IOException exc) {
+            LoggerUtil.logError("Unable to delete Lucene index for table " + tableName, exc);
+            throw new SQLException("Unable to delete Lucene index for table " + tableName, exc);
+        } finally {
+            READ_WRITE_MANAGER.readLock().unlock();
+        }
+        reindexTable(conn);
+        LoggerUtil.logInfo("Lucene search index rebuilt for table " + tableName);
+    }
+
     private void indexRow(Object[] row) throws SQLException {
         READ_WRITE_MANAGER.readLock().lock();
         try {
@@ -518,6 +603,7 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
             }
             document.add(new TextField("_DATA", sj.toString(), Field.Store.NO));
             indexWriter.updateDocument(new Term("_QUERY", query), document);
+            uncommittedUpdates.incrementAndGet();
         } catch (IOException exc) {
             LoggerUtil.logError("Unable to index row", exc);
             throw new SQLException("Unable to index row", exc);
@@ -531,6 +617,7 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
         READ_WRITE_MANAGER.readLock().lock();
         try {
             indexWriter.deleteDocuments(new Term("_QUERY", query));
+            uncommittedUpdates.incrementAndGet();
         } catch (IOException exc) {
             LoggerUtil.logError("Unable to delete indexed row", exc);
             throw new SQLException("Unable to delete indexed row", exc);
@@ -673,6 +760,20 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
             //
             isEnabled = true;
             STRING_FULL_TEXT_TRIGGER_CONCURRENT_HASH_MAP.put(tableName, this);
+            //
+            // Rebuild the table index if updates may have been lost
+            //
+            if (indexRecoveryRequired && !recoveredTables.contains(tableName)) {
+                recoverTable(conn);
+                recoveredTables.add(tableName);
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM FTL.INDEXES")) {
+                    if (rs.next() && recoveredTables.size() >= rs.getInt(1)) {
+                        LoggerUtil.logInfo("Lucene search index recovery complete");
+                        indexRecoveryRequired = false;
+                        recoveredTables.clear();
+                    }
+                }
+            }
         } catch (SQLException exc) {
             LoggerUtil.logError("Unable to get table information", exc);
         }
@@ -703,12 +804,11 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
             return;
         }
         //
-        // Commit the change immediately if we are not in a transaction
+        // Update the index immediately if we are not in a transaction
         //
         if (!H2.H2.isInTransaction()) {
             try {
                 commitRow(oldRow, newRow);
-                commitIndex();
             } catch (SQLException exc) {
                 LoggerUtil.logError("Unable to update the Lucene index", exc);
             }
@@ -734,9 +834,9 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
             //
             // Update the Lucene index.  Note that a database transaction is associated
             // with a single thread.  So we will commit just those updates generated
-            // by the current thread.
+            // by the current thread.  The updates become visible to searches on the next
+            // index refresh and are made durable by the next periodic commit.
             //
-            boolean commit = false;
             synchronized (tableUpdates) {
                 Iterator<TableUpdate> updateIt = tableUpdates.iterator();
                 while (updateIt.hasNext()) {
@@ -744,16 +844,9 @@ public class FullTextTrigger implements Trigger, TransactionCallback {
                     if (update.getThread() == thread) {
                         commitRow(update.getOldRow(), update.getNewRow());
                         updateIt.remove();
-                        commit = true;
                     }
                 }
             }
-            //
-            // Commit the index updates
-            //
-            if (commit) {
-                commitIndex();
-            }
         } catch (SQLException exc) {
             LoggerUtil.logError("Unable to update the Lucene index", exc);
         }
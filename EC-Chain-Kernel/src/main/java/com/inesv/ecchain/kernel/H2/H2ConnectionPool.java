@@ -0,0 +1,360 @@
+package com.inesv.ecchain.kernel.H2;
+
+import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.common.util.Metrics;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Database connection pool keeping a cache of prepared statements for each physical connection.
+ * <p>
+ * Idle connections are reused most recently released first, so the busy connections keep their statements
+ * cached. The cache is keyed by the SQL text and holds at most the configured number of statements per connection,
+ * evicting the least recently used one. A statement is lent to a single caller at a time; preparing the same SQL
+ * again before it is closed creates a statement that is not cached. Closing a lent statement returns it to the
+ * cache instead of closing it, with its parameters cleared and its fetch size, maximum rows, query timeout and
+ * maximum field size set back to the values it was prepared with.
+ */
+final class H2ConnectionPool {
+
+    private static final int DEFAULT_LOGIN_TIMEOUT = 30;
+
+    private static final Metrics.Family<LongAdder> PREPARED_STATEMENTS = Metrics.counter("ec_db_prepared_statements_total",
+            "Prepared statements requested, by statement cache result", "result");
+    private static final LongAdder STATEMENT_HITS = PREPARED_STATEMENTS.labels("hit");
+    private static final LongAdder STATEMENT_MISSES = PREPARED_STATEMENTS.labels("miss");
+
+    private static final FilteredFactory PASS_THROUGH = new FilteredFactory() {
+
+        @Override
+        public Statement establishStatement(Statement stmt) {
+            return stmt;
+        }
+
+        @Override
+        public PreparedStatement establishPreparedStatement(PreparedStatement stmt, String sql) {
+            return stmt;
+        }
+    };
+
+    private final JdbcDataSource dataSource;
+    private final int statementCacheSize;
+    private final int loginTimeout;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private boolean disposed;
+
+    H2ConnectionPool(String url, String username, String password, int maxConnections, int loginTimeout, int statementCacheSize) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("Invalid maximum number of database connections: " + maxConnections);
+        }
+        this.dataSource = new JdbcDataSource();
+        this.dataSource.setURL(url);
+        this.dataSource.setUser(username);
+        this.dataSource.setPassword(password);
+        this.permits = new Semaphore(maxConnections, true);
+        this.loginTimeout = loginTimeout > 0 ? loginTimeout : DEFAULT_LOGIN_TIMEOUT;
+        this.statementCacheSize = Math.max(statementCacheSize, 0);
+    }
+
+    Connection getConnection() throws SQLException {
+        try {
+            if (!permits.tryAcquire(loginTimeout, TimeUnit.SECONDS)) {
+                throw new SQLException("Login timeout waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e.toString(), e);
+        }
+        PooledConnection pooledConnection;
+        try {
+            synchronized (this) {
+                if (disposed) {
+                    throw new SQLException("Database connection pool has been disposed");
+                }
+                pooledConnection = idleConnections.pollFirst();
+            }
+            if (pooledConnection == null) {
+                pooledConnection = new PooledConnection(dataSource.getConnection());
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        activeConnections.incrementAndGet();
+        return new ConnectionHandle(pooledConnection);
+    }
+
+    int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    synchronized int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    void dispose() {
+        List<PooledConnection> connections;
+        synchronized (this) {
+            disposed = true;
+            connections = new ArrayList<>(idleConnections);
+            idleConnections.clear();
+        }
+        connections.forEach(PooledConnection::close);
+    }
+
+    private void release(PooledConnection pooledConnection) {
+        activeConnections.decrementAndGet();
+        boolean reuse = pooledConnection.reset();
+        synchronized (this) {
+            if (reuse && !disposed) {
+                idleConnections.addFirst(pooledConnection);
+            } else {
+                reuse = false;
+            }
+        }
+        if (!reuse) {
+            pooledConnection.close();
+        }
+        permits.release();
+    }
+
+    private final class PooledConnection {
+
+        private final Connection con;
+
+        private final Map<String, CachedStatement> statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        private PooledConnection(Connection con) {
+            this.con = con;
+        }
+
+        private PreparedStatement prepareStatement(String sql) throws SQLException {
+            CachedStatement cachedStatement;
+            synchronized (this) {
+                cachedStatement = statements.get(sql);
+                if (cachedStatement != null && !cachedStatement.lent) {
+                    cachedStatement.lent = true;
+                    STATEMENT_HITS.increment();
+                    return new StatementHandle(this, cachedStatement, sql);
+                }
+            }
+            STATEMENT_MISSES.increment();
+            PreparedStatement stmt = con.prepareStatement(sql);
+            if (cachedStatement != null || statementCacheSize == 0) {
+                return stmt;
+            }
+            try {
+                cachedStatement = new CachedStatement(stmt);
+            } catch (SQLException e) {
+                H2Utils.h2close(stmt);
+                throw e;
+            }
+            cachedStatement.lent = true;
+            synchronized (this) {
+                if (statements.containsKey(sql)) {
+                    return stmt;
+                }
+                statements.put(sql, cachedStatement);
+            }
+            return new StatementHandle(this, cachedStatement, sql);
+        }
+
+        private synchronized void giveBack(CachedStatement cachedStatement) throws SQLException {
+            if (cachedStatement.evicted) {
+                cachedStatement.stmt.close();
+                return;
+            }
+            try {
+                ResultSet rs = cachedStatement.stmt.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                cachedStatement.stmt.clearParameters();
+                cachedStatement.stmt.clearBatch();
+                cachedStatement.resetSettings();
+                cachedStatement.lent = false;
+            } catch (SQLException e) {
+                statements.values().remove(cachedStatement);
+                cachedStatement.stmt.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Prepare the connection for the next caller
+         *
+         * @return false if the connection cannot be reused
+         */
+        private boolean reset() {
+            synchronized (this) {
+                Iterator<CachedStatement> iterator = statements.values().iterator();
+                while (iterator.hasNext()) {
+                    CachedStatement cachedStatement = iterator.next();
+                    if (cachedStatement.lent) {
+                        iterator.remove();
+                        cachedStatement.evict();
+                    }
+                }
+            }
+            try {
+                if (con.isClosed()) {
+                    return false;
+                }
+                if (!con.getAutoCommit()) {
+                    con.rollback();
+                    con.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException e) {
+                LoggerUtil.logError("Error returning a database connection to the pool", e);
+                return false;
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                statements.clear();
+            }
+            H2Utils.h2close(con);
+        }
+    }
+
+    private static final class CachedStatement {
+
+        private final PreparedStatement stmt;
+        private final int maxRows;
+        private final int fetchSize;
+        private final int queryTimeout;
+        private final int maxFieldSize;
+        private boolean lent;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement stmt) throws SQLException {
+            this.stmt = stmt;
+            this.maxRows = stmt.getMaxRows();
+            this.fetchSize = stmt.getFetchSize();
+            this.queryTimeout = stmt.getQueryTimeout();
+            this.maxFieldSize = stmt.getMaxFieldSize();
+        }
+
+        /**
+         * Undo the settings changed by the previous caller. The maximum rows are reset first, as the fetch size
+         * cannot exceed them.
+         */
+        private void resetSettings() throws SQLException {
+            if (stmt.getMaxRows() != maxRows) {
+                stmt.setMaxRows(maxRows);
+            }
+            if (stmt.getFetchSize() != fetchSize) {
+                stmt.setFetchSize(fetchSize);
+            }
+            if (stmt.getQueryTimeout() != queryTimeout) {
+                stmt.setQueryTimeout(queryTimeout);
+            }
+            if (stmt.getMaxFieldSize() != maxFieldSize) {
+                stmt.setMaxFieldSize(maxFieldSize);
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!lent) {
+                H2Utils.h2close(stmt);
+            }
+        }
+    }
+
+    private final class ConnectionHandle extends FilteredConnection {
+
+        private final PooledConnection pooledConnection;
+        private boolean closed;
+
+        private ConnectionHandle(PooledConnection pooledConnection) {
+            super(pooledConnection.con, PASS_THROUGH);
+            this.pooledConnection = pooledConnection;
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            return pooledConnection.prepareStatement(sql);
+        }
+
+        @Override
+        public Statement createStatement() throws SQLException {
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            return super.createStatement();
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException {
+            return closed || super.isClosed();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(pooledConnection);
+            }
+        }
+    }
+
+    private static final class StatementHandle extends FilteredPreparedStatement {
+
+        private final PooledConnection pooledConnection;
+        private final CachedStatement cachedStatement;
+        private boolean closed;
+
+        private StatementHandle(PooledConnection pooledConnection, CachedStatement cachedStatement, String sql) {
+            super(cachedStatement.stmt, sql);
+            this.pooledConnection = pooledConnection;
+            this.cachedStatement = cachedStatement;
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException {
+            return closed || super.isClosed();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (!closed) {
+                closed = true;
+                pooledConnection.giveBack(cachedStatement);
+            }
+        }
+    }
+}
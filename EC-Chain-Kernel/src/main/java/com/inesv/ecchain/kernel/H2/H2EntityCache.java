@@ -0,0 +1,105 @@
+package com.inesv.ecchain.kernel.H2;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Size bounded cache of committed entities shared by all threads reading outside of a database transaction.
+ * Each entry remembers the height of the row it was loaded from, so a rollback only drops the entries newer than
+ * the rollback height. Keys updated by a transaction are dropped when they are written and again when the
+ * transaction ends, and so are the entries newer than the height a transaction rolls back to, as other threads can
+ * still load the rows being rolled back until it commits. A load that raced with any of these invalidations is not
+ * cached.
+ * <p>
+ * The cached entities are read by several threads at once, so they must not be modified once loaded.
+ */
+final class H2EntityCache<T> implements TransactionCallback {
+
+    private final Map<H2Key, Entry<T>> entries;
+    private final ThreadLocal<Set<H2Key>> pendingKeys = ThreadLocal.withInitial(HashSet::new);
+    private final ThreadLocal<Integer> pendingRollbackHeight = new ThreadLocal<>();
+    private volatile long generation;
+
+    H2EntityCache(final int capacity) {
+        this.entries = new LinkedHashMap<H2Key, Entry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<H2Key, Entry<T>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized T get(H2Key h2Key) {
+        Entry<T> entry = entries.get(h2Key);
+        return entry == null ? null : entry.value;
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    synchronized void put(H2Key h2Key, T value, int height, long loadGeneration) {
+        if (loadGeneration == generation) {
+            entries.put(h2Key, new Entry<>(value, height));
+        }
+    }
+
+    synchronized void invalidate(H2Key h2Key) {
+        generation += 1;
+        entries.remove(h2Key);
+        pendingKeys.get().add(h2Key);
+    }
+
+    synchronized void rollback(int height) {
+        generation += 1;
+        entries.values().removeIf(entry -> entry.height > height);
+        Integer pendingHeight = pendingRollbackHeight.get();
+        if (pendingHeight == null || height < pendingHeight) {
+            pendingRollbackHeight.set(height);
+        }
+    }
+
+    synchronized void clear() {
+        generation += 1;
+        entries.clear();
+    }
+
+    @Override
+    public void commit() {
+        releasePendingKeys();
+    }
+
+    @Override
+    public void rollback() {
+        releasePendingKeys();
+    }
+
+    private synchronized void releasePendingKeys() {
+        generation += 1;
+        Iterator<H2Key> iterator = pendingKeys.get().iterator();
+        while (iterator.hasNext()) {
+            entries.remove(iterator.next());
+            iterator.remove();
+        }
+        Integer height = pendingRollbackHeight.get();
+        if (height != null) {
+            entries.values().removeIf(entry -> entry.height > height);
+            pendingRollbackHeight.remove();
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final T value;
+        private final int height;
+
+        private Entry(T value, int height) {
+            this.value = value;
+            this.height = height;
+        }
+    }
+
+}
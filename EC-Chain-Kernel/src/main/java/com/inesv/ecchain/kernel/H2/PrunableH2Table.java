@@ -21,7 +21,9 @@ public abstract class PrunableH2Table<T> extends PersistentH2Table<T> {
 
     @Override
     public final void trim(int height) {
-        prune();
+        if (isNewTrimHeight(height)) {
+            prune();
+        }
         super.trim(height);
     }
 
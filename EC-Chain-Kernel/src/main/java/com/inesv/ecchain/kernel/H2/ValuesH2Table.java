@@ -106,4 +106,17 @@ public abstract class ValuesH2Table<T, V> extends DerivedH2Table {
         }
     }
 
+    @Override
+    public boolean isTrimPending() {
+        return multiversion && VersionedEntityH2Table.isTrimPending(table);
+    }
+
+    @Override
+    public void truncate() {
+        super.truncate();
+        if (multiversion) {
+            VersionedEntityH2Table.truncate(h2, table);
+        }
+    }
+
 }
@@ -1,17 +1,37 @@
 package com.inesv.ecchain.kernel.H2;
 
 
+import com.inesv.ecchain.common.core.Constants;
 import com.inesv.ecchain.kernel.core.EcBlockchainImpl;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class VersionedEntityH2Table<T> extends EntityH2Table<T> {
 
+    private static final int BATCH_SIZE = 500;
+    private static final Map<String, Integer> trimmedHeights = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> trimHeights = new ConcurrentHashMap<>();
+    private static final TransactionCallback trimCallback = new TransactionCallback() {
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void rollback() {
+            // reloaded from the table_trim table when next needed
+            trimmedHeights.clear();
+        }
+    };
+
     protected VersionedEntityH2Table(String table, H2KeyFactory<T> dbKeyFactory) {
         super(table, dbKeyFactory, true, null);
     }
@@ -25,75 +45,156 @@ public abstract class VersionedEntityH2Table<T> extends EntityH2Table<T> {
             throw new IllegalStateException("Not in transaction");
         }
         try (Connection con = db.getConnection();
-             PreparedStatement pstmtSelectToDelete = con.prepareStatement("SELECT DISTINCT " + dbKeyFactory.getPKColumns()
-                     + " FROM " + table + " WHERE height > ?");
+             PreparedStatement pstmtSetLatest = con.prepareStatement("UPDATE " + table + " AS a SET a.latest = TRUE "
+                     + "WHERE a.latest = FALSE AND a.height <= ? "
+                     + "AND EXISTS (SELECT 1 FROM " + table + " AS b WHERE " + dbKeyFactory.getSelfJoinClause() + " AND b.height > ?) "
+                     + "AND NOT EXISTS (SELECT 1 FROM " + table + " AS b WHERE " + dbKeyFactory.getSelfJoinClause()
+                     + " AND b.height <= ? AND b.height > a.height)");
              PreparedStatement pstmtDelete = con.prepareStatement("DELETE FROM " + table
-                     + " WHERE height > ?");
-             PreparedStatement pstmtSetLatest = con.prepareStatement("UPDATE " + table
-                     + " SET latest = TRUE " + dbKeyFactory.getPKClause() + " AND height ="
-                     + " (SELECT MAX(height) FROM " + table + dbKeyFactory.getPKClause() + ")")) {
-            pstmtSelectToDelete.setInt(1, height);
-            List<H2Key> h2Keys = new ArrayList<>();
-            try (ResultSet rs = pstmtSelectToDelete.executeQuery()) {
-                while (rs.next()) {
-                    h2Keys.add(dbKeyFactory.newKey(rs));
-                }
-            }
-            /*
-            if (h2Keys.size() > 0 && Logger.isDebugEnabled()) {
-                LoggerUtil.logDebug(String.format("rollback table %s found %d records to update to latest", table, h2Keys.size()));
-            }
-            */
+                     + " WHERE height > ?")) {
+            // the last version at or below the height of each key changed above it becomes the latest again
+            pstmtSetLatest.setInt(1, height);
+            pstmtSetLatest.setInt(2, height);
+            pstmtSetLatest.setInt(3, height);
+            pstmtSetLatest.executeUpdate();
             pstmtDelete.setInt(1, height);
-            int deletedRecordsCount = pstmtDelete.executeUpdate();
-            /*
-            if (deletedRecordsCount > 0 && Logger.isDebugEnabled()) {
-                LoggerUtil.logDebug(String.format("rollback table %s deleting %d records", table, deletedRecordsCount));
-            }
-            */
-            for (H2Key h2Key : h2Keys) {
-                int i = 1;
-                i = h2Key.setH2KeyPK(pstmtSetLatest, i);
-                i = h2Key.setH2KeyPK(pstmtSetLatest, i);
-                pstmtSetLatest.executeUpdate();
-                //Db.getCache(table).remove(h2Key);
+            pstmtDelete.executeUpdate();
+            if (getTrimmedHeight(db, con, table) > height + 1) {
+                setTrimmedHeight(db, con, table, height + 1);
             }
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
     }
 
+    /**
+     * Trims one slice of at most {@link Constants#TRIM_SLICE_BLOCKS} blocks, starting at the height this table has
+     * already been trimmed to. Only the keys updated within the slice can have obsolete versions, so these are found
+     * through the height index instead of grouping the whole table. Callers repeat the trim while
+     * {@link #isTrimPending(String)} returns true, committing after each slice. The height trimmed to is saved in the
+     * table_trim table with the slice, so that trimming resumes from there after a restart.
+     */
     static void trim(final TransactionalH2 db, final String table, final int height, final H2KeyFactory dbKeyFactory) {
         if (!db.isInTransaction()) {
             throw new IllegalStateException("Not in transaction");
         }
+        trimHeights.put(table, height);
         try (Connection con = db.getConnection();
-             PreparedStatement pstmtSelect = con.prepareStatement("SELECT " + dbKeyFactory.getPKColumns() + ", MAX(height) AS max_height"
-                     + " FROM " + table + " WHERE height < ? GROUP BY " + dbKeyFactory.getPKColumns() + " HAVING COUNT(DISTINCT height) > 1");
+             PreparedStatement pstmtSelect = con.prepareStatement("SELECT DISTINCT " + dbKeyFactory.getPKColumns()
+                     + " FROM " + table + " WHERE height >= ? AND height < ?");
+             PreparedStatement pstmtSelectLast = con.prepareStatement("SELECT height, latest FROM " + table
+                     + dbKeyFactory.getPKClause() + " AND height < ? ORDER BY height DESC LIMIT 1");
+             PreparedStatement pstmtSelectNewer = con.prepareStatement("SELECT 1 FROM " + table
+                     + dbKeyFactory.getPKClause() + " AND height >= ? LIMIT 1");
              PreparedStatement pstmtDelete = con.prepareStatement("DELETE FROM " + table + dbKeyFactory.getPKClause()
-                     + " AND height < ? AND height >= 0");
-             PreparedStatement pstmtDeleteDeleted = con.prepareStatement("DELETE FROM " + table + " WHERE height < ? AND height >= 0 AND latest = FALSE "
-                     + " AND (" + dbKeyFactory.getPKColumns() + ") NOT IN (SELECT (" + dbKeyFactory.getPKColumns() + ") FROM "
-                     + table + " WHERE height >= ?)")) {
-            pstmtSelect.setInt(1, height);
+                     + " AND height < ? AND height >= 0")) {
+            int fromHeight = getTrimmedHeight(db, con, table);
+            if (fromHeight >= height) {
+                return;
+            }
+            int toHeight = Math.min(height, fromHeight + Constants.TRIM_SLICE_BLOCKS);
+            pstmtSelect.setInt(1, fromHeight);
+            pstmtSelect.setInt(2, toHeight);
+            List<H2Key> h2Keys = new ArrayList<>();
             try (ResultSet rs = pstmtSelect.executeQuery()) {
                 while (rs.next()) {
-                    H2Key h2Key = dbKeyFactory.newKey(rs);
-                    int maxHeight = rs.getInt("max_height");
-                    int i = 1;
-                    i = h2Key.setH2KeyPK(pstmtDelete, i);
-                    pstmtDelete.setInt(i, maxHeight);
-                    pstmtDelete.executeUpdate();
+                    h2Keys.add(dbKeyFactory.newKey(rs));
+                }
+            }
+            int count = 0;
+            for (H2Key h2Key : h2Keys) {
+                int i = h2Key.setH2KeyPK(pstmtSelectLast);
+                pstmtSelectLast.setInt(i, height);
+                int lastHeight;
+                boolean latest;
+                try (ResultSet rs = pstmtSelectLast.executeQuery()) {
+                    if (!rs.next()) {
+                        continue;
+                    }
+                    lastHeight = rs.getInt("height");
+                    latest = rs.getBoolean("latest");
+                }
+                if (!latest) {
+                    i = h2Key.setH2KeyPK(pstmtSelectNewer);
+                    pstmtSelectNewer.setInt(i, height);
+                    try (ResultSet rs = pstmtSelectNewer.executeQuery()) {
+                        if (!rs.next()) {
+                            // deleted before the trim height and not created again since
+                            lastHeight = height;
+                        }
+                    }
+                }
+                i = h2Key.setH2KeyPK(pstmtDelete);
+                pstmtDelete.setInt(i, lastHeight);
+                pstmtDelete.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                    pstmtDelete.executeBatch();
                 }
-                pstmtDeleteDeleted.setInt(1, height);
-                pstmtDeleteDeleted.setInt(2, height);
-                pstmtDeleteDeleted.executeUpdate();
             }
+            pstmtDelete.executeBatch();
+            setTrimmedHeight(db, con, table, toHeight);
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
     }
 
+    static boolean isTrimPending(String table) {
+        return trimmedHeights.getOrDefault(table, 0) < trimHeights.getOrDefault(table, 0);
+    }
+
+    static void truncate(final TransactionalH2 db, final String table) {
+        try (Connection con = db.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("DELETE FROM table_trim WHERE table_name = ?")) {
+            pstmt.setString(1, table);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+        trimmedHeights.remove(table);
+        trimHeights.remove(table);
+    }
+
+    /**
+     * Forget the trim progress of all the tables, after their content has been replaced without going through the
+     * entity tables
+     *
+     * @param con Connection of the current transaction
+     * @throws SQLException Database error
+     */
+    public static void resetTrimmedHeights(Connection con) throws SQLException {
+        try (Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("DELETE FROM table_trim");
+        }
+        trimmedHeights.clear();
+        trimHeights.clear();
+    }
+
+    private static int getTrimmedHeight(TransactionalH2 db, Connection con, String table) throws SQLException {
+        Integer trimmedHeight = trimmedHeights.get(table);
+        if (trimmedHeight == null) {
+            try (PreparedStatement pstmt = con.prepareStatement("SELECT trimmed_height FROM table_trim WHERE table_name = ?")) {
+                pstmt.setString(1, table);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    trimmedHeight = rs.next() ? rs.getInt("trimmed_height") : 0;
+                }
+            }
+            db.registerCallback(trimCallback);
+            trimmedHeights.put(table, trimmedHeight);
+        }
+        return trimmedHeight;
+    }
+
+    private static void setTrimmedHeight(TransactionalH2 db, Connection con, String table, int trimmedHeight) throws SQLException {
+        try (PreparedStatement pstmt = con.prepareStatement("MERGE INTO table_trim (table_name, trimmed_height) "
+                + "KEY (table_name) VALUES (?, ?)")) {
+            pstmt.setString(1, table);
+            pstmt.setInt(2, trimmedHeight);
+            pstmt.executeUpdate();
+        }
+        db.registerCallback(trimCallback);
+        trimmedHeights.put(table, trimmedHeight);
+    }
+
     public final boolean delete(T t) {
         return delete(t, false);
     }
@@ -106,6 +207,7 @@ public abstract class VersionedEntityH2Table<T> extends EntityH2Table<T> {
             throw new IllegalStateException("Not in transaction");
         }
         H2Key h2Key = dbKeyFactory.newKey(t);
+        invalidateCache(h2Key);
         try (Connection con = h2.getConnection();
              PreparedStatement pstmtCount = con.prepareStatement("SELECT 1 FROM " + table
                      + dbKeyFactory.getPKClause() + " AND height < ? LIMIT 1")) {
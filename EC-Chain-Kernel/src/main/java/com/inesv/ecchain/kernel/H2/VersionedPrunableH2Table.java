@@ -19,7 +19,7 @@ public abstract class VersionedPrunableH2Table<T> extends PrunableH2Table<T> {
     }
 
     @Override
-    public final void rollback(int height) {
+    public void rollback(int height) {
         if (!h2.isInTransaction()) {
             throw new IllegalStateException("Not in transaction");
         }
@@ -31,6 +31,7 @@ public abstract class VersionedPrunableH2Table<T> extends PrunableH2Table<T> {
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
+        invalidateCache(height);
     }
 
 }
@@ -1,7 +1,11 @@
 package com.inesv.ecchain.kernel.core;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
 abstract class AbstractVote {
 
@@ -41,5 +45,67 @@ abstract class AbstractVote {
         return voteWeighting;
     }
 
+    abstract String getVoteTable();
+
+    abstract String getVotePollColumn();
+
+    /**
+     * Return the balances of all voters of this poll as of the height with a single query, instead of looking up
+     * each voter. Voters without a balance row at the height are not included.
+     *
+     * @param con           Connection
+     * @param table         Versioned balance table
+     * @param idColumn      Account id column of the balance table
+     * @param balanceColumn Balance column of the balance table
+     * @param holdingColumn Holding id column of the balance table, or null if the table has no holding
+     * @param holdingId     Holding id
+     * @param height        Height, or Integer.MAX_VALUE for the latest balances
+     * @return Balances by voter id
+     * @throws SQLException Database error
+     */
+    final Map<Long, Long> getVoterBalances(Connection con, String table, String idColumn, String balanceColumn,
+                                           String holdingColumn, long holdingId, int height) throws SQLException {
+        boolean latest = height == Integer.MAX_VALUE;
+        StringBuilder sql = new StringBuilder("SELECT v.voter_id, a.").append(balanceColumn).append(" FROM ").append(getVoteTable())
+                .append(" AS v JOIN ").append(table).append(" AS a ON a.").append(idColumn).append(" = v.voter_id");
+        if (holdingColumn != null) {
+            sql.append(" AND a.").append(holdingColumn).append(" = ?");
+        }
+        if (latest) {
+            sql.append(" AND a.latest = TRUE");
+        } else {
+            sql.append(" AND a.height = (SELECT MAX(b.height) FROM ").append(table).append(" AS b WHERE b.")
+                    .append(idColumn).append(" = v.voter_id");
+            if (holdingColumn != null) {
+                sql.append(" AND b.").append(holdingColumn).append(" = a.").append(holdingColumn);
+            }
+            sql.append(" AND b.height <= ?) AND (a.latest = TRUE OR EXISTS (SELECT 1 FROM ").append(table)
+                    .append(" AS c WHERE c.").append(idColumn).append(" = v.voter_id");
+            if (holdingColumn != null) {
+                sql.append(" AND c.").append(holdingColumn).append(" = a.").append(holdingColumn);
+            }
+            sql.append(" AND c.height > ?))");
+        }
+        sql.append(" WHERE v.").append(getVotePollColumn()).append(" = ?");
+        Map<Long, Long> balances = new HashMap<>();
+        try (PreparedStatement pstmt = con.prepareStatement(sql.toString())) {
+            int i = 0;
+            if (holdingColumn != null) {
+                pstmt.setLong(++i, holdingId);
+            }
+            if (!latest) {
+                pstmt.setInt(++i, height);
+                pstmt.setInt(++i, height);
+            }
+            pstmt.setLong(++i, Id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    balances.put(rs.getLong(1), rs.getLong(2));
+                }
+            }
+        }
+        return balances;
+    }
+
 }
 
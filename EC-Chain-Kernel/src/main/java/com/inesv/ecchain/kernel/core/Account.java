@@ -196,6 +196,23 @@ public final class Account {
             }
         }
 
+        @Override
+        public void rollback(int height) {
+            super.rollback(height);
+            AccountBalanceCache.rollback(height);
+        }
+
+        @Override
+        public int getMinStateHashHeight(int height) {
+            return height - Snapshot.STATE_HASH_BLOCKS - Constants.EC_GUARANTEED_BALANCE_CONFIRMATIONS;
+        }
+
+        @Override
+        public void truncate() {
+            super.truncate();
+            AccountBalanceCache.clear();
+        }
+
     };
     private static final H2KeyLongKeyFactory<AccountProperty> ACCOUNT_PROPERTY_DB_KEY_FACTORY = new H2KeyLongKeyFactory<AccountProperty>("Id") {
 
@@ -270,6 +287,8 @@ public final class Account {
             }
         }, EcBlockchainProcessorEvent.AFTER_BLOCK_APPLY);
 
+        EcBlockchainProcessorImpl.getInstance().addECListener(block -> AccountBalanceCache.blockApplied(), EcBlockchainProcessorEvent.AFTER_BLOCK_APPLY);
+
         if (PUBLIC_KEY_CACHE != null) {
 
             EcBlockchainProcessorImpl.getInstance().addECListener(block -> {
@@ -487,14 +506,12 @@ public final class Account {
         if (account == null) {
             return null;
         }
-        if (account.publicKey == null) {
-            account.publicKey = PUBLIC_KEY_TABLE.get(ACCOUNT_LONG_KEY_FACTORY.newKey(account));
-        }
-        if (account.publicKey == null || account.publicKey.publicKey == null || Arrays.equals(account.publicKey.publicKey, publicKey)) {
+        PublicKey accountPublicKey = account.getPublicKeyEntity();
+        if (accountPublicKey == null || accountPublicKey.publicKey == null || Arrays.equals(accountPublicKey.publicKey, publicKey)) {
             return account;
         }
         throw new RuntimeException("DUPLICATE KEY for account " + Long.toUnsignedString(accountId)
-                + " existing key " + Convert.toHexString(account.publicKey.publicKey) + " new key " + Convert.toHexString(publicKey));
+                + " existing key " + Convert.toHexString(accountPublicKey.publicKey) + " new key " + Convert.toHexString(publicKey));
     }
 
     public static long getId(byte[] publicKey) {
@@ -624,6 +641,31 @@ public final class Account {
         return accountCoin == null ? 0 : accountCoin.units;
     }
 
+    static Map<Long, Long> getVoterBalancesNQT(AbstractVote poll, int height) {
+        return getVoterBalances(ACCOUNT_TABLE, "account", "Id", "balance", null, 0, poll, height);
+    }
+
+    static Map<Long, Long> getVoterPropertyBalancesQNT(AbstractVote poll, long assetId, int height) {
+        return getVoterBalances(ACCOUNT_ASSET_TABLE, "account_asset", "account_id", "quantity", "asset_id", assetId, poll, height);
+    }
+
+    static Map<Long, Long> getVoterCoinUnits(AbstractVote poll, long currencyId, int height) {
+        return getVoterBalances(ACCOUNT_CURRENCY_TABLE, "account_currency", "account_id", "units", "currency_id", currencyId, poll, height);
+    }
+
+    private static Map<Long, Long> getVoterBalances(VersionedEntityH2Table<?> entityTable, String table, String idColumn,
+                                                    String balanceColumn, String holdingColumn, long holdingId, AbstractVote poll, int height) {
+        boolean latest = height >= EcBlockchainImpl.getInstance().getHeight();
+        if (!latest) {
+            entityTable.checkAvailable(height);
+        }
+        try (Connection con = H2.H2.getConnection()) {
+            return poll.getVoterBalances(con, table, idColumn, balanceColumn, holdingColumn, holdingId, latest ? Integer.MAX_VALUE : height);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
     public static long getCoinUnits(long accountId, long currencyId) {
         AccountCoin accountCoin = ACCOUNT_CURRENCY_TABLE.get(ACCOUNT_CURRENCY_DB_KEY_FACTORY.newKey(accountId, currencyId));
         return accountCoin == null ? 0 : accountCoin.units;
@@ -663,8 +705,10 @@ public final class Account {
             publicKey = PUBLIC_KEY_TABLE.newEntity(h2Key);
         }
         if (publicKey.publicKey == null) {
-            publicKey.publicKey = key;
-            publicKey.height = EcBlockchainImpl.getInstance().getHeight();
+            if (H2.H2.isInTransaction()) {
+                publicKey.publicKey = key;
+                publicKey.height = EcBlockchainImpl.getInstance().getHeight();
+            }
             return true;
         }
         return Arrays.equals(publicKey.publicKey, key);
@@ -763,16 +807,26 @@ public final class Account {
         return forgedBalanceNQT;
     }
 
+    private PublicKey getPublicKeyEntity() {
+        PublicKey publicKey = this.publicKey;
+        if (publicKey == null) {
+            publicKey = PUBLIC_KEY_TABLE.get(ACCOUNT_LONG_KEY_FACTORY.newKey(this));
+            // accounts read outside of a transaction can be shared between threads by the entity cache
+            if (H2.H2.isInTransaction()) {
+                this.publicKey = publicKey;
+            }
+        }
+        return publicKey;
+    }
+
     public long getEffectiveBalanceEC() {
         return getEffectiveBalanceEC(EcBlockchainImpl.getInstance().getHeight());
     }
 
     public long getEffectiveBalanceEC(int height) {
         if (height >= Constants.EC_TRANSPARENT_FORGING_BLOCK_3) {
-            if (this.publicKey == null) {
-                this.publicKey = PUBLIC_KEY_TABLE.get(ACCOUNT_LONG_KEY_FACTORY.newKey(this));
-            }
-            if (this.publicKey == null || this.publicKey.publicKey == null || this.publicKey.height == 0 || height - this.publicKey.height <= 1440) {
+            PublicKey publicKey = getPublicKeyEntity();
+            if (publicKey == null || publicKey.publicKey == null || publicKey.height == 0 || height - publicKey.height <= 1440) {
                 return 0; // cfb: Accounts with the public key revealed less than 1440 blocks ago are not allowed to generate blocks
             }
         }
@@ -790,11 +844,22 @@ public final class Account {
         }
         EcBlockchainImpl.getInstance().readECLock();
         try {
+            boolean cache = !H2.H2.isInTransaction();
+            if (cache) {
+                Long effectiveBalanceEC = AccountBalanceCache.getEffectiveBalance(id, height);
+                if (effectiveBalanceEC != null) {
+                    return effectiveBalanceEC;
+                }
+            }
             long effectiveBalanceNQT = getLessorsGuaranteedBalanceNQT(height);
             if (activeLesseeId == 0) {
                 effectiveBalanceNQT += getGuaranteedBalanceNQT(Constants.EC_GUARANTEED_BALANCE_CONFIRMATIONS, height);
             }
-            return (height > Constants.EC_SHUFFLING_BLOCK && effectiveBalanceNQT < Constants.EC_MIN_FORGING_BALANCE_NQT) ? 0 : effectiveBalanceNQT / Constants.ONE_EC;
+            long effectiveBalanceEC = (height > Constants.EC_SHUFFLING_BLOCK && effectiveBalanceNQT < Constants.EC_MIN_FORGING_BALANCE_NQT) ? 0 : effectiveBalanceNQT / Constants.ONE_EC;
+            if (cache) {
+                AccountBalanceCache.putEffectiveBalance(id, height, effectiveBalanceEC);
+            }
+            return effectiveBalanceEC;
         } finally {
             EcBlockchainImpl.getInstance().readECUnlock();
         }
@@ -807,43 +872,49 @@ public final class Account {
                 lessors.add(iterator.next());
             }
         }
-        Long[] lessorIds = new Long[lessors.size()];
-        long[] balances = new long[lessors.size()];
-        for (int i = 0; i < lessors.size(); i++) {
-            lessorIds[i] = lessors.get(i).getId();
-            balances[i] = lessors.get(i).getBalanceNQT();
-        }
-        int blockchainHeight = EcBlockchainImpl.getInstance().getHeight();
-        try (Connection con = H2.H2.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT account_id, SUM (additions) AS additions "
-                     + "FROM account_guaranteed_balance, TABLE (id BIGINT=?) T WHERE account_id = T.id AND height > ? "
-                     + (height < blockchainHeight ? " AND height <= ? " : "")
-                     + " GROUP BY account_id ORDER BY account_id")) {
-            pstmt.setObject(1, lessorIds);
-            pstmt.setInt(2, height - Constants.EC_GUARANTEED_BALANCE_CONFIRMATIONS);
-            if (height < blockchainHeight) {
-                pstmt.setInt(3, height);
+        boolean cache = !H2.H2.isInTransaction();
+        Map<Long, Long> additions = new HashMap<>();
+        List<Long> lessorIds = new ArrayList<>();
+        for (Account lessor : lessors) {
+            Long lessorAdditions = cache ? AccountBalanceCache.getGuaranteedAdditions(lessor.getId(), height) : null;
+            if (lessorAdditions != null) {
+                additions.put(lessor.getId(), lessorAdditions);
+            } else {
+                lessorIds.add(lessor.getId());
             }
-            long total = 0;
-            int i = 0;
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    long accountId = rs.getLong("account_id");
-                    while (lessorIds[i] < accountId && i < lessorIds.length) {
-                        total += balances[i++];
-                    }
-                    if (lessorIds[i] == accountId) {
-                        total += Math.max(balances[i++] - rs.getLong("additions"), 0);
+        }
+        if (!lessorIds.isEmpty()) {
+            int blockchainHeight = EcBlockchainImpl.getInstance().getHeight();
+            try (Connection con = H2.H2.getConnection();
+                 PreparedStatement pstmt = con.prepareStatement("SELECT account_id, SUM (additions) AS additions "
+                         + "FROM account_guaranteed_balance, TABLE (id BIGINT=?) T WHERE account_id = T.id AND height > ? "
+                         + (height < blockchainHeight ? " AND height <= ? " : "")
+                         + " GROUP BY account_id ORDER BY account_id")) {
+                pstmt.setObject(1, lessorIds.toArray(new Long[lessorIds.size()]));
+                pstmt.setInt(2, height - Constants.EC_GUARANTEED_BALANCE_CONFIRMATIONS);
+                if (height < blockchainHeight) {
+                    pstmt.setInt(3, height);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        additions.put(rs.getLong("account_id"), rs.getLong("additions"));
                     }
                 }
+            } catch (SQLException e) {
+                throw new RuntimeException(e.toString(), e);
             }
-            while (i < balances.length) {
-                total += balances[i++];
+            if (cache) {
+                for (Long lessorId : lessorIds) {
+                    AccountBalanceCache.putGuaranteedAdditions(lessorId, height, additions.getOrDefault(lessorId, 0L));
+                }
             }
-            return total;
-        } catch (SQLException e) {
-            throw new RuntimeException(e.toString(), e);
         }
+        long total = 0;
+        for (Account lessor : lessors) {
+            long lessorAdditions = additions.getOrDefault(lessor.getId(), 0L);
+            total += lessorAdditions == 0 ? lessor.getBalanceNQT() : Math.max(lessor.getBalanceNQT() - lessorAdditions, 0);
+        }
+        return total;
     }
 
     public H2Iterator<Account> getLessors() {
@@ -866,6 +937,13 @@ public final class Account {
                     || height > EcBlockchainImpl.getInstance().getHeight()) {
                 throw new IllegalArgumentException("Height " + height + " not available for guaranteed balance calculation");
             }
+            boolean cache = numberOfConfirmations == Constants.EC_GUARANTEED_BALANCE_CONFIRMATIONS && !H2.H2.isInTransaction();
+            if (cache) {
+                Long additions = AccountBalanceCache.getGuaranteedAdditions(this.id, currentHeight);
+                if (additions != null) {
+                    return Math.max(Math.subtractExact(balanceNQT, additions), 0);
+                }
+            }
             try (Connection con = H2.H2.getConnection();
                  PreparedStatement pstmt = con.prepareStatement("SELECT SUM (additions) AS additions "
                          + "FROM account_guaranteed_balance WHERE account_id = ? AND height > ? AND height <= ?")) {
@@ -876,7 +954,11 @@ public final class Account {
                     if (!rs.next()) {
                         return balanceNQT;
                     }
-                    return Math.max(Math.subtractExact(balanceNQT, rs.getLong("additions")), 0);
+                    long additions = rs.getLong("additions");
+                    if (cache) {
+                        AccountBalanceCache.putGuaranteedAdditions(this.id, currentHeight, additions);
+                    }
+                    return Math.max(Math.subtractExact(balanceNQT, additions), 0);
                 }
             } catch (SQLException e) {
                 throw new RuntimeException(e.toString(), e);
@@ -1331,6 +1413,7 @@ public final class Account {
                 pstmtUpdate.setInt(3, blockchainHeight);
                 pstmtUpdate.executeUpdate();
             }
+            AccountBalanceCache.guaranteedBalanceAdded(blockchainHeight);
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
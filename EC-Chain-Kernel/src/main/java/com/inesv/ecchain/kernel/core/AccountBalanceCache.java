@@ -0,0 +1,79 @@
+package com.inesv.ecchain.kernel.core;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Per-height memo of account effective balances and of the guaranteed balance additions summed
+ * over the last EC_GUARANTEED_BALANCE_CONFIRMATIONS blocks. Values are only looked up and stored
+ * outside of database transactions while holding the blockchain read lock, and are invalidated by
+ * the block processing thread while it holds the write lock, so they never reflect uncommitted data.
+ * <p>
+ * Effective balances also depend on the current balances and leases of the accounts, so they are
+ * dropped whenever a block is applied or popped off. The additions only depend on the
+ * account_guaranteed_balance table and are dropped when rows up to their height change.
+ */
+final class AccountBalanceCache {
+
+    private static final int MAX_HEIGHTS = 10;
+    private static final int MAX_ACCOUNTS = 10000;
+
+    private static final NavigableMap<Integer, Map<Long, Long>> effectiveBalances = new ConcurrentSkipListMap<>();
+    private static final NavigableMap<Integer, Map<Long, Long>> guaranteedAdditions = new ConcurrentSkipListMap<>();
+
+    private AccountBalanceCache() {
+    }
+
+    static Long getEffectiveBalance(long accountId, int height) {
+        return get(effectiveBalances, accountId, height);
+    }
+
+    static void putEffectiveBalance(long accountId, int height, long effectiveBalanceEC) {
+        put(effectiveBalances, accountId, height, effectiveBalanceEC);
+    }
+
+    static Long getGuaranteedAdditions(long accountId, int height) {
+        return get(guaranteedAdditions, accountId, height);
+    }
+
+    static void putGuaranteedAdditions(long accountId, int height, long additions) {
+        put(guaranteedAdditions, accountId, height, additions);
+    }
+
+    static void blockApplied() {
+        effectiveBalances.clear();
+    }
+
+    static void guaranteedBalanceAdded(int height) {
+        guaranteedAdditions.tailMap(height, true).clear();
+        effectiveBalances.clear();
+    }
+
+    static void rollback(int height) {
+        guaranteedAdditions.tailMap(height, false).clear();
+        effectiveBalances.clear();
+    }
+
+    static void clear() {
+        guaranteedAdditions.clear();
+        effectiveBalances.clear();
+    }
+
+    private static Long get(NavigableMap<Integer, Map<Long, Long>> cache, long accountId, int height) {
+        Map<Long, Long> values = cache.get(height);
+        return values == null ? null : values.get(accountId);
+    }
+
+    private static void put(NavigableMap<Integer, Map<Long, Long>> cache, long accountId, int height, long value) {
+        Map<Long, Long> values = cache.computeIfAbsent(height, h -> new ConcurrentHashMap<>());
+        if (values.size() < MAX_ACCOUNTS) {
+            values.put(accountId, value);
+        }
+        while (cache.size() > MAX_HEIGHTS) {
+            cache.pollFirstEntry();
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package com.inesv.ecchain.kernel.core;
 
 import com.inesv.ecchain.common.core.Constants;
 import com.inesv.ecchain.common.util.*;
+import com.inesv.ecchain.kernel.H2.H2Iterator;
 import com.inesv.ecchain.kernel.H2.H2Utils;
 import com.inesv.ecchain.kernel.H2.DerivedH2Table;
 
@@ -131,8 +132,11 @@ public class AccountLedger {
     }
 
     static void commitEntries() {
+        if (PENDING_ENTRIES.isEmpty()) {
+            return;
+        }
+        ACCOUNT_LEDGER_TABLE.insert(PENDING_ENTRIES);
         for (LedgerEntry ledgerEntry : PENDING_ENTRIES) {
-            ACCOUNT_LEDGER_TABLE.insert(ledgerEntry);
             LISTENER_MANAGER.notify(ledgerEntry, AccountLedgerEvent.ADD_ENTRY);
         }
         PENDING_ENTRIES.clear();
@@ -163,49 +167,53 @@ public class AccountLedger {
         return entry;
     }
 
-    public static List<LedgerEntry> getEntries(long accountId, LedgerEvent event, long eventId,
-                                               LedgerHolding holding, long holdingId,
-                                               int firstIndex, int lastIndex) {
-        if (!ledgerenabled) {
-            return Collections.emptyList();
-        }
-        List<LedgerEntry> entryList = new ArrayList<>();
+    public static boolean isEnabled() {
+        return ledgerenabled;
+    }
+
+    /**
+     * Return the ledger entries listed after the given entry, newest first
+     *
+     * The entries are read with a single query, so they only include committed blocks and
+     * the query does not wait for the block currently being applied
+     *
+     * @param cursorLedgerId Return the entries older than this entry, or 0 to start with the newest entry
+     */
+    public static H2Iterator<LedgerEntry> getEntries(long accountId, LedgerEvent event, long eventId,
+                                                     LedgerHolding holding, long holdingId, long cursorLedgerId,
+                                                     int firstIndex, int lastIndex) {
         //
         // Build the SELECT statement to search the entries
+        //
         StringBuilder sb = new StringBuilder(128);
-        sb.append("SELECT * FROM account_ledger ");
-        if (accountId != 0 || event != null || holding != null) {
-            sb.append("WHERE ");
-        }
+        sb.append("SELECT * FROM account_ledger WHERE TRUE ");
         if (accountId != 0) {
-            sb.append("account_id = ? ");
+            sb.append("AND account_id = ? ");
         }
         if (event != null) {
-            if (accountId != 0) {
-                sb.append("AND ");
-            }
-            sb.append("event_type = ? ");
+            sb.append("AND event_type = ? ");
             if (eventId != 0) {
                 sb.append("AND event_id = ? ");
             }
         }
         if (holding != null) {
-            if (accountId != 0 || event != null) {
-                sb.append("AND ");
-            }
-            sb.append("holding_type = ? ");
+            sb.append("AND holding_type = ? ");
             if (holdingId != 0) {
                 sb.append("AND holding_id = ? ");
             }
         }
+        if (cursorLedgerId != 0) {
+            sb.append("AND db_id < ? ");
+        }
         sb.append("ORDER BY db_id DESC ");
         sb.append(H2Utils.limitsClause(firstIndex, lastIndex));
         //
         // Get the ledger entries
         //
-        EC_BLOCKCHAIN.readECLock();
-        try (Connection con = H2.H2.getConnection();
-             PreparedStatement pstmt = con.prepareStatement(sb.toString())) {
+        Connection con = null;
+        try {
+            con = H2.H2.getConnection();
+            PreparedStatement pstmt = con.prepareStatement(sb.toString());
             int i = 0;
             if (accountId != 0) {
                 pstmt.setLong(++i, accountId);
@@ -222,18 +230,15 @@ public class AccountLedger {
                     pstmt.setLong(++i, holdingId);
                 }
             }
-            H2Utils.setLimits(++i, pstmt, firstIndex, lastIndex);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    entryList.add(new LedgerEntry(rs));
-                }
+            if (cursorLedgerId != 0) {
+                pstmt.setLong(++i, cursorLedgerId);
             }
+            H2Utils.setLimits(++i, pstmt, firstIndex, lastIndex);
+            return new H2Iterator<>(con, pstmt, (connection, rs) -> new LedgerEntry(rs));
         } catch (SQLException e) {
+            H2Utils.h2close(con);
             throw new RuntimeException(e.toString(), e);
-        } finally {
-            EC_BLOCKCHAIN.readECUnlock();
         }
-        return entryList;
     }
 
     private static class AccountLedgerTable extends DerivedH2Table {
@@ -246,13 +251,57 @@ public class AccountLedger {
         }
 
         /**
-         * Insert an entry into the table
+         * The ledger depends on the accounts tracked by this node, so it is not part of a state snapshot
          *
-         * @param ledgerEntry Ledger entry
+         * @return FALSE
          */
-        public void insert(LedgerEntry ledgerEntry) {
+        @Override
+        public boolean isInSnapshot() {
+            return false;
+        }
+
+        /**
+         * Insert the entries into the table as a single batch and set their ledger identifiers
+         *
+         * The entries are written in the block transaction, so they are removed again by
+         * rollback() when the block is popped off or fails to apply
+         *
+         * @param ledgerEntries Ledger entries
+         */
+        public void insert(List<LedgerEntry> ledgerEntries) {
             try (Connection con = h2.getConnection()) {
-                ledgerEntry.save(con);
+                long lastLedgerId;
+                try (Statement stmt = con.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT MAX(db_id) FROM account_ledger")) {
+                    lastLedgerId = rs.next() ? rs.getLong(1) : 0;
+                }
+                try (PreparedStatement pstmt = con.prepareStatement("INSERT INTO account_ledger "
+                        + "(account_id, event_type, event_id, holding_type, holding_id, change, balance, "
+                        + "block_id, height, timestamp) "
+                        + "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                    for (LedgerEntry ledgerEntry : ledgerEntries) {
+                        ledgerEntry.setParameters(pstmt);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                //
+                // Identity values are assigned in insert order and only the block processing
+                // thread writes to the table, so the new rows follow the previous maximum
+                //
+                try (PreparedStatement pstmt = con.prepareStatement("SELECT db_id FROM account_ledger "
+                        + "WHERE db_id > ? ORDER BY db_id")) {
+                    pstmt.setLong(1, lastLedgerId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        for (LedgerEntry ledgerEntry : ledgerEntries) {
+                            if (!rs.next()) {
+                                throw new IllegalStateException("Missing account ledger row for entry at height "
+                                        + ledgerEntry.getHeight());
+                            }
+                            ledgerEntry.ledgerId = rs.getLong(1);
+                        }
+                    }
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e.toString(), e);
             }
@@ -538,38 +587,27 @@ public class AccountLedger {
         }
 
         /**
-         * Save the ledger entry
+         * Set the insert parameters for the ledger entry
          *
-         * @param con Database connection
+         * @param stmt Prepared INSERT statement
          * @throws SQLException Database error occurred
          */
-        private void save(Connection con) throws SQLException {
-            try (PreparedStatement stmt = con.prepareStatement("INSERT INTO account_ledger "
-                    + "(account_id, event_type, event_id, holding_type, holding_id, change, balance, "
-                    + "block_id, height, timestamp) "
-                    + "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
-                int i = 0;
-                stmt.setLong(++i, accountId);
-                stmt.setByte(++i, (byte) event.getCode());
-                stmt.setLong(++i, eventId);
-                if (holding != null) {
-                    stmt.setByte(++i, (byte) holding.getCode());
-                } else {
-                    stmt.setByte(++i, (byte) -1);
-                }
-                H2Utils.h2setLong(stmt, ++i, holdingId);
-                stmt.setLong(++i, change);
-                stmt.setLong(++i, balance);
-                stmt.setLong(++i, blockId);
-                stmt.setInt(++i, height);
-                stmt.setInt(++i, timestamp);
-                stmt.executeUpdate();
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        ledgerId = rs.getLong(1);
-                    }
-                }
+        private void setParameters(PreparedStatement stmt) throws SQLException {
+            int i = 0;
+            stmt.setLong(++i, accountId);
+            stmt.setByte(++i, (byte) event.getCode());
+            stmt.setLong(++i, eventId);
+            if (holding != null) {
+                stmt.setByte(++i, (byte) holding.getCode());
+            } else {
+                stmt.setByte(++i, (byte) -1);
             }
+            H2Utils.h2setLong(stmt, ++i, holdingId);
+            stmt.setLong(++i, change);
+            stmt.setLong(++i, balance);
+            stmt.setLong(++i, blockId);
+            stmt.setInt(++i, height);
+            stmt.setInt(++i, timestamp);
         }
     }
 }
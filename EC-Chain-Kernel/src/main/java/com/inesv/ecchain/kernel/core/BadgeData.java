@@ -47,8 +47,16 @@ public class BadgeData {
             if (Constants.EC_ENABLE_PRUNING) {
                 try (Connection con = h2.getConnection();
                      PreparedStatement pstmtSelect = con.prepareStatement("SELECT parsed_tags "
-                             + "FROM tagged_data WHERE transaction_timestamp < ? AND latest = TRUE ")) {
+                             + "FROM tagged_data WHERE transaction_timestamp < ? AND latest = TRUE ");
+                     PreparedStatement pstmtSelectHashes = con.prepareStatement("SELECT DISTINCT data_hash "
+                             + "FROM tagged_data WHERE transaction_timestamp < ? AND data_hash IS NOT NULL")) {
                     int expiration = new EcTime.EpochEcTime().getTime() - Constants.EC_MAX_PRUNABLE_LIFETIME;
+                    pstmtSelectHashes.setInt(1, expiration);
+                    try (ResultSet rs = pstmtSelectHashes.executeQuery()) {
+                        while (rs.next()) {
+                            BlobStore.release(rs.getBytes("data_hash"));
+                        }
+                    }
                     pstmtSelect.setInt(1, expiration);
                     Map<String, Integer> expiredTags = new HashMap<>();
                     try (ResultSet rs = pstmtSelect.executeQuery()) {
@@ -68,6 +76,16 @@ public class BadgeData {
             super.prune();
         }
 
+        @Override
+        public void rollback(int height) {
+            try (Connection con = h2.getConnection()) {
+                BlobStore.releaseAbove(con, "tagged_data", "data_hash", height);
+            } catch (SQLException e) {
+                throw new RuntimeException(e.toString(), e);
+            }
+            super.rollback(height);
+        }
+
     };
     private static final H2KeyLongKeyFactory<Timestamp> TIMESTAMP_KEY_FACTORY = new H2KeyLongKeyFactory<Timestamp>("Id") {
 
@@ -127,6 +145,7 @@ public class BadgeData {
     private final String tags;
     private final String[] parsedTags;
     private final byte[] data;
+    private byte[] dataHash;
     private final String type;
     private final String channel;
     private final boolean isText;
@@ -166,6 +185,7 @@ public class BadgeData {
         this.tags = rs.getString("tags");
         this.parsedTags = H2Utils.h2getArray(rs, "parsed_tags", String[].class);
         this.data = rs.getBytes("data");
+        this.dataHash = rs.getBytes("data_hash");
         this.type = rs.getString("type");
         this.channel = rs.getString("channel");
         this.isText = rs.getBoolean("is_text");
@@ -293,9 +313,12 @@ public class BadgeData {
     }
 
     private void saveBadgeData(Connection con) throws SQLException {
+        if (dataHash == null && BlobStore.isStored(data)) {
+            dataHash = BlobStore.put(data);
+        }
         try (PreparedStatement pstmt = con.prepareStatement("MERGE INTO tagged_data (id, account_id, name, description, tags, parsed_tags, "
-                + "type, channel, data, is_text, filename, block_timestamp, transaction_timestamp, height, latest) "
-                + "KEY (id, height) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE)")) {
+                + "type, channel, data, data_hash, is_text, filename, block_timestamp, transaction_timestamp, height, latest) "
+                + "KEY (id, height) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE)")) {
             int i = 0;
             pstmt.setLong(++i, this.id);
             pstmt.setLong(++i, this.accountId);
@@ -305,7 +328,8 @@ public class BadgeData {
             H2Utils.h2setArray(pstmt, ++i, this.parsedTags);
             pstmt.setString(++i, this.type);
             pstmt.setString(++i, this.channel);
-            pstmt.setBytes(++i, this.data);
+            H2Utils.h2setBytes(pstmt, ++i, this.dataHash == null ? this.data : null);
+            H2Utils.h2setBytes(pstmt, ++i, this.dataHash);
             pstmt.setBoolean(++i, this.isText);
             pstmt.setString(++i, this.filename);
             pstmt.setInt(++i, this.blockTimestamp);
@@ -339,8 +363,22 @@ public class BadgeData {
         return parsedTags;
     }
 
+    /**
+     * Return the data, read from the blob store if it is stored there
+     *
+     * @return Data or null if it is no longer available
+     */
     public byte[] getData() {
-        return data;
+        return data != null ? data : dataHash != null ? BlobStore.get(dataHash) : null;
+    }
+
+    /**
+     * Return the hash of the data in the blob store
+     *
+     * @return Data hash or null if the data is kept in the database
+     */
+    public byte[] getDataHash() {
+        return dataHash;
     }
 
     public String getType() {
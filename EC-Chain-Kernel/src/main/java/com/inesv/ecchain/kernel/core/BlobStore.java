@@ -0,0 +1,222 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.common.core.Constants;
+import com.inesv.ecchain.common.crypto.Crypto;
+import com.inesv.ecchain.common.util.Convert;
+import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.common.util.ThreadPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed file store for the payloads of tagged data and prunable messages.
+ * <p>
+ * A payload is stored once in a file named after its SHA-256 hash, in a directory sharded by the first two bytes
+ * of the hash, and the database rows only keep the hash. Payloads smaller than {@link Constants#BLOB_STORE_MIN_SIZE}
+ * stay in the database. A file can be shared by several rows, so pruning a row only makes its file a candidate
+ * for deletion. The cleanup thread deletes the candidates no longer referenced by any committed row, holding the
+ * blockchain write lock so that it cannot race with a block storing the same payload again.
+ */
+public final class BlobStore {
+
+    private static final File ROOT = new File(Constants.BLOB_STORE_DIR);
+
+    private static final String[] REFERENCE_QUERIES = {
+            "SELECT 1 FROM tagged_data WHERE data_hash = ? LIMIT 1",
+            "SELECT 1 FROM prunable_message WHERE message_hash = ? LIMIT 1",
+            "SELECT 1 FROM prunable_message WHERE encrypted_message_hash = ? LIMIT 1"
+    };
+
+    private static final Set<String> releasedHashes = ConcurrentHashMap.newKeySet();
+
+    private static final Runnable cleanupThread = () -> {
+
+        try {
+            try {
+                cleanup();
+            } catch (Exception e) {
+                LoggerUtil.logError("Error deleting released blobs", e);
+            }
+        } catch (Throwable t) {
+            LoggerUtil.logError("CRITICAL ERROR. PLEASE REPORT TO THE DEVELOPERS.\n" + t.toString());
+            t.printStackTrace();
+            System.exit(1);
+        }
+
+    };
+
+    private BlobStore() {
+    }
+
+    public static void start() {
+        ThreadPool.scheduleThread("BlobStoreCleanup", cleanupThread, 60);
+    }
+
+    static boolean isStored(byte[] data) {
+        return data != null && data.length >= Constants.BLOB_STORE_MIN_SIZE;
+    }
+
+    /**
+     * Store a payload unless a payload with the same hash is already stored
+     *
+     * @param data Payload
+     * @return SHA-256 hash of the payload
+     */
+    static byte[] put(byte[] data) {
+        byte[] hash = Crypto.sha256().digest(data);
+        File file = getFile(hash);
+        if (!file.exists()) {
+            try {
+                Files.createDirectories(file.getParentFile().toPath());
+                Path tmp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+                try {
+                    Files.write(tmp, data);
+                    Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException ignore) {
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e.toString(), e);
+            }
+        }
+        // a payload stored by a block that is then rolled back is not referenced by any row
+        release(hash);
+        return hash;
+    }
+
+    /**
+     * Read a payload
+     *
+     * @param hash SHA-256 hash of the payload
+     * @return Payload or null if it is not in the store
+     */
+    static byte[] get(byte[] hash) {
+        try {
+            return Files.readAllBytes(getFile(hash).toPath());
+        } catch (NoSuchFileException e) {
+            LoggerUtil.logDebug("Blob " + Convert.toHexString(hash) + " not found");
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    /**
+     * Return the file of a payload, which may not exist if the payload has been deleted
+     *
+     * @param hash SHA-256 hash of the payload
+     * @return Payload file
+     */
+    public static File getFile(byte[] hash) {
+        String name = Convert.toHexString(hash);
+        return new File(new File(new File(ROOT, name.substring(0, 2)), name.substring(2, 4)), name);
+    }
+
+    static void release(byte[] hash) {
+        if (hash != null) {
+            releasedHashes.add(Convert.toHexString(hash));
+        }
+    }
+
+    /**
+     * Release the payloads of the rows of a table above a height, before the rows are rolled back or deleted with
+     * their blocks. The caller holds the blockchain write lock, so the files are not deleted while the rows still
+     * exist.
+     *
+     * @param con        Connection
+     * @param table      Table
+     * @param hashColumn Column holding the payload hash
+     * @param height     Height
+     * @throws SQLException Database error
+     */
+    static void releaseAbove(Connection con, String table, String hashColumn, int height) throws SQLException {
+        try (PreparedStatement pstmt = con.prepareStatement("SELECT DISTINCT " + hashColumn + " FROM " + table
+                + " WHERE height > ? AND " + hashColumn + " IS NOT NULL")) {
+            pstmt.setInt(1, height);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    release(rs.getBytes(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Release the payloads of all the rows above a height, before the blocks above it are deleted together with
+     * their rows
+     *
+     * @param height Height
+     */
+    static void releaseAbove(int height) {
+        try (Connection con = H2.H2.getConnection()) {
+            releaseAbove(con, "tagged_data", "data_hash", height);
+            releaseAbove(con, "prunable_message", "message_hash", height);
+            releaseAbove(con, "prunable_message", "encrypted_message_hash", height);
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    private static void cleanup() {
+        if (releasedHashes.isEmpty()) {
+            return;
+        }
+        List<String> hashes = new ArrayList<>(releasedHashes);
+        int deleted = 0;
+        EcBlockchainImpl.getInstance().writeLock();
+        try (Connection con = H2.H2.getConnection()) {
+            List<PreparedStatement> pstmts = new ArrayList<>(REFERENCE_QUERIES.length);
+            try {
+                for (String query : REFERENCE_QUERIES) {
+                    pstmts.add(con.prepareStatement(query));
+                }
+                for (String hash : hashes) {
+                    releasedHashes.remove(hash);
+                    byte[] hashBytes = Convert.parseHexString(hash);
+                    if (!isReferenced(pstmts, hashBytes) && Files.deleteIfExists(getFile(hashBytes).toPath())) {
+                        deleted += 1;
+                    }
+                }
+            } finally {
+                for (PreparedStatement pstmt : pstmts) {
+                    pstmt.close();
+                }
+            }
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException(e.toString(), e);
+        } finally {
+            EcBlockchainImpl.getInstance().writeUnlock();
+        }
+        if (deleted > 0) {
+            LoggerUtil.logDebug("Deleted " + deleted + " released blobs");
+        }
+    }
+
+    private static boolean isReferenced(List<PreparedStatement> pstmts, byte[] hash) throws SQLException {
+        for (PreparedStatement pstmt : pstmts) {
+            pstmt.setBytes(1, hash);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.inesv.ecchain.kernel.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the most recent blocks and their transactions, indexed by block id,
+ * by height and by transaction id. Lookups never block; updates are made by the block
+ * pusher and by pop-off, and are serialized among themselves.
+ */
+public final class EcBlockCache {
+
+    private static final EcBlockCache instance = new EcBlockCache(EcBlockH2.BLOCK_CACHE_SIZE);
+
+    public static EcBlockCache getInstance() {
+        return instance;
+    }
+
+    private final int capacity;
+    private final Map<Long, EcBlockImpl> blocks = new ConcurrentHashMap<>();
+    private final NavigableMap<Integer, EcBlockImpl> heights = new ConcurrentSkipListMap<>();
+    private final Map<Long, TransactionImpl> transactions = new ConcurrentHashMap<>();
+    private final LongAdder blockHits = new LongAdder();
+    private final LongAdder blockMisses = new LongAdder();
+    private final LongAdder transactionHits = new LongAdder();
+    private final LongAdder transactionMisses = new LongAdder();
+
+    private EcBlockCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    EcBlockImpl getBlock(long blockId) {
+        return count(blocks.get(blockId), blockHits, blockMisses);
+    }
+
+    EcBlockImpl getBlockAtHeight(int height) {
+        return count(heights.get(height), blockHits, blockMisses);
+    }
+
+    TransactionImpl getTransaction(long transactionId) {
+        return count(transactions.get(transactionId), transactionHits, transactionMisses);
+    }
+
+    /**
+     * Returns the cached blocks following the given block, at most limit of them, or null
+     * if the given block is not cached. The walk stops at the first block that does not
+     * link to its predecessor, so a concurrent chain switch never yields a mixed fork.
+     */
+    List<EcBlockImpl> getBlocksAfter(long blockId, int limit) {
+        EcBlockImpl block = getBlock(blockId);
+        if (block == null) {
+            return null;
+        }
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<EcBlockImpl> result = new ArrayList<>(Math.min(limit, capacity));
+        long previousBlockId = blockId;
+        for (EcBlockImpl cacheBlock : heights.tailMap(block.getHeight(), false).values()) {
+            if (result.size() >= limit || cacheBlock.getPreviousBlockId() != previousBlockId) {
+                break;
+            }
+            result.add(cacheBlock);
+            previousBlockId = cacheBlock.getECId();
+        }
+        return result;
+    }
+
+    synchronized void add(EcBlockImpl block) {
+        int height = block.getHeight();
+        evict(heights.headMap(height - capacity, true));
+        evict(heights.tailMap(height, true));
+        block.getTransactions().forEach(transaction -> transactions.put(transaction.getTransactionId(), transaction));
+        heights.put(height, block);
+        blocks.put(block.getECId(), block);
+    }
+
+    synchronized void removeTransaction(long transactionId) {
+        transactions.remove(transactionId);
+    }
+
+    synchronized void clear() {
+        blocks.clear();
+        heights.clear();
+        transactions.clear();
+    }
+
+    public int size() {
+        return heights.size();
+    }
+
+    public long getBlockHits() {
+        return blockHits.sum();
+    }
+
+    public long getBlockMisses() {
+        return blockMisses.sum();
+    }
+
+    public long getTransactionHits() {
+        return transactionHits.sum();
+    }
+
+    public long getTransactionMisses() {
+        return transactionMisses.sum();
+    }
+
+    private void evict(NavigableMap<Integer, EcBlockImpl> evicted) {
+        for (EcBlockImpl block : evicted.values()) {
+            blocks.remove(block.getECId());
+            block.getTransactions().forEach(transaction -> transactions.remove(transaction.getTransactionId()));
+        }
+        evicted.clear();
+    }
+
+    private static <T> T count(T value, LongAdder hits, LongAdder misses) {
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.inesv.ecchain.kernel.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative counters for the stages of the block download pipeline: fetching segments
+ * from peers, parsing and verifying the returned blocks, waiting for room in the apply
+ * queue and pushing the blocks. Comparing the stage times shows whether the network,
+ * the CPU or the database is holding back the download.
+ */
+public final class EcBlockDownloadMetrics {
+
+    private static final EcBlockDownloadMetrics instance = new EcBlockDownloadMetrics();
+
+    public static EcBlockDownloadMetrics getInstance() {
+        return instance;
+    }
+
+    private final LongAdder fetchRequests = new LongAdder();
+    private final LongAdder fetchTime = new LongAdder();
+    private final LongAdder parsedBlocks = new LongAdder();
+    private final LongAdder parseTime = new LongAdder();
+    private final LongAdder queueWaitTime = new LongAdder();
+    private final LongAdder appliedBlocks = new LongAdder();
+    private final LongAdder applyTime = new LongAdder();
+
+    private EcBlockDownloadMetrics() {
+    }
+
+    void fetched(long millis) {
+        fetchRequests.increment();
+        fetchTime.add(millis);
+    }
+
+    void parsed(int blocks, long nanos) {
+        parsedBlocks.add(blocks);
+        parseTime.add(nanos);
+    }
+
+    void verified(long nanos) {
+        parseTime.add(nanos);
+    }
+
+    void waited(long nanos) {
+        queueWaitTime.add(nanos);
+    }
+
+    void applied(int blocks, long nanos) {
+        appliedBlocks.add(blocks);
+        applyTime.add(nanos);
+    }
+
+    public long getFetchRequests() {
+        return fetchRequests.sum();
+    }
+
+    public long getFetchTime() {
+        return fetchTime.sum();
+    }
+
+    public long getParsedBlocks() {
+        return parsedBlocks.sum();
+    }
+
+    public long getParseTime() {
+        return TimeUnit.NANOSECONDS.toMillis(parseTime.sum());
+    }
+
+    public long getQueueWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(queueWaitTime.sum());
+    }
+
+    public long getAppliedBlocks() {
+        return appliedBlocks.sum();
+    }
+
+    public long getApplyTime() {
+        return TimeUnit.NANOSECONDS.toMillis(applyTime.sum());
+    }
+
+}
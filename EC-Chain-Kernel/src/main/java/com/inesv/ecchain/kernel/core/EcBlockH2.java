@@ -11,47 +11,22 @@ import java.util.*;
 final class EcBlockH2 {
 
     static final int BLOCK_CACHE_SIZE = 10;
-    static final Map<Long, EcBlockImpl> blockCache = new HashMap<>();
-    static final SortedMap<Integer, EcBlockImpl> heightMap = new TreeMap<>();
-    static final Map<Long, TransactionImpl> transactionCache = new HashMap<>();
     static final EcBlockchain EC_BLOCKCHAIN = EcBlockchainImpl.getInstance();
 
     static {
-        EcBlockchainProcessorImpl.getInstance().addECListener((block) -> {
-            synchronized (blockCache) {
-                int height = block.getHeight();
-                Iterator<EcBlockImpl> it = blockCache.values().iterator();
-                while (it.hasNext()) {
-                    EcBlock cacheEcBlock = it.next();
-                    int cacheHeight = cacheEcBlock.getHeight();
-                    if (cacheHeight <= height - BLOCK_CACHE_SIZE || cacheHeight >= height) {
-                        cacheEcBlock.getTransactions().forEach((tx) -> transactionCache.remove(tx.getTransactionId()));
-                        heightMap.remove(cacheHeight);
-                        it.remove();
-                    }
-                }
-                block.getTransactions().forEach((tx) -> transactionCache.put(tx.getTransactionId(), (TransactionImpl) tx));
-                heightMap.put(height, (EcBlockImpl) block);
-                blockCache.put(block.getECId(), (EcBlockImpl) block);
-            }
-        }, EcBlockchainProcessorEvent.BLOCK_PUSHED);
+        EcBlockchainProcessorImpl.getInstance().addECListener((block) -> EcBlockCache.getInstance().add((EcBlockImpl) block),
+                EcBlockchainProcessorEvent.BLOCK_PUSHED);
     }
 
     static private void clearBlockCache() {
-        synchronized (blockCache) {
-            blockCache.clear();
-            heightMap.clear();
-            transactionCache.clear();
-        }
+        EcBlockCache.getInstance().clear();
     }
 
     static EcBlockImpl findBlock(long blockId) {
         // Check the block cache
-        synchronized (blockCache) {
-            EcBlockImpl block = blockCache.get(blockId);
-            if (block != null) {
-                return block;
-            }
+        EcBlockImpl cachedBlock = EcBlockCache.getInstance().getBlock(blockId);
+        if (cachedBlock != null) {
+            return cachedBlock;
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -75,11 +50,9 @@ final class EcBlockH2 {
 
     static boolean hasBlock(long blockId, int height) {
         // Check the block cache
-        synchronized (blockCache) {
-            EcBlockImpl block = blockCache.get(blockId);
-            if (block != null) {
-                return block.getHeight() <= height;
-            }
+        EcBlockImpl cachedBlock = EcBlockCache.getInstance().getBlock(blockId);
+        if (cachedBlock != null) {
+            return cachedBlock.getHeight() <= height;
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -95,11 +68,9 @@ final class EcBlockH2 {
 
     static long findBlockIdAtHeight(int height) {
         // Check the cache
-        synchronized (blockCache) {
-            EcBlockImpl block = heightMap.get(height);
-            if (block != null) {
-                return block.getECId();
-            }
+        EcBlockImpl cachedBlock = EcBlockCache.getInstance().getBlockAtHeight(height);
+        if (cachedBlock != null) {
+            return cachedBlock.getECId();
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -118,11 +89,9 @@ final class EcBlockH2 {
 
     static EcBlockImpl findBlockAtHeight(int height) {
         // Check the cache
-        synchronized (blockCache) {
-            EcBlockImpl block = heightMap.get(height);
-            if (block != null) {
-                return block;
-            }
+        EcBlockImpl cachedBlock = EcBlockCache.getInstance().getBlockAtHeight(height);
+        if (cachedBlock != null) {
+            return cachedBlock;
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -253,10 +222,7 @@ final class EcBlockH2 {
                     pstmt.setLong(2, block.getPreviousBlockId());
                     pstmt.executeUpdate();
                 }
-                EcBlockImpl previousBlock;
-                synchronized (blockCache) {
-                    previousBlock = blockCache.get(block.getPreviousBlockId());
-                }
+                EcBlockImpl previousBlock = EcBlockCache.getInstance().getBlock(block.getPreviousBlockId());
                 if (previousBlock != null) {
                     previousBlock.setNextBlockId(block.getECId());
                 }
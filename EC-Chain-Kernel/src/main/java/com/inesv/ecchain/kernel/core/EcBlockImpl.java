@@ -8,8 +8,11 @@ import com.inesv.ecchain.common.util.Convert;
 import com.inesv.ecchain.common.util.LoggerUtil;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.ParseException;
 
 import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.MessageDigest;
@@ -104,13 +107,11 @@ final class EcBlockImpl implements EcBlock {
             byte[] previousBlockHash = version == 1 ? null : Convert.parseHexString((String) blockData.get("previousBlockHash"));
             List<TransactionImpl> blockTransactions = new ArrayList<>();
             for (Object transactionData : (JSONArray) blockData.get("transactions")) {
-                blockTransactions.add(TransactionImpl.parseTransaction((JSONObject) transactionData));
+                blockTransactions.add(TransactionImpl.newTransactionBuilder((JSONObject) transactionData).build());
             }
             EcBlockImpl block = new EcBlockImpl(version, timestamp, previousBlock, totalAmountNQT, totalFeeNQT, payloadLength, payloadHash, generatorPublicKey,
                     generationSignature, blockSignature, previousBlockHash, blockTransactions);
-            if (!block.checkSignature()) {
-                throw new EcNotValidExceptionEc("Invalid block signature");
-            }
+            verifySignatures(block);
             return block;
         } catch (EcNotValidExceptionEc | RuntimeException e) {
             LoggerUtil.logDebug("Failed to parse block: " + blockData.toJSONString());
@@ -118,6 +119,76 @@ final class EcBlockImpl implements EcBlock {
         }
     }
 
+    static EcBlockImpl parseBlock(ByteBuffer buffer) throws EcNotValidExceptionEc {
+        try {
+            ByteBuffer blockBuffer = ByteBuffer.wrap(readItem(buffer));
+            blockBuffer.order(ByteOrder.LITTLE_ENDIAN);
+            int version = blockBuffer.getInt();
+            int timestamp = blockBuffer.getInt();
+            long previousBlock = blockBuffer.getLong();
+            int transactionCount = blockBuffer.getInt();
+            if (transactionCount < 0 || transactionCount > Constants.EC_MAX_NUMBER_OF_TRANSACTIONS) {
+                throw new EcNotValidExceptionEc("Invalid number of transactions " + transactionCount);
+            }
+            long totalAmountNQT = version < 3 ? blockBuffer.getInt() * Constants.ONE_EC : blockBuffer.getLong();
+            long totalFeeNQT = version < 3 ? blockBuffer.getInt() * Constants.ONE_EC : blockBuffer.getLong();
+            int payloadLength = blockBuffer.getInt();
+            byte[] payloadHash = new byte[32];
+            blockBuffer.get(payloadHash);
+            byte[] generatorPublicKey = new byte[32];
+            blockBuffer.get(generatorPublicKey);
+            byte[] generationSignature = new byte[32];
+            blockBuffer.get(generationSignature);
+            byte[] previousBlockHash = null;
+            if (version > 1) {
+                previousBlockHash = new byte[32];
+                blockBuffer.get(previousBlockHash);
+            }
+            byte[] blockSignature = new byte[64];
+            blockBuffer.get(blockSignature);
+            if (blockBuffer.hasRemaining()) {
+                throw new EcNotValidExceptionEc("Invalid block length");
+            }
+            List<TransactionImpl> blockTransactions = new ArrayList<>(transactionCount);
+            for (int i = 0; i < transactionCount; i++) {
+                byte[] transactionBytes = readItem(buffer);
+                byte[] prunableBytes = readItem(buffer);
+                JSONObject prunableAttachments = prunableBytes.length == 0 ? null :
+                        (JSONObject) JSONValue.parseWithException(Convert.toString(prunableBytes));
+                blockTransactions.add(TransactionImpl.newTransactionBuilder(transactionBytes, prunableAttachments).build());
+            }
+            EcBlockImpl block = new EcBlockImpl(version, timestamp, previousBlock, totalAmountNQT, totalFeeNQT, payloadLength, payloadHash, generatorPublicKey,
+                    generationSignature, blockSignature, previousBlockHash, blockTransactions);
+            verifySignatures(block);
+            return block;
+        } catch (ParseException | BufferUnderflowException e) {
+            throw new EcNotValidExceptionEc("Invalid binary block: " + e.toString(), e);
+        }
+    }
+
+    private static byte[] readItem(ByteBuffer buffer) throws EcNotValidExceptionEc {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new EcNotValidExceptionEc("Invalid item length " + length);
+        }
+        byte[] item = new byte[length];
+        buffer.get(item);
+        return item;
+    }
+
+    private static void verifySignatures(EcBlockImpl block) throws EcNotValidExceptionEc {
+        if (!SignatureVerifier.verifyBlock(block)) {
+            if (!block.checkSignature()) {
+                throw new EcNotValidExceptionEc("Invalid block signature");
+            }
+            for (TransactionImpl transaction : block.getTransactions()) {
+                if (!transaction.checkSignature()) {
+                    throw new EcNotValidExceptionEc("Invalid transaction signature for transaction " + transaction.getJSONObject().toJSONString());
+                }
+            }
+        }
+    }
+
     @Override
     public int getECVersion() {
         return version;
@@ -319,7 +390,7 @@ final class EcBlockImpl implements EcBlock {
         return checkSignature() && Account.setOrVerify(getFoundryId(), getFoundryPublicKey());
     }
 
-    private boolean checkSignature() {
+    boolean checkSignature() {
         if (!hasValidSignature) {
             byte[] data = Arrays.copyOf(bytes(), bytes.length - 64);
             hasValidSignature = blockSignature != null && Crypto.ecVerify(blockSignature, data, getFoundryPublicKey(), version >= 3);
@@ -327,6 +398,13 @@ final class EcBlockImpl implements EcBlock {
         return hasValidSignature;
     }
 
+    void addSignatureCheck(SignatureVerifier.Batch batch) {
+        if (!hasValidSignature) {
+            byte[] data = Arrays.copyOf(bytes(), bytes.length - 64);
+            batch.add(blockSignature, data, getFoundryPublicKey(), version >= 3, () -> hasValidSignature = true);
+        }
+    }
+
     boolean verifyGenerationSignature() throws BlockOutOfOrderException {
 
         try {
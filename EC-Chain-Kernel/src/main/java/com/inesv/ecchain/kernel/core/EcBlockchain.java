@@ -34,6 +34,8 @@ public interface EcBlockchain {
 
     H2Iterator<? extends EcBlock> getBlocks(int from, int to);
 
+    H2Iterator<? extends EcBlock> getBlocksBelow(int height, int from, int to);
+
     H2Iterator<? extends EcBlock> getBlocks(long accountId, int timestamp);
 
     H2Iterator<? extends EcBlock> getBlocks(long accountId, int timestamp, int from, int to);
@@ -54,6 +56,8 @@ public interface EcBlockchain {
 
     Transaction getTransaction(long transactionId);
 
+    boolean hasTransaction(long transactionId);
+
     Transaction getTransactionByFullHash(String fullHash);
 
     int getTransactionCount();
@@ -65,6 +69,11 @@ public interface EcBlockchain {
                                                       int blockTimestamp, boolean withMessage, boolean phasedOnly, boolean nonPhasedOnly,
                                                       int from, int to, boolean includeExpiredPrunable, boolean executedOnly);
 
+    H2Iterator<? extends Transaction> getTransactions(long accountId, int numberOfConfirmations, byte type, byte subtype,
+                                                      int blockTimestamp, boolean withMessage, boolean phasedOnly, boolean nonPhasedOnly,
+                                                      int from, int to, boolean includeExpiredPrunable, boolean executedOnly,
+                                                      int cursorHeight, short cursorIndex);
+
     H2Iterator<? extends Transaction> getTransactions(Connection con, PreparedStatement pstmt);
 
     List<? extends Transaction> getExpectedTransactions(Filter<Transaction> filter);
@@ -20,7 +20,7 @@ import java.util.concurrent.atomic.AtomicReference;
 public final class EcBlockchainImpl implements EcBlockchain {
 
     private static final EcBlockchainImpl instance = new EcBlockchainImpl();
-    private final ReadWriteManager lock = new ReadWriteManager();
+    private final ReadWriteManager lock = new ReadWriteManager("blockchain");
     private final AtomicReference<EcBlockImpl> lastBlock = new AtomicReference<>();
 
     private EcBlockchainImpl() {
@@ -104,13 +104,17 @@ public final class EcBlockchainImpl implements EcBlockchain {
 
     @Override
     public H2Iterator<EcBlockImpl> getBlocks(int from, int to) {
+        return getBlocksBelow(getHeight() + 1, from, to);
+    }
+
+    @Override
+    public H2Iterator<EcBlockImpl> getBlocksBelow(int height, int from, int to) {
         Connection con = null;
         try {
             con = H2.H2.getConnection();
             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM block WHERE height <= ? AND height >= ? ORDER BY height DESC");
-            int blockchainHeight = getHeight();
-            pstmt.setInt(1, blockchainHeight - from);
-            pstmt.setInt(2, blockchainHeight - to);
+            pstmt.setInt(1, height - 1 - from);
+            pstmt.setInt(2, height - 1 - to);
             return getBlocks(con, pstmt);
         } catch (SQLException e) {
             H2Utils.h2close(con);
@@ -167,18 +171,10 @@ public final class EcBlockchainImpl implements EcBlockchain {
     public List<Long> getBlockIdsAfter(long blockId, int limit) {
         // Check the block cache
         List<Long> result = new ArrayList<>(EcBlockH2.BLOCK_CACHE_SIZE);
-        synchronized (EcBlockH2.blockCache) {
-            EcBlockImpl block = EcBlockH2.blockCache.get(blockId);
-            if (block != null) {
-                Collection<EcBlockImpl> cacheMap = EcBlockH2.heightMap.tailMap(block.getHeight() + 1).values();
-                for (EcBlockImpl cacheBlock : cacheMap) {
-                    if (result.size() >= limit) {
-                        break;
-                    }
-                    result.add(cacheBlock.getECId());
-                }
-                return result;
-            }
+        List<EcBlockImpl> cachedBlocks = EcBlockCache.getInstance().getBlocksAfter(blockId, limit);
+        if (cachedBlocks != null) {
+            cachedBlocks.forEach(cacheBlock -> result.add(cacheBlock.getECId()));
+            return result;
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -204,20 +200,11 @@ public final class EcBlockchainImpl implements EcBlockchain {
             return Collections.emptyList();
         }
         // Check the block cache
-        List<EcBlockImpl> result = new ArrayList<>(EcBlockH2.BLOCK_CACHE_SIZE);
-        synchronized (EcBlockH2.blockCache) {
-            EcBlockImpl block = EcBlockH2.blockCache.get(blockId);
-            if (block != null) {
-                Collection<EcBlockImpl> cacheMap = EcBlockH2.heightMap.tailMap(block.getHeight() + 1).values();
-                for (EcBlockImpl cacheBlock : cacheMap) {
-                    if (result.size() >= limit) {
-                        break;
-                    }
-                    result.add(cacheBlock);
-                }
-                return result;
-            }
+        List<EcBlockImpl> cachedBlocks = EcBlockCache.getInstance().getBlocksAfter(blockId, limit);
+        if (cachedBlocks != null) {
+            return cachedBlocks;
         }
+        List<EcBlockImpl> result = new ArrayList<>(EcBlockH2.BLOCK_CACHE_SIZE);
         // Search the database
         try (Connection con = H2.H2.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT * FROM block "
@@ -243,19 +230,16 @@ public final class EcBlockchainImpl implements EcBlockchain {
         }
         // Check the block cache
         List<EcBlockImpl> result = new ArrayList<>(EcBlockH2.BLOCK_CACHE_SIZE);
-        synchronized (EcBlockH2.blockCache) {
-            EcBlockImpl block = EcBlockH2.blockCache.get(blockId);
-            if (block != null) {
-                Collection<EcBlockImpl> cacheMap = EcBlockH2.heightMap.tailMap(block.getHeight() + 1).values();
-                int index = 0;
-                for (EcBlockImpl cacheBlock : cacheMap) {
-                    if (result.size() >= blockList.size() || cacheBlock.getECId() != blockList.get(index++)) {
-                        break;
-                    }
-                    result.add(cacheBlock);
+        List<EcBlockImpl> cachedBlocks = EcBlockCache.getInstance().getBlocksAfter(blockId, blockList.size());
+        if (cachedBlocks != null) {
+            int index = 0;
+            for (EcBlockImpl cacheBlock : cachedBlocks) {
+                if (cacheBlock.getECId() != blockList.get(index++)) {
+                    break;
                 }
-                return result;
+                result.add(cacheBlock);
             }
+            return result;
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -318,6 +302,11 @@ public final class EcBlockchainImpl implements EcBlockchain {
         return TransactionH2.selectTransaction(transactionId);
     }
 
+    @Override
+    public boolean hasTransaction(long transactionId) {
+        return TransactionH2.hasTransaction(transactionId);
+    }
+
     @Override
     public TransactionImpl getTransactionByFullHash(String fullHash) {
         return TransactionH2.selectTransactionByFullHash(Convert.parseHexString(fullHash));
@@ -343,6 +332,15 @@ public final class EcBlockchainImpl implements EcBlockchain {
     public H2Iterator<TransactionImpl> getTransactions(long accountId, int numberOfConfirmations, byte type, byte subtype,
                                                        int blockTimestamp, boolean withMessage, boolean phasedOnly, boolean nonPhasedOnly,
                                                        int from, int to, boolean includeExpiredPrunable, boolean executedOnly) {
+        return getTransactions(accountId, numberOfConfirmations, type, subtype, blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
+                from, to, includeExpiredPrunable, executedOnly, Integer.MAX_VALUE, (short) 0);
+    }
+
+    @Override
+    public H2Iterator<TransactionImpl> getTransactions(long accountId, int numberOfConfirmations, byte type, byte subtype,
+                                                       int blockTimestamp, boolean withMessage, boolean phasedOnly, boolean nonPhasedOnly,
+                                                       int from, int to, boolean includeExpiredPrunable, boolean executedOnly,
+                                                       int cursorHeight, short cursorIndex) {
         if (phasedOnly && nonPhasedOnly) {
             throw new IllegalArgumentException("At least one of phasedOnly or nonPhasedOnly must be false");
         }
@@ -371,6 +369,9 @@ public final class EcBlockchainImpl implements EcBlockchain {
             if (height < Integer.MAX_VALUE) {
                 buf.append("AND transaction.height <= ? ");
             }
+            if (cursorHeight < Integer.MAX_VALUE) {
+                buf.append("AND (transaction.height < ? OR (transaction.height = ? AND transaction_index < ?)) ");
+            }
             if (withMessage) {
                 buf.append("AND (has_message = TRUE OR has_encrypted_message = TRUE ");
                 buf.append("OR ((has_prunable_message = TRUE OR has_prunable_encrypted_message = TRUE) AND timestamp > ?)) ");
@@ -400,6 +401,9 @@ public final class EcBlockchainImpl implements EcBlockchain {
             if (height < Integer.MAX_VALUE) {
                 buf.append("AND transaction.height <= ? ");
             }
+            if (cursorHeight < Integer.MAX_VALUE) {
+                buf.append("AND (transaction.height < ? OR (transaction.height = ? AND transaction_index < ?)) ");
+            }
             if (withMessage) {
                 buf.append("AND (has_message = TRUE OR has_encrypted_message = TRUE OR has_encrypttoself_message = TRUE ");
                 buf.append("OR ((has_prunable_message = TRUE OR has_prunable_encrypted_message = TRUE) AND timestamp > ?)) ");
@@ -433,6 +437,11 @@ public final class EcBlockchainImpl implements EcBlockchain {
             if (height < Integer.MAX_VALUE) {
                 pstmt.setInt(++i, height);
             }
+            if (cursorHeight < Integer.MAX_VALUE) {
+                pstmt.setInt(++i, cursorHeight);
+                pstmt.setInt(++i, cursorHeight);
+                pstmt.setShort(++i, cursorIndex);
+            }
             int prunableExpiration = Math.max(0, Constants.INCLUDE_EXPIRED_PRUNABLE && includeExpiredPrunable ?
                     new EcTime.EpochEcTime().getTime() - Constants.EC_MAX_PRUNABLE_LIFETIME :
                     new EcTime.EpochEcTime().getTime() - Constants.EC_MIN_PRUNABLE_LIFETIME);
@@ -452,6 +461,11 @@ public final class EcBlockchainImpl implements EcBlockchain {
             if (height < Integer.MAX_VALUE) {
                 pstmt.setInt(++i, height);
             }
+            if (cursorHeight < Integer.MAX_VALUE) {
+                pstmt.setInt(++i, cursorHeight);
+                pstmt.setInt(++i, cursorHeight);
+                pstmt.setShort(++i, cursorIndex);
+            }
             if (withMessage) {
                 pstmt.setInt(++i, prunableExpiration);
             }
@@ -6,7 +6,6 @@ import com.inesv.ecchain.common.util.*;
 import com.inesv.ecchain.common.util.EcTime;
 import com.inesv.ecchain.kernel.H2.DerivedH2Table;
 import com.inesv.ecchain.kernel.H2.H2Iterator;
-import com.inesv.ecchain.kernel.H2.FilteringIterator;
 import com.inesv.ecchain.kernel.H2.FullTextTrigger;
 import com.inesv.ecchain.kernel.peer.Peer;
 import com.inesv.ecchain.kernel.peer.PeerService;
@@ -17,13 +16,17 @@ import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 import org.json.simple.JSONValue;
 
+import java.io.File;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.sql.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
     private static final EcBlockchainProcessorImpl instance = new EcBlockchainProcessorImpl();
+    private static final PeerBlock END_OF_DOWNLOAD = new PeerBlock(null, null);
     private static final Comparator<Transaction> FINISHING_TRANSACTIONS_COMPARATOR = Comparator
             .comparingInt(Transaction::getTransactionHeight)
             .thenComparingInt(Transaction::getTransactionIndex)
@@ -344,11 +347,54 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
         /**
          * Download the block chain
          *
+         * The segments are fetched and parsed by a producer running on the network service
+         * while this thread, which holds the update lock, applies the blocks in chain order
+         * as soon as they are available.  The apply queue is bounded so the producer stops
+         * issuing requests when the blocks cannot be applied fast enough.
+         *
          * @param   feederPeer              Peer supplying the blocks list
          * @param   commonEcBlock             Common block
          * @throws InterruptedException    Download interrupted
          */
         private void downloadBlockchain(final Peer feederPeer, final EcBlock commonEcBlock, final int startHeight) throws InterruptedException {
+            final List<Long> blockIds = chainBlockIds;
+            final List<Peer> peers = connectedPublicPeers;
+            final BlockingQueue<PeerBlock> applyQueue = new ArrayBlockingQueue<>(Constants.DOWNLOAD_QUEUE_SIZE);
+            final AtomicBoolean stopped = new AtomicBoolean();
+            Future<Void> producer = networkService.submit(() -> {
+                try {
+                    fetchBlocks(feederPeer, blockIds, peers, applyQueue, stopped);
+                } finally {
+                    enqueue(applyQueue, END_OF_DOWNLOAD, stopped);
+                }
+                return null;
+            });
+            try {
+                applyBlocks(feederPeer, commonEcBlock, startHeight, applyQueue, producer, stopped);
+            } finally {
+                stopped.set(true);
+                applyQueue.clear();
+            }
+            try {
+                producer.get();
+            } catch (ExecutionException exc) {
+                throw new RuntimeException(exc.getMessage(), exc);
+            }
+        }
+
+        /**
+         * Fetch the blocks and add them to the apply queue in chain order
+         *
+         * @param   feederPeer              Peer supplying the blocks list
+         * @param   blockIds                Block identifier list
+         * @param   peers                   Connected public peers
+         * @param   applyQueue              Apply queue
+         * @param   stopped                 Set when the blocks are no longer needed
+         * @throws InterruptedException    Download interrupted
+         */
+        private void fetchBlocks(final Peer feederPeer, final List<Long> blockIds, final List<Peer> peers,
+                                 final BlockingQueue<PeerBlock> applyQueue, final AtomicBoolean stopped)
+                throws InterruptedException, ExecutionException {
             Map<Long, PeerBlock> blockMap = new HashMap<>();
             //
             // Break the download into multiple segments.  The first block in each segment
@@ -356,11 +402,12 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
             //
             List<GetNextBlocks> getList = new ArrayList<>();
             int segSize = 36;
-            int stop = chainBlockIds.size() - 1;
+            int stop = blockIds.size() - 1;
             for (int start = 0; start < stop; start += segSize) {
-                getList.add(new GetNextBlocks(chainBlockIds, start, Math.min(start + segSize, stop)));
+                getList.add(new GetNextBlocks(blockIds, start, Math.min(start + segSize, stop)));
             }
-            int nextPeerIndex = ThreadLocalRandom.current().nextInt(connectedPublicPeers.size());
+            int nextPeerIndex = ThreadLocalRandom.current().nextInt(peers.size());
+            int nextApplyIndex = 1;
             long maxResponseTime = 0;
             Peer slowestPeer = null;
             //
@@ -370,7 +417,7 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
             // retrying with different peers.
             //
             download:
-            while (!getList.isEmpty()) {
+            while (!getList.isEmpty() && !stopped.get()) {
                 //
                 // Submit threads to issue 'getNextBlocks' requests.  The first segment
                 // will always be sent to the feeder peer.  Subsequent segments will
@@ -386,10 +433,10 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                     if (nextBlocks.getStart() == 0 || nextBlocks.getRequestCount() != 0) {
                         peer = feederPeer;
                     } else {
-                        if (nextPeerIndex >= connectedPublicPeers.size()) {
+                        if (nextPeerIndex >= peers.size()) {
                             nextPeerIndex = 0;
                         }
-                        peer = connectedPublicPeers.get(nextPeerIndex++);
+                        peer = peers.get(nextPeerIndex++);
                     }
                     if (nextBlocks.getPeer() == peer) {
                         break download;
@@ -400,17 +447,13 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                 }
                 //
                 // Get the results.  A peer is on a different fork if a returned
-                // block is not in the block identifier list.
+                // block is not in the block identifier list.  The blocks following
+                // the last queued block are passed on as soon as they are complete.
                 //
                 Iterator<GetNextBlocks> it = getList.iterator();
                 while (it.hasNext()) {
                     GetNextBlocks nextBlocks = it.next();
-                    List<EcBlockImpl> blockList;
-                    try {
-                        blockList = nextBlocks.getFuture().get();
-                    } catch (ExecutionException exc) {
-                        throw new RuntimeException(exc.getMessage(), exc);
-                    }
+                    List<EcBlockImpl> blockList = nextBlocks.getFuture().get();
                     if (blockList == null) {
                         nextBlocks.getPeer().deactivate();
                         continue;
@@ -418,7 +461,7 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                     Peer peer = nextBlocks.getPeer();
                     int index = nextBlocks.getStart() + 1;
                     for (EcBlockImpl block : blockList) {
-                        if (block.getECId() != chainBlockIds.get(index)) {
+                        if (block.getECId() != blockIds.get(index)) {
                             break;
                         }
                         blockMap.put(block.getECId(), new PeerBlock(peer, block));
@@ -433,49 +476,142 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                         maxResponseTime = nextBlocks.getResponseTime();
                         slowestPeer = nextBlocks.getPeer();
                     }
+                    List<PeerBlock> readyBlocks = new ArrayList<>();
+                    PeerBlock peerBlock;
+                    while (nextApplyIndex < blockIds.size() && (peerBlock = blockMap.remove(blockIds.get(nextApplyIndex))) != null) {
+                        readyBlocks.add(peerBlock);
+                        nextApplyIndex++;
+                    }
+                    if (!readyBlocks.isEmpty()) {
+                        long verifyStart = System.nanoTime();
+                        SignatureVerifier.verifyBlocks(readyBlocks.stream().map(PeerBlock::getBlock).collect(Collectors.toList()));
+                        EcBlockDownloadMetrics.getInstance().verified(System.nanoTime() - verifyStart);
+                        for (PeerBlock readyBlock : readyBlocks) {
+                            if (!enqueue(applyQueue, readyBlock, stopped)) {
+                                return;
+                            }
+                        }
+                    }
                 }
 
             }
-            if (slowestPeer != null && connectedPublicPeers.size() >= Peers.ecmaxnumberofconnectedpublicpeers && chainBlockIds.size() > 360) {
+            if (slowestPeer != null && peers.size() >= Peers.ecmaxnumberofconnectedpublicpeers && blockIds.size() > 360) {
                 LoggerUtil.logDebug(slowestPeer.getPeerHost() + " took " + maxResponseTime + " ms, disconnecting");
                 slowestPeer.deactivate();
             }
-            //
-            // Add the new blocks to the EC_BLOCKCHAIN.  We will stop if we encounter
-            // a missing block (this will happen if an invalid block is encountered
-            // when downloading the blocks)
-            //
-            blockchain.writeLock();
+        }
+
+        /**
+         * Add a block to the apply queue, waiting while the queue is full
+         *
+         * @param   applyQueue              Apply queue
+         * @param   peerBlock               Block to add
+         * @param   stopped                 Set when the blocks are no longer needed
+         * @return                          FALSE if the blocks are no longer needed
+         * @throws InterruptedException    Download interrupted
+         */
+        private boolean enqueue(final BlockingQueue<PeerBlock> applyQueue, final PeerBlock peerBlock, final AtomicBoolean stopped)
+                throws InterruptedException {
+            long waitStart = System.nanoTime();
             try {
-                List<EcBlockImpl> forkBlocks = new ArrayList<>();
-                for (int index = 1; index < chainBlockIds.size() && blockchain.getHeight() - startHeight < 720; index++) {
-                    PeerBlock peerBlock = blockMap.get(chainBlockIds.get(index));
-                    if (peerBlock == null) {
-                        break;
+                while (!stopped.get()) {
+                    if (applyQueue.offer(peerBlock, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
                     }
-                    EcBlockImpl block = peerBlock.getBlock();
-                    if (blockchain.getLastECBlock().getECId() == block.getPreviousBlockId()) {
-                        try {
-                            pushBlock(block);
-                        } catch (BlockNotAcceptedException e) {
-                            peerBlock.getPeer().blacklist(e);
+                }
+                return false;
+            } finally {
+                EcBlockDownloadMetrics.getInstance().waited(System.nanoTime() - waitStart);
+            }
+        }
+
+        /**
+         * Remove the next block from the apply queue, waiting while the queue is empty.  The end of the download
+         * is returned once the producer has ended without queuing it, so a failed producer does not leave us
+         * waiting forever.
+         *
+         * @param   applyQueue              Apply queue
+         * @param   producer                Task fetching the blocks
+         * @param   stopped                 Set when the blocks are no longer needed
+         * @return                          Next block or END_OF_DOWNLOAD
+         * @throws InterruptedException    Download interrupted
+         */
+        private PeerBlock dequeue(final BlockingQueue<PeerBlock> applyQueue, final Future<Void> producer,
+                                  final AtomicBoolean stopped) throws InterruptedException {
+            while (!stopped.get()) {
+                PeerBlock peerBlock = applyQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (peerBlock != null) {
+                    return peerBlock;
+                }
+                if (producer.isDone()) {
+                    peerBlock = applyQueue.poll();
+                    return peerBlock != null ? peerBlock : END_OF_DOWNLOAD;
+                }
+            }
+            return END_OF_DOWNLOAD;
+        }
+
+        /**
+         * Add the new blocks to the EC_BLOCKCHAIN as they arrive.  We will stop when
+         * the producer has queued all of the blocks it was able to download.
+         *
+         * @param   feederPeer              Peer supplying the blocks list
+         * @param   commonEcBlock             Common block
+         * @param   startHeight             Height at the start of the download
+         * @param   applyQueue              Apply queue
+         * @param   producer                Task fetching the blocks
+         * @param   stopped                 Set when the blocks are no longer needed
+         * @throws InterruptedException    Download interrupted
+         */
+        private void applyBlocks(final Peer feederPeer, final EcBlock commonEcBlock, final int startHeight,
+                                 final BlockingQueue<PeerBlock> applyQueue, final Future<Void> producer,
+                                 final AtomicBoolean stopped) throws InterruptedException {
+            List<EcBlockImpl> forkBlocks = new ArrayList<>();
+            List<PeerBlock> batch = new ArrayList<>();
+            boolean done = false;
+            while (!done) {
+                batch.add(dequeue(applyQueue, producer, stopped));
+                applyQueue.drainTo(batch);
+                long applyStart = System.nanoTime();
+                int appliedBlocks = 0;
+                blockchain.writeLock();
+                try {
+                    for (PeerBlock peerBlock : batch) {
+                        if (peerBlock == END_OF_DOWNLOAD || blockchain.getHeight() - startHeight >= 720) {
+                            done = true;
+                            break;
+                        }
+                        EcBlockImpl block = peerBlock.getBlock();
+                        if (blockchain.getLastECBlock().getECId() == block.getPreviousBlockId()) {
+                            try {
+                                pushBlock(block);
+                                appliedBlocks++;
+                            } catch (BlockNotAcceptedException e) {
+                                peerBlock.getPeer().blacklist(e);
+                            }
+                        } else {
+                            forkBlocks.add(block);
                         }
-                    } else {
-                        forkBlocks.add(block);
                     }
+                } finally {
+                    blockchain.writeUnlock();
                 }
-                //
-                // Process a fork
-                //
-                int myForkSize = blockchain.getHeight() - startHeight;
-                if (!forkBlocks.isEmpty() && myForkSize < 720) {
-                    LoggerUtil.logDebug("Will process a fork of " + forkBlocks.size() + " blocks, mine is " + myForkSize);
+                EcBlockDownloadMetrics.getInstance().applied(appliedBlocks, System.nanoTime() - applyStart);
+                batch.clear();
+            }
+            //
+            // Process a fork
+            //
+            int myForkSize = blockchain.getHeight() - startHeight;
+            if (!forkBlocks.isEmpty() && myForkSize < 720) {
+                LoggerUtil.logDebug("Will process a fork of " + forkBlocks.size() + " blocks, mine is " + myForkSize);
+                blockchain.writeLock();
+                try {
                     processFork(feederPeer, forkBlocks, commonEcBlock);
+                } finally {
+                    blockchain.writeUnlock();
                 }
-            } finally {
-                blockchain.writeUnlock();
             }
-
         }
 
         private void processFork(final Peer peer, final List<EcBlockImpl> forkBlocks, final EcBlock commonEcBlock) {
@@ -535,9 +671,6 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
     private EcBlockchainProcessorImpl() {
         final int trimFrequency = PropertiesUtil.getKeyForInt("ec.trimFrequency", 0);
         blockListenerManager.addECListener(block -> {
-            if (block.getHeight() % 5000 == 0) {
-                LoggerUtil.logInfo("processed block " + block.getHeight());
-            }
             if (Constants.TRIM_DERIVED_TABLES && block.getHeight() % trimFrequency == 0) {
                 doTrimDerivedTables();
             }
@@ -565,6 +698,10 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
 
         ThreadPool.runBeforeStart(() -> {
             alreadyInitialized = true;
+            if (Constants.BOOTSTRAP_SNAPSHOT != null && !EcBlockH2.hasBlock(Genesis.EC_GENESIS_BLOCK_ID, 0)) {
+                Snapshot.load(new File(Constants.BOOTSTRAP_SNAPSHOT),
+                        Constants.BOOTSTRAP_STATE_HASH != null ? Convert.parseHexString(Constants.BOOTSTRAP_STATE_HASH) : null);
+            }
             if (addGenesisBlock()) {
                 scan(0, false);
             } else if (PropertiesUtil.getKeyForBoolean("ec.forceScan")) {
@@ -636,13 +773,15 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
         lastTrimHeight = Math.max(blockchain.getHeight() - Constants.MAX_ROLLBACK, 0);
         if (lastTrimHeight > 0) {
             for (DerivedH2Table table : derivedTables) {
-                blockchain.readECLock();
-                try {
-                    table.trim(lastTrimHeight);
-                    H2.H2.commitTransaction();
-                } finally {
-                    blockchain.readECUnlock();
-                }
+                do {
+                    blockchain.readECLock();
+                    try {
+                        table.trim(lastTrimHeight);
+                        H2.H2.commitTransaction();
+                    } finally {
+                        blockchain.readECUnlock();
+                    }
+                } while (table.isTrimPending());
             }
         }
     }
@@ -733,6 +872,7 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                 setGetMoreBlocks(false);
                 scheduleScan(0, false);
                 //EcBlockH2.deleteBlock(Genesis.EC_GENESIS_BLOCK_ID); // fails with stack overflow in H2
+                BlobStore.releaseAbove(-1);
                 EcBlockH2.deleteAll();
                 if (addGenesisBlock()) {
                     scan(0, false);
@@ -845,6 +985,7 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
 
     public void shutdown() {
         ThreadPool.shutdownExecutor("networkService", networkService, 5);
+        SignatureVerifier.shutdown();
     }
 
     private void addBlock(EcBlockImpl block) {
@@ -904,6 +1045,7 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
 
         int curTime = new EcTime.EpochEcTime().getTime();
 
+        SignatureVerifier.verifyBlock(block);
         blockchain.writeLock();
         try {
             EcBlockImpl previousLastBlock = null;
@@ -1239,6 +1381,7 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
         if (block.getECId() == Genesis.EC_GENESIS_BLOCK_ID) {
             throw new RuntimeException("Cannot pop off genesis block");
         }
+        BlobStore.releaseAbove(block.getHeight() - 1);
         EcBlockImpl previousBlock = EcBlockH2.deleteBlocksFrom(block.getECId());
         previousBlock.loadTransactions();
         blockchain.setLastBlock(previousBlock);
@@ -1251,6 +1394,7 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
         try {
             try {
                 scheduleScan(0, false);
+                BlobStore.releaseAbove(height - 1);
                 EcBlockImpl lastBLock = EcBlockH2.deleteBlocksFrom(EcBlockH2.findBlockIdAtHeight(height));
                 blockchain.setLastBlock(lastBLock);
                 LoggerUtil.logInfo("Deleted blocks starting from height " + height);
@@ -1274,10 +1418,8 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
 
     SortedSet<UnconfirmedTransaction> selectUnconfirmedTransactions(Map<TransactionType, Map<String, Integer>> duplicates, EcBlock previousEcBlock, int blockTimestamp) {
         List<UnconfirmedTransaction> orderedUnconfirmedTransactions = new ArrayList<>();
-        try (FilteringIterator<UnconfirmedTransaction> unconfirmedTransactions = new FilteringIterator<>(
-                TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions(),
-                transaction -> hasAllReferencedTransactions(transaction.getTransaction(), transaction.getTimestamp(), 0))) {
-            for (UnconfirmedTransaction unconfirmedTransaction : unconfirmedTransactions) {
+        for (UnconfirmedTransaction unconfirmedTransaction : TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions()) {
+            if (hasAllReferencedTransactions(unconfirmedTransaction.getTransaction(), unconfirmedTransaction.getTimestamp(), 0)) {
                 orderedUnconfirmedTransactions.add(unconfirmedTransaction);
             }
         }
@@ -1444,8 +1586,6 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                 LoggerUtil.logDebug("Also verifying signatures and validating transactions...");
             }
             try (Connection con = H2.H2.getConnection();
-                 PreparedStatement pstmtSelect = con.prepareStatement("SELECT * FROM block WHERE " + (height > 0 ? "height >= ? AND " : "")
-                         + " db_id >= ? ORDER BY db_id ASC LIMIT 50000");
                  PreparedStatement pstmtDone = con.prepareStatement("UPDATE scan SET rescan = FALSE, height = 0, validate = FALSE")) {
                 isScanning = true;
                 initialScanHeight = blockchain.getHeight();
@@ -1483,21 +1623,35 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                     new Thread(() -> System.exit(0)).start();
                     return;
                 }
-                int pstmtSelectIndex = 1;
-                if (height > 0) {
-                    pstmtSelect.setInt(pstmtSelectIndex++, height);
-                }
-                long dbId = Long.MIN_VALUE;
-                boolean hasMore = true;
-                outer:
-                while (hasMore) {
-                    hasMore = false;
-                    pstmtSelect.setLong(pstmtSelectIndex, dbId);
-                    try (ResultSet rs = pstmtSelect.executeQuery()) {
-                        while (rs.next()) {
+                //
+                // The derived tables are committed every ec.scanCommitInterval blocks. If a block fails,
+                // the blocks applied since the last commit are applied again one at a time, so only
+                // the failed block and the blocks after it are deleted. The listeners are notified of
+                // the accepted blocks once they are committed, so that they never see a block which is
+                // rolled back, or the same block twice.
+                //
+                int commitInterval = Constants.SCAN_COMMIT_INTERVAL;
+                EcBlockImpl lastCommittedBlock = null;
+                List<EcBlockImpl> uncommittedBlocks = new ArrayList<>();
+                ScanProgress progress = new ScanProgress(blockchain.getHeight(), initialScanHeight);
+                ScanBlockReader reader = new ScanBlockReader(height);
+                try {
+                    List<EcBlockImpl> chunk;
+                    outer:
+                    while ((chunk = reader.nextChunk()) != null) {
+                        if (validate) {
+                            //
+                            // The signatures which cannot be checked yet are checked again when the block is validated
+                            //
+                            try {
+                                SignatureVerifier.verifyBlocks(chunk);
+                            } catch (RuntimeException e) {
+                                LoggerUtil.logDebug("Unable to verify the signatures in advance: " + e.toString());
+                            }
+                        }
+                        for (EcBlockImpl block : chunk) {
+                            currentBlock = block;
                             try {
-                                dbId = rs.getLong("db_id");
-                                currentBlock = EcBlockH2.loadBlock(con, rs, true);
                                 currentBlock.loadTransactions();
                                 if (currentBlock.getECId() != currentBlockId || currentBlock.getHeight() > blockchain.getHeight() + 1) {
                                     throw new EcNotValidExceptionEc("Database blocks in the wrong order!");
@@ -1534,24 +1688,49 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                                 accept(currentBlock, validPhasedTransactions, invalidPhasedTransactions, duplicates);
                                 currentBlockId = currentBlock.getNextBlockId();
                                 H2.H2.clearCache();
-                                H2.H2.commitTransaction();
-                                blockListenerManager.notify(currentBlock, EcBlockchainProcessorEvent.AFTER_BLOCK_ACCEPT);
+                                uncommittedBlocks.add(currentBlock);
+                                if (lastCommittedBlock == null || currentBlockId == 0
+                                        || currentBlock.getHeight() - lastCommittedBlock.getHeight() >= commitInterval) {
+                                    H2.H2.commitTransaction();
+                                    lastCommittedBlock = currentBlock;
+                                }
                             } catch (EcException | RuntimeException e) {
                                 H2.H2.rollbackTransaction();
+                                uncommittedBlocks.clear();
+                                reader.close();
+                                if (lastCommittedBlock != null && currentBlock.getHeight() > lastCommittedBlock.getHeight() + 1) {
+                                    LoggerUtil.logDebug("Applying block " + Long.toUnsignedString(currentBlockId) + " at height "
+                                            + currentBlock.getHeight() + " failed, applying the blocks from height "
+                                            + (lastCommittedBlock.getHeight() + 1) + " again one at a time");
+                                    for (DerivedH2Table table : derivedTables) {
+                                        table.rollback(lastCommittedBlock.getHeight());
+                                    }
+                                    H2.H2.clearCache();
+                                    H2.H2.commitTransaction();
+                                    blockchain.setLastBlock(lastCommittedBlock);
+                                    currentBlockId = lastCommittedBlock.getNextBlockId();
+                                    commitInterval = 1;
+                                    reader = new ScanBlockReader(lastCommittedBlock.getHeight() + 1);
+                                    continue outer;
+                                }
                                 LoggerUtil.logError(e.toString(), e);
                                 LoggerUtil.logDebug("Applying block " + Long.toUnsignedString(currentBlockId) + " at height "
-                                        + (currentBlock == null ? 0 : currentBlock.getHeight()) + " failed, deleting from database");
+                                        + currentBlock.getHeight() + " failed, deleting from database");
+                                BlobStore.releaseAbove(currentBlock.getHeight() - 1);
                                 EcBlockImpl lastBlock = EcBlockH2.deleteBlocksFrom(currentBlockId);
                                 blockchain.setLastBlock(lastBlock);
                                 popOffTo(lastBlock);
                                 break outer;
                             }
-                            blockListenerManager.notify(currentBlock, EcBlockchainProcessorEvent.BLOCK_SCANNED);
-                            hasMore = true;
+                            if (lastCommittedBlock == currentBlock) {
+                                notifyScanned(uncommittedBlocks, progress);
+                            }
                         }
-                        dbId = dbId + 1;
                     }
+                } finally {
+                    reader.close();
                 }
+                progress.done();
                 if (height == 0) {
                     for (DerivedH2Table table : derivedTables) {
                         table.establishSearchIndex(con);
@@ -1559,6 +1738,7 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
                 }
                 pstmtDone.executeUpdate();
                 H2.H2.commitTransaction();
+                notifyScanned(uncommittedBlocks, progress);
                 blockListenerManager.notify(currentBlock, EcBlockchainProcessorEvent.RESCAN_END);
                 LoggerUtil.logInfo("...done at height " + blockchain.getHeight());
                 if (height == 0 && validate) {
@@ -1575,6 +1755,65 @@ public final class EcBlockchainProcessorImpl implements EcBlockchainProcessor {
         }
     }
 
+    /**
+     * Notify the listeners of the blocks accepted by the scan since the previous notification, now that they are
+     * committed
+     *
+     * @param blocks Committed blocks, cleared once notified
+     * @param progress Scan progress
+     */
+    private void notifyScanned(List<EcBlockImpl> blocks, ScanProgress progress) {
+        for (EcBlockImpl block : blocks) {
+            blockListenerManager.notify(block, EcBlockchainProcessorEvent.AFTER_BLOCK_ACCEPT);
+            blockListenerManager.notify(block, EcBlockchainProcessorEvent.BLOCK_SCANNED);
+            progress.scanned(block);
+        }
+        blocks.clear();
+    }
+
+    /**
+     * Logs the scan progress and throughput every SCAN_PROGRESS_INTERVAL milliseconds
+     */
+    private static final class ScanProgress {
+
+        private static final long SCAN_PROGRESS_INTERVAL = 10 * 1000;
+
+        private final int startHeight;
+        private final int endHeight;
+        private final long startTime = System.currentTimeMillis();
+        private long lastReportTime = startTime;
+        private int blocks;
+        private long transactions;
+        private int height;
+
+        private ScanProgress(int startHeight, int endHeight) {
+            this.startHeight = startHeight;
+            this.endHeight = endHeight;
+            this.height = startHeight;
+        }
+
+        private void scanned(EcBlock block) {
+            blocks += 1;
+            transactions += block.getTransactions().size();
+            height = block.getHeight();
+            long now = System.currentTimeMillis();
+            if (now - lastReportTime >= SCAN_PROGRESS_INTERVAL) {
+                lastReportTime = now;
+                double seconds = (now - startTime) / 1000.0;
+                double blocksPerSecond = blocks / seconds;
+                LoggerUtil.logInfo(String.format("Scanned height %d of %d, %.1f blocks/s, %.1f transactions/s, about %d s remaining",
+                        height, endHeight, blocksPerSecond, transactions / seconds,
+                        Math.max(0, (long) ((endHeight - height) / blocksPerSecond))));
+            }
+        }
+
+        private void done() {
+            double seconds = Math.max(System.currentTimeMillis() - startTime, 1) / 1000.0;
+            LoggerUtil.logInfo(String.format("Scanned %d blocks and %d transactions from height %d to %d in %.1f s, %.1f blocks/s",
+                    blocks, transactions, startHeight, height, seconds, blocks / seconds));
+        }
+    }
+
     private class RestorePrunableDataTask implements Runnable {
 
         @Override
@@ -1172,6 +1172,39 @@ class EcH2Version extends H2Version {
             case 489:
                 apply("CREATE INDEX IF NOT EXISTS asset_dividend_height_idx ON asset_dividend (height)");
             case 490:
+                apply("CREATE INDEX IF NOT EXISTS public_key_height_account_id_idx ON public_key (height, account_id)");
+            case 491:
+                apply("CREATE INDEX IF NOT EXISTS data_tag_height_tag_idx ON data_tag (height, tag)");
+            case 492:
+                apply("CREATE INDEX IF NOT EXISTS phasing_poll_finish_height_idx ON phasing_poll (finish_height)");
+            case 493:
+                apply("CREATE TABLE IF NOT EXISTS phasing_vote_count (db_id IDENTITY, transaction_id BIGINT NOT NULL, "
+                        + "vote_count INT NOT NULL, height INT NOT NULL, latest BOOLEAN NOT NULL DEFAULT TRUE)");
+            case 494:
+                apply("CREATE UNIQUE INDEX IF NOT EXISTS phasing_vote_count_id_height_idx ON phasing_vote_count (transaction_id, height DESC)");
+            case 495:
+                apply("CREATE INDEX IF NOT EXISTS phasing_vote_count_height_id_idx ON phasing_vote_count (height, transaction_id)");
+            case 496:
+                apply("ALTER TABLE tagged_data ALTER COLUMN data SET NULL");
+            case 497:
+                apply("ALTER TABLE tagged_data ADD COLUMN IF NOT EXISTS data_hash BINARY(32)");
+            case 498:
+                apply("CREATE INDEX IF NOT EXISTS tagged_data_data_hash_idx ON tagged_data (data_hash)");
+            case 499:
+                apply("ALTER TABLE prunable_message ADD COLUMN IF NOT EXISTS message_hash BINARY(32)");
+            case 500:
+                apply("ALTER TABLE prunable_message ADD COLUMN IF NOT EXISTS encrypted_message_hash BINARY(32)");
+            case 501:
+                apply("CREATE INDEX IF NOT EXISTS prunable_message_message_hash_idx ON prunable_message (message_hash)");
+            case 502:
+                apply("CREATE INDEX IF NOT EXISTS prunable_message_encrypted_message_hash_idx ON prunable_message (encrypted_message_hash)");
+            case 503:
+                apply(null);
+            case 504:
+                apply("CREATE TABLE IF NOT EXISTS table_trim (table_name VARCHAR NOT NULL PRIMARY KEY, trimmed_height INT NOT NULL)");
+            case 505:
+                apply("DROP TABLE IF EXISTS entity_store_sync");
+            case 506:
                 return;
             default:
                 throw new RuntimeException("EcBlockchain database inconsistent with code, at update " + nextUpdate
@@ -19,6 +19,7 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
     private static final Collection<FoundryMachine> ALL_FOUNDRY_MACHINES = Collections.unmodifiableCollection(GENERATORS.values());
     private static final Set<Long> activeGeneratorIds = new HashSet<>();
     private static final List<ActiveGenerator> activeGenerators = new ArrayList<>();
+    private static final int PARALLEL_THRESHOLD = 64;
     private static volatile List<FoundryMachine> sortedForgers = null;
     private static long lastBlockId;
     private static int delayTime = Constants.FORGING_DELAY;
@@ -39,13 +40,23 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
                         }
                         final int generationLimit = new EcTime.EpochEcTime().getTime() - delayTime;
                         if (lastEcBlock.getECId() != lastBlockId || sortedForgers == null) {
+                            //
+                            // The forgers sorted for the previous block still have their hits for that block,
+                            // so only the earliest of them need to be checked against the last block
+                            //
+                            List<FoundryMachine> previousForgers = lastBlockId == lastEcBlock.getPreviousBlockId() ? sortedForgers : null;
                             lastBlockId = lastEcBlock.getECId();
                             if (lastEcBlock.getTimestamp() > new EcTime.EpochEcTime().getTime() - 600) {
                                 EcBlock previousEcBlock = EcBlockchainImpl.getInstance().getBlock(lastEcBlock.getPreviousBlockId());
-                                for (FoundryMachine foundryMachine : GENERATORS.values()) {
-                                    foundryMachine.setLastBlock(previousEcBlock);
+                                if (previousForgers == null) {
+                                    previousForgers = sortForgers(previousEcBlock);
+                                }
+                                for (FoundryMachine foundryMachine : previousForgers) {
+                                    if (foundryMachine.getHitTime() + 1 >= lastEcBlock.getTimestamp()) {
+                                        break;
+                                    }
                                     int timestamp = foundryMachine.getTimestamp(generationLimit);
-                                    if (timestamp != generationLimit && foundryMachine.getHitTime() > 0 && timestamp < lastEcBlock.getTimestamp()) {
+                                    if (timestamp != generationLimit && timestamp < lastEcBlock.getTimestamp()) {
                                         LoggerUtil.logDebug("Pop off: " + foundryMachine.toString() + " will pop off last block " + lastEcBlock.getStringECId());
                                         List<EcBlockImpl> poppedOffBlock = EcBlockchainProcessorImpl.getInstance().popOffTo(previousEcBlock);
                                         for (EcBlockImpl block : poppedOffBlock) {
@@ -57,15 +68,7 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
                                     }
                                 }
                             }
-                            List<FoundryMachine> forgers = new ArrayList<>();
-                            for (FoundryMachine foundryMachine : GENERATORS.values()) {
-                                foundryMachine.setLastBlock(lastEcBlock);
-                                if (foundryMachine.effectiveBalance.signum() > 0) {
-                                    forgers.add(foundryMachine);
-                                }
-                            }
-                            Collections.sort(forgers);
-                            sortedForgers = Collections.unmodifiableList(forgers);
+                            sortedForgers = sortForgers(lastEcBlock);
                             logged = false;
                         }
                         if (!logged) {
@@ -110,8 +113,8 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
     private final String secretPhrase;
     private final byte[] publicKey;
     private volatile long hitTime;
-    private volatile BigInteger hit;
-    private volatile BigInteger effectiveBalance;
+    private volatile long hit;
+    private volatile long effectiveBalance;
     private volatile long deadline;
 
     private FoundryMachine(String secretPhrase) {
@@ -122,6 +125,7 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
         try {
             if (EcBlockchainImpl.getInstance().getHeight() >= Constants.EC_LAST_KNOWN_BLOCK) {
                 setLastBlock(EcBlockchainImpl.getInstance().getLastECBlock());
+                notifyDeadline();
             }
             sortedForgers = null;
         } finally {
@@ -240,6 +244,28 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
                 || Constants.IS_OFFLINE);
     }
 
+    /**
+     * Compute the hits and deadlines of the forgers for the block and sort the forgers with a positive
+     * effective balance by deadline. Many forgers are computed in parallel.
+     *
+     * @param ecBlock EcBlock
+     * @return Sorted forgers
+     */
+    private static List<FoundryMachine> sortForgers(EcBlock ecBlock) {
+        List<FoundryMachine> foundryMachines = new ArrayList<>(GENERATORS.values());
+        (foundryMachines.size() >= PARALLEL_THRESHOLD ? foundryMachines.parallelStream() : foundryMachines.stream())
+                .forEach(foundryMachine -> foundryMachine.setLastBlock(ecBlock));
+        List<FoundryMachine> forgers = new ArrayList<>(foundryMachines.size());
+        for (FoundryMachine foundryMachine : foundryMachines) {
+            if (foundryMachine.effectiveBalance > 0) {
+                foundryMachine.notifyDeadline();
+                forgers.add(foundryMachine);
+            }
+        }
+        Collections.sort(forgers);
+        return Collections.unmodifiableList(forgers);
+    }
+
     static BigInteger getHit(byte[] publicKey, EcBlock ecBlock) {
         if (ecBlock.getHeight() < Constants.EC_TRANSPARENT_FORGING_BLOCK) {
             throw new IllegalArgumentException("Not supported below Transparent Forging EcBlock");
@@ -255,6 +281,39 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
                 + hit.divide(BigInteger.valueOf(ecBlock.getBaseTarget()).multiply(effectiveBalance)).longValue();
     }
 
+    /**
+     * Return the same hit as getHit() as an unsigned 64-bit value
+     */
+    static long getHitValue(byte[] publicKey, EcBlock ecBlock) {
+        if (ecBlock.getHeight() < Constants.EC_TRANSPARENT_FORGING_BLOCK) {
+            throw new IllegalArgumentException("Not supported below Transparent Forging EcBlock");
+        }
+        MessageDigest digest = Crypto.sha256();
+        digest.update(ecBlock.getFoundrySignature());
+        byte[] generationSignatureHash = digest.digest(publicKey);
+        long hit = 0;
+        for (int i = 7; i >= 0; i--) {
+            hit = (hit << 8) | (generationSignatureHash[i] & 0xFF);
+        }
+        return hit;
+    }
+
+    /**
+     * Return the same hit time as getHitTime() using 64-bit arithmetic unless the target overflows
+     */
+    static long getHitTime(long effectiveBalance, long hit, EcBlock ecBlock) {
+        long baseTarget = ecBlock.getBaseTarget();
+        if (baseTarget > 0 && effectiveBalance > 0 && baseTarget <= Long.MAX_VALUE / effectiveBalance) {
+            return ecBlock.getTimestamp() + Long.divideUnsigned(hit, baseTarget * effectiveBalance);
+        }
+        return getHitTime(BigInteger.valueOf(effectiveBalance), toUnsignedBigInteger(hit), ecBlock);
+    }
+
+    private static BigInteger toUnsignedBigInteger(long value) {
+        BigInteger bigInteger = BigInteger.valueOf(value & Long.MAX_VALUE);
+        return value < 0 ? bigInteger.setBit(63) : bigInteger;
+    }
+
     public static List<ActiveGenerator> getNextGenerators() {
         List<ActiveGenerator> generatorList;
         EcBlockchain ecBlockchain = EcBlockchainImpl.getInstance();
@@ -278,9 +337,8 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
             if (blockId != activeBlockId) {
                 activeBlockId = blockId;
                 EcBlock lastEcBlock = ecBlockchain.getLastECBlock();
-                for (ActiveGenerator generator : activeGenerators) {
-                    generator.setLastBlock(lastEcBlock);
-                }
+                (activeGenerators.size() >= PARALLEL_THRESHOLD ? activeGenerators.parallelStream() : activeGenerators.stream())
+                        .forEach(generator -> generator.setLastBlock(lastEcBlock));
                 Collections.sort(activeGenerators);
             }
             generatorList = new ArrayList<>(activeGenerators);
@@ -304,9 +362,18 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
         return hitTime;
     }
 
+    /**
+     * Forgers are ordered by hit / effective balance. The hit times are compared first,
+     * since they are that ratio rounded down, and the ratios are only compared for equal hit times.
+     */
     @Override
     public int compareTo(FoundryMachine g) {
-        int i = this.hit.multiply(g.effectiveBalance).compareTo(g.hit.multiply(this.effectiveBalance));
+        int i = Long.compare(this.hitTime, g.hitTime);
+        if (i != 0) {
+            return i;
+        }
+        i = toUnsignedBigInteger(this.hit).multiply(BigInteger.valueOf(g.effectiveBalance))
+                .compareTo(toUnsignedBigInteger(g.hit).multiply(BigInteger.valueOf(this.effectiveBalance)));
         if (i != 0) {
             return i;
         }
@@ -322,24 +389,29 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
         int height = lastEcBlock.getHeight();
         Account account = Account.getAccount(accountId, height);
         if (account == null) {
-            effectiveBalance = BigInteger.ZERO;
+            effectiveBalance = 0;
         } else {
-            effectiveBalance = BigInteger.valueOf(Math.max(account.getEffectiveBalanceEC(height), 0));
+            effectiveBalance = Math.max(account.getEffectiveBalanceEC(height), 0);
         }
-        if (effectiveBalance.signum() == 0) {
+        if (effectiveBalance == 0) {
             hitTime = 0;
-            hit = BigInteger.ZERO;
+            hit = 0;
             return;
         }
-        hit = getHit(publicKey, lastEcBlock);
+        hit = getHitValue(publicKey, lastEcBlock);
         hitTime = getHitTime(effectiveBalance, hit, lastEcBlock);
         deadline = Math.max(hitTime - lastEcBlock.getTimestamp(), 0);
-        LISTENER_MANAGER.notify(this, FoundryMachineEvent.GENERATION_DEADLINE);
+    }
+
+    private void notifyDeadline() {
+        if (effectiveBalance > 0) {
+            LISTENER_MANAGER.notify(this, FoundryMachineEvent.GENERATION_DEADLINE);
+        }
     }
 
     boolean forge(EcBlock lastEcBlock, int generationLimit) throws BlockNotAcceptedException {
         int timestamp = getTimestamp(generationLimit);
-        if (!verifyHit(hit, effectiveBalance, lastEcBlock, timestamp)) {
+        if (!verifyHit(toUnsignedBigInteger(hit), BigInteger.valueOf(effectiveBalance), lastEcBlock, timestamp)) {
             LoggerUtil.logDebug(this.toString() + " failed to forge at " + timestamp + " height " + lastEcBlock.getHeight() + " last timestamp " + lastEcBlock.getTimestamp());
             return false;
         }
@@ -404,9 +476,7 @@ public final class FoundryMachine implements Comparable<FoundryMachine> {
                 hitTime = Long.MAX_VALUE;
                 return;
             }
-            BigInteger effectiveBalance = BigInteger.valueOf(effectiveBalanceEC);
-            BigInteger hit = FoundryMachine.getHit(publicKey, lastEcBlock);
-            hitTime = FoundryMachine.getHitTime(effectiveBalance, hit, lastEcBlock);
+            hitTime = FoundryMachine.getHitTime(effectiveBalanceEC, FoundryMachine.getHitValue(publicKey, lastEcBlock), lastEcBlock);
         }
 
         @Override
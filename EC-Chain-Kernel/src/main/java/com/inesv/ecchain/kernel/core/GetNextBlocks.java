@@ -4,9 +4,12 @@ import com.inesv.ecchain.common.core.EcNotValidExceptionEc;
 import com.inesv.ecchain.common.util.JSON;
 import com.inesv.ecchain.common.util.LoggerUtil;
 import com.inesv.ecchain.kernel.peer.Peer;
+import com.inesv.ecchain.kernel.peer.PeerService;
+import com.inesv.ecchain.kernel.peer.Peers;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -80,9 +83,21 @@ class GetNextBlocks implements Callable<List<EcBlockImpl>> {
         request.put("requestType", "getNextBlocks");
         request.put("blockIds", idList);
         request.put("blockId", Long.toUnsignedString(blockIds.get(start)));
+        if (Peers.getServices().contains(PeerService.BINARY_BLOCKS) && peer.providesService(PeerService.BINARY_BLOCKS)) {
+            request.put("binary", true);
+            long startTime = System.currentTimeMillis();
+            ByteBuffer buffer = peer.sendBinary(JSON.prepareRequest(request), 10 * 1024 * 1024);
+            request.remove("binary");
+            if (buffer != null) {
+                responseTime = System.currentTimeMillis() - startTime;
+                EcBlockDownloadMetrics.getInstance().fetched(responseTime);
+                return parseBlocks(buffer);
+            }
+        }
         long startTime = System.currentTimeMillis();
         JSONObject response = peer.send(JSON.prepareRequest(request), 10 * 1024 * 1024);
         responseTime = System.currentTimeMillis() - startTime;
+        EcBlockDownloadMetrics.getInstance().fetched(responseTime);
         if (response == null) {
             return null;
         }
@@ -100,6 +115,7 @@ class GetNextBlocks implements Callable<List<EcBlockImpl>> {
             return null;
         }
         List<EcBlockImpl> blockList = new ArrayList<>(nextBlocks.size());
+        long parseStart = System.nanoTime();
         try {
             int count = stop - start;
             for (JSONObject blockData : nextBlocks) {
@@ -113,6 +129,39 @@ class GetNextBlocks implements Callable<List<EcBlockImpl>> {
             peer.blacklist(e);
             stop = start + blockList.size();
         }
+        EcBlockDownloadMetrics.getInstance().parsed(blockList.size(), System.nanoTime() - parseStart);
+        return blockList;
+    }
+
+    /**
+     * Parse the blocks returned in binary form
+     *
+     * @param buffer Response buffer
+     * @return List of blocks or null if an error occurred
+     */
+    private List<EcBlockImpl> parseBlocks(ByteBuffer buffer) {
+        int blockCount = buffer.remaining() >= 4 ? buffer.getInt() : -1;
+        if (blockCount < 0 || blockCount > 36) {
+            LoggerUtil.logDebug("Obsolete or rogue peer " + peer.getPeerHost() + " sends invalid nextBlocks count, blacklisting");
+            peer.blacklist("Invalid nextBlocks count");
+            return null;
+        }
+        List<EcBlockImpl> blockList = new ArrayList<>(blockCount);
+        long parseStart = System.nanoTime();
+        try {
+            int count = stop - start;
+            for (int i = 0; i < blockCount; i++) {
+                blockList.add(EcBlockImpl.parseBlock(buffer));
+                if (--count <= 0) {
+                    break;
+                }
+            }
+        } catch (RuntimeException | EcNotValidExceptionEc e) {
+            LoggerUtil.logError("Failed to parse block: " + e.toString(), e);
+            peer.blacklist(e);
+            stop = start + blockList.size();
+        }
+        EcBlockDownloadMetrics.getInstance().parsed(blockList.size(), System.nanoTime() - parseStart);
         return blockList;
     }
 
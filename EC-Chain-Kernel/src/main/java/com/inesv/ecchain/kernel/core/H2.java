@@ -18,6 +18,7 @@ public final class H2 {
             .dbPassword(PropertiesUtil.getKeyForString("ec.dbPassword", null))
             .maxConnections(PropertiesUtil.getKeyForInt("ec.maxDbConnections", 0))
             .loginTimeout(PropertiesUtil.getKeyForInt("ec.dbLoginTimeout", 0))
+            .statementCacheSize(PropertiesUtil.getKeyForInt("ec.dbStatementCacheSize", 0))
             .defaultLockTimeout(PropertiesUtil.getKeyForInt("ec.dbDefaultLockTimeout", 0) * 1000)
             .maxMemoryRows(PropertiesUtil.getKeyForInt("ec.dbMaxMemoryRows", 0))
     );
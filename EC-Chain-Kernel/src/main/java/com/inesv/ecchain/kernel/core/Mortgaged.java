@@ -3311,7 +3311,10 @@ public interface Mortgaged extends Enclosure {
                 attachment.put("channel", badgeData.getChannel());
                 attachment.put("isText", badgeData.isText());
                 attachment.put("filename", badgeData.getFilename());
-                attachment.put("data", badgeData.isText() ? Convert.toString(badgeData.getData()) : Convert.toHexString(badgeData.getData()));
+                byte[] badgeBytes = badgeData.getData();
+                if (badgeBytes != null) {
+                    attachment.put("data", badgeData.isText() ? Convert.toString(badgeBytes) : Convert.toHexString(badgeBytes));
+                }
             } else if (data != null) {
                 attachment.put("name", name);
                 attachment.put("description", description);
@@ -7,6 +7,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Comparator;
 
 public abstract class Order {
 
@@ -40,6 +41,17 @@ public abstract class Order {
         this.transactionHeight = rs.getInt("transaction_height");
     }
 
+    private Order(Order order) {
+        this.id = order.id;
+        this.accountId = order.accountId;
+        this.assetId = order.assetId;
+        this.priceNQT = order.priceNQT;
+        this.quantityQNT = order.quantityQNT;
+        this.creationHeight = order.creationHeight;
+        this.transactionIndex = order.transactionIndex;
+        this.transactionHeight = order.transactionHeight;
+    }
+
     private static void matchOrders(long assetId) {
 
         Order.Ask askOrder;
@@ -118,6 +130,8 @@ public abstract class Order {
         this.quantityQNT = quantityQNT;
     }
 
+    abstract Order copy();
+
     public final int getHeight() {
         return creationHeight;
     }
@@ -146,6 +160,11 @@ public abstract class Order {
                 return ask.h2Key;
             }
 
+            @Override
+            public Ask newEntity(H2Key h2Key) {
+                return askOrderBook.getOrder(((H2KeyLongKey) h2Key).getId());
+            }
+
         };
 
         private static final VersionedEntityH2Table<Ask> askOrderTable = new VersionedEntityH2Table<Ask>("ask_order", askOrderDbKeyFactory) {
@@ -159,12 +178,28 @@ public abstract class Order {
                 ask.save(con, table);
             }
 
+            @Override
+            public void rollback(int height) {
+                super.rollback(height);
+                askOrderBook.invalidate();
+            }
+
+            @Override
+            public void truncate() {
+                super.truncate();
+                askOrderBook.invalidate();
+            }
+
             @Override
             protected String defaultSort() {
                 return " ORDER BY creation_height DESC ";
             }
 
         };
+        private static final OrderBook<Ask> askOrderBook = new OrderBook<>("ask", Comparator.<Ask>comparingLong(Order::getPriceNQT)
+                .thenComparingInt(Order::getHeight)
+                .thenComparingInt(Order::getTransactionHeight)
+                .thenComparingInt(Order::getTransactionIndex), () -> askOrderTable.getAll(0, -1));
         private final H2Key h2Key;
 
         private Ask(Transaction transaction, Mortgaged.ColoredCoinsAskOrderPlacement attachment) {
@@ -177,6 +212,11 @@ public abstract class Order {
             this.h2Key = h2Key;
         }
 
+        private Ask(Ask order) {
+            super(order);
+            this.h2Key = order.h2Key;
+        }
+
         public static int getCount() {
             return askOrderTable.getCount();
         }
@@ -208,26 +248,21 @@ public abstract class Order {
         }
 
         private static Ask getNextOrder(long assetId) {
-            try (Connection con = H2.H2.getConnection();
-                 PreparedStatement pstmt = con.prepareStatement("SELECT * FROM ask_order WHERE asset_id = ? "
-                         + "AND latest = TRUE ORDER BY price ASC, creation_height ASC, transaction_height ASC, transaction_index ASC LIMIT 1")) {
-                pstmt.setLong(1, assetId);
-                try (H2Iterator<Ask> askOrders = askOrderTable.getManyBy(con, pstmt, true)) {
-                    return askOrders.hasNext() ? askOrders.next() : null;
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException(e.toString(), e);
-            }
+            Ask ask = askOrderBook.getFirst(assetId);
+            return ask == null ? null : askOrderTable.newEntity(ask.h2Key);
         }
 
         static void addOrder(Transaction transaction, Mortgaged.ColoredCoinsAskOrderPlacement attachment) {
             Ask order = new Ask(transaction, attachment);
             askOrderTable.insert(order);
+            askOrderBook.put(order);
             matchOrders(attachment.getAssetId());
         }
 
         static void removeOrder(long orderId) {
-            askOrderTable.delete(getAskOrder(orderId));
+            Ask order = getAskOrder(orderId);
+            askOrderTable.delete(order);
+            askOrderBook.remove(order);
         }
 
         public static void init() {
@@ -237,12 +272,19 @@ public abstract class Order {
             super.save(con, table);
         }
 
+        @Override
+        Ask copy() {
+            return new Ask(this);
+        }
+
         private void updateQuantityQNT(long quantityQNT) {
             super.setQuantityQNT(quantityQNT);
             if (quantityQNT > 0) {
                 askOrderTable.insert(this);
+                askOrderBook.put(this);
             } else if (quantityQNT == 0) {
                 askOrderTable.delete(this);
+                askOrderBook.remove(this);
             } else {
                 throw new IllegalArgumentException("Negative quantity: " + quantityQNT
                         + " for order: " + Long.toUnsignedString(getId()));
@@ -273,6 +315,11 @@ public abstract class Order {
                 return bid.h2Key;
             }
 
+            @Override
+            public Bid newEntity(H2Key h2Key) {
+                return bidOrderBook.getOrder(((H2KeyLongKey) h2Key).getId());
+            }
+
         };
 
         private static final VersionedEntityH2Table<Bid> bidOrderTable = new VersionedEntityH2Table<Bid>("bid_order", bidOrderDbKeyFactory) {
@@ -287,12 +334,28 @@ public abstract class Order {
                 bid.save(con, table);
             }
 
+            @Override
+            public void rollback(int height) {
+                super.rollback(height);
+                bidOrderBook.invalidate();
+            }
+
+            @Override
+            public void truncate() {
+                super.truncate();
+                bidOrderBook.invalidate();
+            }
+
             @Override
             protected String defaultSort() {
                 return " ORDER BY creation_height DESC ";
             }
 
         };
+        private static final OrderBook<Bid> bidOrderBook = new OrderBook<>("bid", Comparator.<Bid>comparingLong(Order::getPriceNQT).reversed()
+                .thenComparingInt(Order::getHeight)
+                .thenComparingInt(Order::getTransactionHeight)
+                .thenComparingInt(Order::getTransactionIndex), () -> bidOrderTable.getAll(0, -1));
         private final H2Key h2Key;
 
         private Bid(Transaction transaction, Mortgaged.ColoredCoinsBidOrderPlacement attachment) {
@@ -305,6 +368,11 @@ public abstract class Order {
             this.h2Key = h2Key;
         }
 
+        private Bid(Bid order) {
+            super(order);
+            this.h2Key = order.h2Key;
+        }
+
         public static int getCount() {
             return bidOrderTable.getCount();
         }
@@ -336,26 +404,21 @@ public abstract class Order {
         }
 
         private static Bid getNextOrder(long assetId) {
-            try (Connection con = H2.H2.getConnection();
-                 PreparedStatement pstmt = con.prepareStatement("SELECT * FROM bid_order WHERE asset_id = ? "
-                         + "AND latest = TRUE ORDER BY price DESC, creation_height ASC, transaction_height ASC, transaction_index ASC LIMIT 1")) {
-                pstmt.setLong(1, assetId);
-                try (H2Iterator<Bid> bidOrders = bidOrderTable.getManyBy(con, pstmt, true)) {
-                    return bidOrders.hasNext() ? bidOrders.next() : null;
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException(e.toString(), e);
-            }
+            Bid bid = bidOrderBook.getFirst(assetId);
+            return bid == null ? null : bidOrderTable.newEntity(bid.h2Key);
         }
 
         static void addOrder(Transaction transaction, Mortgaged.ColoredCoinsBidOrderPlacement attachment) {
             Bid order = new Bid(transaction, attachment);
             bidOrderTable.insert(order);
+            bidOrderBook.put(order);
             matchOrders(attachment.getAssetId());
         }
 
         static void removeOrder(long orderId) {
-            bidOrderTable.delete(getBidOrder(orderId));
+            Bid order = getBidOrder(orderId);
+            bidOrderTable.delete(order);
+            bidOrderBook.remove(order);
         }
 
         public static void init() {
@@ -365,12 +428,19 @@ public abstract class Order {
             super.save(con, table);
         }
 
+        @Override
+        Bid copy() {
+            return new Bid(this);
+        }
+
         private void updateQuantityQNT(long quantityQNT) {
             super.setQuantityQNT(quantityQNT);
             if (quantityQNT > 0) {
                 bidOrderTable.insert(this);
+                bidOrderBook.put(this);
             } else if (quantityQNT == 0) {
                 bidOrderTable.delete(this);
+                bidOrderBook.remove(this);
             } else {
                 throw new IllegalArgumentException("Negative quantity: " + quantityQNT
                         + " for order: " + Long.toUnsignedString(getId()));
@@ -0,0 +1,118 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.kernel.H2.H2Iterator;
+import com.inesv.ecchain.kernel.H2.TransactionCallback;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * In-memory price-time priority book of the open orders of one side of the asset exchange.
+ * The book is loaded from the order table the first time it is used and is discarded, to be
+ * reloaded on next use, whenever the database transaction or the order table is rolled back.
+ * The book keeps its own copies of the orders, so an order being filled only changes the book
+ * when it is put back, after the rollback callback is registered.
+ */
+final class OrderBook<T extends Order> implements TransactionCallback {
+
+    private final String name;
+    private final Comparator<T> comparator;
+    private final Supplier<H2Iterator<T>> loader;
+    private final Map<Long, NavigableSet<T>> assetOrders = new HashMap<>();
+    private final Map<Long, T> orders = new HashMap<>();
+    private boolean loaded;
+
+    OrderBook(String name, Comparator<T> comparator, Supplier<H2Iterator<T>> loader) {
+        this.name = name;
+        this.comparator = comparator.thenComparingLong(Order::getId);
+        this.loader = loader;
+    }
+
+    synchronized T getFirst(long assetId) {
+        load();
+        NavigableSet<T> book = assetOrders.get(assetId);
+        return book == null || book.isEmpty() ? null : copy(book.first());
+    }
+
+    synchronized T getOrder(long orderId) {
+        load();
+        T order = orders.get(orderId);
+        return order == null ? null : copy(order);
+    }
+
+    synchronized void put(T order) {
+        if (!loaded) {
+            return;
+        }
+        H2.H2.registerCallback(this);
+        T copy = copy(order);
+        T previous = orders.put(copy.getId(), copy);
+        NavigableSet<T> book = assetOrders.computeIfAbsent(copy.getAssetId(), assetId -> new TreeSet<>(comparator));
+        if (previous != null) {
+            book.remove(previous);
+        }
+        book.add(copy);
+    }
+
+    synchronized void remove(T order) {
+        if (!loaded || order == null) {
+            return;
+        }
+        H2.H2.registerCallback(this);
+        T previous = orders.remove(order.getId());
+        if (previous != null) {
+            NavigableSet<T> book = assetOrders.get(previous.getAssetId());
+            book.remove(previous);
+            if (book.isEmpty()) {
+                assetOrders.remove(previous.getAssetId());
+            }
+        }
+    }
+
+    synchronized void invalidate() {
+        loaded = false;
+        assetOrders.clear();
+        orders.clear();
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void rollback() {
+        invalidate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T copy(T order) {
+        return (T) order.copy();
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        if (H2.H2.isInTransaction()) {
+            H2.H2.registerCallback(this);
+        }
+        long start = System.currentTimeMillis();
+        assetOrders.clear();
+        orders.clear();
+        try (H2Iterator<T> iterator = loader.get()) {
+            for (T order : iterator) {
+                orders.put(order.getId(), order);
+                assetOrders.computeIfAbsent(order.getAssetId(), assetId -> new TreeSet<>(comparator)).add(order);
+            }
+        }
+        loaded = true;
+        LoggerUtil.logDebug("Loaded " + orders.size() + " " + name + " orders for " + assetOrders.size() + " assets in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+}
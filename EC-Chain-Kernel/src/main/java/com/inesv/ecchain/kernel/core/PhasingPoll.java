@@ -36,12 +36,16 @@ public final class PhasingPoll extends AbstractVote {
         @Override
         public void trim(int height) {
             super.trim(height);
+            if (!isNewTrimHeight(height)) {
+                return;
+            }
             try (Connection con = H2.H2.getConnection();
                  H2Iterator<PhasingPoll> pollsToTrim = PHASING_POLL_TABLE.getManyBy(new H2ClauseIntClause("finish_height", H2ClauseOp.LT, height), 0, -1);
                  PreparedStatement pstmt1 = con.prepareStatement("DELETE FROM phasing_poll WHERE id = ?");
                  PreparedStatement pstmt2 = con.prepareStatement("DELETE FROM phasing_poll_voter WHERE transaction_id = ?");
                  PreparedStatement pstmt3 = con.prepareStatement("DELETE FROM phasing_vote WHERE transaction_id = ?");
-                 PreparedStatement pstmt4 = con.prepareStatement("DELETE FROM phasing_poll_linked_transaction WHERE transaction_id = ?")) {
+                 PreparedStatement pstmt4 = con.prepareStatement("DELETE FROM phasing_poll_linked_transaction WHERE transaction_id = ?");
+                 PreparedStatement pstmt5 = con.prepareStatement("DELETE FROM phasing_vote_count WHERE transaction_id = ?")) {
                 while (pollsToTrim.hasNext()) {
                     long id = pollsToTrim.next().getId();
                     pstmt1.setLong(1, id);
@@ -52,11 +56,18 @@ public final class PhasingPoll extends AbstractVote {
                     pstmt3.executeUpdate();
                     pstmt4.setLong(1, id);
                     pstmt4.executeUpdate();
+                    pstmt5.setLong(1, id);
+                    pstmt5.executeUpdate();
                 }
             } catch (SQLException e) {
                 throw new RuntimeException(e.toString(), e);
             }
         }
+
+        @Override
+        public int getMinStateHashHeight(int height) {
+            return height - Snapshot.STATE_HASH_BLOCKS;
+        }
     };
     private static final H2KeyLongKeyFactory<PhasingPoll> VOTERS_DB_KEY_FACTORY = new H2KeyLongKeyFactory<PhasingPoll>("transaction_id") {
         @Override
@@ -82,6 +93,11 @@ public final class PhasingPoll extends AbstractVote {
                 pstmt.executeUpdate();
             }
         }
+
+        @Override
+        public int getMinStateHashHeight(int height) {
+            return height - Snapshot.STATE_HASH_BLOCKS;
+        }
     };
     private static final H2KeyLongKeyFactory<PhasingPoll> LINKED_TRANSACTION_DB_KEY_FACTORY = new H2KeyLongKeyFactory<PhasingPoll>("transaction_id") {
         @Override
@@ -109,6 +125,11 @@ public final class PhasingPoll extends AbstractVote {
                 pstmt.executeUpdate();
             }
         }
+
+        @Override
+        public int getMinStateHashHeight(int height) {
+            return height - Snapshot.STATE_HASH_BLOCKS;
+        }
     };
     private static final H2KeyLongKeyFactory<PhasingPollResult> RESULT_DB_KEY_FACTORY = new H2KeyLongKeyFactory<PhasingPollResult>("Id") {
         @Override
@@ -400,6 +421,13 @@ public final class PhasingPoll extends AbstractVote {
         }
         VoteWeighting.VotingModel votingModel = voteWeighting.getVotingModel();
         long cumulativeWeight = 0;
+        Map<Long, Long> weights = votingModel.calcWeights(voteWeighting, this, height);
+        if (weights != null) {
+            for (long weight : weights.values()) {
+                cumulativeWeight += weight;
+            }
+            return cumulativeWeight;
+        }
         try (H2Iterator<PhasingVote> votes = PhasingVote.getVotes(this.Id, 0, Integer.MAX_VALUE)) {
             for (PhasingVote vote : votes) {
                 cumulativeWeight += votingModel.calcWeight(voteWeighting, vote.getVoterId(), height);
@@ -408,6 +436,16 @@ public final class PhasingPoll extends AbstractVote {
         return cumulativeWeight;
     }
 
+    @Override
+    String getVoteTable() {
+        return "phasing_vote";
+    }
+
+    @Override
+    String getVotePollColumn() {
+        return "transaction_id";
+    }
+
     boolean allowEarlyFinish() {
         return voteWeighting.isBalanceIndependent() && (whitelist.length > 0 || voteWeighting.getVotingModel() != VoteWeighting.VotingModel.ACCOUNT);
     }
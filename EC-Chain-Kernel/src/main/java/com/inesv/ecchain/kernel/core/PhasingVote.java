@@ -29,17 +29,56 @@ public class PhasingVote {
             vote.save(con);
         }
 
+        @Override
+        public int getMinStateHashHeight(int height) {
+            return height - Snapshot.STATE_HASH_BLOCKS;
+        }
+
+    };
+    private static final H2KeyLongKeyFactory<VoteCount> VOTE_COUNT_DB_KEY_FACTORY = new H2KeyLongKeyFactory<VoteCount>("transaction_id") {
+        @Override
+        public H2Key newKey(VoteCount voteCount) {
+            return voteCount.h2Key;
+        }
+
+        @Override
+        public VoteCount newEntity(H2Key h2Key) {
+            return new VoteCount(((H2KeyLongKey) h2Key).getId(), h2Key);
+        }
+    };
+    private static final VersionedEntityH2Table<VoteCount> VOTE_COUNT_TABLE = new VersionedEntityH2Table<VoteCount>("phasing_vote_count", VOTE_COUNT_DB_KEY_FACTORY) {
+
+        @Override
+        protected VoteCount load(Connection con, ResultSet rs, H2Key h2Key) throws SQLException {
+            return new VoteCount(rs, h2Key);
+        }
+
+        @Override
+        protected void save(Connection con, VoteCount voteCount) throws SQLException {
+            voteCount.save(con);
+        }
+
+        /**
+         * The counts of a poll are deleted when the poll is trimmed, which depends on how far the node trimmed
+         *
+         * @return FALSE
+         */
+        @Override
+        public boolean isInStateHash() {
+            return false;
+        }
+
     };
     private final long phasedTransactionId;
     private final long voterId;
     private final H2Key h2Key;
     private long voteId;
 
-    private PhasingVote(Transaction transaction, Account voter, long phasedTransactionId) {
+    private PhasingVote(long voteId, long voterId, long phasedTransactionId) {
         this.phasedTransactionId = phasedTransactionId;
-        this.voterId = voter.getId();
+        this.voterId = voterId;
         this.h2Key = PHASING_VOTE_DB_KEY_FACTORY.newKey(this.phasedTransactionId, this.voterId);
-        this.voteId = transaction.getTransactionId();
+        this.voteId = voteId;
     }
 
     private PhasingVote(ResultSet rs, H2Key h2Key) throws SQLException {
@@ -57,18 +96,40 @@ public class PhasingVote {
         return PHASING_VOTE_TABLE.get(PHASING_VOTE_DB_KEY_FACTORY.newKey(phasedTransactionId, voterId));
     }
 
+    /**
+     * Return the number of votes from the running count kept for the phased transaction. Polls voted on
+     * before the count was introduced, or whose count was rolled back entirely, fall back to counting the votes.
+     */
     public static long getVoteCount(long phasedTransactionId) {
+        VoteCount voteCount = VOTE_COUNT_TABLE.get(VOTE_COUNT_DB_KEY_FACTORY.newKey(phasedTransactionId));
+        if (voteCount != null) {
+            return voteCount.count;
+        }
         return PHASING_VOTE_TABLE.getCount(new H2ClauseLongClause("transaction_id", phasedTransactionId));
     }
 
     static void addVote(Transaction transaction, Account voter, long phasedTransactionId) {
-        PhasingVote phasingVote = PHASING_VOTE_TABLE.get(PHASING_VOTE_DB_KEY_FACTORY.newKey(phasedTransactionId, voter.getId()));
+        addVote(transaction.getTransactionId(), voter.getId(), phasedTransactionId);
+    }
+
+    static void addVote(long voteId, long voterId, long phasedTransactionId) {
+        PhasingVote phasingVote = PHASING_VOTE_TABLE.get(PHASING_VOTE_DB_KEY_FACTORY.newKey(phasedTransactionId, voterId));
         if (phasingVote == null) {
-            phasingVote = new PhasingVote(transaction, voter, phasedTransactionId);
+            phasingVote = new PhasingVote(voteId, voterId, phasedTransactionId);
             PHASING_VOTE_TABLE.insert(phasingVote);
+            H2Key h2Key = VOTE_COUNT_DB_KEY_FACTORY.newKey(phasedTransactionId);
+            VoteCount voteCount = VOTE_COUNT_TABLE.get(h2Key);
+            if (voteCount == null) {
+                voteCount = VOTE_COUNT_TABLE.newEntity(h2Key);
+                voteCount.count = PHASING_VOTE_TABLE.getCount(new H2ClauseLongClause("transaction_id", phasedTransactionId));
+            } else {
+                voteCount.count += 1;
+            }
+            VOTE_COUNT_TABLE.insert(voteCount);
         }
     }
 
+
     public static void start() {
     }
 
@@ -92,4 +153,34 @@ public class PhasingVote {
         }
     }
 
+    private static final class VoteCount {
+
+        private final long phasedTransactionId;
+        private final H2Key h2Key;
+        private int count;
+
+        private VoteCount(long phasedTransactionId, H2Key h2Key) {
+            this.phasedTransactionId = phasedTransactionId;
+            this.h2Key = h2Key;
+        }
+
+        private VoteCount(ResultSet rs, H2Key h2Key) throws SQLException {
+            this.phasedTransactionId = rs.getLong("transaction_id");
+            this.h2Key = h2Key;
+            this.count = rs.getInt("vote_count");
+        }
+
+        private void save(Connection con) throws SQLException {
+            try (PreparedStatement pstmt = con.prepareStatement("MERGE INTO phasing_vote_count (transaction_id, vote_count, "
+                    + "height, latest) KEY (transaction_id, height) VALUES (?, ?, ?, TRUE)")) {
+                int i = 0;
+                pstmt.setLong(++i, phasedTransactionId);
+                pstmt.setInt(++i, count);
+                pstmt.setInt(++i, EcBlockchainImpl.getInstance().getHeight());
+                pstmt.executeUpdate();
+            }
+        }
+
+    }
+
 }
@@ -10,6 +10,9 @@ import javax.annotation.PostConstruct;
 import java.sql.*;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public final class Poll extends AbstractVote {
 
@@ -64,6 +67,7 @@ public final class Poll extends AbstractVote {
             }
         }
     };
+    private static final ConcurrentMap<Long, Tally> TALLIES = new ConcurrentHashMap<>();
     @PostConstruct
     public static void initPostConstruct()
      {
@@ -166,6 +170,7 @@ public final class Poll extends AbstractVote {
                 try {
                     List<OptionResult> results = poll.countResults(poll.getVoteWeighting(), currentHeight);
                     POLL_RESULTS_TABLE.insert(poll, results);
+                    TALLIES.remove(poll.getId());
                     LoggerUtil.logDebug("Poll " + Long.toUnsignedString(poll.getId()) + " has been finished");
                 } catch (RuntimeException e) {
                     LoggerUtil.logError("Couldn't count votes for poll " + Long.toUnsignedString(poll.getId()));
@@ -200,6 +205,16 @@ public final class Poll extends AbstractVote {
         }
     }
 
+    @Override
+    String getVoteTable() {
+        return "vote";
+    }
+
+    @Override
+    String getVotePollColumn() {
+        return "poll_id";
+    }
+
     public List<OptionResult> getResults(VoteWeighting voteWeighting) {
         if (this.voteWeighting.equals(voteWeighting)) {
             return getResults();
@@ -212,11 +227,54 @@ public final class Poll extends AbstractVote {
     public List<OptionResult> getResults() {
         if (Poll.IS_POLLS_PROCESSING && isFinished()) {
             return POLL_RESULTS_TABLE.get(POLL_DB_KEY_FACTORY.newKey(this));
+        } else if (Poll.IS_POLLS_PROCESSING) {
+            return getRunningResults();
         } else {
             return countResults(voteWeighting);
         }
     }
 
+    /**
+     * Return the results of an active poll from its running tally. The tally is reused while the last block
+     * does not change. If the weights do not depend on balances, only the votes cast since the tallied block
+     * are added, otherwise the votes are counted again at the new height.
+     */
+    private List<OptionResult> getRunningResults() {
+        EcBlockchainImpl ecBlockchain = EcBlockchainImpl.getInstance();
+        ecBlockchain.readECLock();
+        try {
+            EcBlock lastEcBlock = ecBlockchain.getLastECBlock();
+            int height = lastEcBlock.getHeight();
+            if (height >= finishHeight) {
+                return countResults(voteWeighting);
+            }
+            if (height < EcBlockchainProcessorImpl.getInstance().getMinRollbackHeight()) {
+                return null;
+            }
+            Tally tally = TALLIES.get(Id);
+            if (tally != null && (tally.height > height || tally.blockId != ecBlockchain.getBlockIdAtHeight(tally.height))) {
+                tally = null;
+            }
+            if (tally == null || (tally.blockId != lastEcBlock.getECId() && !voteWeighting.isBalanceIndependent())) {
+                tally = new Tally(lastEcBlock.getECId(), height, options.length);
+                try (H2Iterator<Vote> votes = Vote.getVotes(this.getId(), 0, -1)) {
+                    countVotes(tally, votes, voteWeighting, height);
+                }
+                TALLIES.put(Id, tally);
+            } else if (tally.blockId != lastEcBlock.getECId()) {
+                int tallyHeight = tally.height;
+                tally = tally.next(lastEcBlock.getECId(), height);
+                try (H2Iterator<Vote> votes = Vote.getVotesAfter(this.getId(), tallyHeight)) {
+                    countVotes(tally, votes, voteWeighting, height);
+                }
+                TALLIES.put(Id, tally);
+            }
+            return Arrays.asList(tally.copyResults());
+        } finally {
+            ecBlockchain.readECUnlock();
+        }
+    }
+
     public H2Iterator<Vote> getVotes() {
         return Vote.getVotes(this.getId(), 0, -1);
     }
@@ -266,40 +324,23 @@ public final class Poll extends AbstractVote {
     }
 
     private List<OptionResult> countResults(VoteWeighting voteWeighting, int height) {
-        final OptionResult[] result = new OptionResult[options.length];
-        VoteWeighting.VotingModel votingModel = voteWeighting.getVotingModel();
+        Tally tally = new Tally(0, height, options.length);
         try (H2Iterator<Vote> votes = Vote.getVotes(this.getId(), 0, -1)) {
-            for (Vote vote : votes) {
-                long weight = votingModel.calcWeight(voteWeighting, vote.getVoterId(), height);
-                if (weight <= 0) {
-                    continue;
-                }
-                long[] partialResult = countVote(vote, weight);
-                for (int i = 0; i < partialResult.length; i++) {
-                    if (partialResult[i] != Long.MIN_VALUE) {
-                        if (result[i] == null) {
-                            result[i] = new OptionResult(partialResult[i], weight);
-                        } else {
-                            result[i].add(partialResult[i], weight);
-                        }
-                    }
-                }
-            }
+            countVotes(tally, votes, voteWeighting, height);
         }
-        return Arrays.asList(result);
+        return Arrays.asList(tally.results);
     }
 
-    private long[] countVote(Vote vote, long weight) {
-        final long[] partialResult = new long[options.length];
-        final byte[] optionValues = vote.getVoteBytes();
-        for (int i = 0; i < optionValues.length; i++) {
-            if (optionValues[i] != Constants.EC_NO_VOTE_VALUE) {
-                partialResult[i] = (long) optionValues[i] * weight;
-            } else {
-                partialResult[i] = Long.MIN_VALUE;
+    private void countVotes(Tally tally, H2Iterator<Vote> votes, VoteWeighting voteWeighting, int height) {
+        VoteWeighting.VotingModel votingModel = voteWeighting.getVotingModel();
+        Map<Long, Long> weights = votingModel.calcWeights(voteWeighting, this, height);
+        for (Vote vote : votes) {
+            long weight = weights == null ? votingModel.calcWeight(voteWeighting, vote.getVoterId(), height)
+                    : weights.getOrDefault(vote.getVoterId(), 0L);
+            if (weight > 0) {
+                tally.addVote(vote.getVoteBytes(), weight);
             }
         }
-        return partialResult;
     }
 
     public static final class OptionResult {
@@ -327,4 +368,59 @@ public final class Poll extends AbstractVote {
 
     }
 
+    /**
+     * Results of a poll counted up to a block. The results of a tally shared between threads are not changed,
+     * a tally is extended by copying it first.
+     */
+    static final class Tally {
+
+        private final long blockId;
+        private final int height;
+        private final OptionResult[] results;
+
+        Tally(long blockId, int height, int optionCount) {
+            this(blockId, height, new OptionResult[optionCount]);
+        }
+
+        private Tally(long blockId, int height, OptionResult[] results) {
+            this.blockId = blockId;
+            this.height = height;
+            this.results = results;
+        }
+
+        Tally next(long blockId, int height) {
+            return new Tally(blockId, height, copyResults());
+        }
+
+        void addVote(byte[] voteBytes, long weight) {
+            for (int i = 0; i < results.length; i++) {
+                long vote;
+                if (i < voteBytes.length) {
+                    if (voteBytes[i] == Constants.EC_NO_VOTE_VALUE) {
+                        continue;
+                    }
+                    vote = (long) voteBytes[i] * weight;
+                } else {
+                    vote = 0;
+                }
+                if (results[i] == null) {
+                    results[i] = new OptionResult(vote, weight);
+                } else {
+                    results[i].add(vote, weight);
+                }
+            }
+        }
+
+        OptionResult[] copyResults() {
+            OptionResult[] copy = new OptionResult[results.length];
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    copy[i] = new OptionResult(results[i].result, results[i].weight);
+                }
+            }
+            return copy;
+        }
+
+    }
+
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.inesv.ecchain.kernel.core;
 
 
+import com.inesv.ecchain.common.core.Constants;
 import com.inesv.ecchain.common.crypto.Crypto;
 import com.inesv.ecchain.common.crypto.EncryptedData;
 import com.inesv.ecchain.common.util.Convert;
+import com.inesv.ecchain.common.util.EcTime;
 import com.inesv.ecchain.kernel.H2.*;
 
 import java.sql.Connection;
@@ -39,6 +41,37 @@ public final class PrunableMessage {
             return " ORDER BY block_timestamp DESC, db_id DESC ";
         }
 
+        @Override
+        protected void prune() {
+            if (Constants.EC_ENABLE_PRUNING) {
+                try (Connection con = h2.getConnection();
+                     PreparedStatement pstmt = con.prepareStatement("SELECT message_hash, encrypted_message_hash FROM prunable_message "
+                             + "WHERE transaction_timestamp < ? AND (message_hash IS NOT NULL OR encrypted_message_hash IS NOT NULL)")) {
+                    pstmt.setInt(1, new EcTime.EpochEcTime().getTime() - Constants.EC_MAX_PRUNABLE_LIFETIME);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            BlobStore.release(rs.getBytes("message_hash"));
+                            BlobStore.release(rs.getBytes("encrypted_message_hash"));
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e.toString(), e);
+                }
+            }
+            super.prune();
+        }
+
+        @Override
+        public void rollback(int height) {
+            try (Connection con = h2.getConnection()) {
+                BlobStore.releaseAbove(con, "prunable_message", "message_hash", height);
+                BlobStore.releaseAbove(con, "prunable_message", "encrypted_message_hash", height);
+            } catch (SQLException e) {
+                throw new RuntimeException(e.toString(), e);
+            }
+            super.rollback(height);
+        }
+
     };
     private final long id;
     private final H2Key h2Key;
@@ -48,7 +81,9 @@ public final class PrunableMessage {
     private final int blockTimestamp;
     private final int height;
     private byte[] message;
+    private byte[] messageHash;
     private EncryptedData encryptedData;
+    private byte[] encryptedMessageHash;
     private boolean messageIsText;
     private boolean encryptedMessageIsText;
     private boolean isCompressed;
@@ -67,12 +102,16 @@ public final class PrunableMessage {
         this.senderId = rs.getLong("sender_id");
         this.recipientId = rs.getLong("recipient_id");
         this.message = rs.getBytes("message");
-        if (this.message != null) {
+        this.messageHash = rs.getBytes("message_hash");
+        if (this.message != null || this.messageHash != null) {
             this.messageIsText = rs.getBoolean("message_is_text");
         }
         byte[] encryptedMessage = rs.getBytes("encrypted_message");
-        if (encryptedMessage != null) {
-            this.encryptedData = EncryptedData.readEncryptedData(encryptedMessage);
+        this.encryptedMessageHash = rs.getBytes("encrypted_message_hash");
+        if (encryptedMessage != null || this.encryptedMessageHash != null) {
+            if (encryptedMessage != null) {
+                this.encryptedData = EncryptedData.readEncryptedData(encryptedMessage);
+            }
             this.encryptedMessageIsText = rs.getBoolean("encrypted_is_text");
             this.isCompressed = rs.getBoolean("is_compressed");
         }
@@ -148,7 +187,7 @@ public final class PrunableMessage {
             } else if (prunableMessage.height != height) {
                 throw new RuntimeException("Attempt to modify prunable message from height " + prunableMessage.height + " at height " + height);
             }
-            if (prunableMessage.getMessage() == null) {
+            if (!prunableMessage.hasMessage()) {
                 prunableMessage.setPlain(appendix);
                 PRUNABLE_MESSAGE_TABLE.insert(prunableMessage);
             }
@@ -167,7 +206,7 @@ public final class PrunableMessage {
             } else if (prunableMessage.height != height) {
                 throw new RuntimeException("Attempt to modify prunable message from height " + prunableMessage.height + " at height " + height);
             }
-            if (prunableMessage.getEncryptedData() == null) {
+            if (!prunableMessage.hasEncryptedData()) {
                 prunableMessage.setEncrypted(appendix);
                 PRUNABLE_MESSAGE_TABLE.insert(prunableMessage);
             }
@@ -179,12 +218,14 @@ public final class PrunableMessage {
             return false;
         }
         try (Connection con = H2.H2.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT message, encrypted_message FROM prunable_message WHERE id = ?")) {
+             PreparedStatement pstmt = con.prepareStatement("SELECT message IS NOT NULL OR message_hash IS NOT NULL AS has_message, "
+                     + "encrypted_message IS NOT NULL OR encrypted_message_hash IS NOT NULL AS has_encrypted_message "
+                     + "FROM prunable_message WHERE id = ?")) {
             pstmt.setLong(1, transactionId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 return !rs.next()
-                        || (hasPrunablePlainMessage && rs.getBytes("message") == null)
-                        || (hasPrunableEncryptedMessage && rs.getBytes("encrypted_message") == null);
+                        || (hasPrunablePlainMessage && !rs.getBoolean("has_message"))
+                        || (hasPrunableEncryptedMessage && !rs.getBoolean("has_encrypted_message"));
             }
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
@@ -202,20 +243,38 @@ public final class PrunableMessage {
         this.isCompressed = appendix.isCompressed();
     }
 
+    private boolean hasMessage() {
+        return message != null || messageHash != null;
+    }
+
+    private boolean hasEncryptedData() {
+        return encryptedData != null || encryptedMessageHash != null;
+    }
+
     private void save(Connection con) throws SQLException {
-        if (message == null && encryptedData == null) {
+        if (!hasMessage() && !hasEncryptedData()) {
             throw new IllegalStateException("Prunable message not fully initialized");
         }
+        if (messageHash == null && BlobStore.isStored(message)) {
+            messageHash = BlobStore.put(message);
+        }
+        byte[] encryptedMessage = encryptedData == null ? null : encryptedData.getBytes();
+        if (encryptedMessageHash == null && BlobStore.isStored(encryptedMessage)) {
+            encryptedMessageHash = BlobStore.put(encryptedMessage);
+        }
         try (PreparedStatement pstmt = con.prepareStatement("MERGE INTO prunable_message (id, sender_id, recipient_id, "
-                + "message, encrypted_message, message_is_text, encrypted_is_text, is_compressed, block_timestamp, transaction_timestamp, height) "
+                + "message, message_hash, encrypted_message, encrypted_message_hash, message_is_text, encrypted_is_text, is_compressed, "
+                + "block_timestamp, transaction_timestamp, height) "
                 + "KEY (id) "
-                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
             int i = 0;
             pstmt.setLong(++i, this.id);
             pstmt.setLong(++i, this.senderId);
             H2Utils.h2setLongZeroToNull(pstmt, ++i, this.recipientId);
-            H2Utils.h2setBytes(pstmt, ++i, this.message);
-            H2Utils.h2setBytes(pstmt, ++i, this.encryptedData == null ? null : this.encryptedData.getBytes());
+            H2Utils.h2setBytes(pstmt, ++i, this.messageHash == null ? this.message : null);
+            H2Utils.h2setBytes(pstmt, ++i, this.messageHash);
+            H2Utils.h2setBytes(pstmt, ++i, this.encryptedMessageHash == null ? encryptedMessage : null);
+            H2Utils.h2setBytes(pstmt, ++i, this.encryptedMessageHash);
             pstmt.setBoolean(++i, this.messageIsText);
             pstmt.setBoolean(++i, this.encryptedMessageIsText);
             pstmt.setBoolean(++i, this.isCompressed);
@@ -227,10 +286,17 @@ public final class PrunableMessage {
     }
 
     public byte[] getMessage() {
+        if (message == null && messageHash != null) {
+            return BlobStore.get(messageHash);
+        }
         return message;
     }
 
     public EncryptedData getEncryptedData() {
+        if (encryptedData == null && encryptedMessageHash != null) {
+            byte[] encryptedMessage = BlobStore.get(encryptedMessageHash);
+            return encryptedMessage == null ? null : EncryptedData.readEncryptedData(encryptedMessage);
+        }
         return encryptedData;
     }
 
@@ -271,6 +337,7 @@ public final class PrunableMessage {
     }
 
     public byte[] decrypt(String secretPhrase) {
+        EncryptedData encryptedData = getEncryptedData();
         if (encryptedData == null) {
             return null;
         }
@@ -280,6 +347,7 @@ public final class PrunableMessage {
     }
 
     public byte[] decrypt(byte[] sharedKey) {
+        EncryptedData encryptedData = getEncryptedData();
         if (encryptedData == null) {
             return null;
         }
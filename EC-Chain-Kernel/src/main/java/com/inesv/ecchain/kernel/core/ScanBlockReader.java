@@ -0,0 +1,137 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.common.util.LoggerUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the blocks to be scanned on its own thread and database connection, so loading the blocks and
+ * parsing their transactions overlaps with applying the previous blocks. Blocks are returned in chunks
+ * in the order they were saved, starting from the requested height. The transaction bytes are not
+ * computed here, since they may need the sender public keys, which are looked up by the scanning thread.
+ * <p>
+ * The reader thread is never interrupted, because interrupting a thread doing I/O closes the H2 database
+ * file. Closing the reader waits for the current chunk to be read instead.
+ */
+final class ScanBlockReader implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 100;
+
+    private static final int QUEUE_CHUNKS = 4;
+
+    private static final List<EcBlockImpl> END = Collections.emptyList();
+
+    private final BlockingQueue<List<EcBlockImpl>> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+
+    private final int height;
+
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    private volatile RuntimeException failure;
+
+    private boolean done;
+
+    ScanBlockReader(int height) {
+        this.height = height;
+        thread = new Thread(this::read, "ScanBlockReader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Return the next blocks
+     *
+     * @return Blocks or null if there are no more blocks
+     */
+    List<EcBlockImpl> nextChunk() {
+        if (done) {
+            return null;
+        }
+        List<EcBlockImpl> chunk;
+        try {
+            chunk = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e.toString(), e);
+        }
+        if (chunk == END) {
+            done = true;
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }
+        return chunk;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+        done = true;
+    }
+
+    private void read() {
+        try (Connection con = H2.H2.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM block WHERE " + (height > 0 ? "height >= ? AND " : "")
+                     + "db_id >= ? ORDER BY db_id ASC LIMIT " + CHUNK_SIZE)) {
+            long dbId = Long.MIN_VALUE;
+            while (!closed) {
+                int i = 0;
+                if (height > 0) {
+                    pstmt.setInt(++i, height);
+                }
+                pstmt.setLong(++i, dbId);
+                List<EcBlockImpl> chunk = new ArrayList<>(CHUNK_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        dbId = rs.getLong("db_id") + 1;
+                        chunk.add(EcBlockH2.loadBlock(con, rs, true));
+                    }
+                }
+                if (chunk.isEmpty() || !put(chunk)) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            failure = new RuntimeException(e.toString(), e);
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            if (failure != null) {
+                LoggerUtil.logError("Error reading blocks to scan", failure);
+            }
+            put(END);
+        }
+    }
+
+    private boolean put(List<EcBlockImpl> chunk) {
+        try {
+            while (!closed) {
+                if (queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
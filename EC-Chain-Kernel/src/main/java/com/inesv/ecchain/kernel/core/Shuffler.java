@@ -8,7 +8,6 @@ import com.inesv.ecchain.common.core.EcValidationException;
 import com.inesv.ecchain.common.crypto.Crypto;
 import com.inesv.ecchain.common.util.Convert;
 import com.inesv.ecchain.common.util.LoggerUtil;
-import com.inesv.ecchain.kernel.H2.H2Iterator;
 
 import java.util.*;
 
@@ -419,11 +418,9 @@ public final class Shuffler {
                 return;
             }
         } else {
-            try (H2Iterator<UnconfirmedTransaction> unconfirmedTransactions = TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions()) {
-                if (hasUnconfirmedTransaction(attachment, unconfirmedTransactions)) {
-                    LoggerUtil.logDebug("Transaction already submitted");
-                    return;
-                }
+            if (hasUnconfirmedTransaction(attachment, TransactionProcessorImpl.getInstance().getUnconfirmedTransactionsBySender(accountId))) {
+                LoggerUtil.logDebug("Transaction already submitted");
+                return;
             }
         }
         try {
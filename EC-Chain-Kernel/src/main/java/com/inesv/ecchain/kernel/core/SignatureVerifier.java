@@ -0,0 +1,125 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.common.crypto.Crypto;
+import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.common.util.PropertiesUtil;
+import com.inesv.ecchain.common.util.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Verifies block and transaction signatures in batches on a fork-join pool before the
+ * blockchain lock is taken. Signature checks are memoized by {@link EcBlockImpl}
+ * and {@link TransactionImpl}, so the serial validation done later under the
+ * write lock only pays for the public key lookups.
+ */
+final class SignatureVerifier {
+
+    private static final int PARALLELISM;
+    private static final ForkJoinPool verifierPool;
+
+    static {
+        int threads = PropertiesUtil.getKeyForInt("ec.signatureVerificationThreads", 0);
+        PARALLELISM = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        verifierPool = PARALLELISM > 1 ? new ForkJoinPool(PARALLELISM) : null;
+        LoggerUtil.logDebug("Signature verification parallelism " + PARALLELISM + (verifierPool == null ? ", verifying serially" : ""));
+    }
+
+    private SignatureVerifier() {
+    }
+
+    static boolean verifyBlock(EcBlockImpl block) {
+        Batch batch = new Batch();
+        addBlock(batch, block);
+        return batch.verify();
+    }
+
+    static boolean verifyBlocks(Collection<EcBlockImpl> blocks) {
+        Batch batch = new Batch();
+        blocks.forEach(block -> addBlock(batch, block));
+        return batch.verify();
+    }
+
+    static boolean verifyTransactions(Collection<TransactionImpl> transactions) {
+        Batch batch = new Batch();
+        transactions.forEach(transaction -> transaction.addSignatureCheck(batch));
+        return batch.verify();
+    }
+
+    static void shutdown() {
+        if (verifierPool != null) {
+            ThreadPool.shutdownExecutor("verifierPool", verifierPool, 5);
+        }
+    }
+
+    private static void addBlock(Batch batch, EcBlockImpl block) {
+        block.addSignatureCheck(batch);
+        block.getTransactions().forEach(transaction -> transaction.addSignatureCheck(batch));
+    }
+
+    /**
+     * Signatures to be verified together. Legacy signatures are verified without
+     * enforcing canonical encoding and are kept apart from the others.
+     */
+    static final class Batch {
+
+        private final Entries canonical = new Entries();
+        private final Entries legacy = new Entries();
+
+        void add(byte[] signature, byte[] message, byte[] publicKey, boolean enforceCanonical, Runnable onValid) {
+            (enforceCanonical ? canonical : legacy).add(signature, message, publicKey, onValid);
+        }
+
+        private boolean verify() {
+            boolean valid = canonical.verify(true);
+            return legacy.verify(false) && valid;
+        }
+    }
+
+    private static final class Entries {
+
+        private final List<byte[]> signatures = new ArrayList<>();
+        private final List<byte[]> messages = new ArrayList<>();
+        private final List<byte[]> publicKeys = new ArrayList<>();
+        private final List<Runnable> onValid = new ArrayList<>();
+
+        private void add(byte[] signature, byte[] message, byte[] publicKey, Runnable onValid) {
+            signatures.add(signature);
+            messages.add(message);
+            publicKeys.add(publicKey);
+            this.onValid.add(onValid);
+        }
+
+        private boolean verify(boolean enforceCanonical) {
+            int count = signatures.size();
+            if (count == 0) {
+                return true;
+            }
+            byte[][] signatureArray = signatures.toArray(new byte[count][]);
+            byte[][] messageArray = messages.toArray(new byte[count][]);
+            byte[][] publicKeyArray = publicKeys.toArray(new byte[count][]);
+            BitSet valid;
+            if (verifierPool == null || count < 2 || verifierPool.isShutdown()) {
+                valid = new BitSet(count);
+                for (int i = 0; i < count; i++) {
+                    if (signatureArray[i] != null && publicKeyArray[i] != null
+                            && Crypto.ecVerify(signatureArray[i], messageArray[i], publicKeyArray[i], enforceCanonical)) {
+                        valid.set(i);
+                    }
+                }
+            } else {
+                valid = verifierPool.invoke(ForkJoinTask.adapt(() ->
+                        Crypto.verifyBatch(signatureArray, messageArray, publicKeyArray, enforceCanonical)));
+            }
+            for (int i = valid.nextSetBit(0); i >= 0; i = valid.nextSetBit(i + 1)) {
+                onValid.get(i).run();
+            }
+            return valid.cardinality() == count;
+        }
+    }
+}
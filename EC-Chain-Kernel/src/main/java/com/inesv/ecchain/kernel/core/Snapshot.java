@@ -0,0 +1,522 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.common.core.Constants;
+import com.inesv.ecchain.common.crypto.Crypto;
+import com.inesv.ecchain.common.util.Convert;
+import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.kernel.H2.DerivedH2Table;
+import com.inesv.ecchain.kernel.H2.VersionedEntityH2Table;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot of the blockchain state at a given height, used to start a new node without applying every block.
+ * <p>
+ * The snapshot file is a GZIP stream containing the block, transaction and derived tables rows, followed
+ * by the state hash and a SHA-256 checksum of the uncompressed content. The state hash covers the height and
+ * id of the last block, all the block, transaction and referenced transaction rows, and the rows of the derived
+ * tables which only depend on the blocks, so nodes at the same height have the same state hash no matter how
+ * far they trimmed or pruned their tables. Only the latest rows of the versioned tables are hashed, and only
+ * the rows above {@link DerivedH2Table#getMinStateHashHeight(int)} of the tables which delete their old rows
+ * when trimmed. The unconfirmed transactions are not exported, and the unconfirmed balances are exported as
+ * equal to the confirmed ones.
+ */
+public final class Snapshot {
+
+    private static final int MAGIC = 0x45435353;
+
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String[] CHAIN_TABLES = {"block", "transaction", "referenced_transaction"};
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int COMMIT_SIZE = 50000;
+
+    /**
+     * The derived tables are trimmed at least 720 blocks below the last block, see {@link Constants#MAX_ROLLBACK}
+     */
+    static final int STATE_HASH_BLOCKS = 720;
+
+    private static final String UNCONFIRMED_PREFIX = "unconfirmed_";
+
+    private static final byte NULL = 0;
+    private static final byte LONG = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte BYTES = 3;
+    private static final byte STRING = 4;
+    private static final byte ARRAY = 5;
+
+    private static final byte ROW = 1;
+    private static final byte END_OF_TABLE = 0;
+
+    private final File file;
+    private final int height;
+    private final long blockId;
+    private final byte[] stateHash;
+    private final byte[] checksum;
+
+    private Snapshot(File file, int height, long blockId, byte[] stateHash, byte[] checksum) {
+        this.file = file;
+        this.height = height;
+        this.blockId = blockId;
+        this.stateHash = stateHash;
+        this.checksum = checksum;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getBlockId() {
+        return blockId;
+    }
+
+    public byte[] getStateHash() {
+        return stateHash;
+    }
+
+    public byte[] getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Write a snapshot of the current blockchain state. No block can be pushed or popped off while the snapshot is written.
+     *
+     * @param file Snapshot file
+     * @return Snapshot
+     */
+    public static Snapshot export(File file) {
+        EcBlockchainImpl blockchain = EcBlockchainImpl.getInstance();
+        File tempFile = new File(file.getPath() + ".tmp");
+        blockchain.readECLock();
+        try {
+            EcBlock lastBlock = blockchain.getLastECBlock();
+            LoggerUtil.logInfo("Exporting snapshot at height " + lastBlock.getHeight() + " to " + file.getAbsolutePath());
+            MessageDigest checksumDigest = Crypto.sha256();
+            MessageDigest stateDigest = Crypto.sha256();
+            byte[] stateHash;
+            byte[] checksum;
+            try (Connection con = H2.H2.getConnection();
+                 DigestOutputStream digestOut = new DigestOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)), 65536), checksumDigest);
+                 DataOutputStream out = new DataOutputStream(digestOut)) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(getDatabaseVersion(con));
+                out.writeInt(lastBlock.getHeight());
+                out.writeLong(lastBlock.getECId());
+                updateLastBlock(stateDigest, lastBlock.getHeight(), lastBlock.getECId());
+                for (String table : CHAIN_TABLES) {
+                    exportTable(con, table, out, stateDigest, Integer.MIN_VALUE);
+                }
+                for (DerivedH2Table table : getDerivedTables()) {
+                    exportTable(con, table.toString(), out, table.isInStateHash() ? stateDigest : null,
+                            table.getMinStateHashHeight(lastBlock.getHeight()));
+                }
+                out.writeUTF("");
+                stateHash = stateDigest.digest();
+                out.write(stateHash);
+                out.flush();
+                digestOut.on(false);
+                checksum = checksumDigest.digest();
+                out.write(checksum);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            LoggerUtil.logInfo("Snapshot exported, state hash " + Convert.toHexString(stateHash));
+            return new Snapshot(file, lastBlock.getHeight(), lastBlock.getECId(), stateHash, checksum);
+        } catch (IOException | SQLException e) {
+            tempFile.delete();
+            throw new RuntimeException(e.toString(), e);
+        } finally {
+            blockchain.readECUnlock();
+        }
+    }
+
+    /**
+     * Load a snapshot into an empty database. The blocks, transactions and derived tables are deleted again
+     * if the snapshot cannot be loaded or its checksum or state hash are not the expected ones. Without an
+     * expected state hash, the snapshot is only loaded if ec.bootstrapAllowUnverified is set.
+     *
+     * @param file              Snapshot file
+     * @param expectedStateHash Expected state hash or null to accept the state hash recorded in the snapshot
+     * @return Snapshot
+     */
+    static Snapshot load(File file, byte[] expectedStateHash) {
+        if (expectedStateHash == null) {
+            if (!Constants.BOOTSTRAP_ALLOW_UNVERIFIED) {
+                throw new IllegalStateException("No ec.bootstrapStateHash set to verify snapshot " + file.getAbsolutePath()
+                        + " against, set ec.bootstrapAllowUnverified=true to load it anyway");
+            }
+            LoggerUtil.logError("WARNING: loading snapshot " + file.getAbsolutePath() + " without an expected state hash, "
+                    + "the blocks and state it contains are NOT verified and may be forged");
+        }
+        LoggerUtil.logInfo("Loading snapshot " + file.getAbsolutePath() + ", this may take a while...");
+        MessageDigest checksumDigest = Crypto.sha256();
+        MessageDigest stateDigest = Crypto.sha256();
+        Set<String> tables = new LinkedHashSet<>(Arrays.asList(CHAIN_TABLES));
+        getDerivedTables().forEach(table -> tables.add(table.toString()));
+        try {
+            H2.H2.beginTransaction();
+            try (Connection con = H2.H2.getConnection();
+                 Statement stmt = con.createStatement();
+                 DigestInputStream digestIn = new DigestInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)), 65536), checksumDigest);
+                 DataInputStream in = new DataInputStream(digestIn)) {
+                stmt.executeUpdate("SET REFERENTIAL_INTEGRITY FALSE");
+                try {
+                    for (String table : tables) {
+                        stmt.executeUpdate("TRUNCATE TABLE " + table);
+                    }
+                    H2.H2.commitTransaction();
+                    if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                        throw new IOException("Not a snapshot file");
+                    }
+                    int databaseVersion = in.readInt();
+                    if (databaseVersion != getDatabaseVersion(con)) {
+                        throw new IOException("Snapshot database version " + databaseVersion + " does not match " + getDatabaseVersion(con));
+                    }
+                    int height = in.readInt();
+                    long blockId = in.readLong();
+                    updateLastBlock(stateDigest, height, blockId);
+                    Map<String, Integer> stateTables = new LinkedHashMap<>();
+                    for (String chainTable : CHAIN_TABLES) {
+                        stateTables.put(chainTable, Integer.MIN_VALUE);
+                    }
+                    getDerivedTables().forEach(table -> {
+                        if (table.isInStateHash()) {
+                            stateTables.put(table.toString(), table.getMinStateHashHeight(height));
+                        }
+                    });
+                    String table;
+                    while (!(table = in.readUTF()).isEmpty()) {
+                        if (!tables.remove(table)) {
+                            throw new IOException("Unexpected table " + table + " in snapshot");
+                        }
+                        Integer minHashHeight = stateTables.remove(table);
+                        loadTable(con, table, in, minHashHeight != null ? stateDigest : null,
+                                minHashHeight != null ? minHashHeight : Integer.MIN_VALUE);
+                    }
+                    if (!stateTables.isEmpty()) {
+                        throw new IOException("Tables " + stateTables.keySet() + " missing from snapshot");
+                    }
+                    byte[] stateHash = new byte[32];
+                    in.readFully(stateHash);
+                    digestIn.on(false);
+                    byte[] checksum = new byte[32];
+                    in.readFully(checksum);
+                    if (!MessageDigest.isEqual(checksum, checksumDigest.digest())) {
+                        throw new IOException("Snapshot checksum does not match");
+                    }
+                    if (!MessageDigest.isEqual(stateHash, stateDigest.digest())) {
+                        throw new IOException("Snapshot state hash does not match its content");
+                    }
+                    if (expectedStateHash != null && !MessageDigest.isEqual(stateHash, expectedStateHash)) {
+                        throw new IOException("Snapshot state hash " + Convert.toHexString(stateHash) + " is not the expected one");
+                    }
+                    EcBlockImpl lastBlock = EcBlockH2.findLastBlock();
+                    if (lastBlock == null || lastBlock.getECId() != blockId || lastBlock.getHeight() != height) {
+                        throw new IOException("Snapshot last block does not match its header");
+                    }
+                    for (DerivedH2Table derivedTable : getDerivedTables()) {
+                        derivedTable.establishSearchIndex(con);
+                    }
+                    VersionedEntityH2Table.resetTrimmedHeights(con);
+                    H2.H2.commitTransaction();
+                    LoggerUtil.logInfo("Snapshot loaded at height " + height + ", state hash " + Convert.toHexString(stateHash));
+                    return new Snapshot(file, height, blockId, stateHash, checksum);
+                } catch (IOException | SQLException | RuntimeException e) {
+                    H2.H2.rollbackTransaction();
+                    for (String snapshotTable : CHAIN_TABLES) {
+                        stmt.executeUpdate("TRUNCATE TABLE " + snapshotTable);
+                    }
+                    for (DerivedH2Table derivedTable : getDerivedTables()) {
+                        stmt.executeUpdate("TRUNCATE TABLE " + derivedTable);
+                    }
+                    H2.H2.commitTransaction();
+                    throw e;
+                } finally {
+                    stmt.executeUpdate("SET REFERENTIAL_INTEGRITY TRUE");
+                }
+            }
+        } catch (IOException | SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        } finally {
+            H2.H2.endTransaction();
+            H2.H2.clearCache();
+        }
+    }
+
+    private static List<DerivedH2Table> getDerivedTables() {
+        List<DerivedH2Table> tables = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (DerivedH2Table table : EcBlockchainProcessorImpl.getInstance().getDerivedTables()) {
+            if (table.isInSnapshot() && names.add(table.toString())) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    private static void updateLastBlock(MessageDigest stateDigest, int height, long blockId) throws IOException {
+        ValueBuffer buffer = new ValueBuffer();
+        buffer.data.writeInt(height);
+        buffer.data.writeLong(blockId);
+        buffer.update(stateDigest);
+    }
+
+    private static int getDatabaseVersion(Connection con) throws SQLException {
+        try (Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT next_update FROM version")) {
+            if (!rs.next()) {
+                throw new SQLException("Invalid version table");
+            }
+            return rs.getInt(1);
+        }
+    }
+
+    private static List<String> getColumns(Connection con, String table) throws SQLException {
+        try (Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM " + table + " LIMIT 0")) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<String> columns = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columns.add(metaData.getColumnName(i).toLowerCase());
+            }
+            return columns;
+        }
+    }
+
+    /**
+     * The state hash depends on the order of the rows, so the rows of the hashed tables are sorted on all the columns
+     * except db_id. Only the latest rows of the versioned tables, and the rows above the minimum height of the other
+     * tables, are hashed.
+     */
+    static void exportTable(Connection con, String table, DataOutputStream out, MessageDigest stateDigest, int minHashHeight)
+            throws IOException, SQLException {
+        List<String> columns = getColumns(con, table);
+        out.writeUTF(table);
+        out.writeInt(columns.size());
+        for (String column : columns) {
+            out.writeUTF(column);
+        }
+        int dbIdIndex = columns.indexOf("db_id");
+        int latestIndex = columns.indexOf("latest");
+        int heightIndex = columns.indexOf("height");
+        // an unconfirmed column is written with the value of its confirmed column
+        int[] valueIndexes = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            int confirmedIndex = column.startsWith(UNCONFIRMED_PREFIX) ? columns.indexOf(column.substring(UNCONFIRMED_PREFIX.length())) : -1;
+            valueIndexes[i] = confirmedIndex >= 0 ? confirmedIndex : i;
+        }
+        String orderBy = "db_id";
+        if (stateDigest != null) {
+            List<String> sortColumns = new ArrayList<>(columns);
+            sortColumns.remove("db_id");
+            orderBy = String.join(", ", sortColumns);
+            stateDigest.update(table.getBytes(StandardCharsets.UTF_8));
+        }
+        ValueBuffer buffer = new ValueBuffer();
+        long count = 0;
+        try (Statement stmt = con.createStatement()) {
+            stmt.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM " + table + " ORDER BY " + orderBy)) {
+                while (rs.next()) {
+                    out.writeByte(ROW);
+                    boolean hashed = stateDigest != null && (latestIndex >= 0 ? rs.getBoolean(latestIndex + 1) :
+                            heightIndex < 0 || rs.getInt(heightIndex + 1) > minHashHeight);
+                    if (hashed) {
+                        stateDigest.update(ROW);
+                    }
+                    for (int i = 0; i < columns.size(); i++) {
+                        buffer.reset();
+                        writeValue(buffer.data, rs.getObject(valueIndexes[i] + 1));
+                        buffer.writeTo(out);
+                        if (hashed && i != dbIdIndex) {
+                            buffer.update(stateDigest);
+                        }
+                    }
+                    count += 1;
+                }
+            }
+        }
+        out.writeByte(END_OF_TABLE);
+        LoggerUtil.logDebug("Exported " + count + " rows of table " + table);
+    }
+
+    private static void loadTable(Connection con, String table, DataInputStream in, MessageDigest stateDigest, int minHashHeight)
+            throws IOException, SQLException {
+        List<String> columns = new ArrayList<>();
+        int columnCount = in.readInt();
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(in.readUTF());
+        }
+        if (!columns.equals(getColumns(con, table))) {
+            throw new IOException("Snapshot columns " + columns + " do not match table " + table);
+        }
+        int dbIdIndex = columns.indexOf("db_id");
+        int latestIndex = columns.indexOf("latest");
+        int heightIndex = columns.indexOf("height");
+        if (stateDigest != null) {
+            stateDigest.update(table.getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columnCount; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        ValueBuffer buffer = new ValueBuffer();
+        Object[] values = new Object[columnCount];
+        long count = 0;
+        try (PreparedStatement pstmt = con.prepareStatement(sql.toString())) {
+            byte marker;
+            while ((marker = in.readByte()) == ROW) {
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = readValue(in);
+                    pstmt.setObject(i + 1, values[i]);
+                }
+                if (stateDigest != null && (latestIndex >= 0 ? Boolean.TRUE.equals(values[latestIndex]) :
+                        heightIndex < 0 || ((Number) values[heightIndex]).longValue() > minHashHeight)) {
+                    stateDigest.update(ROW);
+                    for (int i = 0; i < columnCount; i++) {
+                        if (i != dbIdIndex) {
+                            buffer.reset();
+                            writeValue(buffer.data, values[i]);
+                            buffer.update(stateDigest);
+                        }
+                    }
+                }
+                pstmt.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                    if (count % COMMIT_SIZE == 0) {
+                        H2.H2.commitTransaction();
+                    }
+                }
+            }
+            if (marker != END_OF_TABLE) {
+                throw new IOException("Invalid row marker in table " + table);
+            }
+            pstmt.executeBatch();
+        }
+        if (dbIdIndex >= 0) {
+            try (Statement stmt = con.createStatement()) {
+                long maxDbId;
+                try (ResultSet rs = stmt.executeQuery("SELECT MAX(db_id) FROM " + table)) {
+                    maxDbId = rs.next() ? rs.getLong(1) : 0;
+                }
+                stmt.executeUpdate("ALTER TABLE " + table + " ALTER COLUMN db_id RESTART WITH " + (maxDbId + 1));
+            }
+        }
+        H2.H2.commitTransaction();
+        LoggerUtil.logDebug("Loaded " + count + " rows of table " + table);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(LONG);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Object[]) {
+            out.writeByte(ARRAY);
+            out.writeInt(((Object[]) value).length);
+            for (Object element : (Object[]) value) {
+                writeValue(out, element);
+            }
+        } else {
+            throw new IOException("Unsupported column type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case BYTES:
+                return readBytes(in);
+            case STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case ARRAY:
+                int length = in.readInt();
+                if (length < 0) {
+                    throw new IOException("Invalid array length " + length);
+                }
+                Object[] array = new Object[length];
+                for (int i = 0; i < length; i++) {
+                    array[i] = readValue(in);
+                }
+                return array;
+            default:
+                throw new IOException("Invalid value type " + type);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid value length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static final class ValueBuffer extends ByteArrayOutputStream {
+
+        private final DataOutputStream data = new DataOutputStream(this);
+
+        private void update(MessageDigest digest) {
+            digest.update(buf, 0, count);
+        }
+    }
+}
@@ -51,6 +51,7 @@ public final class Trade {
     private final long quantityQNT;
     private final long priceNQT;
     private final boolean isBuy;
+    private final long dbId;
 
     private Trade(long assetId, Order.Ask askOrder, Order.Bid bidOrder) {
         EcBlock ecBlock = EcBlockchainImpl.getInstance().getLastECBlock();
@@ -80,6 +81,7 @@ public final class Trade {
             this.isBuy = false;
         }
         this.priceNQT = isBuy ? askOrder.getPriceNQT() : bidOrder.getPriceNQT();
+        this.dbId = 0;
     }
 
     private Trade(ResultSet rs, H2Key h2Key) throws SQLException {
@@ -97,12 +99,20 @@ public final class Trade {
         this.timestamp = rs.getInt("timestamp");
         this.height = rs.getInt("height");
         this.isBuy = rs.getBoolean("is_buy");
+        this.dbId = rs.getLong("db_id");
     }
 
     public static H2Iterator<Trade> getAllTrades(int from, int to) {
         return TRADE_TABLE.getAll(from, to);
     }
 
+    /**
+     * Trades are stored in block order, so the trades listed after the given one are the ones with a lower db_id
+     */
+    public static H2Iterator<Trade> getAllTradesAfter(long dbId, int from, int to) {
+        return TRADE_TABLE.getManyBy(new H2ClauseLongClause("db_id", H2ClauseOp.LT, dbId), from, to);
+    }
+
     public static int getCount() {
         return TRADE_TABLE.getCount();
     }
@@ -265,6 +275,10 @@ public final class Trade {
         return timestamp;
     }
 
+    public long getDbId() {
+        return dbId;
+    }
+
     public int getHeight() {
         return height;
     }
@@ -21,11 +21,9 @@ final class TransactionH2 {
 
     static TransactionImpl selectTransaction(long transactionId, int height) {
         // Check the block cache
-        synchronized (EcBlockH2.blockCache) {
-            TransactionImpl transaction = EcBlockH2.transactionCache.get(transactionId);
-            if (transaction != null) {
-                return transaction.getTransactionHeight() <= height ? transaction : null;
-            }
+        TransactionImpl cachedTransaction = EcBlockCache.getInstance().getTransaction(transactionId);
+        if (cachedTransaction != null) {
+            return cachedTransaction.getTransactionHeight() <= height ? cachedTransaction : null;
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -51,12 +49,10 @@ final class TransactionH2 {
     static TransactionImpl selectTransactionByFullHash(byte[] fullHash, int height) {
         long transactionId = Convert.fullhashtoid(fullHash);
         // Check the cache
-        synchronized (EcBlockH2.blockCache) {
-            TransactionImpl transaction = EcBlockH2.transactionCache.get(transactionId);
-            if (transaction != null) {
-                return (transaction.getTransactionHeight() <= height &&
-                        Arrays.equals(transaction.fullHash(), fullHash) ? transaction : null);
-            }
+        TransactionImpl cachedTransaction = EcBlockCache.getInstance().getTransaction(transactionId);
+        if (cachedTransaction != null) {
+            return (cachedTransaction.getTransactionHeight() <= height &&
+                    Arrays.equals(cachedTransaction.fullHash(), fullHash) ? cachedTransaction : null);
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -82,11 +78,9 @@ final class TransactionH2 {
 
     static boolean hasTransaction(long transactionId, int height) {
         // Check the block cache
-        synchronized (EcBlockH2.blockCache) {
-            TransactionImpl transaction = EcBlockH2.transactionCache.get(transactionId);
-            if (transaction != null) {
-                return (transaction.getTransactionHeight() <= height);
-            }
+        TransactionImpl cachedTransaction = EcBlockCache.getInstance().getTransaction(transactionId);
+        if (cachedTransaction != null) {
+            return (cachedTransaction.getTransactionHeight() <= height);
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -103,12 +97,10 @@ final class TransactionH2 {
     static boolean hasTransactionByFullHash(byte[] fullHash, int height) {
         long transactionId = Convert.fullhashtoid(fullHash);
         // Check the block cache
-        synchronized (EcBlockH2.blockCache) {
-            TransactionImpl transaction = EcBlockH2.transactionCache.get(transactionId);
-            if (transaction != null) {
-                return (transaction.getTransactionHeight() <= height &&
-                        Arrays.equals(transaction.fullHash(), fullHash));
-            }
+        TransactionImpl cachedTransaction = EcBlockCache.getInstance().getTransaction(transactionId);
+        if (cachedTransaction != null) {
+            return (cachedTransaction.getTransactionHeight() <= height &&
+                    Arrays.equals(cachedTransaction.fullHash(), fullHash));
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -124,11 +116,9 @@ final class TransactionH2 {
 
     static byte[] getFullHash(long transactionId) {
         // Check the block cache
-        synchronized (EcBlockH2.blockCache) {
-            TransactionImpl transaction = EcBlockH2.transactionCache.get(transactionId);
-            if (transaction != null) {
-                return transaction.fullHash();
-            }
+        TransactionImpl cachedTransaction = EcBlockCache.getInstance().getTransaction(transactionId);
+        if (cachedTransaction != null) {
+            return cachedTransaction.fullHash();
         }
         // Search the database
         try (Connection con = H2.H2.getConnection();
@@ -223,11 +213,9 @@ final class TransactionH2 {
 
     static List<TransactionImpl> selectBlockTransactions(long blockId) {
         // Check the block cache
-        synchronized (EcBlockH2.blockCache) {
-            EcBlockImpl block = EcBlockH2.blockCache.get(blockId);
-            if (block != null) {
-                return block.getTransactions();
-            }
+        EcBlockImpl cachedBlock = EcBlockCache.getInstance().getBlock(blockId);
+        if (cachedBlock != null) {
+            return cachedBlock.getTransactions();
         }
         // Search the database
         try (Connection con = H2.H2.getConnection()) {
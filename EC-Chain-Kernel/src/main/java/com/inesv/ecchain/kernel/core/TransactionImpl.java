@@ -692,13 +692,19 @@ public final class TransactionImpl implements Transaction {
         return checkSignature() && Account.setOrVerify(getSenderId(), getSenderPublicKey());
     }
 
-    private boolean checkSignature() {
+    boolean checkSignature() {
         if (!hasValidSignature) {
             hasValidSignature = signature != null && Crypto.ecVerify(signature, zeroSignature(getBytes()), getSenderPublicKey(), useNQT());
         }
         return hasValidSignature;
     }
 
+    void addSignatureCheck(SignatureVerifier.Batch batch) {
+        if (!hasValidSignature) {
+            batch.add(signature, zeroSignature(getBytes()), getSenderPublicKey(), useNQT(), () -> hasValidSignature = true);
+        }
+    }
+
     private int getSize() {
         return signatureOffset() + 64 + (version > 0 ? 4 + 4 + 8 : 0) + appendagesSize;
     }
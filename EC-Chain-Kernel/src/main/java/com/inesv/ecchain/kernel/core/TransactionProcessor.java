@@ -4,7 +4,6 @@ package com.inesv.ecchain.kernel.core;
 import com.inesv.ecchain.common.core.EcNotValidExceptionEc;
 import com.inesv.ecchain.common.core.EcValidationException;
 import com.inesv.ecchain.common.util.Observable;
-import com.inesv.ecchain.kernel.H2.H2Iterator;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
@@ -14,9 +13,11 @@ import java.util.SortedSet;
 
 public interface TransactionProcessor extends Observable<List<? extends Transaction>, TransactionProcessorEvent> {
 
-    H2Iterator<? extends Transaction> getAllUnconfirmedTransactions();
+    List<? extends Transaction> getAllUnconfirmedTransactions();
 
-    H2Iterator<? extends Transaction> getAllUnconfirmedTransactions(int from, int to);
+    List<? extends Transaction> getAllUnconfirmedTransactions(int from, int to);
+
+    List<? extends Transaction> getUnconfirmedTransactionsBySender(long senderId);
 
     Transaction getUnconfirmedTransaction(long transactionId);
 
@@ -12,10 +12,6 @@ import org.json.simple.JSONObject;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -23,26 +19,6 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class TransactionProcessorImpl implements TransactionProcessor {
     private static int maxUnconfirmedTransactions;
     private static final TransactionProcessorImpl instance = new TransactionProcessorImpl();
-    private static final Comparator<UnconfirmedTransaction> cachedUnconfirmedTransactionComparator = (UnconfirmedTransaction t1, UnconfirmedTransaction t2) -> {
-        int compare;
-        // Sort by transaction_height ASC
-        compare = Integer.compare(t1.getTransactionHeight(), t2.getTransactionHeight());
-        if (compare != 0) {
-            return compare;
-        }
-        // Sort by fee_per_byte DESC
-        compare = Long.compare(t1.getFeePerByte(), t2.getFeePerByte());
-        if (compare != 0) {
-            return -compare;
-        }
-        // Sort by arrival_timestamp ASC
-        compare = Long.compare(t1.getArrivalTimestamp(), t2.getArrivalTimestamp());
-        if (compare != 0) {
-            return compare;
-        }
-        // Sort by transaction ID ASC
-        return Long.compare(t1.getTransactionId(), t2.getTransactionId());
-    };
 
     @PostConstruct
     public static void initPostConstruct() {
@@ -59,7 +35,7 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
         }
 
     };
-    private final Map<H2Key, UnconfirmedTransaction> h2KeyUnconfirmedTransactionHashMap = new HashMap<>();
+    private final UnconfirmedTransactionPool unconfirmedTransactionPool = UnconfirmedTransactionPool.getInstance();
     private final Set<TransactionImpl> broadcastedtransactions = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private final ListenerManager<List<? extends Transaction>, TransactionProcessorEvent> transactionProcessorEventListenerManager = new ListenerManager<>();
     private final PriorityQueue<UnconfirmedTransaction> unconfirmedTransactionPriorityQueue = new PriorityQueue<UnconfirmedTransaction>(
@@ -95,49 +71,27 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
 
     };
     private final Map<TransactionType, Map<String, Integer>> unconfirmedDuplicates = new HashMap<>();
-    private final EntityH2Table<UnconfirmedTransaction> unconfirmedTransactionTable = new EntityH2Table<UnconfirmedTransaction>("unconfirmed_transaction", unconfirmedtransactiondbkeyfactory) {
-
-        @Override
-        protected UnconfirmedTransaction load(Connection con, ResultSet rs, H2Key h2Key) throws SQLException {
-            return new UnconfirmedTransaction(rs);
-        }
-
-        @Override
-        protected void save(Connection con, UnconfirmedTransaction unconfirmedTransaction) throws SQLException {
-            unconfirmedTransaction.saveUnconfirmedTransaction(con);
-            if (h2KeyUnconfirmedTransactionHashMap.size() < maxUnconfirmedTransactions) {
-                h2KeyUnconfirmedTransactionHashMap.put(unconfirmedTransaction.getDbKey(), unconfirmedTransaction);
-            }
-        }
+    private final DerivedH2Table unconfirmedTransactionTable = new DerivedH2Table("unconfirmed_transaction") {
 
         @Override
         public void rollback(int height) {
-            try (Connection con = H2.H2.getConnection();
-                 PreparedStatement pstmt = con.prepareStatement("SELECT * FROM unconfirmed_transaction WHERE height > ?")) {
-                pstmt.setInt(1, height);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        UnconfirmedTransaction unconfirmedTransaction = load(con, rs, null);
-                        unconfirmedTransactionPriorityQueue.add(unconfirmedTransaction);
-                        h2KeyUnconfirmedTransactionHashMap.remove(unconfirmedTransaction.getDbKey());
-                    }
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException(e.toString(), e);
-            }
-            super.rollback(height);
+            unconfirmedTransactionPriorityQueue.addAll(unconfirmedTransactionPool.rollback(height));
             unconfirmedDuplicates.clear();
         }
 
         @Override
         public void truncate() {
-            super.truncate();
-            clearCache();
+            unconfirmedTransactionPool.removeAll();
         }
 
+        /**
+         * The unconfirmed transactions are only known to this node
+         *
+         * @return FALSE
+         */
         @Override
-        protected String defaultSort() {
-            return " ORDER BY transaction_height ASC, fee_per_byte DESC, arrival_timestamp ASC, Id ASC ";
+        public boolean isInSnapshot() {
+            return false;
         }
 
     };
@@ -148,13 +102,7 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
                 if (EcBlockchainProcessorImpl.getInstance().isDownloading() && !Constants.TEST_UNCONFIRMED_TRANSACTIONS) {
                     return;
                 }
-                List<UnconfirmedTransaction> expiredTransactions = new ArrayList<>();
-                try (H2Iterator<UnconfirmedTransaction> iterator = unconfirmedTransactionTable.getManyBy(
-                        new H2ClauseIntClause("expiration", H2ClauseOp.LT, new EcTime.EpochEcTime().getTime()), 0, -1, "")) {
-                    while (iterator.hasNext()) {
-                        expiredTransactions.add(iterator.next());
-                    }
-                }
+                List<UnconfirmedTransaction> expiredTransactions = unconfirmedTransactionPool.getExpired(new EcTime.EpochEcTime().getTime());
                 if (expiredTransactions.size() > 0) {
                     EcBlockchainImpl.getInstance().writeLock();
                     try {
@@ -274,7 +222,6 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
         }
 
     };
-    private volatile boolean cacheInitialized = false;
 
 
     public TransactionProcessorImpl() {
@@ -308,45 +255,43 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
     }
 
     @Override
-    public H2Iterator<UnconfirmedTransaction> getAllUnconfirmedTransactions() {
-        return unconfirmedTransactionTable.getAll(0, -1);
+    public List<UnconfirmedTransaction> getAllUnconfirmedTransactions() {
+        return getAllUnconfirmedTransactions(0, -1);
     }
 
     @Override
-    public H2Iterator<UnconfirmedTransaction> getAllUnconfirmedTransactions(int from, int to) {
-        return unconfirmedTransactionTable.getAll(from, to);
+    public List<UnconfirmedTransaction> getAllUnconfirmedTransactions(int from, int to) {
+        EcBlockchainImpl.getInstance().readECLock();
+        try {
+            return unconfirmedTransactionPool.getAll(from, to);
+        } finally {
+            EcBlockchainImpl.getInstance().readECUnlock();
+        }
     }
 
     @Override
-    public Transaction getUnconfirmedTransaction(long transactionId) {
-        H2Key h2Key = unconfirmedtransactiondbkeyfactory.newKey(transactionId);
-        return getUnconfirmedTransaction(h2Key);
+    public List<UnconfirmedTransaction> getUnconfirmedTransactionsBySender(long senderId) {
+        EcBlockchainImpl.getInstance().readECLock();
+        try {
+            return unconfirmedTransactionPool.getBySender(senderId);
+        } finally {
+            EcBlockchainImpl.getInstance().readECUnlock();
+        }
     }
 
-    Transaction getUnconfirmedTransaction(H2Key h2Key) {
+    @Override
+    public Transaction getUnconfirmedTransaction(long transactionId) {
         EcBlockchainImpl.getInstance().readECLock();
         try {
-            Transaction transaction = h2KeyUnconfirmedTransactionHashMap.get(h2Key);
-            if (transaction != null) {
-                return transaction;
-            }
+            return unconfirmedTransactionPool.get(transactionId);
         } finally {
             EcBlockchainImpl.getInstance().readECUnlock();
         }
-        return unconfirmedTransactionTable.get(h2Key);
     }
 
     private List<Long> getAllUnconfirmedTransactionIds() {
         List<Long> result = new ArrayList<>();
-        try (Connection con = H2.H2.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT id FROM unconfirmed_transaction");
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                result.add(rs.getLong("Id"));
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e.toString(), e);
-        }
+        getAllUnconfirmedTransactions().forEach(unconfirmedTransaction -> result.add(unconfirmedTransaction.getTransactionId()));
         return result;
     }
 
@@ -385,7 +330,7 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
                 LoggerUtil.logInfo("Transaction " + transaction.getStringId() + " already in EC_BLOCKCHAIN, will not broadcast again");
                 return;
             }
-            if (getUnconfirmedTransaction(((TransactionImpl) transaction).getH2Key()) != null) {
+            if (getUnconfirmedTransaction(transaction.getTransactionId()) != null) {
                 if (Constants.ENABLE_TRANSACTION_REBROADCASTING) {
                     broadcastedtransactions.add((TransactionImpl) transaction);
                     LoggerUtil.logInfo("Transaction " + transaction.getStringId() + " already in unconfirmed pool, will re-broadcast");
@@ -429,13 +374,10 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
             List<Transaction> removed = new ArrayList<>();
             try {
                 H2.H2.beginTransaction();
-                try (H2Iterator<UnconfirmedTransaction> unconfirmedTransactions = getAllUnconfirmedTransactions()) {
-                    for (UnconfirmedTransaction unconfirmedTransaction : unconfirmedTransactions) {
-                        unconfirmedTransaction.getTransaction().undoUnconfirmed();
-                        removed.add(unconfirmedTransaction.getTransaction());
-                    }
+                for (UnconfirmedTransaction unconfirmedTransaction : unconfirmedTransactionPool.removeAll()) {
+                    unconfirmedTransaction.getTransaction().undoUnconfirmed();
+                    removed.add(unconfirmedTransaction.getTransaction());
                 }
-                unconfirmedTransactionTable.truncate();
                 H2.H2.commitTransaction();
             } catch (Exception e) {
                 LoggerUtil.logError(e.toString(), e);
@@ -447,7 +389,6 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
             unconfirmedDuplicates.clear();
             unconfirmedTransactionPriorityQueue.clear();
             broadcastedtransactions.clear();
-            h2KeyUnconfirmedTransactionHashMap.clear();
             transactionProcessorEventListenerManager.notify(removed, TransactionProcessorEvent.REMOVED_UNCONFIRMED_TRANSACTIONS);
         } finally {
             EcBlockchainImpl.getInstance().writeUnlock();
@@ -473,18 +414,14 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
                 return;
             }
             List<Transaction> removed = new ArrayList<>();
-            try (H2Iterator<UnconfirmedTransaction> unconfirmedTransactions = getAllUnconfirmedTransactions()) {
-                for (UnconfirmedTransaction unconfirmedTransaction : unconfirmedTransactions) {
-                    unconfirmedTransaction.getTransaction().undoUnconfirmed();
-                    if (removed.size() < maxUnconfirmedTransactions) {
-                        removed.add(unconfirmedTransaction.getTransaction());
-                    }
-                    unconfirmedTransactionPriorityQueue.add(unconfirmedTransaction);
+            for (UnconfirmedTransaction unconfirmedTransaction : unconfirmedTransactionPool.removeAll()) {
+                unconfirmedTransaction.getTransaction().undoUnconfirmed();
+                if (removed.size() < maxUnconfirmedTransactions) {
+                    removed.add(unconfirmedTransaction.getTransaction());
                 }
+                unconfirmedTransactionPriorityQueue.add(unconfirmedTransaction);
             }
-            unconfirmedTransactionTable.truncate();
             unconfirmedDuplicates.clear();
-            h2KeyUnconfirmedTransactionHashMap.clear();
             transactionProcessorEventListenerManager.notify(removed, TransactionProcessorEvent.REMOVED_UNCONFIRMED_TRANSACTIONS);
         } finally {
             EcBlockchainImpl.getInstance().writeUnlock();
@@ -495,13 +432,11 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
     public void rebroadcastAllUnconfirmedTransactions() {
         EcBlockchainImpl.getInstance().writeLock();
         try {
-            try (H2Iterator<UnconfirmedTransaction> oldNonBroadcastedTransactions = getAllUnconfirmedTransactions()) {
-                for (UnconfirmedTransaction unconfirmedTransaction : oldNonBroadcastedTransactions) {
-                    if (unconfirmedTransaction.getTransaction().isUnconfirmedDuplicate(unconfirmedDuplicates)) {
-                        LoggerUtil.logDebug("Skipping duplicate unconfirmed transaction " + unconfirmedTransaction.getTransaction().getJSONObject().toString());
-                    } else if (Constants.ENABLE_TRANSACTION_REBROADCASTING) {
-                        broadcastedtransactions.add(unconfirmedTransaction.getTransaction());
-                    }
+            for (UnconfirmedTransaction unconfirmedTransaction : getAllUnconfirmedTransactions()) {
+                if (unconfirmedTransaction.getTransaction().isUnconfirmedDuplicate(unconfirmedDuplicates)) {
+                    LoggerUtil.logDebug("Skipping duplicate unconfirmed transaction " + unconfirmedTransaction.getTransaction().getJSONObject().toString());
+                } else if (Constants.ENABLE_TRANSACTION_REBROADCASTING) {
+                    broadcastedtransactions.add(unconfirmedTransaction.getTransaction());
                 }
             }
         } finally {
@@ -509,6 +444,12 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
         }
     }
 
+    public void shutdown() {
+        if (!Constants.UNCONFIRMED_TRANSACTION_JOURNAL) {
+            clearUnconfirmedTransactions();
+        }
+    }
+
     void removeUnconfirmedTransaction(TransactionImpl transaction) {
         if (!H2.H2.isInTransaction()) {
             try {
@@ -524,18 +465,9 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
             }
             return;
         }
-        try (Connection con = H2.H2.getConnection();
-             PreparedStatement pstmt = con.prepareStatement("DELETE FROM unconfirmed_transaction WHERE id = ?")) {
-            pstmt.setLong(1, transaction.getTransactionId());
-            int deleted = pstmt.executeUpdate();
-            if (deleted > 0) {
-                transaction.undoUnconfirmed();
-                h2KeyUnconfirmedTransactionHashMap.remove(transaction.getH2Key());
-                transactionProcessorEventListenerManager.notify(Collections.singletonList(transaction), TransactionProcessorEvent.REMOVED_UNCONFIRMED_TRANSACTIONS);
-            }
-        } catch (SQLException e) {
-            LoggerUtil.logError(e.toString(), e);
-            throw new RuntimeException(e.toString(), e);
+        if (unconfirmedTransactionPool.remove(transaction.getTransactionId()) != null) {
+            transaction.undoUnconfirmed();
+            transactionProcessorEventListenerManager.notify(Collections.singletonList(transaction), TransactionProcessorEvent.REMOVED_UNCONFIRMED_TRANSACTIONS);
         }
     }
 
@@ -545,7 +477,7 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
         EcBlockchainImpl.getInstance().writeLock();
         try {
             for (Transaction transaction : transactions) {
-                EcBlockH2.transactionCache.remove(transaction.getTransactionId());
+                EcBlockCache.getInstance().removeTransaction(transaction.getTransactionId());
                 if (TransactionH2.hasTransaction(transaction.getTransactionId())) {
                     continue;
                 }
@@ -603,11 +535,34 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
         List<TransactionImpl> sendToPeersTransactions = new ArrayList<>();
         List<TransactionImpl> addedUnconfirmedTransactions = new ArrayList<>();
         List<Exception> exceptions = new ArrayList<>();
+        List<TransactionImpl> parsedTransactions = new ArrayList<>(transactionsData.size());
+        List<TransactionImpl> signedTransactions = new ArrayList<>(transactionsData.size());
         for (Object transactionData : transactionsData) {
             try {
-                TransactionImpl transaction = TransactionImpl.parseTransaction((JSONObject) transactionData);
+                TransactionImpl transaction = TransactionImpl.newTransactionBuilder((JSONObject) transactionData).build();
+                parsedTransactions.add(transaction);
+                if (transaction.getSignature() != null) {
+                    signedTransactions.add(transaction);
+                }
+            } catch (EcValidationException | RuntimeException e) {
+                LoggerUtil.logError(String.format("Invalid transaction from peer: %s", ((JSONObject) transactionData).toJSONString()), e);
+                exceptions.add(e);
+                parsedTransactions.add(null);
+            }
+        }
+        SignatureVerifier.verifyTransactions(signedTransactions);
+        for (int i = 0; i < transactionsData.size(); i++) {
+            Object transactionData = transactionsData.get(i);
+            TransactionImpl transaction = parsedTransactions.get(i);
+            if (transaction == null) {
+                continue;
+            }
+            try {
+                if (transaction.getSignature() != null && !transaction.checkSignature()) {
+                    throw new EcNotValidExceptionEc("Invalid transaction signature for transaction " + transaction.getJSONObject().toJSONString());
+                }
                 receivedTransactions.add(transaction);
-                if (getUnconfirmedTransaction(transaction.getH2Key()) != null || TransactionH2.hasTransaction(transaction.getTransactionId())) {
+                if (unconfirmedTransactionPool.get(transaction.getTransactionId()) != null || TransactionH2.hasTransaction(transaction.getTransactionId())) {
                     continue;
                 }
                 transaction.validate();
@@ -660,7 +615,7 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
                     throw new EcNotCurrentlyValidExceptionEc("EcBlockchain not ready to accept transactions");
                 }
 
-                if (getUnconfirmedTransaction(transaction.getH2Key()) != null || TransactionH2.hasTransaction(transaction.getTransactionId())) {
+                if (unconfirmedTransactionPool.get(transaction.getTransactionId()) != null || TransactionH2.hasTransaction(transaction.getTransactionId())) {
                     throw new EcExistingTransactionExceptionEcEc("Transaction already processed");
                 }
 
@@ -680,7 +635,7 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
                     throw new EcNotCurrentlyValidExceptionEc("Duplicate unconfirmed transaction");
                 }
 
-                unconfirmedTransactionTable.insert(unconfirmedTransaction);
+                unconfirmedTransactionPool.add(unconfirmedTransaction);
 
                 H2.H2.commitTransaction();
             } catch (Exception e) {
@@ -696,33 +651,14 @@ public final class TransactionProcessorImpl implements TransactionProcessor {
 
     @Override
     public SortedSet<? extends Transaction> getCachedUnconfirmedTransactions(List<String> exclude) {
-        SortedSet<UnconfirmedTransaction> transactionSet = new TreeSet<>(cachedUnconfirmedTransactionComparator);
+        SortedSet<UnconfirmedTransaction> transactionSet;
         EcBlockchainImpl.getInstance().readECLock();
         try {
-            //
-            // Initialize the unconfirmed transaction cache if it hasn't been done yet
-            //
-            synchronized (h2KeyUnconfirmedTransactionHashMap) {
-                if (!cacheInitialized) {
-                    H2Iterator<UnconfirmedTransaction> it = getAllUnconfirmedTransactions();
-                    while (it.hasNext()) {
-                        UnconfirmedTransaction unconfirmedTransaction = it.next();
-                        h2KeyUnconfirmedTransactionHashMap.put(unconfirmedTransaction.getDbKey(), unconfirmedTransaction);
-                    }
-                    cacheInitialized = true;
-                }
-            }
-            //
-            // Build the result set
-            //
-            h2KeyUnconfirmedTransactionHashMap.values().forEach(transaction -> {
-                if (Collections.binarySearch(exclude, transaction.getStringId()) < 0) {
-                    transactionSet.add(transaction);
-                }
-            });
+            transactionSet = unconfirmedTransactionPool.getSorted();
         } finally {
             EcBlockchainImpl.getInstance().readECUnlock();
         }
+        transactionSet.removeIf(transaction -> Collections.binarySearch(exclude, transaction.getStringId()) >= 0);
         return transactionSet;
     }
 
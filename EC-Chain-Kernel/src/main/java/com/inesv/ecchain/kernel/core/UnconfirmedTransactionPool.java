@@ -0,0 +1,301 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.common.core.Constants;
+import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.kernel.H2.TransactionCallback;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * In-memory pool of the unconfirmed transactions, kept in the order they are offered to block generation
+ * and indexed by id, sender and expiration. The pool is only changed while holding the blockchain write lock,
+ * and changes made inside a database transaction are undone if that transaction is rolled back.
+ * <p>
+ * When the unconfirmed transaction journal is enabled, every change is also written to the unconfirmed_transaction
+ * table in the same database transaction, so the journal always matches the unconfirmed balances stored in the
+ * account tables. The table is only read to load the pool on first use. The journal is enabled by default, as the
+ * unconfirmed balances are stored and would otherwise stay debited for the transactions lost in a crash. Without
+ * the journal no rows are added, while rows left by an earlier run are still loaded and removed like the others.
+ */
+final class UnconfirmedTransactionPool implements TransactionCallback {
+
+    static final Comparator<UnconfirmedTransaction> PRIORITY_COMPARATOR = (UnconfirmedTransaction t1, UnconfirmedTransaction t2) -> {
+        int compare;
+        // Sort by transaction_height ASC
+        compare = Integer.compare(t1.getTransactionHeight(), t2.getTransactionHeight());
+        if (compare != 0) {
+            return compare;
+        }
+        // Sort by fee_per_byte DESC
+        compare = Long.compare(t1.getFeePerByte(), t2.getFeePerByte());
+        if (compare != 0) {
+            return -compare;
+        }
+        // Sort by arrival_timestamp ASC
+        compare = Long.compare(t1.getArrivalTimestamp(), t2.getArrivalTimestamp());
+        if (compare != 0) {
+            return compare;
+        }
+        // Sort by transaction ID ASC
+        return Long.compare(t1.getTransactionId(), t2.getTransactionId());
+    };
+
+    private static final Comparator<UnconfirmedTransaction> EXPIRATION_COMPARATOR =
+            Comparator.comparingInt(UnconfirmedTransaction::getExpiration).thenComparingLong(UnconfirmedTransaction::getTransactionId);
+
+    private static final UnconfirmedTransactionPool instance = new UnconfirmedTransactionPool();
+
+    static UnconfirmedTransactionPool getInstance() {
+        return instance;
+    }
+
+    private final Map<Long, Entry> transactions = new HashMap<>();
+    private final NavigableSet<UnconfirmedTransaction> byPriority = new TreeSet<>(PRIORITY_COMPARATOR);
+    private final NavigableSet<UnconfirmedTransaction> byExpiration = new TreeSet<>(EXPIRATION_COMPARATOR);
+    private final Map<Long, Set<UnconfirmedTransaction>> bySender = new HashMap<>();
+    private final List<Change> changes = new ArrayList<>();
+    private boolean loaded;
+    private boolean journaled = Constants.UNCONFIRMED_TRANSACTION_JOURNAL;
+
+    private UnconfirmedTransactionPool() {
+    }
+
+    synchronized int size() {
+        load();
+        return transactions.size();
+    }
+
+    synchronized UnconfirmedTransaction get(long transactionId) {
+        load();
+        Entry entry = transactions.get(transactionId);
+        return entry == null ? null : entry.transaction;
+    }
+
+    synchronized List<UnconfirmedTransaction> getAll(int from, int to) {
+        load();
+        List<UnconfirmedTransaction> result = new ArrayList<>();
+        int index = 0;
+        for (UnconfirmedTransaction transaction : byPriority) {
+            if (to >= 0 && index > to) {
+                break;
+            }
+            if (index >= from) {
+                result.add(transaction);
+            }
+            index += 1;
+        }
+        return result;
+    }
+
+    synchronized SortedSet<UnconfirmedTransaction> getSorted() {
+        load();
+        return new TreeSet<>(byPriority);
+    }
+
+    synchronized List<UnconfirmedTransaction> getBySender(long senderId) {
+        load();
+        Set<UnconfirmedTransaction> senderTransactions = bySender.get(senderId);
+        return senderTransactions == null ? Collections.emptyList() : new ArrayList<>(senderTransactions);
+    }
+
+    synchronized List<UnconfirmedTransaction> getExpired(int time) {
+        load();
+        List<UnconfirmedTransaction> result = new ArrayList<>();
+        for (UnconfirmedTransaction transaction : byExpiration) {
+            if (transaction.getExpiration() >= time) {
+                break;
+            }
+            result.add(transaction);
+        }
+        return result;
+    }
+
+    synchronized void add(UnconfirmedTransaction transaction) {
+        load();
+        if (transactions.containsKey(transaction.getTransactionId())) {
+            throw new IllegalStateException("Transaction " + transaction.getStringId() + " is already in the pool");
+        }
+        Entry entry = new Entry(transaction, EcBlockchainImpl.getInstance().getHeight());
+        if (Constants.UNCONFIRMED_TRANSACTION_JOURNAL) {
+            try (Connection con = H2.H2.getConnection()) {
+                transaction.saveUnconfirmedTransaction(con);
+            } catch (SQLException e) {
+                throw new RuntimeException(e.toString(), e);
+            }
+        }
+        put(entry);
+        changed(entry, true);
+    }
+
+    synchronized UnconfirmedTransaction remove(long transactionId) {
+        load();
+        Entry entry = transactions.get(transactionId);
+        if (entry == null) {
+            return null;
+        }
+        execute("DELETE FROM unconfirmed_transaction WHERE id = ?", transactionId);
+        delete(entry);
+        changed(entry, false);
+        return entry.transaction;
+    }
+
+    /**
+     * Removes all transactions, returning them in priority order
+     */
+    synchronized List<UnconfirmedTransaction> removeAll() {
+        load();
+        List<UnconfirmedTransaction> removed = new ArrayList<>(byPriority);
+        execute("DELETE FROM unconfirmed_transaction", null);
+        for (UnconfirmedTransaction transaction : removed) {
+            changed(transactions.get(transaction.getTransactionId()), false);
+        }
+        transactions.clear();
+        byPriority.clear();
+        byExpiration.clear();
+        bySender.clear();
+        return removed;
+    }
+
+    /**
+     * Removes the transactions added after the given blockchain height, returning them in priority order
+     */
+    synchronized List<UnconfirmedTransaction> rollback(int height) {
+        load();
+        List<UnconfirmedTransaction> removed = new ArrayList<>();
+        Iterator<UnconfirmedTransaction> iterator = byPriority.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = transactions.get(iterator.next().getTransactionId());
+            if (entry.height > height) {
+                iterator.remove();
+                transactions.remove(entry.transaction.getTransactionId());
+                byExpiration.remove(entry.transaction);
+                removeFromSender(entry.transaction);
+                changed(entry, false);
+                removed.add(entry.transaction);
+            }
+        }
+        execute("DELETE FROM unconfirmed_transaction WHERE height > ?", (long) height);
+        return removed;
+    }
+
+    @Override
+    public synchronized void commit() {
+        changes.clear();
+    }
+
+    @Override
+    public synchronized void rollback() {
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            Change change = changes.get(i);
+            if (change.added) {
+                delete(change.entry);
+            } else {
+                put(change.entry);
+            }
+        }
+        changes.clear();
+    }
+
+    private void put(Entry entry) {
+        transactions.put(entry.transaction.getTransactionId(), entry);
+        byPriority.add(entry.transaction);
+        byExpiration.add(entry.transaction);
+        bySender.computeIfAbsent(entry.transaction.getSenderId(), id -> new TreeSet<>(PRIORITY_COMPARATOR)).add(entry.transaction);
+    }
+
+    private void delete(Entry entry) {
+        transactions.remove(entry.transaction.getTransactionId());
+        byPriority.remove(entry.transaction);
+        byExpiration.remove(entry.transaction);
+        removeFromSender(entry.transaction);
+    }
+
+    private void removeFromSender(UnconfirmedTransaction transaction) {
+        Set<UnconfirmedTransaction> senderTransactions = bySender.get(transaction.getSenderId());
+        if (senderTransactions != null) {
+            senderTransactions.remove(transaction);
+            if (senderTransactions.isEmpty()) {
+                bySender.remove(transaction.getSenderId());
+            }
+        }
+    }
+
+    private void changed(Entry entry, boolean added) {
+        if (H2.H2.isInTransaction()) {
+            H2.H2.registerCallback(this);
+            changes.add(new Change(entry, added));
+        }
+    }
+
+    private void execute(String sql, Long parameter) {
+        if (!journaled) {
+            return;
+        }
+        try (Connection con = H2.H2.getConnection();
+             PreparedStatement pstmt = con.prepareStatement(sql)) {
+            if (parameter != null) {
+                pstmt.setLong(1, parameter);
+            }
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        long start = System.currentTimeMillis();
+        try (Connection con = H2.H2.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM unconfirmed_transaction");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                put(new Entry(new UnconfirmedTransaction(rs), rs.getInt("height")));
+                journaled = true;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+        LoggerUtil.logDebug("Loaded " + transactions.size() + " unconfirmed transactions in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static final class Entry {
+
+        private final UnconfirmedTransaction transaction;
+        private final int height;
+
+        private Entry(UnconfirmedTransaction transaction, int height) {
+            this.transaction = transaction;
+            this.height = height;
+        }
+    }
+
+    private static final class Change {
+
+        private final Entry entry;
+        private final boolean added;
+
+        private Change(Entry entry, boolean added) {
+            this.entry = entry;
+            this.added = added;
+        }
+    }
+
+}
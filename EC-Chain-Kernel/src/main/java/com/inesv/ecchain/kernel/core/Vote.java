@@ -32,6 +32,9 @@ public final class Vote {
         @Override
         public void trim(int height) {
             super.trim(height);
+            if (!isNewTrimHeight(height)) {
+                return;
+            }
             try (Connection con = H2.H2.getConnection();
                  H2Iterator<Poll> polls = Poll.getPollsFinishingAtOrBefore(height, 0, Integer.MAX_VALUE);
                  PreparedStatement pstmt = con.prepareStatement("DELETE FROM vote WHERE poll_id = ?")) {
@@ -43,6 +46,11 @@ public final class Vote {
                 throw new RuntimeException(e.toString(), e);
             }
         }
+
+        @Override
+        public int getMinStateHashHeight(int height) {
+            return height - Snapshot.STATE_HASH_BLOCKS;
+        }
     };
     private final long id;
     private final H2Key h2Key;
@@ -74,6 +82,10 @@ public final class Vote {
         return VOTE_TABLE.getManyBy(new H2ClauseLongClause("poll_id", pollId), from, to);
     }
 
+    static H2Iterator<Vote> getVotesAfter(long pollId, int height) {
+        return VOTE_TABLE.getManyBy(new H2ClauseLongClause("poll_id", pollId).and(new H2ClauseIntClause("height", H2ClauseOp.GT, height)), 0, -1);
+    }
+
     public static Vote getVote(long pollId, long voterId) {
         H2Clause clause = new H2ClauseLongClause("poll_id", pollId).and(new H2ClauseLongClause("voter_id", voterId));
         return VOTE_TABLE.getBy(clause);
@@ -4,6 +4,8 @@ import com.inesv.ecchain.common.core.EcNotCurrentlyValidExceptionEc;
 import com.inesv.ecchain.common.core.EcNotValidExceptionEc;
 import com.inesv.ecchain.common.core.EcValidationException;
 
+import java.util.Map;
+
 public final class VoteWeighting {
 
     private final VotingModel votingModel;
@@ -133,6 +135,16 @@ public final class VoteWeighting {
                 return (voteWeighting.minBalance == 0 || voteWeighting.minBalanceModel.getBalance(voteWeighting, voterId, height) >= voteWeighting.minBalance) ? 1 : 0;
             }
 
+            @Override
+            final Map<Long, Long> calcWeights(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+                if (voteWeighting.minBalance == 0) {
+                    return null;
+                }
+                Map<Long, Long> weights = voteWeighting.minBalanceModel.getBalances(voteWeighting, poll, height);
+                weights.replaceAll((voterId, balance) -> balance >= voteWeighting.minBalance ? 1L : 0L);
+                return weights;
+            }
+
             @Override
             public final MinBalanceModel getMinBalanceModel() {
                 return MinBalanceModel.NONE;
@@ -145,6 +157,11 @@ public final class VoteWeighting {
                 return nqtBalance >= voteWeighting.minBalance ? nqtBalance : 0;
             }
 
+            @Override
+            final Map<Long, Long> calcWeights(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+                return filterWeights(Account.getVoterBalancesNQT(poll, height), voteWeighting.minBalance);
+            }
+
             @Override
             public final MinBalanceModel getMinBalanceModel() {
                 return MinBalanceModel.NQT;
@@ -157,6 +174,11 @@ public final class VoteWeighting {
                 return qntBalance >= voteWeighting.minBalance ? qntBalance : 0;
             }
 
+            @Override
+            final Map<Long, Long> calcWeights(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+                return filterWeights(Account.getVoterPropertyBalancesQNT(poll, voteWeighting.holdingId, height), voteWeighting.minBalance);
+            }
+
             @Override
             public final MinBalanceModel getMinBalanceModel() {
                 return MinBalanceModel.ASSET;
@@ -169,6 +191,11 @@ public final class VoteWeighting {
                 return units >= voteWeighting.minBalance ? units : 0;
             }
 
+            @Override
+            final Map<Long, Long> calcWeights(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+                return filterWeights(Account.getVoterCoinUnits(poll, voteWeighting.holdingId, height), voteWeighting.minBalance);
+            }
+
             @Override
             public final MinBalanceModel getMinBalanceModel() {
                 return MinBalanceModel.CURRENCY;
@@ -223,6 +250,27 @@ public final class VoteWeighting {
 
         public abstract long calcWeight(VoteWeighting voteWeighting, long voterId, int height);
 
+        /**
+         * Calculate the weights of all voters in a poll with one query per model
+         *
+         * @param voteWeighting Vote weighting
+         * @param poll          Poll or phasing poll
+         * @param height        Height of the balances
+         * @return Weights of the voters with a balance, or null if the weight does not depend on the balance
+         *         and calcWeight() can be used for each vote without a database lookup
+         */
+        Map<Long, Long> calcWeights(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+            if (!acceptsVotes()) {
+                throw new UnsupportedOperationException("No voting possible for VotingModel." + this);
+            }
+            return null;
+        }
+
+        private static Map<Long, Long> filterWeights(Map<Long, Long> balances, long minBalance) {
+            balances.values().removeIf(balance -> balance < minBalance);
+            return balances;
+        }
+
         public abstract MinBalanceModel getMinBalanceModel();
 
         public boolean acceptsVotes() {
@@ -236,24 +284,44 @@ public final class VoteWeighting {
             public final long getBalance(VoteWeighting voteWeighting, long voterId, int height) {
                 throw new UnsupportedOperationException();
             }
+
+            @Override
+            final Map<Long, Long> getBalances(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+                throw new UnsupportedOperationException();
+            }
         },
         NQT(1) {
             @Override
             public final long getBalance(VoteWeighting voteWeighting, long voterId, int height) {
                 return Account.getAccount(voterId, height).getBalanceNQT();
             }
+
+            @Override
+            final Map<Long, Long> getBalances(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+                return Account.getVoterBalancesNQT(poll, height);
+            }
         },
         ASSET(2) {
             @Override
             public final long getBalance(VoteWeighting voteWeighting, long voterId, int height) {
                 return Account.getPropertyBalanceQNT(voterId, voteWeighting.holdingId, height);
             }
+
+            @Override
+            final Map<Long, Long> getBalances(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+                return Account.getVoterPropertyBalancesQNT(poll, voteWeighting.holdingId, height);
+            }
         },
         CURRENCY(3) {
             @Override
             public final long getBalance(VoteWeighting voteWeighting, long voterId, int height) {
                 return Account.getCoinUnits(voterId, voteWeighting.holdingId, height);
             }
+
+            @Override
+            final Map<Long, Long> getBalances(VoteWeighting voteWeighting, AbstractVote poll, int height) {
+                return Account.getVoterCoinUnits(poll, voteWeighting.holdingId, height);
+            }
         };
 
         private final byte code;
@@ -276,6 +344,8 @@ public final class VoteWeighting {
         }
 
         public abstract long getBalance(VoteWeighting voteWeighting, long voterId, int height);
+
+        abstract Map<Long, Long> getBalances(VoteWeighting voteWeighting, AbstractVote poll, int height);
     }
 
 }
@@ -201,6 +201,8 @@ public final class API {
             servletHolder.getRegistration().setMultipartConfig(new MultipartConfigElement(
                     null, Math.max(PropertiesUtil.getKeyForInt("ec.maxUploadFileSize", 0), Constants.EC_MAX_TAGGED_DATA_DATA_LENGTH), -1L, 0));
             apiHandler.addServlet(ShapeShiftProxyServlet.class, ShapeShiftProxyServlet.SHAPESHIFT_TARGET + "/*");
+            apiHandler.addServlet(EventSocketServlet.class, "/events");
+            apiHandler.addServlet(MetricsServlet.class, "/metrics");
 
             GzipHandler gzipHandler = new GzipHandler();
             if (!PropertiesUtil.getKeyForBoolean("ec.enableAPIServerGZIPFilter")) {
@@ -271,6 +273,7 @@ public final class API {
     }
 
     public static void shutdown() {
+        EventSocketDispatcher.getInstance().shutdown();
         if (apiecserver != null) {
             try {
                 apiecserver.stop();
@@ -243,6 +243,7 @@ public enum APIEnum {
     SET_LOGGING("setLogging", SetLogging.instance),
     SHUTDOWN("shutdown", Shutdown.instance),
     TRIM_DERIVED_TABLES("TRIM_DERIVED_TABLES", TrimDerivedTables.instance),
+    EXPORT_SNAPSHOT("exportSnapshot", ExportSnapshot.instance),
     HASH("hash", Hash.instance),
     FULL_HASH_TO_ID("fullhashtoid", FullHashToId.instance),
     SET_PHASING_ONLY_CONTROL("setPhasingOnlyControl", SetPhasingOnlyControl.instance),
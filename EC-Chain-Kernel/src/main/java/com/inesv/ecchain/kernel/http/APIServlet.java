@@ -4,7 +4,9 @@ package com.inesv.ecchain.kernel.http;
 import com.inesv.ecchain.common.core.Constants;
 import com.inesv.ecchain.common.core.EcException;
 import com.inesv.ecchain.common.util.JSON;
+import com.inesv.ecchain.common.util.LatencyHistogram;
 import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.common.util.Metrics;
 import com.inesv.ecchain.kernel.core.*;
 import com.inesv.ecchain.kernel.core.EcBlockchain;
 import com.inesv.ecchain.kernel.core.EcBlockchainImpl;
@@ -18,6 +20,8 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 
 public final class APIServlet extends HttpServlet {
@@ -26,6 +30,12 @@ public final class APIServlet extends HttpServlet {
 
     static final Map<String, APIRequestHandler> DISABLED_REQUEST_HANDLERS;
 
+    private static final Metrics.Family<LatencyHistogram> REQUEST_DURATION = Metrics.histogram("ec_api_request_duration_seconds",
+            "API request processing time, including writing the response", "requestType");
+
+    private static final Metrics.Family<LongAdder> REQUEST_ERRORS = Metrics.counter("ec_api_request_errors_total",
+            "API requests which failed with an unexpected error", "requestType");
+
     static {
 
         Map<String, APIRequestHandler> map = new HashMap<>();
@@ -93,6 +103,8 @@ public final class APIServlet extends HttpServlet {
 
         JSONStreamAware response = JSON.EMPTY_JSON;
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        String metricsRequestType = null;
 
         try {
 
@@ -117,6 +129,8 @@ public final class APIServlet extends HttpServlet {
                 return;
             }
 
+            metricsRequestType = requestType;
+
             if (Constants.IS_LIGHT_CLIENT && apiRequestHandler.requireFullClient()) {
                 response = JSONResponses.LIGHT_CLIENT_DISABLED_API;
                 return;
@@ -155,6 +169,18 @@ public final class APIServlet extends HttpServlet {
                     if (requireLastBlockId == 0 && requireBlockId != 0 && response instanceof JSONObject) {
                         ((JSONObject) response).put("lastBlock", bc.getLastECBlock().getStringECId());
                     }
+                    if (response instanceof JSONStreamingResponse) {
+                        // Streamed rows are read while writing, so write them before the locks are released,
+                        // once the query has run without error
+                        JSONStreamingResponse<?> streamingResponse = (JSONStreamingResponse<?>) response;
+                        streamingResponse.open();
+                        response = null;
+                        if (requireLastBlockId == 0 && requireBlockId != 0) {
+                            streamingResponse.put("lastBlock", bc.getLastECBlock().getStringECId());
+                        }
+                        streamingResponse.put("requestProcessingTime", (Supplier<Long>) () -> System.currentTimeMillis() - startTime);
+                        writeStreamingResponse(streamingResponse, resp);
+                    }
                 } finally {
                     if (apiRequestHandler.startDbTransaction()) {
                         H2.H2.endTransaction();
@@ -169,6 +195,9 @@ public final class APIServlet extends HttpServlet {
             response = e.getErrorResponse();
         } catch (EcException | RuntimeException e) {
             LoggerUtil.logError("Error processing API request", e);
+            if (metricsRequestType != null) {
+                REQUEST_ERRORS.labels(metricsRequestType).increment();
+            }
             JSONObject json = new JSONObject();
             JSONData.putException(json, e);
             response = JSON.prepare(json);
@@ -188,8 +217,20 @@ public final class APIServlet extends HttpServlet {
                     JSON.writeECJSONString(response, writer);
                 }
             }
+            if (metricsRequestType != null) {
+                REQUEST_DURATION.labels(metricsRequestType).recordSince(startNanos);
+            }
         }
 
     }
 
+    private static void writeStreamingResponse(JSONStreamingResponse<?> response, HttpServletResponse resp) {
+        // Part of the response may already have been sent, so a failure can only be logged
+        try (Writer writer = resp.getWriter()) {
+            response.writeJSONString(writer);
+        } catch (IOException | RuntimeException e) {
+            LoggerUtil.logError("Error writing API response", e);
+        }
+    }
+
 }
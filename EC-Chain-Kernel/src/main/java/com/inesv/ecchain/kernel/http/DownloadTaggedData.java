@@ -3,6 +3,7 @@ package com.inesv.ecchain.kernel.http;
 
 import com.inesv.ecchain.common.core.EcException;
 import com.inesv.ecchain.kernel.core.BadgeData;
+import com.inesv.ecchain.kernel.core.BlobStore;
 import com.inesv.ecchain.kernel.core.EcBlockchainProcessorImpl;
 import org.json.simple.JSONStreamAware;
 
@@ -12,6 +13,11 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 
 import static com.inesv.ecchain.kernel.http.JSONResponses.PRUNED_TRANSACTION;
 
@@ -38,7 +44,54 @@ public final class DownloadTaggedData extends APIRequestHandler {
         if (badgeData == null) {
             return JSONResponses.incorrect("transaction", "Tagged data not found");
         }
-        byte[] data = badgeData.getData();
+        byte[] data = null;
+        FileChannel channel = null;
+        long length;
+        if (badgeData.getDataHash() != null) {
+            try {
+                channel = FileChannel.open(BlobStore.getFile(badgeData.getDataHash()).toPath(), StandardOpenOption.READ);
+                length = channel.size();
+            } catch (NoSuchFileException e) {
+                return PRUNED_TRANSACTION;
+            } catch (IOException e) {
+                throw new ParameterException(JSONResponses.RESPONSE_STREAM_ERROR);
+            }
+        } else {
+            data = badgeData.getData();
+            length = data.length;
+        }
+        try {
+            writeData(request, response, badgeData, data, channel, length);
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write the whole data, or the single byte range requested in the Range header. Data in the blob store is
+     * transferred from the file channel instead of being read into the heap.
+     */
+    private static void writeData(HttpServletRequest request, HttpServletResponse response, BadgeData badgeData,
+                                  byte[] data, FileChannel channel, long length) throws ParameterException {
+        long[] range = parseRange(request.getHeader("Range"), length);
+        if (range == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader("Content-Range", "bytes */" + length);
+            return;
+        }
+        long start = range[0];
+        long count = range[1] - range[0] + 1;
+        response.setHeader("Accept-Ranges", "bytes");
+        if (count != length) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + length);
+        }
         if (!badgeData.getType().equals("")) {
             response.setContentType(badgeData.getType());
         } else {
@@ -55,17 +108,68 @@ public final class DownloadTaggedData extends APIRequestHandler {
         } catch (URISyntaxException ignore) {
         }
         response.setHeader("Content-Disposition", contentDisposition);
-        response.setContentLength(data.length);
+        response.setHeader("Content-Length", Long.toString(count));
         try (OutputStream out = response.getOutputStream()) {
             try {
-                out.write(data);
+                if (channel != null) {
+                    WritableByteChannel target = Channels.newChannel(out);
+                    while (count > 0) {
+                        long transferred = channel.transferTo(start, count, target);
+                        if (transferred <= 0) {
+                            throw new IOException("Blob truncated");
+                        }
+                        start += transferred;
+                        count -= transferred;
+                    }
+                } else {
+                    out.write(data, (int) start, (int) count);
+                }
             } catch (IOException e) {
                 throw new ParameterException(JSONResponses.RESPONSE_WRITE_ERROR);
             }
         } catch (IOException e) {
             throw new ParameterException(JSONResponses.RESPONSE_STREAM_ERROR);
         }
-        return null;
+    }
+
+    /**
+     * Parse a single "bytes=first-last", "bytes=first-" or "bytes=-suffix" range
+     *
+     * @return First and last byte positions, the whole data if there is no usable Range header,
+     * or null if the range cannot be satisfied
+     */
+    private static long[] parseRange(String header, long length) {
+        long[] all = new long[]{0, length - 1};
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return all;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return all;
+        }
+        try {
+            long first;
+            long last;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1).trim());
+                if (suffix <= 0) {
+                    return null;
+                }
+                first = Math.max(length - suffix, 0);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash).trim());
+                String lastSpec = spec.substring(dash + 1).trim();
+                last = lastSpec.isEmpty() ? length - 1 : Math.min(Long.parseLong(lastSpec), length - 1);
+            }
+            if (first >= length || first > last) {
+                return null;
+            }
+            return new long[]{first, last};
+        } catch (NumberFormatException e) {
+            return all;
+        }
     }
 
     @Override
@@ -706,8 +706,12 @@ class EventListener implements Runnable, AsyncListener, TransactionCallback {
             @Override
             public void notify(List<? extends Transaction> txList) {
                 List<String> idList = new ArrayList<>();
-                txList.forEach((tx) -> idList.add(tx.getStringId()));
-                dispatch(new PendingEvent("Transaction." + event.name(), idList));
+                txList.forEach((tx) -> {
+                    if (accountId == 0 || tx.getSenderId() == accountId || tx.getRecipientId() == accountId)
+                        idList.add(tx.getStringId());
+                });
+                if (accountId == 0 || !idList.isEmpty())
+                    dispatch(new PendingEvent("Transaction." + event.name(), idList));
             }
         }
 
@@ -39,21 +39,14 @@ public class EventRegister extends APIRequestHandler {
         super(new APITag[]{APITag.INFO}, "event", "event", "event", "add", "remove");
     }
 
-    @Override
-    protected JSONStreamAware processRequest(HttpServletRequest req) {
-        JSONObject response;
-        //
-        // Get 'add' and 'remove' parameters
-        //
-        boolean addEvents = Boolean.valueOf(req.getParameter("add"));
-        boolean removeEvents = Boolean.valueOf(req.getParameter("remove"));
-        if (addEvents && removeEvents)
-            return EXCLUSIVE_PARAMS;
-        //
-        // Build the event list from the 'event' parameters
-        //
-        List<EventRegistration> events = new ArrayList<>();
-        String[] params = req.getParameterValues("event");
+    /**
+     * Build the event registrations for the event names. All events are registered when no names are supplied.
+     *
+     * @param params Event names
+     * @param events Event registrations
+     * @return Error response or null if the event names are valid
+     */
+    static JSONObject parseEvents(String[] params, List<EventRegistration> events) {
         if (params == null) {
             //
             // Add all events if no events are supplied
@@ -65,11 +58,11 @@ public class EventRegister extends APIRequestHandler {
         } else {
             for (String param : params) {
                 //
-                // The Ledger event can have 2 or 3 parts.  All other events have 2 parts.
+                // The Ledger and Transaction events can have 2 or 3 parts.  All other events have 2 parts.
                 //
                 long accountId = 0;
                 String[] parts = param.split("\\.");
-                if (parts[0].equals("Ledger")) {
+                if (parts[0].equals("Ledger") || parts[0].equals("Transaction")) {
                     if (parts.length == 3) {
                         try {
                             accountId = Convert.parseAccountId(parts[2]);
@@ -114,6 +107,26 @@ public class EventRegister extends APIRequestHandler {
                     return UNKNOWN_EVENT;
             }
         }
+        return null;
+    }
+
+    @Override
+    protected JSONStreamAware processRequest(HttpServletRequest req) {
+        JSONObject response;
+        //
+        // Get 'add' and 'remove' parameters
+        //
+        boolean addEvents = Boolean.valueOf(req.getParameter("add"));
+        boolean removeEvents = Boolean.valueOf(req.getParameter("remove"));
+        if (addEvents && removeEvents)
+            return EXCLUSIVE_PARAMS;
+        //
+        // Build the event list from the 'event' parameters
+        //
+        List<EventRegistration> events = new ArrayList<>();
+        JSONObject error = parseEvents(req.getParameterValues("event"), events);
+        if (error != null)
+            return error;
         //
         // Register the event listener
         //
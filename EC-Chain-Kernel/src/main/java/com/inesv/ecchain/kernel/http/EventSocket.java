@@ -0,0 +1,225 @@
+package com.inesv.ecchain.kernel.http;
+
+import com.inesv.ecchain.common.core.Constants;
+import com.inesv.ecchain.common.util.JSON;
+import com.inesv.ecchain.common.util.LoggerUtil;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
+import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
+import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event subscription WebSocket. Clients send
+ * {"requestType": "subscribe", "event": ["EcBlock.BLOCK_PUSHED", "Ledger.ADD_ENTRY.EC-...", ...], "overflow": "drop"}
+ * using the event names accepted by EventRegister, and {"requestType": "unsubscribe", "event": [...]} to stop
+ * receiving them. Each event is then sent as a {"name": ..., "ids": [...]} message.
+ * <p>
+ * Up to ec.apiEventSocketBufferSize events are buffered while the client is reading. When the buffer is full,
+ * the oldest event is dropped and the number of dropped events is reported to the client with a {"dropped": n}
+ * message, or the socket is closed if the client asked for the "close" overflow policy.
+ */
+@WebSocket
+public final class EventSocket {
+
+    private static final JSONObject SUBSCRIBED = new JSONObject();
+
+    private static final JSONObject INCORRECT_REQUEST = new JSONObject();
+
+    static {
+        SUBSCRIBED.put("subscribed", true);
+        INCORRECT_REQUEST.put("errorCode", 1);
+        INCORRECT_REQUEST.put("errorDescription", "Incorrect request");
+    }
+
+    private final String address;
+
+    private final List<EventRegistration> registrations = new CopyOnWriteArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final ArrayDeque<String> buffer = new ArrayDeque<>();
+
+    private volatile Session session;
+
+    private boolean sending;
+
+    private boolean closeOnOverflow;
+
+    private long dropped;
+
+    EventSocket(String address) {
+        this.address = address;
+    }
+
+    String getAddress() {
+        return address;
+    }
+
+    @OnWebSocketConnect
+    public void onConnect(Session session) {
+        this.session = session;
+        EventSocketDispatcher.getInstance().addSocket(this);
+        LoggerUtil.logDebug(String.format("Event socket connected for %s", address));
+    }
+
+    @OnWebSocketMessage
+    public void onMessage(String message) {
+        JSONObject response;
+        Object request = JSONValue.parse(message);
+        if (!(request instanceof JSONObject)) {
+            response = INCORRECT_REQUEST;
+        } else {
+            response = processRequest((JSONObject) request);
+        }
+        send(JSON.toECJSONString(response));
+    }
+
+    @OnWebSocketClose
+    public void onClose(int statusCode, String reason) {
+        EventSocketDispatcher.getInstance().removeSocket(this);
+        lock.lock();
+        try {
+            session = null;
+            buffer.clear();
+        } finally {
+            lock.unlock();
+        }
+        LoggerUtil.logDebug(String.format("Event socket closed for %s: %d %s", address, statusCode, reason));
+    }
+
+    /**
+     * Queue the event for the client if it is subscribed to it
+     *
+     * @param notification Event notification
+     */
+    void notify(EventSocketDispatcher.Notification notification) {
+        PendingEvent event = notification.filter(registrations);
+        if (event != null) {
+            send(JSON.toECJSONString(event.toJSON()));
+        }
+    }
+
+    private JSONObject processRequest(JSONObject request) {
+        String requestType = (String) request.get("requestType");
+        boolean subscribe = "subscribe".equals(requestType);
+        if (!subscribe && !"unsubscribe".equals(requestType)) {
+            return INCORRECT_REQUEST;
+        }
+        String[] names = null;
+        Object eventNames = request.get("event");
+        if (eventNames instanceof JSONArray) {
+            names = ((List<?>) eventNames).stream().map(String::valueOf).toArray(String[]::new);
+        } else if (eventNames != null) {
+            names = new String[]{String.valueOf(eventNames)};
+        }
+        List<EventRegistration> events = new ArrayList<>();
+        JSONObject error = EventRegister.parseEvents(names, events);
+        if (error != null) {
+            return error;
+        }
+        if (subscribe) {
+            Object overflow = request.get("overflow");
+            if (overflow != null && !"drop".equals(overflow) && !"close".equals(overflow)) {
+                return INCORRECT_REQUEST;
+            }
+            lock.lock();
+            try {
+                closeOnOverflow = "close".equals(overflow);
+            } finally {
+                lock.unlock();
+            }
+            for (EventRegistration event : events) {
+                if (registrations.stream().noneMatch(registration -> registration.getEvent() == event.getEvent() &&
+                        registration.getAccountId() == event.getAccountId())) {
+                    registrations.add(event);
+                }
+            }
+        } else if (names == null) {
+            registrations.clear();
+        } else {
+            //
+            // Specifying an account identifier of 0 removes the registrations for all accounts
+            //
+            for (EventRegistration event : events) {
+                registrations.removeIf(registration -> registration.getEvent() == event.getEvent() &&
+                        (event.getAccountId() == 0 || registration.getAccountId() == event.getAccountId()));
+            }
+        }
+        return SUBSCRIBED;
+    }
+
+    private void send(String message) {
+        lock.lock();
+        try {
+            if (session == null) {
+                return;
+            }
+            if (buffer.size() >= Constants.EVENT_SOCKET_BUFFER_SIZE) {
+                if (closeOnOverflow) {
+                    LoggerUtil.logDebug(String.format("Event buffer overflow for %s, closing the socket", address));
+                    buffer.clear();
+                    session.close(StatusCode.POLICY_VIOLATION, "Event buffer overflow");
+                    return;
+                }
+                buffer.poll();
+                dropped += 1;
+            }
+            buffer.add(message);
+            if (!sending) {
+                sendNext();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendNext() {
+        Session currentSession = session;
+        if (currentSession == null) {
+            return;
+        }
+        String message;
+        if (dropped > 0) {
+            JSONObject droppedJSON = new JSONObject();
+            droppedJSON.put("dropped", dropped);
+            message = JSON.toECJSONString(droppedJSON);
+            dropped = 0;
+        } else {
+            message = buffer.poll();
+            if (message == null) {
+                return;
+            }
+        }
+        sending = true;
+        currentSession.getRemote().sendString(message, new WriteCallback() {
+            @Override
+            public void writeFailed(Throwable exc) {
+                LoggerUtil.logDebug(String.format("Unable to send event to %s: %s", address, exc.toString()));
+                currentSession.close();
+            }
+
+            @Override
+            public void writeSuccess() {
+                lock.lock();
+                try {
+                    sending = false;
+                    sendNext();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,181 @@
+package com.inesv.ecchain.kernel.http;
+
+import com.inesv.ecchain.common.util.Convert;
+import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.common.util.ThreadPool;
+import com.inesv.ecchain.kernel.H2.TransactionCallback;
+import com.inesv.ecchain.kernel.core.AccountLedger;
+import com.inesv.ecchain.kernel.core.H2;
+import com.inesv.ecchain.kernel.core.Transaction;
+import com.inesv.ecchain.kernel.core.TransactionProcessorEvent;
+import com.inesv.ecchain.kernel.peer.Peers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fans the blockchain, transaction, peer and ledger events out to the connected event sockets.
+ * <p>
+ * A single listener is registered for each event, however many clients are connected, and the events
+ * are delivered by a single dispatcher thread. Events raised inside a database transaction are only
+ * delivered once the transaction commits. Each socket keeps its own bounded buffer, so a slow client
+ * never holds back the dispatcher or the other clients.
+ */
+final class EventSocketDispatcher implements TransactionCallback {
+
+    private static final EventSocketDispatcher instance = new EventSocketDispatcher();
+
+    static EventSocketDispatcher getInstance() {
+        return instance;
+    }
+
+    private final Set<EventSocket> sockets = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<List<Notification>> transactionNotifications = ThreadLocal.withInitial(ArrayList::new);
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "EventSocketDispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean listening;
+
+    private EventSocketDispatcher() {
+    }
+
+    int getSocketCount() {
+        return sockets.size();
+    }
+
+    void addSocket(EventSocket socket) {
+        synchronized (this) {
+            if (!listening) {
+                addListeners();
+                listening = true;
+            }
+        }
+        sockets.add(socket);
+    }
+
+    void removeSocket(EventSocket socket) {
+        sockets.remove(socket);
+    }
+
+    void shutdown() {
+        ThreadPool.shutdownExecutor("eventSocketDispatcher", dispatcher, 5);
+    }
+
+    @Override
+    public void commit() {
+        List<Notification> notifications = transactionNotifications.get();
+        transactionNotifications.remove();
+        notifications.forEach(this::dispatch);
+    }
+
+    @Override
+    public void rollback() {
+        transactionNotifications.remove();
+    }
+
+    private void addListeners() {
+        EventListener.PEER_EVENTS.forEach(event -> Peers.addPeersListener(peer ->
+                publish(new Notification(event, "Peer." + event.name(), Collections.singletonList(peer.getPeerHost()), null), false),
+                event));
+        EventListener.BLOCK_EVENTS.forEach(event -> EventListener.EC_BLOCKCHAIN_PROCESSOR.addECListener(ecBlock ->
+                publish(new Notification(event, "EcBlock." + event.name(), Collections.singletonList(ecBlock.getStringECId()), null), true),
+                event));
+        EventListener.TX_EVENTS.forEach(event -> EventListener.TRANSACTION_PROCESSOR.addECListener(transactions -> {
+            List<String> ids = new ArrayList<>(transactions.size());
+            List<long[]> accounts = new ArrayList<>(transactions.size());
+            for (Transaction transaction : transactions) {
+                ids.add(transaction.getStringId());
+                accounts.add(new long[]{transaction.getSenderId(), transaction.getRecipientId()});
+            }
+            publish(new Notification(event, "Transaction." + event.name(), ids, accounts), true);
+        }, event));
+        EventListener.EVENT_LIST.forEach(event -> AccountLedger.addAccountLedgerListener(entry ->
+                publish(new Notification(event, String.format("Ledger.%s.%s", event.name(), Convert.rsAccount(entry.getAccountId())),
+                        Collections.singletonList(Long.toUnsignedString(entry.getLedgerId())),
+                        Collections.singletonList(new long[]{entry.getAccountId()})), true),
+                event));
+        LoggerUtil.logDebug("Event socket listeners registered");
+    }
+
+    private void publish(Notification notification, boolean waitTransaction) {
+        if (waitTransaction && H2.H2.isInTransaction()) {
+            transactionNotifications.get().add(notification);
+            H2.H2.registerCallback(this);
+        } else {
+            dispatch(notification);
+        }
+    }
+
+    private void dispatch(Notification notification) {
+        if (sockets.isEmpty() || dispatcher.isShutdown()) {
+            return;
+        }
+        dispatcher.execute(() -> sockets.forEach(socket -> {
+            try {
+                socket.notify(notification);
+            } catch (RuntimeException e) {
+                LoggerUtil.logError("Unable to deliver event to " + socket.getAddress(), e);
+            }
+        }));
+    }
+
+    /**
+     * Event raised by the node. The accounts involved with each id are used to filter the
+     * event for registrations made for a single account.
+     */
+    static final class Notification {
+
+        private final Enum<? extends Enum> event;
+        private final String name;
+        private final List<String> ids;
+        private final List<long[]> accounts;
+
+        private Notification(Enum<? extends Enum> event, String name, List<String> ids, List<long[]> accounts) {
+            this.event = event;
+            this.name = name;
+            this.ids = ids;
+            this.accounts = accounts;
+        }
+
+        /**
+         * Return the event as seen by the registrations for this event, or null if none of them accepts it
+         */
+        PendingEvent filter(List<EventRegistration> registrations) {
+            Set<String> filteredIds = null;
+            for (EventRegistration registration : registrations) {
+                if (registration.getEvent() != event) {
+                    continue;
+                }
+                long accountId = registration.getAccountId();
+                if (accountId == 0 || accounts == null) {
+                    return toPendingEvent(ids);
+                }
+                for (int i = 0; i < ids.size(); i++) {
+                    for (long id : accounts.get(i)) {
+                        if (id == accountId) {
+                            if (filteredIds == null) {
+                                filteredIds = new LinkedHashSet<>();
+                            }
+                            filteredIds.add(ids.get(i));
+                            break;
+                        }
+                    }
+                }
+            }
+            return filteredIds == null ? null : toPendingEvent(new ArrayList<>(filteredIds));
+        }
+
+        private PendingEvent toPendingEvent(List<String> eventIds) {
+            return event instanceof TransactionProcessorEvent ? new PendingEvent(name, eventIds) :
+                    new PendingEvent(name, eventIds.get(0));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.inesv.ecchain.kernel.http;
+
+import com.inesv.ecchain.common.core.Constants;
+import org.eclipse.jetty.websocket.servlet.ServletUpgradeRequest;
+import org.eclipse.jetty.websocket.servlet.ServletUpgradeResponse;
+import org.eclipse.jetty.websocket.servlet.WebSocketServlet;
+import org.eclipse.jetty.websocket.servlet.WebSocketServletFactory;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public final class EventSocketServlet extends WebSocketServlet {
+
+    /**
+     * Configure the WebSocket factory
+     *
+     * @param factory WebSocket factory
+     */
+    @Override
+    public void configure(WebSocketServletFactory factory) {
+        factory.getPolicy().setIdleTimeout(Constants.EVENT_TIMEOUT * 1000L);
+        factory.setCreator(this::createEventSocket);
+    }
+
+    private Object createEventSocket(ServletUpgradeRequest req, ServletUpgradeResponse resp) {
+        try {
+            if (!API.isAllowed(req.getRemoteHostName())) {
+                resp.sendForbidden("Not allowed");
+                return null;
+            }
+            if (EventSocketDispatcher.getInstance().getSocketCount() >= Constants.MAX_EVENT_SOCKETS) {
+                resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                        String.format("Too many event sockets: Maximum %d", Constants.MAX_EVENT_SOCKETS));
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return new EventSocket(req.getRemoteAddress());
+    }
+}
@@ -32,17 +32,7 @@ public class EventWait extends APIRequestHandler {
 
     static JSONObject formatResponse(List<PendingEvent> events) {
         JSONArray eventsJSON = new JSONArray();
-        events.forEach(event -> {
-            JSONArray idsJSON = new JSONArray();
-            if (event.isList())
-                idsJSON.addAll(event.getIdList());
-            else
-                idsJSON.add(event.getId());
-            JSONObject eventJSON = new JSONObject();
-            eventJSON.put("name", event.getName());
-            eventJSON.put("ids", idsJSON);
-            eventsJSON.add(eventJSON);
-        });
+        events.forEach(event -> eventsJSON.add(event.toJSON()));
         JSONObject response = new JSONObject();
         response.put("events", eventsJSON);
         return response;
@@ -0,0 +1,62 @@
+package com.inesv.ecchain.kernel.http;
+
+
+import com.inesv.ecchain.common.core.Constants;
+import com.inesv.ecchain.common.util.Convert;
+import com.inesv.ecchain.kernel.core.EcBlockchainImpl;
+import com.inesv.ecchain.kernel.core.Snapshot;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+
+public final class ExportSnapshot extends APIRequestHandler {
+
+    static final ExportSnapshot instance = new ExportSnapshot();
+
+    private ExportSnapshot() {
+        super(new APITag[]{APITag.DEBUG});
+    }
+
+    @Override
+    protected JSONStreamAware processRequest(HttpServletRequest req) {
+        JSONObject response = new JSONObject();
+        try {
+            File directory = new File(Constants.SNAPSHOT_DIR);
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new RuntimeException("Unable to create snapshot directory " + directory.getAbsolutePath());
+            }
+            Snapshot snapshot = Snapshot.export(new File(directory, "ec-snapshot-" + EcBlockchainImpl.getInstance().getHeight() + ".gz"));
+            response.put("file", snapshot.getFile().getAbsolutePath());
+            response.put("height", snapshot.getHeight());
+            response.put("block", Long.toUnsignedString(snapshot.getBlockId()));
+            response.put("stateHash", Convert.toHexString(snapshot.getStateHash()));
+            response.put("checksum", Convert.toHexString(snapshot.getChecksum()));
+        } catch (RuntimeException e) {
+            JSONData.putException(response, e);
+        }
+        return response;
+    }
+
+    @Override
+    protected final boolean requirePost() {
+        return true;
+    }
+
+    @Override
+    protected boolean requirePassword() {
+        return true;
+    }
+
+    @Override
+    protected boolean allowRequiredBlockParameters() {
+        return false;
+    }
+
+    @Override
+    protected boolean requireBlockchain() {
+        return false;
+    }
+
+}
@@ -11,7 +11,6 @@ import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
 import javax.servlet.http.HttpServletRequest;
-import java.util.List;
 
 
 public class GetAccountLedger extends APIRequestHandler {
@@ -20,7 +19,7 @@ public class GetAccountLedger extends APIRequestHandler {
 
     private GetAccountLedger() {
         super(new APITag[]{APITag.ACCOUNTS}, "account", "firstIndex", "lastIndex",
-                "eventType", "event", "holdingType", "holding", "includeTransactions", "includeHoldingInfo");
+                "eventType", "event", "holdingType", "holding", "includeTransactions", "includeHoldingInfo", "cursor");
     }
 
     @Override
@@ -55,23 +54,29 @@ public class GetAccountLedger extends APIRequestHandler {
         }
         boolean includeTransactions = "true".equalsIgnoreCase(req.getParameter("includeTransactions"));
         boolean includeHoldingInfo = "true".equalsIgnoreCase(req.getParameter("includeHoldingInfo"));
+        long cursor = ParameterParser.getCursor(req);
+        if (!AccountLedger.isEnabled()) {
+            JSONObject response = new JSONObject();
+            response.put("entries", new JSONArray());
+            return response;
+        }
 
         //
-        // Get the ledger entries
-        //
-        List<AccountLedger.LedgerEntry> ledgerEntries = AccountLedger.getEntries(accountId, event, eventId,
-                holding, holdingId, firstIndex, lastIndex);
-        //
-        // Return the response
+        // Stream the ledger entries
         //
-        JSONArray responseEntries = new JSONArray();
-        ledgerEntries.forEach((entry) -> {
-            JSONObject responseEntry = new JSONObject();
-            JSONData.ledgerEntry(responseEntry, entry, includeTransactions, includeHoldingInfo);
-            responseEntries.add(responseEntry);
-        });
-        JSONObject response = new JSONObject();
-        response.put("entries", responseEntries);
-        return response;
+        LedgerEvent ledgerEvent = event;
+        long ledgerEventId = eventId;
+        LedgerHolding ledgerHolding = holding;
+        long ledgerHoldingId = holdingId;
+        return new JSONStreamingResponse<AccountLedger.LedgerEntry>("entries",
+                () -> AccountLedger.getEntries(accountId, ledgerEvent, ledgerEventId, ledgerHolding, ledgerHoldingId,
+                        Math.max(cursor, 0), firstIndex, lastIndex),
+                entry -> true,
+                entry -> {
+                    JSONObject responseEntry = new JSONObject();
+                    JSONData.ledgerEntry(responseEntry, entry, includeTransactions, includeHoldingInfo);
+                    return responseEntry;
+                },
+                AccountLedger.LedgerEntry::getLedgerId, firstIndex, lastIndex);
     }
 }
@@ -3,9 +3,6 @@ package com.inesv.ecchain.kernel.http;
 
 import com.inesv.ecchain.common.core.EcException;
 import com.inesv.ecchain.kernel.core.Trade;
-import com.inesv.ecchain.kernel.H2.H2Iterator;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
 import javax.servlet.http.HttpServletRequest;
@@ -15,7 +12,7 @@ public final class GetAllTrades extends APIRequestHandler {
     static final GetAllTrades instance = new GetAllTrades();
 
     private GetAllTrades() {
-        super(new APITag[]{APITag.AE}, "timestamp", "firstIndex", "lastIndex", "includeAssetInfo");
+        super(new APITag[]{APITag.AE}, "timestamp", "firstIndex", "lastIndex", "includeAssetInfo", "cursor");
     }
 
     @Override
@@ -25,19 +22,13 @@ public final class GetAllTrades extends APIRequestHandler {
         int lastIndex = ParameterParser.getLastIndex(req);
         boolean includeAssetInfo = "true".equalsIgnoreCase(req.getParameter("includeAssetInfo"));
 
-        JSONObject response = new JSONObject();
-        JSONArray trades = new JSONArray();
-        try (H2Iterator<Trade> tradeIterator = Trade.getAllTrades(firstIndex, lastIndex)) {
-            while (tradeIterator.hasNext()) {
-                Trade trade = tradeIterator.next();
-                if (trade.getTimestamp() < timestamp) {
-                    break;
-                }
-                trades.add(JSONData.trade(trade, includeAssetInfo));
-            }
-        }
-        response.put("trades", trades);
-        return response;
+        long cursor = ParameterParser.getCursor(req);
+
+        return new JSONStreamingResponse<Trade>("trades",
+                () -> cursor < 0 ? Trade.getAllTrades(firstIndex, lastIndex) : Trade.getAllTradesAfter(cursor, firstIndex, lastIndex),
+                trade -> trade.getTimestamp() >= timestamp,
+                trade -> JSONData.trade(trade, includeAssetInfo),
+                Trade::getDbId, firstIndex, lastIndex);
     }
 
 }
@@ -4,9 +4,6 @@ package com.inesv.ecchain.kernel.http;
 import com.inesv.ecchain.common.core.EcException;
 import com.inesv.ecchain.kernel.core.EcBlockchainImpl;
 import com.inesv.ecchain.kernel.core.Transaction;
-import com.inesv.ecchain.kernel.H2.H2Iterator;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
 import javax.servlet.http.HttpServletRequest;
@@ -18,7 +15,7 @@ public final class GetBlockchainTransactions extends APIRequestHandler {
     private GetBlockchainTransactions() {
         super(new APITag[]{APITag.ACCOUNTS, APITag.TRANSACTIONS}, "account", "timestamp", "type", "subtype",
                 "firstIndex", "lastIndex", "numberOfConfirmations", "withMessage", "phasedOnly", "nonPhasedOnly",
-                "includeExpiredPrunable", "includePhasingResult", "executedOnly");
+                "includeExpiredPrunable", "includePhasingResult", "executedOnly", "cursor");
     }
 
     @Override
@@ -50,19 +47,21 @@ public final class GetBlockchainTransactions extends APIRequestHandler {
         int firstIndex = ParameterParser.getFirstIndex(req);
         int lastIndex = ParameterParser.getLastIndex(req);
 
-        JSONArray transactions = new JSONArray();
-        try (H2Iterator<? extends Transaction> iterator = EcBlockchainImpl.getInstance().getTransactions(accountId, numberOfConfirmations,
-                type, subtype, timestamp, withMessage, phasedOnly, nonPhasedOnly, firstIndex, lastIndex,
-                includeExpiredPrunable, executedOnly)) {
-            while (iterator.hasNext()) {
-                Transaction transaction = iterator.next();
-                transactions.add(JSONData.transaction(transaction, includePhasingResult));
-            }
-        }
+        // The cursor holds the height and index of the last transaction returned
+        long cursor = ParameterParser.getCursor(req);
+        int cursorHeight = cursor < 0 ? Integer.MAX_VALUE : (int) (cursor >>> 16);
+        short cursorIndex = (short) cursor;
 
-        JSONObject response = new JSONObject();
-        response.put("transactions", transactions);
-        return response;
+        byte transactionType = type;
+        byte transactionSubtype = subtype;
+        return new JSONStreamingResponse<Transaction>("transactions",
+                () -> EcBlockchainImpl.getInstance().getTransactions(accountId, numberOfConfirmations,
+                        transactionType, transactionSubtype, timestamp, withMessage, phasedOnly, nonPhasedOnly, firstIndex, lastIndex,
+                        includeExpiredPrunable, executedOnly, cursorHeight, cursorIndex),
+                transaction -> true,
+                transaction -> JSONData.transaction(transaction, includePhasingResult),
+                transaction -> ((long) transaction.getTransactionHeight() << 16) | (transaction.getTransactionIndex() & 0xFFFF),
+                firstIndex, lastIndex);
 
     }
 
@@ -4,9 +4,6 @@ package com.inesv.ecchain.kernel.http;
 import com.inesv.ecchain.common.core.EcException;
 import com.inesv.ecchain.kernel.core.EcBlock;
 import com.inesv.ecchain.kernel.core.EcBlockchainImpl;
-import com.inesv.ecchain.kernel.H2.H2Iterator;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
 import javax.servlet.http.HttpServletRequest;
@@ -16,7 +13,7 @@ public final class GetBlocks extends APIRequestHandler {
     static final GetBlocks instance = new GetBlocks();
 
     private GetBlocks() {
-        super(new APITag[]{APITag.BLOCKS}, "firstIndex", "lastIndex", "timestamp", "includeTransactions", "includeExecutedPhased");
+        super(new APITag[]{APITag.BLOCKS}, "firstIndex", "lastIndex", "timestamp", "includeTransactions", "includeExecutedPhased", "cursor");
     }
 
     @Override
@@ -28,21 +25,15 @@ public final class GetBlocks extends APIRequestHandler {
         boolean includeTransactions = "true".equalsIgnoreCase(req.getParameter("includeTransactions"));
         boolean includeExecutedPhased = "true".equalsIgnoreCase(req.getParameter("includeExecutedPhased"));
 
-        JSONArray blocks = new JSONArray();
-        try (H2Iterator<? extends EcBlock> iterator = EcBlockchainImpl.getInstance().getBlocks(firstIndex, lastIndex)) {
-            while (iterator.hasNext()) {
-                EcBlock ecBlock = iterator.next();
-                if (ecBlock.getTimestamp() < timestamp) {
-                    break;
-                }
-                blocks.add(JSONData.block(ecBlock, includeTransactions, includeExecutedPhased));
-            }
-        }
-
-        JSONObject response = new JSONObject();
-        response.put("blocks", blocks);
-
-        return response;
+        long cursor = ParameterParser.getCursor(req);
+        int cursorHeight = (int) Math.min(cursor, Integer.MAX_VALUE);
+
+        return new JSONStreamingResponse<EcBlock>("blocks",
+                () -> cursor < 0 ? EcBlockchainImpl.getInstance().getBlocks(firstIndex, lastIndex) :
+                        EcBlockchainImpl.getInstance().getBlocksBelow(cursorHeight, firstIndex, lastIndex),
+                ecBlock -> ecBlock.getTimestamp() >= timestamp,
+                ecBlock -> JSONData.block(ecBlock, includeTransactions, includeExecutedPhased),
+                ecBlock -> (long) ecBlock.getHeight(), firstIndex, lastIndex);
     }
 
 }
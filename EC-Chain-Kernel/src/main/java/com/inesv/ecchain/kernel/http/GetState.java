@@ -62,6 +62,22 @@ public final class GetState extends APIRequestHandler {
         response.put("maxMemory", Runtime.getRuntime().maxMemory());
         response.put("totalMemory", Runtime.getRuntime().totalMemory());
         response.put("freeMemory", Runtime.getRuntime().freeMemory());
+        EcBlockCache blockCache = EcBlockCache.getInstance();
+        response.put("blockCacheSize", blockCache.size());
+        response.put("blockCacheHits", blockCache.getBlockHits());
+        response.put("blockCacheMisses", blockCache.getBlockMisses());
+        response.put("blockCacheHitRatio", hitRatio(blockCache.getBlockHits(), blockCache.getBlockMisses()));
+        response.put("transactionCacheHits", blockCache.getTransactionHits());
+        response.put("transactionCacheMisses", blockCache.getTransactionMisses());
+        response.put("transactionCacheHitRatio", hitRatio(blockCache.getTransactionHits(), blockCache.getTransactionMisses()));
+        EcBlockDownloadMetrics downloadMetrics = EcBlockDownloadMetrics.getInstance();
+        response.put("downloadFetchRequests", downloadMetrics.getFetchRequests());
+        response.put("downloadFetchTime", downloadMetrics.getFetchTime());
+        response.put("downloadParsedBlocks", downloadMetrics.getParsedBlocks());
+        response.put("downloadParseTime", downloadMetrics.getParseTime());
+        response.put("downloadQueueWaitTime", downloadMetrics.getQueueWaitTime());
+        response.put("downloadAppliedBlocks", downloadMetrics.getAppliedBlocks());
+        response.put("downloadApplyTime", downloadMetrics.getApplyTime());
         response.put("peerPort", Peers.getDefaultPeerPort());
         response.put("IS_OFFLINE", Constants.IS_OFFLINE);
         response.put("needsAdminPassword", !API.disableAdminPassword);
@@ -72,6 +88,10 @@ public final class GetState extends APIRequestHandler {
         return response;
     }
 
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
     @Override
     protected boolean allowRequiredBlockParameters() {
         return false;
@@ -3,10 +3,7 @@ package com.inesv.ecchain.kernel.http;
 
 import com.inesv.ecchain.common.util.Convert;
 import com.inesv.ecchain.kernel.core.Transaction;
-import com.inesv.ecchain.kernel.core.TransactionProcessor;
 import com.inesv.ecchain.kernel.core.TransactionProcessorImpl;
-import com.inesv.ecchain.kernel.H2.H2Iterator;
-import com.inesv.ecchain.kernel.H2.FilteringIterator;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
@@ -31,21 +28,22 @@ public final class GetUnconfirmedTransactionIds extends APIRequestHandler {
 
         JSONArray transactionIds = new JSONArray();
         if (accountIds.isEmpty()) {
-            try (H2Iterator<? extends Transaction> transactionsIterator = TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions(firstIndex, lastIndex)) {
-                while (transactionsIterator.hasNext()) {
-                    Transaction transaction = transactionsIterator.next();
-                    transactionIds.add(transaction.getStringId());
-                }
+            for (Transaction transaction : TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions(firstIndex, lastIndex)) {
+                transactionIds.add(transaction.getStringId());
             }
         } else {
-            TransactionProcessor tp = TransactionProcessorImpl.getInstance();
-            try (FilteringIterator<? extends Transaction> transactionsIterator = new FilteringIterator<>(tp.getAllUnconfirmedTransactions(0, -1),
-                    transaction -> accountIds.contains(transaction.getSenderId()) || accountIds.contains(transaction.getRecipientId()),
-                    firstIndex, lastIndex)) {
-                while (transactionsIterator.hasNext()) {
-                    Transaction transaction = transactionsIterator.next();
+            int index = 0;
+            for (Transaction transaction : TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions()) {
+                if (!accountIds.contains(transaction.getSenderId()) && !accountIds.contains(transaction.getRecipientId())) {
+                    continue;
+                }
+                if (lastIndex >= 0 && index > lastIndex) {
+                    break;
+                }
+                if (index >= firstIndex) {
                     transactionIds.add(transaction.getStringId());
                 }
+                index += 1;
             }
         }
 
@@ -3,10 +3,7 @@ package com.inesv.ecchain.kernel.http;
 
 import com.inesv.ecchain.common.util.Convert;
 import com.inesv.ecchain.kernel.core.Transaction;
-import com.inesv.ecchain.kernel.core.TransactionProcessor;
 import com.inesv.ecchain.kernel.core.TransactionProcessorImpl;
-import com.inesv.ecchain.kernel.H2.H2Iterator;
-import com.inesv.ecchain.kernel.H2.FilteringIterator;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
@@ -31,22 +28,22 @@ public final class GetUnconfirmedTransactions extends APIRequestHandler {
 
         JSONArray transactions = new JSONArray();
         if (accountIds.isEmpty()) {
-            try (H2Iterator<? extends Transaction> transactionsIterator = TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions(firstIndex, lastIndex)) {
-                while (transactionsIterator.hasNext()) {
-                    Transaction transaction = transactionsIterator.next();
-                    transactions.add(JSONData.unconfirmedTransaction(transaction));
-                }
+            for (Transaction transaction : TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions(firstIndex, lastIndex)) {
+                transactions.add(JSONData.unconfirmedTransaction(transaction));
             }
         } else {
-            TransactionProcessor tp = TransactionProcessorImpl.getInstance();
-            try (
-                    FilteringIterator<? extends Transaction> transactionsIterator = new FilteringIterator<>(tp.getAllUnconfirmedTransactions(0, -1),
-                            transaction -> accountIds.contains(transaction.getSenderId()) || accountIds.contains(transaction.getRecipientId()),
-                            firstIndex, lastIndex)) {
-                while (transactionsIterator.hasNext()) {
-                    Transaction transaction = transactionsIterator.next();
+            int index = 0;
+            for (Transaction transaction : TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions()) {
+                if (!accountIds.contains(transaction.getSenderId()) && !accountIds.contains(transaction.getRecipientId())) {
+                    continue;
+                }
+                if (lastIndex >= 0 && index > lastIndex) {
+                    break;
+                }
+                if (index >= firstIndex) {
                     transactions.add(JSONData.unconfirmedTransaction(transaction));
                 }
+                index += 1;
             }
         }
 
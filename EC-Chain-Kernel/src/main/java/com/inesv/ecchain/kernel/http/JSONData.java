@@ -473,6 +473,8 @@ public final class JSONData {
         json.put("weight", peer.getPeerWeight());
         json.put("downloadedVolume", peer.getDownloadedVolume());
         json.put("uploadedVolume", peer.getUploadedVolume());
+        json.put("announcementVolume", peer.getAnnouncementVolume());
+        json.put("inventoryVolume", peer.getInventoryVolume());
         json.put("application", peer.getApplication());
         json.put("version", peer.getPeerVersion());
         json.put("platform", peer.getPlatform());
@@ -1049,7 +1051,10 @@ public final class JSONData {
         json.put("filename", badgeData.getFilename());
         json.put("isText", badgeData.isText());
         if (includeData) {
-            json.put("data", badgeData.isText() ? Convert.toString(badgeData.getData()) : Convert.toHexString(badgeData.getData()));
+            byte[] data = badgeData.getData();
+            if (data != null) {
+                json.put("data", badgeData.isText() ? Convert.toString(data) : Convert.toHexString(data));
+            }
         }
         json.put("transactionTimestamp", badgeData.getTransactionTimestamp());
         json.put("blockTimestamp", badgeData.getBlockTimestamp());
@@ -0,0 +1,117 @@
+package com.inesv.ecchain.kernel.http;
+
+import com.inesv.ecchain.common.util.JSON;
+import com.inesv.ecchain.kernel.H2.H2Iterator;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Response listing the rows returned by a query. The query is run by {@link #open()} before anything is sent, so
+ * that a failing query still gets an error response, and each row is converted and written to the client as it is
+ * read, so a page is never held in memory. Field values given as a {@link Supplier} are read when the response is
+ * written.
+ * <p>
+ * When the page is full, the cursor of its last row is returned as well. Passing it back in the cursor
+ * parameter continues the listing after that row, using the index instead of skipping the earlier rows.
+ */
+final class JSONStreamingResponse<T> implements JSONStreamAware {
+
+    private static final int FLUSH_SIZE = 8192;
+
+    private final String name;
+    private final Supplier<H2Iterator<? extends T>> rows;
+    private final Predicate<? super T> condition;
+    private final Function<? super T, JSONObject> toJSON;
+    private final Function<? super T, Long> cursor;
+    private final long pageSize;
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+    private H2Iterator<? extends T> iterator;
+
+    /**
+     * @param name      Name of the array holding the rows
+     * @param rows      Query returning the rows
+     * @param condition Rows are listed while this condition holds
+     * @param toJSON    Row conversion
+     * @param cursor    Cursor of a row
+     * @param firstIndex First index of the page
+     * @param lastIndex  Last index of the page
+     */
+    JSONStreamingResponse(String name, Supplier<H2Iterator<? extends T>> rows, Predicate<? super T> condition,
+                          Function<? super T, JSONObject> toJSON, Function<? super T, Long> cursor,
+                          int firstIndex, int lastIndex) {
+        this.name = name;
+        this.rows = rows;
+        this.condition = condition;
+        this.toJSON = toJSON;
+        this.cursor = cursor;
+        this.pageSize = (long) lastIndex - firstIndex + 1;
+    }
+
+    void put(String key, Object value) {
+        fields.put(key, value);
+    }
+
+    /**
+     * Run the query and read its first row
+     */
+    void open() {
+        H2Iterator<? extends T> iterator = rows.get();
+        try {
+            iterator.hasNext();
+        } catch (RuntimeException e) {
+            iterator.close();
+            throw e;
+        }
+        this.iterator = iterator;
+    }
+
+    @Override
+    public void writeJSONString(Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(FLUSH_SIZE + 1024);
+        sb.append("{\"").append(name).append("\":[");
+        long count = 0;
+        T last = null;
+        if (this.iterator == null) {
+            open();
+        }
+        try (H2Iterator<? extends T> iterator = this.iterator) {
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                if (!condition.test(row)) {
+                    break;
+                }
+                if (count > 0) {
+                    sb.append(',');
+                }
+                JSON.encodeObject(toJSON.apply(row), sb);
+                count += 1;
+                last = row;
+                if (sb.length() >= FLUSH_SIZE) {
+                    out.write(sb.toString());
+                    sb.setLength(0);
+                }
+            }
+        }
+        sb.append(']');
+        if (last != null && count == pageSize) {
+            sb.append(",\"cursor\":");
+            JSON.encodeValue(String.valueOf(cursor.apply(last)), sb);
+        }
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            sb.append(",\"").append(field.getKey()).append("\":");
+            Object value = field.getValue();
+            JSON.encodeValue(value instanceof Supplier ? ((Supplier<?>) value).get() : value, sb);
+        }
+        sb.append('}');
+        out.write(sb.toString());
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.inesv.ecchain.kernel.http;
+
+
+import com.inesv.ecchain.common.util.Metrics;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Node metrics in the Prometheus text format: API and peer request latencies, blockchain lock
+ * wait and hold times and database connection pool wait times.
+ */
+public final class MetricsServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        resp.setHeader("Cache-Control", "no-cache, no-store, must-revalidate, private");
+        resp.setHeader("Pragma", "no-cache");
+        resp.setDateHeader("Expires", 0);
+        if (!API.isAllowed(req.getRemoteHost())) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        resp.setContentType("text/plain; version=0.0.4; charset=UTF-8");
+        try (Writer writer = resp.getWriter()) {
+            Metrics.write(writer);
+        }
+    }
+}
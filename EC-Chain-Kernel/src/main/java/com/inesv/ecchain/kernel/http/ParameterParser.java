@@ -485,6 +485,16 @@ public final class ParameterParser {
         return lastIndex;
     }
 
+    /**
+     * Return the cursor parameter, or -1 if it is not present
+     */
+    public static long getCursor(HttpServletRequest req) throws ParameterException {
+        if (Convert.emptyToNull(req.getParameter("cursor")) == null) {
+            return -1;
+        }
+        return getLong(req, "cursor", 0, Long.MAX_VALUE, true);
+    }
+
     public static int getNumberOfConfirmations(HttpServletRequest req) throws ParameterException {
         return getInt(req, "numberOfConfirmations", 0, EcBlockchainImpl.getInstance().getHeight(), false);
     }
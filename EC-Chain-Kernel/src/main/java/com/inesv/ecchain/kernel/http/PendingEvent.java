@@ -1,5 +1,8 @@
 package com.inesv.ecchain.kernel.http;
 
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
 import java.util.List;
 
 
@@ -51,6 +54,19 @@ class PendingEvent {
     }
 
 
+    public JSONObject toJSON() {
+        JSONArray idsJSON = new JSONArray();
+        if (isList())
+            idsJSON.addAll(idList);
+        else
+            idsJSON.add(id);
+        JSONObject eventJSON = new JSONObject();
+        eventJSON.put("name", name);
+        eventJSON.put("ids", idsJSON);
+        return eventJSON;
+    }
+
+
     public Thread getThread() {
         return thread;
     }
@@ -0,0 +1,32 @@
+package com.inesv.ecchain.kernel.peer;
+
+
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+
+final class AnnounceInventory extends PeerRequestHandler {
+
+    static final AnnounceInventory instance = new AnnounceInventory();
+
+    private AnnounceInventory() {
+    }
+
+
+    @Override
+    JSONStreamAware disposeRequest(JSONObject request, Peer peer) {
+
+        try {
+            return Inventory.processAnnouncement(request, (PeerImpl) peer);
+        } catch (RuntimeException e) {
+            peer.blacklist(e);
+            return PeerServlet.error(e);
+        }
+
+    }
+
+    @Override
+    boolean rejectRequest() {
+        return true;
+    }
+
+}
@@ -5,10 +5,13 @@ import com.inesv.ecchain.common.util.Convert;
 import com.inesv.ecchain.common.util.JSON;
 import com.inesv.ecchain.kernel.core.EcBlock;
 import com.inesv.ecchain.kernel.core.EcBlockchainImpl;
+import com.inesv.ecchain.kernel.core.Transaction;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,8 +34,6 @@ final class GetNextBlocks extends PeerRequestHandler {
     @Override
     JSONStreamAware disposeRequest(JSONObject request, Peer peer) {
 
-        JSONObject response = new JSONObject();
-        JSONArray nextBlocksArray = new JSONArray();
         List<? extends EcBlock> blocks;
         long blockId = Convert.parseUnsignedLong((String) request.get("blockId"));
         List<String> stringList = (List<String>) request.get("blockIds");
@@ -50,12 +51,50 @@ final class GetNextBlocks extends PeerRequestHandler {
             }
             blocks = EcBlockchainImpl.getInstance().getBlocksAfter(blockId, limit > 0 ? (int) limit : 36);
         }
+        if (Boolean.TRUE.equals(request.get("binary"))) {
+            List<? extends EcBlock> nextBlocks = blocks;
+            return new PeerBinaryResponse(() -> getBytes(nextBlocks), () -> getJSON(nextBlocks));
+        }
+        return getJSON(blocks);
+    }
+
+    private static JSONObject getJSON(List<? extends EcBlock> blocks) {
+        JSONObject response = new JSONObject();
+        JSONArray nextBlocksArray = new JSONArray();
         blocks.forEach(block -> nextBlocksArray.add(block.getJSONObject()));
         response.put("nextBlocks", nextBlocksArray);
-
         return response;
     }
 
+    /**
+     * Each block is sent as its signed bytes followed by the bytes of its transactions,
+     * every transaction being followed by its prunable attachments in JSON form, if any.
+     * All items are preceded by their length.
+     */
+    private static byte[] getBytes(List<? extends EcBlock> blocks) {
+        List<byte[]> items = new ArrayList<>();
+        int size = 4;
+        for (EcBlock block : blocks) {
+            items.add(block.getBytes());
+            for (Transaction transaction : block.getTransactions()) {
+                items.add(transaction.getBytes());
+                JSONObject prunableAttachments = transaction.getPrunableAttachmentJSON();
+                items.add(prunableAttachments == null ? new byte[0] : Convert.toBytes(prunableAttachments.toJSONString()));
+            }
+        }
+        for (byte[] item : items) {
+            size += 4 + item.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(blocks.size());
+        for (byte[] item : items) {
+            buffer.putInt(item.length);
+            buffer.put(item);
+        }
+        return buffer.array();
+    }
+
     @Override
     boolean rejectRequest() {
         return true;
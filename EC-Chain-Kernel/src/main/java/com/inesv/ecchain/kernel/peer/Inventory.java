@@ -0,0 +1,213 @@
+package com.inesv.ecchain.kernel.peer;
+
+import com.inesv.ecchain.common.util.Convert;
+import com.inesv.ecchain.common.util.JSON;
+import com.inesv.ecchain.common.util.LoggerUtil;
+import com.inesv.ecchain.kernel.core.EcBlock;
+import com.inesv.ecchain.kernel.core.EcBlockchainImpl;
+import com.inesv.ecchain.kernel.core.Transaction;
+import com.inesv.ecchain.kernel.core.TransactionProcessorImpl;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Announce and request gossip between peers providing the INVENTORY service.
+ * <p>
+ * Instead of pushing whole transactions and blocks, their ids are announced to every connected peer
+ * which has not seen them yet. The peer answers with the ids it lacks and only those items are sent.
+ * Transaction ids are collected for each peer and announced in batches, so a busy node sends a few
+ * announceInventory messages over the peer WebSocket instead of one push per transaction batch.
+ * An item requested from one peer is not requested from another one until the first request times out.
+ */
+final class Inventory {
+
+    static final int MAX_TRANSACTIONS = 100;
+
+    private static final long TRANSACTION_REQUEST_TIMEOUT = 30 * 1000;
+
+    private static final long BLOCK_REQUEST_TIMEOUT = 5 * 1000;
+
+    private static final ConcurrentMap<Long, Long> requested = new ConcurrentHashMap<>();
+
+    static final Runnable announcingThread = () -> {
+
+        try {
+            try {
+
+                long now = System.currentTimeMillis();
+                requested.values().removeIf(expiration -> expiration < now);
+                for (PeerImpl peer : Peers.allPeers) {
+                    if (isAnnouncedTo(peer) && Peers.isPushedTo(peer) && peer.getInventory().startAnnouncing()) {
+                        Peers.peersService.submit(() -> sendAnnouncements(peer));
+                    }
+                }
+
+            } catch (Exception e) {
+                LoggerUtil.logError("Error announcing inventory", e);
+            }
+        } catch (Throwable t) {
+            LoggerUtil.logError("CRITICAL ERROR. PLEASE REPORT TO THE DEVELOPERS", t);
+            System.exit(1);
+        }
+
+    };
+
+    private Inventory() {
+    }
+
+    static boolean isAnnouncedTo(Peer peer) {
+        return peer.providesService(PeerService.INVENTORY);
+    }
+
+    static void announce(List<? extends Transaction> transactions) {
+        for (PeerImpl peer : Peers.allPeers) {
+            if (isAnnouncedTo(peer) && Peers.isPushedTo(peer)) {
+                PeerInventory inventory = peer.getInventory();
+                transactions.forEach(transaction -> inventory.announceTransaction(transaction.getTransactionId()));
+            }
+        }
+    }
+
+    static void announce(EcBlock ecBlock) {
+        for (PeerImpl peer : Peers.allPeers) {
+            if (isAnnouncedTo(peer) && Peers.isPushedTo(peer)) {
+                JSONObject block = new JSONObject();
+                block.put("block", ecBlock.getStringECId());
+                block.put("previousBlock", Long.toUnsignedString(ecBlock.getPreviousBlockId()));
+                block.put("timestamp", ecBlock.getTimestamp());
+                peer.getInventory().announceBlock(ecBlock.getECId(), block);
+            }
+        }
+    }
+
+    /**
+     * Process an announcement received from a peer
+     *
+     * @param request Announcement
+     * @param peer    Announcing peer
+     * @return Ids of the announced items we want the peer to send
+     * @throws IllegalArgumentException if more than {@link #MAX_TRANSACTIONS} transactions are announced at once
+     */
+    static JSONObject processAnnouncement(JSONObject request, PeerImpl peer) {
+        PeerInventory inventory = peer.getInventory();
+        long now = System.currentTimeMillis();
+        JSONObject response = new JSONObject();
+        List<String> transactionIds = (List<String>) request.get("transactions");
+        if (transactionIds != null) {
+            if (transactionIds.size() > MAX_TRANSACTIONS) {
+                throw new IllegalArgumentException("Announcement of " + transactionIds.size() + " transactions exceeds the maximum of "
+                        + MAX_TRANSACTIONS);
+            }
+            JSONArray wanted = new JSONArray();
+            for (String stringId : transactionIds) {
+                long transactionId = Convert.parseUnsignedLong(stringId);
+                inventory.addSeen(transactionId);
+                if (wanted.size() < MAX_TRANSACTIONS && !hasTransaction(transactionId)
+                        && request(transactionId, now + TRANSACTION_REQUEST_TIMEOUT)) {
+                    wanted.add(stringId);
+                }
+            }
+            response.put("transactions", wanted);
+        }
+        JSONObject block = (JSONObject) request.get("block");
+        if (block != null) {
+            long blockId = Convert.parseUnsignedLong((String) block.get("block"));
+            long previousBlockId = Convert.parseUnsignedLong((String) block.get("previousBlock"));
+            inventory.addSeen(blockId);
+            EcBlock lastBlock = EcBlockchainImpl.getInstance().getLastECBlock();
+            if ((previousBlockId == lastBlock.getECId() ||
+                    (previousBlockId == lastBlock.getPreviousBlockId()
+                            && lastBlock.getTimestamp() > Convert.parseLong(block.get("timestamp"))))
+                    && !EcBlockchainImpl.getInstance().hasBlock(blockId)
+                    && request(blockId, now + BLOCK_REQUEST_TIMEOUT)) {
+                response.put("block", true);
+            }
+        }
+        return response;
+    }
+
+    private static boolean hasTransaction(long transactionId) {
+        return TransactionProcessorImpl.getInstance().getUnconfirmedTransaction(transactionId) != null
+                || EcBlockchainImpl.getInstance().hasTransaction(transactionId);
+    }
+
+    private static boolean request(long id, long expiration) {
+        long now = System.currentTimeMillis();
+        Long newExpiration = expiration;
+        // only the caller whose expiration was stored gets to request the item
+        return requested.compute(id, (key, previousExpiration) ->
+                previousExpiration != null && previousExpiration >= now ? previousExpiration : newExpiration) == newExpiration;
+    }
+
+    private static void sendAnnouncements(PeerImpl peer) {
+        PeerInventory inventory = peer.getInventory();
+        JSONObject announcement = null;
+        try {
+            while ((announcement = inventory.nextAnnouncement(MAX_TRANSACTIONS)) != null) {
+                if (!sendAnnouncement(peer, announcement)) {
+                    inventory.announcementFailed(announcement);
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            if (announcement != null) {
+                inventory.announcementFailed(announcement);
+            }
+            LoggerUtil.logError("Error announcing inventory to " + peer.getPeerHost(), e);
+        } finally {
+            inventory.endAnnouncing();
+        }
+    }
+
+    private static boolean sendAnnouncement(PeerImpl peer, JSONObject announcement) {
+        JSONStreamAware request = JSON.prepareRequest(announcement);
+        JSONObject response = peer.send(request);
+        if (response == null || response.get("error") != null) {
+            return false;
+        }
+        peer.updateAnnouncementVolume(JSON.toString(request).length() + JSON.toString(response).length());
+        List<String> transactionIds = (List<String>) response.get("transactions");
+        if (transactionIds != null && !transactionIds.isEmpty()) {
+            JSONArray transactionsData = new JSONArray();
+            for (String stringId : transactionIds) {
+                if (transactionsData.size() >= MAX_TRANSACTIONS) {
+                    break;
+                }
+                Transaction transaction = TransactionProcessorImpl.getInstance().getUnconfirmedTransaction(Convert.parseUnsignedLong(stringId));
+                if (transaction != null) {
+                    transactionsData.add(transaction.getJSONObject());
+                }
+            }
+            if (!transactionsData.isEmpty()) {
+                JSONObject transactionsRequest = new JSONObject();
+                transactionsRequest.put("requestType", "processTransactions");
+                transactionsRequest.put("transactions", transactionsData);
+                if (!sendInventory(peer, transactionsRequest)) {
+                    return false;
+                }
+            }
+        }
+        JSONObject block = (JSONObject) announcement.get("block");
+        if (block != null && Boolean.TRUE.equals(response.get("block"))) {
+            EcBlock ecBlock = EcBlockchainImpl.getInstance().getBlock(Convert.parseUnsignedLong((String) block.get("block")));
+            if (ecBlock != null) {
+                JSONObject blockRequest = ecBlock.getJSONObject();
+                blockRequest.put("requestType", "processBlock");
+                return sendInventory(peer, blockRequest);
+            }
+        }
+        return true;
+    }
+
+    private static boolean sendInventory(PeerImpl peer, JSONObject inventory) {
+        JSONStreamAware request = JSON.prepareRequest(inventory);
+        JSONObject response = peer.send(request);
+        peer.updateInventoryVolume(JSON.toString(request).length());
+        return response != null && response.get("error") == null;
+    }
+}
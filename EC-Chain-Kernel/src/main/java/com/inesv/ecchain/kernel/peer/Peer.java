@@ -5,6 +5,7 @@ import com.inesv.ecchain.kernel.http.APIEnum;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
 
+import java.nio.ByteBuffer;
 import java.util.Set;
 
 public interface Peer extends Comparable<Peer> {
@@ -61,6 +62,10 @@ public interface Peer extends Comparable<Peer> {
 
     long getUploadedVolume();
 
+    long getAnnouncementVolume();
+
+    long getInventoryVolume();
+
     int getLastUpdated();
 
     int getLastConnectAttempt();
@@ -83,4 +88,6 @@ public interface Peer extends Comparable<Peer> {
 
     JSONObject send(JSONStreamAware request, int maxResponseSize);
 
+    ByteBuffer sendBinary(JSONStreamAware request, int maxResponseSize);
+
 }
@@ -0,0 +1,33 @@
+package com.inesv.ecchain.kernel.peer;
+
+import com.inesv.ecchain.common.util.JSON;
+import org.json.simple.JSONStreamAware;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Supplier;
+
+/**
+ * Peer response that is sent as raw bytes over a WebSocket connection and
+ * as its JSON equivalent over HTTP. Only the form actually sent is built.
+ */
+final class PeerBinaryResponse implements JSONStreamAware {
+
+    private final Supplier<byte[]> bytes;
+    private final Supplier<JSONStreamAware> json;
+
+    PeerBinaryResponse(Supplier<byte[]> bytes, Supplier<JSONStreamAware> json) {
+        this.bytes = bytes;
+        this.json = json;
+    }
+
+    byte[] getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public void writeJSONString(Writer out) throws IOException {
+        JSON.writeECJSONString(json.get(), out);
+    }
+
+}
@@ -17,6 +17,8 @@ import org.json.simple.parser.ParseException;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.zip.GZIPInputStream;
@@ -25,6 +27,8 @@ final class PeerImpl implements Peer {
     private volatile PeerState state;
     private volatile long downloadedVolume;
     private volatile long uploadedVolume;
+    private volatile long announcementVolume;
+    private volatile long inventoryVolume;
     private volatile int lastUpdated;
     private volatile int lastConnectAttempt;
     private volatile int lastInboundRequest;
@@ -51,6 +55,7 @@ final class PeerImpl implements Peer {
     private volatile int hallmarkBalanceHeight;
     private volatile long services;
     private volatile PeerBlockchainState blockchainState;
+    private final PeerInventory inventory = new PeerInventory();
 
     PeerImpl(String host, String announcedAddress) {
         this.host = host;
@@ -88,6 +93,16 @@ final class PeerImpl implements Peer {
         return uploadedVolume;
     }
 
+    @Override
+    public long getAnnouncementVolume() {
+        return announcementVolume;
+    }
+
+    @Override
+    public long getInventoryVolume() {
+        return inventoryVolume;
+    }
+
     @Override
     public String getPeerVersion() {
         return version;
@@ -426,6 +441,43 @@ final class PeerImpl implements Peer {
         return response;
     }
 
+    @Override
+    public ByteBuffer sendBinary(final JSONStreamAware request, int maxResponseSize) {
+        if (!useWebSocket) {
+            return null;
+        }
+        try {
+            if (!peerWebSocket.isOpen()) {
+                useWebSocket = peerWebSocket.startClient(URI.create("ws://" + host + ":" + getPeerPort() + "/ec"));
+                if (!useWebSocket) {
+                    return null;
+                }
+            }
+            StringWriter wsWriter = new StringWriter(1000);
+            request.writeJSONString(wsWriter);
+            String wsRequest = wsWriter.toString();
+            byte[] wsResponse = peerWebSocket.doPostBinary(wsRequest);
+            updateUploadedVolume(wsRequest.length());
+            if (wsResponse == null) {
+                return null;
+            }
+            if (wsResponse.length > maxResponseSize) {
+                throw new EcIOException("Maximum size exceeded: " + wsResponse.length);
+            }
+            updateDownloadedVolume(wsResponse.length);
+            return ByteBuffer.wrap(wsResponse).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (EcIOException e) {
+            blacklist(e);
+        } catch (RuntimeException | IOException e) {
+            if (!(e instanceof SocketTimeoutException || e instanceof SocketException)) {
+                LoggerUtil.logDebug(String.format("Error sending binary request to peer %s: %s",
+                        host, e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+            deactivate();
+        }
+        return null;
+    }
+
     @Override
     public int compareTo(Peer o) {
         if (getPeerWeight() > o.getPeerWeight()) {
@@ -879,9 +931,26 @@ final class PeerImpl implements Peer {
         Peers.notifyListeners(this, PeersEvent.DOWNLOADED_VOLUME);
     }
 
+    void updateAnnouncementVolume(long volume) {
+        synchronized (this) {
+            announcementVolume += volume;
+        }
+    }
+
+    void updateInventoryVolume(long volume) {
+        synchronized (this) {
+            inventoryVolume += volume;
+        }
+    }
+
+    PeerInventory getInventory() {
+        return inventory;
+    }
+
     void setPeerState(PeerState state) {
         if (state != PeerState.CONNECTED) {
             peerWebSocket.close();
+            inventory.clear();
         }
         if (this.state == state) {
             return;
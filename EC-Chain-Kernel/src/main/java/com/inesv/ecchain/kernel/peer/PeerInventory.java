@@ -0,0 +1,128 @@
+package com.inesv.ecchain.kernel.peer;
+
+import com.inesv.ecchain.common.util.Convert;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transaction and block ids a peer is known to have, because the peer announced them, sent them
+ * or was told about them, together with the ids waiting to be announced to the peer.
+ * Ids are only remembered for a short time.
+ */
+final class PeerInventory {
+
+    private static final long SEEN_TIME = 120 * 1000;
+
+    private static final int MAX_SEEN = 5000;
+
+    private final LinkedHashMap<Long, Long> seen = new LinkedHashMap<>();
+
+    private final List<Long> pendingTransactions = new ArrayList<>();
+
+    private JSONObject pendingBlock;
+
+    private boolean announcing;
+
+    /**
+     * Remember that the peer has the item
+     *
+     * @param id Transaction or block id
+     * @return TRUE if the item was not known to the peer
+     */
+    synchronized boolean addSeen(long id) {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Long, Long>> iterator = seen.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Long> entry = iterator.next();
+            if (seen.size() < MAX_SEEN && entry.getValue() >= now - SEEN_TIME) {
+                break;
+            }
+            iterator.remove();
+        }
+        return seen.put(id, now) == null;
+    }
+
+    synchronized void announceTransaction(long transactionId) {
+        if (addSeen(transactionId)) {
+            pendingTransactions.add(transactionId);
+        }
+    }
+
+    synchronized void announceBlock(long blockId, JSONObject block) {
+        if (addSeen(blockId)) {
+            pendingBlock = block;
+        }
+    }
+
+    /**
+     * Start sending the pending announcements, unless they are already being sent
+     *
+     * @return TRUE if there are announcements to send and the caller should send them
+     */
+    synchronized boolean startAnnouncing() {
+        if (announcing || (pendingBlock == null && pendingTransactions.isEmpty())) {
+            return false;
+        }
+        announcing = true;
+        return true;
+    }
+
+    synchronized void endAnnouncing() {
+        announcing = false;
+    }
+
+    /**
+     * Return the next announcement and remove the ids it contains
+     *
+     * @param maxTransactions Maximum number of transaction ids in the announcement
+     * @return Announcement request or null if there is nothing to announce
+     */
+    synchronized JSONObject nextAnnouncement(int maxTransactions) {
+        if (pendingBlock == null && pendingTransactions.isEmpty()) {
+            return null;
+        }
+        JSONObject request = new JSONObject();
+        request.put("requestType", "announceInventory");
+        if (pendingBlock != null) {
+            request.put("block", pendingBlock);
+            pendingBlock = null;
+        }
+        if (!pendingTransactions.isEmpty()) {
+            List<Long> batch = pendingTransactions.subList(0, Math.min(maxTransactions, pendingTransactions.size()));
+            JSONArray transactionIds = new JSONArray();
+            batch.forEach(transactionId -> transactionIds.add(Long.toUnsignedString(transactionId)));
+            batch.clear();
+            request.put("transactions", transactionIds);
+        }
+        return request;
+    }
+
+    /**
+     * Forget that the peer has the items of an announcement that could not be sent, so that they can be
+     * announced again
+     *
+     * @param announcement Announcement returned by {@link #nextAnnouncement(int)}
+     */
+    synchronized void announcementFailed(JSONObject announcement) {
+        JSONObject block = (JSONObject) announcement.get("block");
+        if (block != null) {
+            seen.remove(Convert.parseUnsignedLong((String) block.get("block")));
+        }
+        List<String> transactionIds = (List<String>) announcement.get("transactions");
+        if (transactionIds != null) {
+            transactionIds.forEach(transactionId -> seen.remove(Convert.parseUnsignedLong(transactionId)));
+        }
+    }
+
+    synchronized void clear() {
+        seen.clear();
+        pendingTransactions.clear();
+        pendingBlock = null;
+    }
+}
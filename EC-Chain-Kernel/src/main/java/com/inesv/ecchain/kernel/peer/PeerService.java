@@ -5,7 +5,9 @@ public enum PeerService {
     PRUNABLE(2),                    // Stores expired prunable messages
     API(4),                         // Provides open API access over http
     API_SSL(8),                     // Provides open API access over https
-    CORS(16);                       // API CORS enabled
+    CORS(16),                       // API CORS enabled
+    BINARY_BLOCKS(32),              // Sends blocks in binary form over WebSocket
+    INVENTORY(64);                  // Announces transaction and block ids instead of pushing them
 
     private final long code;        // Service code - must be a power of 2
 
@@ -21,6 +21,7 @@ import java.net.InetSocketAddress;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class PeerServlet extends WebSocketServlet {
 
@@ -33,10 +34,15 @@ public final class PeerServlet extends WebSocketServlet {
     private static final JSONStreamAware DOWNLOADING;
     private static final JSONStreamAware LIGHT_CLIENT;
     private static final EcBlockchainProcessor EC_BLOCKCHAIN_PROCESSOR = EcBlockchainProcessorImpl.getInstance();
+    private static final Metrics.Family<LatencyHistogram> REQUEST_DURATION = Metrics.histogram("ec_peer_request_duration_seconds",
+            "Peer request processing time, excluding writing the response", "requestType");
+    private static final Metrics.Family<LongAdder> REQUEST_ERRORS = Metrics.counter("ec_peer_request_errors_total",
+            "Peer requests answered with an error", "requestType");
 
     static {
         Map<String, PeerRequestHandler> map = new HashMap<>();
         map.put("addPeers", AddEcPeers.instance);
+        map.put("announceInventory", AnnounceInventory.instance);
         map.put("getCumulativeDifficulty", GetCumulativeDifficulty.instance);
         map.put("getInfo", GetMessage.instance);
         map.put("getMilestoneBlockIds", GetLandmarkBlockIds.instance);
@@ -183,12 +189,20 @@ public final class PeerServlet extends WebSocketServlet {
         // Return the response
         //
         try {
-            StringWriter writer = new StringWriter(1000);
-            JSON.writeECJSONString(jsonResponse, writer);
-            String response = writer.toString();
-            webSocket.sendResponse(requestId, response);
-            if (peer != null) {
-                peer.updateUploadedVolume(response.length());
+            if (jsonResponse instanceof PeerBinaryResponse) {
+                byte[] response = ((PeerBinaryResponse) jsonResponse).getBytes();
+                webSocket.sendResponse(requestId, response, Constants.PEER_WEB_SOCKET_FLAG_BINARY);
+                if (peer != null) {
+                    peer.updateUploadedVolume(response.length);
+                }
+            } else {
+                StringWriter writer = new StringWriter(1000);
+                JSON.writeECJSONString(jsonResponse, writer);
+                String response = writer.toString();
+                webSocket.sendResponse(requestId, response);
+                if (peer != null) {
+                    peer.updateUploadedVolume(response.length());
+                }
             }
         } catch (RuntimeException | IOException e) {
             if (peer != null) {
@@ -258,7 +272,19 @@ public final class PeerServlet extends WebSocketServlet {
                     return LIGHT_CLIENT;
                 }
             }
-            return peerRequestHandler.disposeRequest(request, peer);
+            String requestType = (String) request.get("requestType");
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                JSONStreamAware response = peerRequestHandler.disposeRequest(request, peer);
+                failed = response instanceof JSONObject && ((JSONObject) response).get("error") != null;
+                return response;
+            } finally {
+                REQUEST_DURATION.labels(requestType).recordSince(start);
+                if (failed) {
+                    REQUEST_ERRORS.labels(requestType).increment();
+                }
+            }
         } catch (RuntimeException | ParseException | IOException e) {
             LoggerUtil.logDebug("Error processing POST request: " + e.toString());
             peer.blacklist(e);
@@ -135,6 +135,26 @@ public class PeerWebSocket {
     }
 
     public String doPost(String request) throws IOException {
+        PostRequest postRequest = post(request);
+        if (postRequest.isBinary()) {
+            throw new ProtocolException("Unexpected binary response");
+        }
+        return new String(postRequest.getResponse(), "UTF-8");
+    }
+
+    /**
+     * Send a request which may be answered in binary form
+     *
+     * @param request Request message
+     * @return Binary response or null if the peer answered with a JSON message
+     * @throws IOException I/O error occurred
+     */
+    public byte[] doPostBinary(String request) throws IOException {
+        PostRequest postRequest = post(request);
+        return postRequest.isBinary() ? postRequest.getResponse() : null;
+    }
+
+    private PostRequest post(String request) throws IOException {
         long requestId;
         //
         // Send the POST request
@@ -175,24 +195,25 @@ public class PeerWebSocket {
         //
         // Get the response
         //
-        String response;
         try {
             PostRequest postRequest = new PostRequest();
             requestMap.put(requestId, postRequest);
-            response = postRequest.get(Peers.ecreadTimeout, TimeUnit.MILLISECONDS);
+            postRequest.await(Peers.ecreadTimeout, TimeUnit.MILLISECONDS);
+            return postRequest;
         } catch (InterruptedException exc) {
             throw new SocketTimeoutException("WebSocket POST interrupted");
         }
-        return response;
     }
 
     public void sendResponse(long requestId, String response) throws IOException {
+        sendResponse(requestId, response.getBytes("UTF-8"), 0);
+    }
+
+    public void sendResponse(long requestId, byte[] responseBytes, int flags) throws IOException {
         lock.lock();
         try {
             if (session != null && session.isOpen()) {
-                byte[] responseBytes = response.getBytes("UTF-8");
                 int responseLength = responseBytes.length;
-                int flags = 0;
                 if (Peers.isecGzipEnabled && responseLength >= Constants.EC_MIN_COMPRESS_SIZE) {
                     flags |= Constants.PEER_WEB_SOCKET_FLAG_COMPRESSED;
                     ByteArrayOutputStream outStream = new ByteArrayOutputStream(responseLength);
@@ -243,7 +264,12 @@ public class PeerWebSocket {
         /**
          * Response message
          */
-        private volatile String response;
+        private volatile byte[] response;
+
+        /**
+         * Response is in binary form
+         */
+        private volatile boolean binary;
 
         /**
          * Socket exception
@@ -263,29 +289,47 @@ public class PeerWebSocket {
          *
          * @param timeout Wait timeout
          * @param unit    EcTime unit
-         * @return Response message
          * @throws InterruptedException Wait interrupted
          * @throws IOException          I/O error occurred
          */
-        public String get(long timeout, TimeUnit unit) throws InterruptedException, IOException {
+        public void await(long timeout, TimeUnit unit) throws InterruptedException, IOException {
             if (!latch.await(timeout, unit)) {
                 throw new SocketTimeoutException("WebSocket read timeout exceeded");
             }
             if (exception != null) {
                 throw exception;
             }
+        }
+
+        /**
+         * Return the response message
+         *
+         * @return Response message
+         */
+        public byte[] getResponse() {
             return response;
         }
 
+        /**
+         * Check if the response is in binary form
+         *
+         * @return TRUE if the response is binary
+         */
+        public boolean isBinary() {
+            return binary;
+        }
+
         /**
          * Complete the request with a response message
          * <p>
          * The caller must hold the lock for the request condition
          *
          * @param response Response message
+         * @param binary   TRUE if the response is in binary form
          */
-        public void complete(String response) {
+        public void complete(byte[] response, boolean binary) {
             this.response = response;
+            this.binary = binary;
             latch.countDown();
         }
 
@@ -337,13 +381,13 @@ public class PeerWebSocket {
                     }
                 }
             }
-            String message = new String(msgBytes, "UTF-8");
             if (peerServlet != null) {
+                String message = new String(msgBytes, "UTF-8");
                 threadPool.execute(() -> peerServlet.doPost(this, requestId, message));
             } else {
                 PostRequest postRequest = requestMap.remove(requestId);
                 if (postRequest != null) {
-                    postRequest.complete(message);
+                    postRequest.complete(msgBytes, (flags & Constants.PEER_WEB_SOCKET_FLAG_BINARY) != 0);
                 }
             }
         } catch (Exception exc) {
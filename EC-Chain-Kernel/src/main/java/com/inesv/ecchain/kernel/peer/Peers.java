@@ -34,6 +34,8 @@ public final class Peers {
     static boolean ecuseWebSockets;
     static int webecSocketIdleTimeout;
     static boolean isecGzipEnabled;
+    static final boolean enableBinaryBlocks = PropertiesUtil.getKeyForBoolean("ec.enableBinaryBlocks");
+    static final boolean enableInventoryGossip = PropertiesUtil.getKeyForBoolean("ec.enableInventoryGossip");
     static boolean ignoreecPeerAnnouncedAddress;
     static boolean cjdnsecOnly;
     static final ExecutorService peersService = new QueuedThreadPool(2, 15);
@@ -554,12 +556,18 @@ public final class Peers {
     }
 
     public static void sendToSomePeers(EcBlock ecBlock) {
+        if (enableInventoryGossip) {
+            Inventory.announce(ecBlock);
+        }
         JSONObject request = ecBlock.getJSONObject();
         request.put("requestType", "processBlock");
         sendToSomePeers(request);
     }
 
     public static void sendToSomePeers(List<? extends Transaction> transactions) {
+        if (enableInventoryGossip) {
+            Inventory.announce(transactions);
+        }
         int nextBatchStart = 0;
         while (nextBatchStart < transactions.size()) {
             JSONObject request = new JSONObject();
@@ -582,12 +590,11 @@ public final class Peers {
             List<Future<JSONObject>> expectedResponses = new ArrayList<>();
             for (final Peer peer : peers.values()) {
 
-                if (Peers.enableHallmarkProtection && peer.getPeerWeight() < Peers.pushThreshold) {
+                if (enableInventoryGossip && Inventory.isAnnouncedTo(peer)) {
                     continue;
                 }
 
-                if (!peer.isBlacklisted() && peer.getState() == PeerState.CONNECTED && peer.getAnnouncedAddress() != null
-                        && peer.getBlockchainState() != PeerBlockchainState.LIGHT_CLIENT) {
+                if (isPushedTo(peer)) {
                     Future<JSONObject> futureResponse = peersService.submit(() -> peer.send(jsonRequest));
                     expectedResponses.add(futureResponse);
                 }
@@ -614,6 +621,12 @@ public final class Peers {
         });
     }
 
+    static boolean isPushedTo(Peer peer) {
+        return (!Peers.enableHallmarkProtection || peer.getPeerWeight() >= Peers.pushThreshold)
+                && !peer.isBlacklisted() && peer.getState() == PeerState.CONNECTED && peer.getAnnouncedAddress() != null
+                && peer.getBlockchainState() != PeerBlockchainState.LIGHT_CLIENT;
+    }
+
     public static Peer getAnyPeer(final PeerState state, final boolean applyPullThreshold) {
         return getWeightedPeer(getPublicPeers(state, applyPullThreshold));
     }
@@ -888,6 +901,10 @@ public final class Peers {
             if (Peers.getecMorePeers) {
                 ThreadPool.scheduleThread("GetMorePeers", Peers.getMorePeersThread, 20);
             }
+            if (Peers.enableInventoryGossip) {
+                ThreadPool.scheduleThread("InventoryAnnouncing", Inventory.announcingThread,
+                        Math.max(PropertiesUtil.getKeyForInt("ec.inventoryAnnounceInterval", 0), 10), TimeUnit.MILLISECONDS);
+            }
         }
 
         String version = Constants.EC_VERSION;
@@ -1011,6 +1028,12 @@ public final class Peers {
         if (!Constants.EC_ENABLE_PRUNING && Constants.INCLUDE_EXPIRED_PRUNABLE) {
             servicesList.add(PeerService.PRUNABLE);
         }
+        if (Peers.enableBinaryBlocks) {
+            servicesList.add(PeerService.BINARY_BLOCKS);
+        }
+        if (Peers.enableInventoryGossip) {
+            servicesList.add(PeerService.INVENTORY);
+        }
         if (API.openecapiport > 0) {
             json.put("apiPort", API.openecapiport);
             servicesList.add(PeerService.API);
@@ -0,0 +1,70 @@
+package com.inesv.ecchain.kernel.H2;
+
+import junit.framework.TestCase;
+
+import java.sql.SQLException;
+
+public class DerivedH2TableTest extends TestCase {
+
+    private TransactionalH2 db;
+    private TrimCountingTable table;
+
+    @Override
+    protected void setUp() throws SQLException {
+        db = H2TestSupport.initNodeDatabase();
+        table = new TrimCountingTable();
+    }
+
+    public void testTableWideTrimRunsOncePerHeight() {
+        trim(100, true);
+        trim(100, true);
+        assertEquals(1, table.newTrimHeights);
+        trim(200, true);
+        assertEquals(2, table.newTrimHeights);
+    }
+
+    public void testRolledBackTrimRunsAgain() {
+        trim(100, false);
+        assertEquals(1, table.newTrimHeights);
+        trim(100, true);
+        assertEquals(2, table.newTrimHeights);
+        trim(100, true);
+        assertEquals(2, table.newTrimHeights);
+    }
+
+    private void trim(int height, boolean commit) {
+        db.beginTransaction();
+        try {
+            table.trim(height);
+            if (commit) {
+                db.commitTransaction();
+            } else {
+                db.rollbackTransaction();
+            }
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static final class TrimCountingTable extends DerivedH2Table {
+
+        private int newTrimHeights;
+
+        private TrimCountingTable() {
+            super("trim_counting");
+        }
+
+        @Override
+        public void trim(int height) {
+            if (isNewTrimHeight(height)) {
+                newTrimHeights += 1;
+            }
+        }
+
+        @Override
+        public boolean isInSnapshot() {
+            return false;
+        }
+    }
+
+}
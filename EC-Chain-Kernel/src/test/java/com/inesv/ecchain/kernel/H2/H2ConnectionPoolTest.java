@@ -0,0 +1,166 @@
+package com.inesv.ecchain.kernel.H2;
+
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class H2ConnectionPoolTest extends TestCase {
+
+    private static final String SELECT_ROWS = "SELECT X FROM SYSTEM_RANGE(1, 3)";
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private H2ConnectionPool pool;
+
+    @Override
+    protected void setUp() {
+        pool = new H2ConnectionPool("jdbc:h2:mem:ec_test_pool_" + databases.incrementAndGet() + ";DB_CLOSE_DELAY=-1",
+                "sa", "sa", 2, 1, 2);
+    }
+
+    @Override
+    protected void tearDown() {
+        pool.dispose();
+    }
+
+    public void testConnectionsAreLentAndGivenBack() throws SQLException {
+        Connection con1 = pool.getConnection();
+        Connection con2 = pool.getConnection();
+        assertEquals(2, pool.getActiveConnections());
+        assertEquals(0, pool.getIdleConnections());
+        try {
+            pool.getConnection();
+            fail("Lent more connections than the maximum");
+        } catch (SQLException expected) {
+        }
+        Connection physical = con1.unwrap(Connection.class);
+        con1.close();
+        assertTrue(con1.isClosed());
+        assertEquals(1, pool.getActiveConnections());
+        assertEquals(1, pool.getIdleConnections());
+        try (Connection con3 = pool.getConnection()) {
+            assertSame(physical, con3.unwrap(Connection.class));
+            assertEquals(0, pool.getIdleConnections());
+        }
+        con2.close();
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(2, pool.getIdleConnections());
+    }
+
+    public void testMostRecentlyGivenBackConnectionIsReused() throws SQLException {
+        Connection con1 = pool.getConnection();
+        Connection con2 = pool.getConnection();
+        Connection physical = con2.unwrap(Connection.class);
+        con1.close();
+        con2.close();
+        try (Connection con = pool.getConnection()) {
+            assertSame(physical, con.unwrap(Connection.class));
+        }
+    }
+
+    public void testGivenBackConnectionIsRolledBack() throws SQLException {
+        try (Connection con = pool.getConnection();
+             Statement stmt = con.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS item (id BIGINT NOT NULL)");
+            con.setAutoCommit(false);
+            stmt.executeUpdate("INSERT INTO item (id) VALUES (1)");
+        }
+        try (Connection con = pool.getConnection();
+             Statement stmt = con.createStatement()) {
+            assertTrue(con.getAutoCommit());
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM item")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    public void testStatementIsLentToOneCallerAtATime() throws SQLException {
+        try (Connection con = pool.getConnection()) {
+            PreparedStatement pstmt = con.prepareStatement(SELECT_ROWS);
+            PreparedStatement cached = pstmt.unwrap(PreparedStatement.class);
+            PreparedStatement other = con.prepareStatement(SELECT_ROWS);
+            PreparedStatement uncached = other.unwrap(PreparedStatement.class);
+            assertNotSame(cached, uncached);
+            other.close();
+            assertTrue(uncached.isClosed());
+            pstmt.close();
+            assertTrue(pstmt.isClosed());
+            assertFalse(cached.isClosed());
+            try (PreparedStatement again = con.prepareStatement(SELECT_ROWS)) {
+                assertSame(cached, again.unwrap(PreparedStatement.class));
+            }
+        }
+    }
+
+    public void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+        try (Connection con = pool.getConnection()) {
+            PreparedStatement first = prepareAndGiveBack(con, "SELECT 1");
+            PreparedStatement second = prepareAndGiveBack(con, "SELECT 2");
+            assertSame(first, prepareAndGiveBack(con, "SELECT 1"));
+            prepareAndGiveBack(con, "SELECT 3");
+            assertTrue(second.isClosed());
+            assertFalse(first.isClosed());
+            assertSame(first, prepareAndGiveBack(con, "SELECT 1"));
+            assertNotSame(second, prepareAndGiveBack(con, "SELECT 2"));
+        }
+    }
+
+    public void testStatementSettingsAreReset() throws SQLException {
+        try (Connection con = pool.getConnection()) {
+            int fetchSize;
+            try (PreparedStatement pstmt = con.prepareStatement(SELECT_ROWS)) {
+                fetchSize = pstmt.getFetchSize();
+                pstmt.setMaxRows(1);
+                pstmt.setFetchSize(1);
+                pstmt.setQueryTimeout(5);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertEquals(1, countRows(rs));
+                }
+            }
+            try (PreparedStatement pstmt = con.prepareStatement(SELECT_ROWS)) {
+                assertEquals(0, pstmt.getMaxRows());
+                assertEquals(fetchSize, pstmt.getFetchSize());
+                assertEquals(0, pstmt.getQueryTimeout());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertEquals(3, countRows(rs));
+                }
+            }
+        }
+    }
+
+    public void testDisposedPoolLendsNoConnection() throws SQLException {
+        Connection con = pool.getConnection();
+        Connection physical = con.unwrap(Connection.class);
+        pool.dispose();
+        assertFalse(physical.isClosed());
+        con.close();
+        assertTrue(physical.isClosed());
+        assertEquals(0, pool.getIdleConnections());
+        try {
+            pool.getConnection();
+            fail("Disposed pool lent a connection");
+        } catch (SQLException expected) {
+        }
+    }
+
+    private static PreparedStatement prepareAndGiveBack(Connection con, String sql) throws SQLException {
+        try (PreparedStatement pstmt = con.prepareStatement(sql)) {
+            return pstmt.unwrap(PreparedStatement.class);
+        }
+    }
+
+    private static int countRows(ResultSet rs) throws SQLException {
+        int count = 0;
+        while (rs.next()) {
+            count += 1;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.inesv.ecchain.kernel.H2;
+
+import junit.framework.TestCase;
+
+public class H2EntityCacheTest extends TestCase {
+
+    private static final H2Key KEY_1 = H2TestSupport.ITEM_KEY_FACTORY.newKey(1);
+    private static final H2Key KEY_2 = H2TestSupport.ITEM_KEY_FACTORY.newKey(2);
+
+    private H2EntityCache<String> cache;
+
+    @Override
+    protected void setUp() {
+        cache = new H2EntityCache<>(100);
+    }
+
+    public void testRollbackDropsNewerEntries() {
+        cache.put(KEY_1, "one", 5, cache.getGeneration());
+        cache.put(KEY_2, "two", 10, cache.getGeneration());
+        cache.rollback(7);
+        assertEquals("one", cache.get(KEY_1));
+        assertNull(cache.get(KEY_2));
+    }
+
+    public void testRolledBackRowLoadedBeforeCommitIsDropped() {
+        cache.put(KEY_2, "two", 10, cache.getGeneration());
+        cache.rollback(7);
+        // another reader still sees the committed row until the rollback transaction commits
+        cache.put(KEY_2, "two", 10, cache.getGeneration());
+        assertEquals("two", cache.get(KEY_2));
+        cache.commit();
+        assertNull(cache.get(KEY_2));
+        // the rollback height is only applied once
+        cache.put(KEY_2, "two again", 10, cache.getGeneration());
+        cache.commit();
+        assertEquals("two again", cache.get(KEY_2));
+    }
+
+    public void testRolledBackRowLoadedBeforeRollbackIsNotCached() {
+        long generation = cache.getGeneration();
+        cache.rollback(7);
+        cache.put(KEY_2, "two", 10, generation);
+        assertNull(cache.get(KEY_2));
+    }
+
+    public void testInvalidatedKeyIsDroppedOnCommit() {
+        cache.put(KEY_1, "one", 5, cache.getGeneration());
+        long generation = cache.getGeneration();
+        cache.invalidate(KEY_1);
+        assertNull(cache.get(KEY_1));
+        cache.put(KEY_1, "stale", 5, generation);
+        assertNull(cache.get(KEY_1));
+        cache.put(KEY_1, "uncommitted", 5, cache.getGeneration());
+        cache.rollback();
+        assertNull(cache.get(KEY_1));
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.inesv.ecchain.kernel.H2;
+
+import com.inesv.ecchain.common.util.PropertiesUtil;
+import com.inesv.ecchain.kernel.core.H2;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory databases for the tests of the database layer
+ */
+public final class H2TestSupport {
+
+    public static final String TABLE_TRIM = "CREATE TABLE IF NOT EXISTS table_trim (table_name VARCHAR NOT NULL PRIMARY KEY, "
+            + "trimmed_height INT NOT NULL)";
+
+    public static final String ITEM = "CREATE TABLE IF NOT EXISTS item (db_id IDENTITY, id BIGINT NOT NULL, "
+            + "amount BIGINT NOT NULL, height INT NOT NULL, latest BOOLEAN NOT NULL DEFAULT TRUE)";
+
+    public static final H2KeyLongKeyFactory<Object> ITEM_KEY_FACTORY = new H2KeyLongKeyFactory<Object>("id") {
+        @Override
+        public H2Key newKey(Object item) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private static boolean nodeDatabaseInitialized;
+
+    static {
+        // the node database is only used by the tests of the entity tables, which always go through the shared H2 instance
+        PropertiesUtil.getProperties().setProperty("ec.dbUrl", "jdbc:h2:mem:ec_test_node;DB_CLOSE_DELAY=-1");
+    }
+
+    private H2TestSupport() {
+    }
+
+    /**
+     * Create an empty in-memory database
+     *
+     * @param sql Statements creating the tables
+     * @return Initialized database
+     */
+    public static TransactionalH2 createDatabase(String... sql) {
+        TransactionalH2 db = new TransactionalH2(new BasicH2.h2Properties()
+                .dbUrl("jdbc:h2:mem:ec_test_" + databases.incrementAndGet() + ";DB_CLOSE_DELAY=-1")
+                .dbUsername("sa")
+                .dbPassword("sa")
+                .maxConnections(10)
+                .loginTimeout(10)
+                .statementCacheSize(20)
+                .maxMemoryRows(100000));
+        db.init(new H2Version() {
+            @Override
+            protected void update(int nextUpdate) {
+                for (int i = nextUpdate - 1; i < sql.length; i++) {
+                    apply(sql[i]);
+                }
+            }
+        });
+        return db;
+    }
+
+    /**
+     * Initialize the node database on first use, and create the tables missing from it
+     *
+     * @param sql Statements creating the tables if they do not exist
+     * @return Node database
+     */
+    public static synchronized TransactionalH2 initNodeDatabase(String... sql) throws SQLException {
+        if (!nodeDatabaseInitialized) {
+            H2.H2.init(new H2Version() {
+                @Override
+                protected void update(int nextUpdate) {
+                }
+            });
+            nodeDatabaseInitialized = true;
+        }
+        try (Connection con = H2.H2.getConnection();
+             Statement stmt = con.createStatement()) {
+            for (String statement : sql) {
+                stmt.executeUpdate(statement);
+            }
+        }
+        return H2.H2;
+    }
+
+    /**
+     * Insert a new version of an item, marking the previous one as not latest
+     */
+    public static void insertItem(TransactionalH2 db, long id, long amount, int height) throws SQLException {
+        try (Connection con = db.getConnection();
+             PreparedStatement pstmtUpdate = con.prepareStatement("UPDATE item SET latest = FALSE WHERE id = ? AND latest = TRUE");
+             PreparedStatement pstmtInsert = con.prepareStatement("INSERT INTO item (id, amount, height, latest) VALUES (?, ?, ?, TRUE)")) {
+            pstmtUpdate.setLong(1, id);
+            pstmtUpdate.executeUpdate();
+            pstmtInsert.setLong(1, id);
+            pstmtInsert.setLong(2, amount);
+            pstmtInsert.setInt(3, height);
+            pstmtInsert.executeUpdate();
+        }
+    }
+
+    public static int queryInt(TransactionalH2 db, String sql, int defaultValue) throws SQLException {
+        try (Connection con = db.getConnection();
+             Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : defaultValue;
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.inesv.ecchain.kernel.H2;
+
+import com.inesv.ecchain.common.core.Constants;
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class VersionedEntityH2TableTest extends TestCase {
+
+    private static final int SLICE = Constants.TRIM_SLICE_BLOCKS;
+
+    private TransactionalH2 db;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = H2TestSupport.createDatabase(H2TestSupport.TABLE_TRIM, H2TestSupport.ITEM);
+        try (Connection con = db.getConnection()) {
+            VersionedEntityH2Table.resetTrimmedHeights(con);
+        }
+        db.beginTransaction();
+        // item 1 is updated in each of the first three slices, item 2 only in the first one
+        H2TestSupport.insertItem(db, 1, 10, 0);
+        H2TestSupport.insertItem(db, 2, 20, 1);
+        H2TestSupport.insertItem(db, 1, 11, SLICE);
+        H2TestSupport.insertItem(db, 1, 12, 2 * SLICE);
+        db.commitTransaction();
+        db.endTransaction();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        db.shutdown();
+    }
+
+    public void testTrimIsSliced() throws SQLException {
+        int trimHeight = 3 * SLICE;
+        trim(trimHeight);
+        assertTrue(VersionedEntityH2Table.isTrimPending("item"));
+        assertEquals(SLICE, getTrimmedHeight());
+        // all the versions of item 1 older than the last one below the trim height are gone
+        assertEquals(1, countVersions(1));
+        assertEquals(1, countVersions(2));
+        int calls = 1;
+        while (VersionedEntityH2Table.isTrimPending("item")) {
+            trim(trimHeight);
+            calls += 1;
+        }
+        assertEquals(3, calls);
+        assertEquals(trimHeight, getTrimmedHeight());
+        assertEquals(1, countVersions(1));
+    }
+
+    public void testTrimResumesFromSavedHeight() throws SQLException {
+        trim(3 * SLICE);
+        assertEquals(SLICE, getTrimmedHeight());
+        // a rolled back trim drops the trim progress kept in memory, which is then read again like after a restart
+        rollBackTrim(3 * SLICE);
+        db.beginTransaction();
+        H2TestSupport.insertItem(db, 2, 21, 2 * SLICE + 1);
+        db.commitTransaction();
+        db.endTransaction();
+        trim(3 * SLICE);
+        assertEquals(2 * SLICE, getTrimmedHeight());
+        // item 2 was only changed in the first slice, which is not trimmed again
+        assertEquals(2, countVersions(2));
+    }
+
+    public void testRolledBackTrimIsNotSaved() throws SQLException {
+        rollBackTrim(3 * SLICE);
+        assertEquals(0, getTrimmedHeight());
+        assertEquals(3, countVersions(1));
+        trim(3 * SLICE);
+        assertEquals(SLICE, getTrimmedHeight());
+        assertEquals(1, countVersions(1));
+    }
+
+    public void testRollbackLowersTrimmedHeight() throws SQLException {
+        trim(3 * SLICE);
+        trim(3 * SLICE);
+        assertEquals(2 * SLICE, getTrimmedHeight());
+        db.beginTransaction();
+        VersionedEntityH2Table.rollback(db, "item", SLICE, H2TestSupport.ITEM_KEY_FACTORY);
+        db.commitTransaction();
+        db.endTransaction();
+        assertEquals(SLICE + 1, getTrimmedHeight());
+        assertEquals(0, countVersions(1));
+        assertEquals(1, H2TestSupport.queryInt(db, "SELECT COUNT(*) FROM item WHERE id = 2 AND latest = TRUE", 0));
+    }
+
+    public void testRollbackRestoresLatestVersions() throws SQLException {
+        db.beginTransaction();
+        // item 3 was deleted below the rollback height and stays deleted, item 2 is deleted above it
+        H2TestSupport.insertItem(db, 3, 30, 5);
+        execute("UPDATE item SET latest = FALSE WHERE id = 3");
+        H2TestSupport.insertItem(db, 2, 21, 2 * SLICE + 1);
+        execute("UPDATE item SET latest = FALSE WHERE id = 2");
+        VersionedEntityH2Table.rollback(db, "item", SLICE, H2TestSupport.ITEM_KEY_FACTORY);
+        db.commitTransaction();
+        db.endTransaction();
+        assertEquals(11, H2TestSupport.queryInt(db, "SELECT amount FROM item WHERE id = 1 AND latest = TRUE", 0));
+        assertEquals(20, H2TestSupport.queryInt(db, "SELECT amount FROM item WHERE id = 2 AND latest = TRUE", 0));
+        assertEquals(2, H2TestSupport.queryInt(db, "SELECT COUNT(*) FROM item WHERE latest = TRUE", 0));
+        assertEquals(4, H2TestSupport.queryInt(db, "SELECT COUNT(*) FROM item", 0));
+    }
+
+    public void testTruncateForgetsTrimProgress() throws SQLException {
+        trim(3 * SLICE);
+        db.beginTransaction();
+        VersionedEntityH2Table.truncate(db, "item");
+        db.commitTransaction();
+        db.endTransaction();
+        assertFalse(VersionedEntityH2Table.isTrimPending("item"));
+        assertEquals(0, getTrimmedHeight());
+    }
+
+    private void trim(int height) {
+        db.beginTransaction();
+        try {
+            VersionedEntityH2Table.trim(db, "item", height, H2TestSupport.ITEM_KEY_FACTORY);
+            db.commitTransaction();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void rollBackTrim(int height) {
+        db.beginTransaction();
+        try {
+            VersionedEntityH2Table.trim(db, "item", height, H2TestSupport.ITEM_KEY_FACTORY);
+        } finally {
+            db.rollbackTransaction();
+            db.endTransaction();
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection con = db.getConnection();
+             Statement stmt = con.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private int getTrimmedHeight() throws SQLException {
+        return H2TestSupport.queryInt(db, "SELECT trimmed_height FROM table_trim WHERE table_name = 'item'", 0);
+    }
+
+    private int countVersions(long id) throws SQLException {
+        return H2TestSupport.queryInt(db, "SELECT COUNT(*) FROM item WHERE id = " + id, 0);
+    }
+
+}
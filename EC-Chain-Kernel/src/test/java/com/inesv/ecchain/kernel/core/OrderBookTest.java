@@ -0,0 +1,133 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.kernel.H2.H2TestSupport;
+import com.inesv.ecchain.kernel.H2.TransactionalH2;
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+
+/**
+ * The ask order book must match the orders in price-time priority, only change when a filled order is put back,
+ * and reload the orders from the table when the transaction changing it is rolled back
+ */
+public class OrderBookTest extends TestCase {
+
+    private static final String ASK_ORDER = "CREATE TABLE IF NOT EXISTS ask_order (db_id IDENTITY, Id BIGINT NOT NULL, "
+            + "account_id BIGINT NOT NULL, asset_id BIGINT NOT NULL, price BIGINT NOT NULL, transaction_index SMALLINT NOT NULL, "
+            + "transaction_height INT NOT NULL, quantity BIGINT NOT NULL, creation_height INT NOT NULL, height INT NOT NULL, "
+            + "latest BOOLEAN NOT NULL DEFAULT TRUE)";
+
+    private static final long ASSET_ID = 7;
+
+    private TransactionalH2 db;
+    private OrderBook<Order.Ask> book;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = H2TestSupport.initNodeDatabase(ASK_ORDER);
+        execute("TRUNCATE TABLE ask_order");
+        insertOrder(1, 100, 10, 1);
+        insertOrder(2, 90, 5, 2);
+        insertOrder(3, 90, 5, 1);
+        book = new OrderBook<>("ask", Comparator.<Order.Ask>comparingLong(Order::getPriceNQT)
+                .thenComparingInt(Order::getHeight)
+                .thenComparingInt(Order::getTransactionHeight)
+                .thenComparingInt(Order::getTransactionIndex), () -> Order.Ask.getAll(0, -1));
+    }
+
+    public void testOrdersAreMatchedInPriceTimePriority() {
+        assertEquals(3, book.getFirst(ASSET_ID).getId());
+        db.beginTransaction();
+        try {
+            book.remove(book.getOrder(3));
+            assertEquals(2, book.getFirst(ASSET_ID).getId());
+            book.remove(book.getOrder(2));
+            assertEquals(1, book.getFirst(ASSET_ID).getId());
+            book.remove(book.getOrder(1));
+            assertNull(book.getFirst(ASSET_ID));
+            db.commitTransaction();
+        } finally {
+            db.endTransaction();
+        }
+        assertNull(book.getFirst(ASSET_ID));
+    }
+
+    public void testPartialFillOnlyChangesTheBookWhenPutBack() throws SQLException {
+        Order.Ask order = book.getOrder(3);
+        assertNotSame(order, book.getOrder(3));
+        db.beginTransaction();
+        try {
+            updateQuantity(3, 2, 10);
+            assertEquals(5, book.getFirst(ASSET_ID).getQuantityQNT());
+            Order.Ask filled = Order.Ask.getAskOrder(3);
+            book.put(filled);
+            assertNotSame(filled, book.getOrder(3));
+            assertEquals(2, book.getFirst(ASSET_ID).getQuantityQNT());
+            db.commitTransaction();
+        } finally {
+            db.endTransaction();
+        }
+        assertEquals(3, book.getFirst(ASSET_ID).getId());
+        assertEquals(2, book.getOrder(3).getQuantityQNT());
+    }
+
+    public void testRollbackReloadsTheBook() throws SQLException {
+        db.beginTransaction();
+        try {
+            updateQuantity(3, 2, 10);
+            book.put(Order.Ask.getAskOrder(3));
+            book.remove(book.getOrder(2));
+            assertEquals(2, book.getFirst(ASSET_ID).getQuantityQNT());
+            db.rollbackTransaction();
+        } finally {
+            db.endTransaction();
+        }
+        assertEquals(3, book.getFirst(ASSET_ID).getId());
+        assertEquals(5, book.getOrder(3).getQuantityQNT());
+        assertNotNull(book.getOrder(2));
+    }
+
+    private void insertOrder(long id, long price, long quantity, int height) throws SQLException {
+        try (Connection con = db.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("INSERT INTO ask_order (Id, account_id, asset_id, price, "
+                     + "transaction_index, transaction_height, quantity, creation_height, height) VALUES (?, 1, ?, ?, 0, ?, ?, ?, ?)")) {
+            pstmt.setLong(1, id);
+            pstmt.setLong(2, ASSET_ID);
+            pstmt.setLong(3, price);
+            pstmt.setInt(4, height);
+            pstmt.setLong(5, quantity);
+            pstmt.setInt(6, height);
+            pstmt.setInt(7, height);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void updateQuantity(long id, long quantity, int height) throws SQLException {
+        try (Connection con = db.getConnection();
+             PreparedStatement pstmtUpdate = con.prepareStatement("UPDATE ask_order SET latest = FALSE WHERE Id = ? AND latest = TRUE");
+             PreparedStatement pstmtInsert = con.prepareStatement("INSERT INTO ask_order (Id, account_id, asset_id, price, "
+                     + "transaction_index, transaction_height, quantity, creation_height, height) "
+                     + "SELECT Id, account_id, asset_id, price, transaction_index, transaction_height, ?, creation_height, ? "
+                     + "FROM ask_order WHERE Id = ? AND height < ? ORDER BY height DESC LIMIT 1")) {
+            pstmtUpdate.setLong(1, id);
+            pstmtUpdate.executeUpdate();
+            pstmtInsert.setLong(1, quantity);
+            pstmtInsert.setInt(2, height);
+            pstmtInsert.setLong(3, id);
+            pstmtInsert.setInt(4, height);
+            pstmtInsert.executeUpdate();
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection con = db.getConnection();
+             Statement stmt = con.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.kernel.H2.DerivedH2Table;
+import com.inesv.ecchain.kernel.H2.H2TestSupport;
+import com.inesv.ecchain.kernel.H2.TransactionalH2;
+import com.inesv.ecchain.kernel.H2.VersionedEntityH2Table;
+import junit.framework.TestCase;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+/**
+ * The running vote count of a phased transaction must stay equal to the number of its votes across rollback and trim
+ */
+public class PhasingVoteTest extends TestCase {
+
+    private static final String PHASING_POLL = "CREATE TABLE IF NOT EXISTS phasing_poll (db_id IDENTITY, Id BIGINT NOT NULL, "
+            + "account_id BIGINT NOT NULL, whitelist_size TINYINT NOT NULL DEFAULT 0, finish_height INT NOT NULL, "
+            + "voting_model TINYINT NOT NULL, quorum BIGINT, min_balance BIGINT, holding_id BIGINT, min_balance_model TINYINT, "
+            + "hashed_secret VARBINARY, algorithm TINYINT, height INT NOT NULL)";
+
+    private static final String PHASING_VOTE = "CREATE TABLE IF NOT EXISTS phasing_vote (db_id IDENTITY, vote_id BIGINT NOT NULL, "
+            + "transaction_id BIGINT NOT NULL, voter_id BIGINT NOT NULL, height INT NOT NULL)";
+
+    private static final String PHASING_POLL_VOTER = "CREATE TABLE IF NOT EXISTS phasing_poll_voter (db_id IDENTITY, "
+            + "transaction_id BIGINT NOT NULL, voter_id BIGINT NOT NULL, height INT NOT NULL)";
+
+    private static final String PHASING_POLL_LINKED_TRANSACTION = "CREATE TABLE IF NOT EXISTS phasing_poll_linked_transaction "
+            + "(db_id IDENTITY, transaction_id BIGINT NOT NULL, linked_full_hash BINARY(32) NOT NULL, "
+            + "linked_transaction_id BIGINT NOT NULL, height INT NOT NULL)";
+
+    private static final String PHASING_VOTE_COUNT = "CREATE TABLE IF NOT EXISTS phasing_vote_count (db_id IDENTITY, "
+            + "transaction_id BIGINT NOT NULL, vote_count INT NOT NULL, height INT NOT NULL, latest BOOLEAN NOT NULL DEFAULT TRUE)";
+
+    private static final String[] TABLES = {"phasing_poll", "phasing_vote", "phasing_poll_voter", "phasing_poll_linked_transaction",
+            "phasing_vote_count"};
+
+    private static final long POLL = 1;
+    private static final long OTHER_POLL = 2;
+
+    private TransactionalH2 db;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = H2TestSupport.initNodeDatabase(H2TestSupport.TABLE_TRIM, PHASING_POLL, PHASING_VOTE, PHASING_POLL_VOTER,
+                PHASING_POLL_LINKED_TRANSACTION, PHASING_VOTE_COUNT);
+        PhasingPoll.start();
+        try (Connection con = db.getConnection();
+             Statement stmt = con.createStatement()) {
+            for (String table : TABLES) {
+                stmt.executeUpdate("TRUNCATE TABLE " + table);
+            }
+            VersionedEntityH2Table.resetTrimmedHeights(con);
+        }
+    }
+
+    @Override
+    protected void tearDown() {
+        EcBlockchainImpl.getInstance().setLastBlock(null);
+    }
+
+    public void testFirstVoteCountsTheVotesCastBefore() throws SQLException {
+        // votes cast before the running count was kept
+        insertVote(1, 5);
+        insertVote(2, 6);
+        assertEquals(2, PhasingVote.getVoteCount(POLL));
+        vote(POLL, 3, 10);
+        assertEquals(3, PhasingVote.getVoteCount(POLL));
+        assertEquals(3, getLatestCount(POLL));
+        // without a count left, the votes are counted again
+        rollback(9);
+        assertEquals(-1, getLatestCount(POLL));
+        assertEquals(2, PhasingVote.getVoteCount(POLL));
+        vote(POLL, 3, 10);
+        assertEquals(3, PhasingVote.getVoteCount(POLL));
+    }
+
+    public void testVotesIncrementTheCount() throws SQLException {
+        vote(POLL, 1, 10);
+        vote(POLL, 2, 12);
+        vote(POLL, 3, 15);
+        assertEquals(3, PhasingVote.getVoteCount(POLL));
+        // a voter only counts once
+        vote(POLL, 2, 16);
+        assertEquals(3, PhasingVote.getVoteCount(POLL));
+        vote(OTHER_POLL, 2, 16);
+        assertEquals(1, PhasingVote.getVoteCount(OTHER_POLL));
+        assertEquals(3, PhasingVote.getVoteCount(POLL));
+    }
+
+    public void testRollbackRestoresTheCount() throws SQLException {
+        vote(POLL, 1, 10);
+        vote(POLL, 2, 12);
+        vote(POLL, 3, 15);
+        rollback(12);
+        assertEquals(2, PhasingVote.getVoteCount(POLL));
+        assertEquals(2, getLatestCount(POLL));
+        vote(POLL, 4, 13);
+        assertEquals(3, PhasingVote.getVoteCount(POLL));
+        vote(POLL, 3, 14);
+        assertEquals(4, PhasingVote.getVoteCount(POLL));
+    }
+
+    public void testPollTrimDeletesTheCount() throws SQLException {
+        insertPoll(POLL, 20);
+        insertPoll(OTHER_POLL, 40);
+        vote(POLL, 1, 10);
+        vote(OTHER_POLL, 1, 10);
+        vote(POLL, 2, 12);
+        vote(OTHER_POLL, 2, 12);
+        vote(OTHER_POLL, 3, 15);
+        trim("phasing_vote_count", 30);
+        // only the latest count of each poll is left
+        assertEquals(2, H2TestSupport.queryInt(db, "SELECT COUNT(*) FROM phasing_vote_count", 0));
+        assertEquals(2, PhasingVote.getVoteCount(POLL));
+        assertEquals(3, PhasingVote.getVoteCount(OTHER_POLL));
+        trim("phasing_poll", 30);
+        assertEquals(-1, getLatestCount(POLL));
+        assertEquals(0, PhasingVote.getVoteCount(POLL));
+        assertEquals(3, PhasingVote.getVoteCount(OTHER_POLL));
+    }
+
+    private void vote(long poll, long voterId, int height) {
+        setHeight(height);
+        db.beginTransaction();
+        try {
+            PhasingVote.addVote(voterId * 100 + height, voterId, poll);
+            db.commitTransaction();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void rollback(int height) {
+        db.beginTransaction();
+        try {
+            getTable("phasing_vote").rollback(height);
+            getTable("phasing_vote_count").rollback(height);
+            db.commitTransaction();
+        } finally {
+            db.endTransaction();
+        }
+        setHeight(height);
+    }
+
+    private void trim(String name, int height) {
+        DerivedH2Table table = getTable(name);
+        setHeight(height + 1);
+        do {
+            db.beginTransaction();
+            try {
+                table.trim(height);
+                db.commitTransaction();
+            } finally {
+                db.endTransaction();
+            }
+        } while (table.isTrimPending());
+    }
+
+    private static DerivedH2Table getTable(String name) {
+        for (DerivedH2Table table : EcBlockchainProcessorImpl.getInstance().getDerivedTables()) {
+            if (table.toString().equals(name)) {
+                return table;
+            }
+        }
+        throw new IllegalStateException("Table " + name + " not registered");
+    }
+
+    private static void setHeight(int height) {
+        EcBlockchainImpl.getInstance().setLastBlock(new EcBlockImpl(1, 0, 0, 0, 0, 0, new byte[32], 1, new byte[64], new byte[64],
+                new byte[32], BigInteger.ZERO, 0, 0, height, height, Collections.emptyList()));
+    }
+
+    private void insertVote(long voterId, int height) throws SQLException {
+        try (Connection con = db.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("INSERT INTO phasing_vote (vote_id, transaction_id, voter_id, height) "
+                     + "VALUES (?, ?, ?, ?)")) {
+            pstmt.setLong(1, voterId * 100 + height);
+            pstmt.setLong(2, POLL);
+            pstmt.setLong(3, voterId);
+            pstmt.setInt(4, height);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private void insertPoll(long id, int finishHeight) throws SQLException {
+        try (Connection con = db.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("INSERT INTO phasing_poll (Id, account_id, finish_height, "
+                     + "voting_model, quorum, min_balance, holding_id, min_balance_model, height) VALUES (?, 1, ?, 0, 1, 0, 0, 0, 1)")) {
+            pstmt.setLong(1, id);
+            pstmt.setInt(2, finishHeight);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private int getLatestCount(long poll) throws SQLException {
+        return H2TestSupport.queryInt(db, "SELECT vote_count FROM phasing_vote_count WHERE transaction_id = " + poll
+                + " AND latest = TRUE", -1);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.common.core.Constants;
+import junit.framework.TestCase;
+
+public class PollTallyTest extends TestCase {
+
+    private static final byte[][] VOTES = {
+            {1, 0, Constants.EC_NO_VOTE_VALUE},
+            {Constants.EC_NO_VOTE_VALUE, 2, 1},
+            {3, Constants.EC_NO_VOTE_VALUE, Constants.EC_NO_VOTE_VALUE},
+            {0, 1, 2}
+    };
+
+    private static final long[] WEIGHTS = {5, 1, 2, 10};
+
+    public void testIncrementalTallyMatchesFullCount() {
+        Poll.Tally full = new Poll.Tally(1, 10, 3);
+        for (int i = 0; i < VOTES.length; i++) {
+            full.addVote(VOTES[i], WEIGHTS[i]);
+        }
+        Poll.Tally running = new Poll.Tally(1, 10, 3);
+        running.addVote(VOTES[0], WEIGHTS[0]);
+        running = running.next(2, 11);
+        running.addVote(VOTES[1], WEIGHTS[1]);
+        running = running.next(3, 12);
+        running.addVote(VOTES[2], WEIGHTS[2]);
+        running.addVote(VOTES[3], WEIGHTS[3]);
+        assertResults(full.copyResults(), running.copyResults());
+        Poll.OptionResult[] results = running.copyResults();
+        assertEquals(5 + 6, results[0].getResult());
+        assertEquals(5 + 2 + 10, results[0].getWeight());
+        assertEquals(2 + 10, results[1].getResult());
+        assertEquals(5 + 1 + 10, results[1].getWeight());
+        assertEquals(1 + 20, results[2].getResult());
+        assertEquals(1 + 10, results[2].getWeight());
+    }
+
+    public void testNextTallyDoesNotChangeSharedTally() {
+        Poll.Tally shared = new Poll.Tally(1, 10, 3);
+        shared.addVote(VOTES[0], WEIGHTS[0]);
+        Poll.Tally next = shared.next(2, 11);
+        next.addVote(VOTES[3], WEIGHTS[3]);
+        Poll.OptionResult[] results = shared.copyResults();
+        assertEquals(5, results[0].getResult());
+        assertEquals(5, results[0].getWeight());
+        assertNull(results[2]);
+    }
+
+    public void testOptionsWithoutVotesHaveNoResult() {
+        Poll.Tally tally = new Poll.Tally(1, 10, 3);
+        tally.addVote(VOTES[2], WEIGHTS[2]);
+        Poll.OptionResult[] results = tally.copyResults();
+        assertEquals(6, results[0].getResult());
+        assertNull(results[1]);
+        assertNull(results[2]);
+    }
+
+    private static void assertResults(Poll.OptionResult[] expected, Poll.OptionResult[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i] == null, actual[i] == null);
+            if (expected[i] != null) {
+                assertEquals(expected[i].getResult(), actual[i].getResult());
+                assertEquals(expected[i].getWeight(), actual[i].getWeight());
+            }
+        }
+    }
+
+}
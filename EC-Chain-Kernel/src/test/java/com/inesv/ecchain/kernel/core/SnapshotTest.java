@@ -0,0 +1,114 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.kernel.H2.H2TestSupport;
+import com.inesv.ecchain.kernel.H2.TransactionalH2;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+public class SnapshotTest extends TestCase {
+
+    private static final String BALANCE = "CREATE TABLE IF NOT EXISTS balance (db_id IDENTITY, id BIGINT NOT NULL, "
+            + "balance BIGINT NOT NULL, unconfirmed_balance BIGINT NOT NULL, height INT NOT NULL, "
+            + "latest BOOLEAN NOT NULL DEFAULT TRUE)";
+
+    private static final String BALANCE_LOG = "CREATE TABLE IF NOT EXISTS balance_log (db_id IDENTITY, id BIGINT NOT NULL, "
+            + "amount BIGINT NOT NULL, height INT NOT NULL)";
+
+    private static final int HEIGHT = 2000;
+
+    private static final int TRIM_HEIGHT = HEIGHT - Snapshot.STATE_HASH_BLOCKS;
+
+    private TransactionalH2 untrimmed;
+    private TransactionalH2 trimmed;
+
+    @Override
+    protected void setUp() throws Exception {
+        untrimmed = createDatabase();
+        trimmed = createDatabase();
+        // the other node trimmed its tables and has an unconfirmed transaction of account 1
+        execute(trimmed, "DELETE FROM balance WHERE latest = FALSE AND height < " + TRIM_HEIGHT);
+        execute(trimmed, "DELETE FROM balance_log WHERE height < " + (TRIM_HEIGHT - 100));
+        execute(trimmed, "UPDATE balance SET unconfirmed_balance = unconfirmed_balance - 5 WHERE id = 1 AND latest = TRUE");
+    }
+
+    @Override
+    protected void tearDown() {
+        untrimmed.shutdown();
+        trimmed.shutdown();
+    }
+
+    public void testTrimmedTablesHaveTheSameStateHash() throws Exception {
+        assertTrue(Arrays.equals(stateHash(untrimmed), stateHash(trimmed)));
+    }
+
+    public void testLatestRowsAreHashed() throws Exception {
+        execute(trimmed, "UPDATE balance SET balance = balance + 1 WHERE id = 2 AND latest = TRUE");
+        assertFalse(Arrays.equals(stateHash(untrimmed), stateHash(trimmed)));
+    }
+
+    public void testRowsAboveTheTrimHeightAreHashed() throws Exception {
+        execute(trimmed, "DELETE FROM balance_log WHERE height = " + (HEIGHT - 10));
+        assertFalse(Arrays.equals(stateHash(untrimmed), stateHash(trimmed)));
+    }
+
+    public void testAllRowsOfUntrimmedTablesAreHashed() throws Exception {
+        assertFalse(Arrays.equals(stateHash(untrimmed, Integer.MIN_VALUE), stateHash(trimmed, Integer.MIN_VALUE)));
+    }
+
+    private static TransactionalH2 createDatabase() throws SQLException {
+        TransactionalH2 db = H2TestSupport.createDatabase(BALANCE, BALANCE_LOG);
+        try (Connection con = db.getConnection();
+             PreparedStatement pstmtUpdate = con.prepareStatement("UPDATE balance SET latest = FALSE WHERE id = ? AND latest = TRUE");
+             PreparedStatement pstmtBalance = con.prepareStatement("INSERT INTO balance (id, balance, unconfirmed_balance, height) "
+                     + "VALUES (?, ?, ?, ?)");
+             PreparedStatement pstmtLog = con.prepareStatement("INSERT INTO balance_log (id, amount, height) VALUES (?, ?, ?)")) {
+            for (int height = 0; height <= HEIGHT; height += 10) {
+                long id = height % 3 + 1;
+                pstmtUpdate.setLong(1, id);
+                pstmtUpdate.executeUpdate();
+                pstmtBalance.setLong(1, id);
+                pstmtBalance.setLong(2, height);
+                pstmtBalance.setLong(3, height);
+                pstmtBalance.setInt(4, height);
+                pstmtBalance.executeUpdate();
+                pstmtLog.setLong(1, id);
+                pstmtLog.setLong(2, height);
+                pstmtLog.setInt(3, height);
+                pstmtLog.executeUpdate();
+            }
+        }
+        return db;
+    }
+
+    private static byte[] stateHash(TransactionalH2 db) throws IOException, SQLException, NoSuchAlgorithmException {
+        return stateHash(db, TRIM_HEIGHT);
+    }
+
+    private static byte[] stateHash(TransactionalH2 db, int minHashHeight) throws IOException, SQLException, NoSuchAlgorithmException {
+        MessageDigest stateDigest = MessageDigest.getInstance("SHA-256");
+        try (Connection con = db.getConnection();
+             DataOutputStream out = new DataOutputStream(new ByteArrayOutputStream())) {
+            Snapshot.exportTable(con, "balance", out, stateDigest, minHashHeight);
+            Snapshot.exportTable(con, "balance_log", out, stateDigest, minHashHeight);
+        }
+        return stateDigest.digest();
+    }
+
+    private static void execute(TransactionalH2 db, String sql) throws SQLException {
+        try (Connection con = db.getConnection();
+             Statement stmt = con.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.inesv.ecchain.kernel.core;
+
+import com.inesv.ecchain.kernel.H2.H2TestSupport;
+import com.inesv.ecchain.kernel.H2.TransactionalH2;
+import junit.framework.TestCase;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+public class VoterBalancesTest extends TestCase {
+
+    private static final String VOTE = "CREATE TABLE IF NOT EXISTS vote (db_id IDENTITY, poll_id BIGINT NOT NULL, "
+            + "voter_id BIGINT NOT NULL, height INT NOT NULL)";
+
+    private static final String PHASING_VOTE = "CREATE TABLE IF NOT EXISTS phasing_vote (db_id IDENTITY, "
+            + "transaction_id BIGINT NOT NULL, voter_id BIGINT NOT NULL, height INT NOT NULL)";
+
+    private static final String ACCOUNT = "CREATE TABLE IF NOT EXISTS account (db_id IDENTITY, id BIGINT NOT NULL, "
+            + "balance BIGINT NOT NULL, height INT NOT NULL, latest BOOLEAN NOT NULL DEFAULT TRUE)";
+
+    private static final String ACCOUNT_ASSET = "CREATE TABLE IF NOT EXISTS account_asset (db_id IDENTITY, "
+            + "account_id BIGINT NOT NULL, asset_id BIGINT NOT NULL, quantity BIGINT NOT NULL, height INT NOT NULL, "
+            + "latest BOOLEAN NOT NULL DEFAULT TRUE)";
+
+    private static final long ASSET = 7;
+
+    private TransactionalH2 db;
+
+    @Override
+    protected void setUp() throws Exception {
+        db = H2TestSupport.createDatabase(VOTE, PHASING_VOTE, ACCOUNT, ACCOUNT_ASSET);
+        // accounts 1, 2 and 3 vote in poll 1, account 4 only in poll 2; account 3 has no balance
+        execute("INSERT INTO vote (poll_id, voter_id, height) VALUES (1, 1, 10), (1, 2, 10), (1, 3, 11), (2, 4, 11)");
+        execute("INSERT INTO account (id, balance, height, latest) VALUES (1, 100, 10, FALSE), (1, 150, 20, TRUE), "
+                + "(2, 50, 15, TRUE), (4, 1000, 5, TRUE)");
+        execute("INSERT INTO account_asset (account_id, asset_id, quantity, height, latest) VALUES (1, 7, 30, 11, TRUE), "
+                + "(1, 8, 99, 11, TRUE), (2, 7, 5, 10, FALSE), (2, 7, 6, 18, TRUE)");
+    }
+
+    @Override
+    protected void tearDown() {
+        db.shutdown();
+    }
+
+    public void testLatestBalances() throws SQLException {
+        assertEquals(balances(1, 150, 2, 50), getVoterBalances(new TestPoll(1, "vote", "poll_id"), Integer.MAX_VALUE));
+    }
+
+    public void testBalancesAtHeight() throws SQLException {
+        assertEquals(balances(1, 100), getVoterBalances(new TestPoll(1, "vote", "poll_id"), 12));
+        assertEquals(balances(1, 100, 2, 50), getVoterBalances(new TestPoll(1, "vote", "poll_id"), 19));
+        assertEquals(balances(1, 150, 2, 50), getVoterBalances(new TestPoll(1, "vote", "poll_id"), 20));
+        assertEquals(balances(), getVoterBalances(new TestPoll(1, "vote", "poll_id"), 9));
+    }
+
+    public void testDeletedAccountHasNoBalance() throws SQLException {
+        execute("UPDATE account SET latest = FALSE WHERE id = 2");
+        assertEquals(balances(1, 150), getVoterBalances(new TestPoll(1, "vote", "poll_id"), Integer.MAX_VALUE));
+        assertEquals(balances(1, 100), getVoterBalances(new TestPoll(1, "vote", "poll_id"), 16));
+    }
+
+    public void testHoldingBalances() throws SQLException {
+        assertEquals(balances(1, 30, 2, 6), getVoterAssetBalances(new TestPoll(1, "vote", "poll_id"), Integer.MAX_VALUE));
+        assertEquals(balances(1, 30, 2, 5), getVoterAssetBalances(new TestPoll(1, "vote", "poll_id"), 12));
+        assertEquals(balances(), getVoterAssetBalances(new TestPoll(2, "vote", "poll_id"), Integer.MAX_VALUE));
+    }
+
+    public void testPhasingPollBalances() throws SQLException {
+        execute("INSERT INTO phasing_vote (transaction_id, voter_id, height) VALUES (1, 2, 16), (1, 4, 16), (2, 1, 16)");
+        assertEquals(balances(2, 50, 4, 1000), getVoterBalances(new TestPoll(1, "phasing_vote", "transaction_id"), Integer.MAX_VALUE));
+        assertEquals(balances(1, 100), getVoterBalances(new TestPoll(2, "phasing_vote", "transaction_id"), 16));
+    }
+
+    private Map<Long, Long> getVoterBalances(AbstractVote poll, int height) throws SQLException {
+        try (Connection con = db.getConnection()) {
+            return poll.getVoterBalances(con, "account", "id", "balance", null, 0, height);
+        }
+    }
+
+    private Map<Long, Long> getVoterAssetBalances(AbstractVote poll, int height) throws SQLException {
+        try (Connection con = db.getConnection()) {
+            return poll.getVoterBalances(con, "account_asset", "account_id", "quantity", "asset_id", ASSET, height);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection con = db.getConnection();
+             Statement stmt = con.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private static Map<Long, Long> balances(long... idsAndBalances) {
+        Map<Long, Long> balances = new HashMap<>();
+        for (int i = 0; i < idsAndBalances.length; i += 2) {
+            balances.put(idsAndBalances[i], idsAndBalances[i + 1]);
+        }
+        return balances;
+    }
+
+    private static final class TestPoll extends AbstractVote {
+
+        private final String voteTable;
+        private final String votePollColumn;
+
+        private TestPoll(long id, String voteTable, String votePollColumn) {
+            super(id, 0, Integer.MAX_VALUE, new VoteWeighting((byte) 1, 0, 0, (byte) 0));
+            this.voteTable = voteTable;
+            this.votePollColumn = votePollColumn;
+        }
+
+        @Override
+        String getVoteTable() {
+            return voteTable;
+        }
+
+        @Override
+        String getVotePollColumn() {
+            return votePollColumn;
+        }
+
+    }
+
+}
@@ -99,6 +99,7 @@ public class EcInit {
             ShufflingParticipant.start();
             PrunableMessage.start();
             BadgeData.start();
+            BlobStore.start();
             FxtDistribution.start();//添加FxtDistribution监听器 初始化FxtDistribution对象
             Peers.start();//获取对等点地址（疑：获取获取地址非从数据库获取） 添加runBeforeStart线程、runAfterStart线程 分享地址 添加监听器（获取地址）
             APIProxy.start();//代理初始化 获取不转发请求的集合 添加peersUpdateThread线程（建立连接）
@@ -6,6 +6,7 @@ import com.inesv.ecchain.common.util.ThreadPool;
 import com.inesv.ecchain.kernel.core.PlugIns;
 import com.inesv.ecchain.kernel.core.EcBlockchainProcessorImpl;
 import com.inesv.ecchain.kernel.core.H2;
+import com.inesv.ecchain.kernel.core.TransactionProcessorImpl;
 import com.inesv.ecchain.kernel.core.FundMonitoring;
 import com.inesv.ecchain.kernel.http.API;
 import com.inesv.ecchain.kernel.peer.Peers;
@@ -22,6 +23,7 @@ public class EcShutdown {
         FundMonitoring.shutdown();
         ThreadPool.shutdown();
         EcBlockchainProcessorImpl.getInstance().shutdown();
+        TransactionProcessorImpl.getInstance().shutdown();
         Peers.shutdown();
         H2.shutdown();
         LoggerUtil.logInfo("Ec server " + Constants.EC_VERSION + " stopped.");
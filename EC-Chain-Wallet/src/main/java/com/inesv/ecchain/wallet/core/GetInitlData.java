@@ -33,22 +33,19 @@ public final class GetInitlData extends UserRequestHandler {
         JSONArray activePeers = new JSONArray(), knownPeers = new JSONArray(), blacklistedPeers = new JSONArray();
         JSONArray recentBlocks = new JSONArray();
 
-        try (H2Iterator<? extends Transaction> transactions = TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions()) {
-            while (transactions.hasNext()) {
-                Transaction transaction = transactions.next();
-
-                JSONObject unconfirmedTransaction = new JSONObject();
-                unconfirmedTransaction.put("index", Users.getIndex(transaction));
-                unconfirmedTransaction.put("timestamp", transaction.getTimestamp());
-                unconfirmedTransaction.put("deadline", transaction.getDeadline());
-                unconfirmedTransaction.put("recipient", Long.toUnsignedString(transaction.getRecipientId()));
-                unconfirmedTransaction.put("amountNQT", transaction.getAmountNQT());
-                unconfirmedTransaction.put("feeNQT", transaction.getFeeNQT());
-                unconfirmedTransaction.put("sender", Long.toUnsignedString(transaction.getSenderId()));
-                unconfirmedTransaction.put("id", transaction.getStringId());
-
-                unconfirmedTransactions.add(unconfirmedTransaction);
-            }
+        for (Transaction transaction : TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions()) {
+
+            JSONObject unconfirmedTransaction = new JSONObject();
+            unconfirmedTransaction.put("index", Users.getIndex(transaction));
+            unconfirmedTransaction.put("timestamp", transaction.getTimestamp());
+            unconfirmedTransaction.put("deadline", transaction.getDeadline());
+            unconfirmedTransaction.put("recipient", Long.toUnsignedString(transaction.getRecipientId()));
+            unconfirmedTransaction.put("amountNQT", transaction.getAmountNQT());
+            unconfirmedTransaction.put("feeNQT", transaction.getFeeNQT());
+            unconfirmedTransaction.put("sender", Long.toUnsignedString(transaction.getSenderId()));
+            unconfirmedTransaction.put("id", transaction.getStringId());
+
+            unconfirmedTransactions.add(unconfirmedTransaction);
         }
 
         for (Peer peer : Peers.getAllPeers()) {
@@ -75,41 +75,38 @@ public final class UnlockForAccount extends UserRequestHandler {
 
             JSONArray myTransactions = new JSONArray();
             byte[] accountPublicKey = Account.getPublicKey(accountId);
-            try (H2Iterator<? extends Transaction> transactions = TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions()) {
-                while (transactions.hasNext()) {
-                    Transaction transaction = transactions.next();
-                    if (Arrays.equals(transaction.getSenderPublicKey(), accountPublicKey)) {
-
-                        JSONObject myTransaction = new JSONObject();
-                        myTransaction.put("index", Users.getIndex(transaction));
-                        myTransaction.put("transactionTimestamp", transaction.getTimestamp());
-                        myTransaction.put("deadline", transaction.getDeadline());
-                        myTransaction.put("account", Long.toUnsignedString(transaction.getRecipientId()));
-                        myTransaction.put("sentAmountNQT", transaction.getAmountNQT());
-                        if (accountId == transaction.getRecipientId()) {
-                            myTransaction.put("receivedAmountNQT", transaction.getAmountNQT());
-                        }
-                        myTransaction.put("feeNQT", transaction.getFeeNQT());
-                        myTransaction.put("numberOfConfirmations", -1);
-                        myTransaction.put("id", transaction.getStringId());
+            for (Transaction transaction : TransactionProcessorImpl.getInstance().getAllUnconfirmedTransactions()) {
+                if (Arrays.equals(transaction.getSenderPublicKey(), accountPublicKey)) {
+
+                    JSONObject myTransaction = new JSONObject();
+                    myTransaction.put("index", Users.getIndex(transaction));
+                    myTransaction.put("transactionTimestamp", transaction.getTimestamp());
+                    myTransaction.put("deadline", transaction.getDeadline());
+                    myTransaction.put("account", Long.toUnsignedString(transaction.getRecipientId()));
+                    myTransaction.put("sentAmountNQT", transaction.getAmountNQT());
+                    if (accountId == transaction.getRecipientId()) {
+                        myTransaction.put("receivedAmountNQT", transaction.getAmountNQT());
+                    }
+                    myTransaction.put("feeNQT", transaction.getFeeNQT());
+                    myTransaction.put("numberOfConfirmations", -1);
+                    myTransaction.put("id", transaction.getStringId());
 
-                        myTransactions.add(myTransaction);
+                    myTransactions.add(myTransaction);
 
-                    } else if (accountId == transaction.getRecipientId()) {
+                } else if (accountId == transaction.getRecipientId()) {
 
-                        JSONObject myTransaction = new JSONObject();
-                        myTransaction.put("index", Users.getIndex(transaction));
-                        myTransaction.put("transactionTimestamp", transaction.getTimestamp());
-                        myTransaction.put("deadline", transaction.getDeadline());
-                        myTransaction.put("account", Long.toUnsignedString(transaction.getSenderId()));
-                        myTransaction.put("receivedAmountNQT", transaction.getAmountNQT());
-                        myTransaction.put("feeNQT", transaction.getFeeNQT());
-                        myTransaction.put("numberOfConfirmations", -1);
-                        myTransaction.put("id", transaction.getStringId());
+                    JSONObject myTransaction = new JSONObject();
+                    myTransaction.put("index", Users.getIndex(transaction));
+                    myTransaction.put("transactionTimestamp", transaction.getTimestamp());
+                    myTransaction.put("deadline", transaction.getDeadline());
+                    myTransaction.put("account", Long.toUnsignedString(transaction.getSenderId()));
+                    myTransaction.put("receivedAmountNQT", transaction.getAmountNQT());
+                    myTransaction.put("feeNQT", transaction.getFeeNQT());
+                    myTransaction.put("numberOfConfirmations", -1);
+                    myTransaction.put("id", transaction.getStringId());
 
-                        myTransactions.add(myTransaction);
+                    myTransactions.add(myTransaction);
 
-                    }
                 }
             }
 